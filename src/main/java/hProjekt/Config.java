@@ -1,11 +1,20 @@
 package hProjekt;
 
+import java.net.InetAddress;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.List;
 import java.util.Random;
+import java.util.Set;
 
 import hProjekt.controller.AiControllerFactory;
 import hProjekt.controller.BasicAiController;
+import hProjekt.controller.ai.InformationGainAiController;
+import hProjekt.controller.ai.LearnedAiController;
+import hProjekt.controller.ai.MctsAiController;
+import hProjekt.controller.ai.SearchBudget;
+import hProjekt.controller.analytics.GameEventExporter;
+import javafx.scene.paint.Color;
 
 public class Config {
     /**
@@ -35,6 +44,14 @@ public class Config {
      */
     public static final int MAX_GOLD_CARD_VALUE = 6;
 
+    /**
+     * The colors of the treasure trails in the order the game state creates
+     * them. Wherever a trail has to be referenced by a number (e.g. in binary
+     * encodings), its index in this list is used.
+     */
+    public static final List<Color> TREASURE_TRAIL_COLORS = List.of(Color.GRAY, Color.BROWN, Color.BLACK,
+            Color.WHITE);
+
     /**
      * The minimum required number of players in a game.
      */
@@ -72,7 +89,13 @@ public class Config {
      * @see AiControllerFactory
      */
     public enum AvailableAiControllers {
-        DEFAULT(BasicAiController::new);
+        DEFAULT(BasicAiController::new),
+        EASY(MctsAiController.withBudget(SearchBudget.EASY)),
+        MEDIUM(MctsAiController.withBudget(SearchBudget.MEDIUM)),
+        HARD(MctsAiController.withBudget(SearchBudget.HARD)),
+        MCTS(MctsAiController::new),
+        INFORMATION_GAIN(InformationGainAiController::new),
+        LEARNED(LearnedAiController::new);
 
         /**
          * The factory to create instances of the AI controller.
@@ -105,4 +128,120 @@ public class Config {
      * The path where the leaderboard CSV file is stored.
      */
     public static final Path CSV_PATH = Paths.get("src/main/resources/leaderboard.csv");
+
+    /**
+     * The port remote players and spectators connect to, see
+     * {@code hProjekt.controller.network.GameServer}.
+     */
+    public static final int GAME_SERVER_PORT = 47100;
+
+    /**
+     * The address the game server listens on. Only clients on this machine can
+     * connect to the loopback address.
+     */
+    public static final InetAddress GAME_SERVER_ADDRESS = InetAddress.getLoopbackAddress();
+
+    /**
+     * Whether the games started in the setup menu are served to remote players
+     * and spectators.
+     */
+    public static final boolean SERVE_GAMES = false;
+
+    /**
+     * The ids of the players remote clients may play in a served game. All other
+     * players can only be spectated.
+     */
+    public static final Set<Integer> REMOTE_PLAYER_IDS = Set.of();
+
+    /**
+     * The directory where the action logs of played games are stored.
+     */
+    public static final Path GAME_LOGS_PATH = Paths.get("src/main/resources/gamelogs");
+
+    /**
+     * The directory where suspended games are saved.
+     */
+    public static final Path SAVED_GAMES_PATH = Paths.get("src/main/resources/saves");
+
+    /**
+     * The directory where the events of played games are exported to for
+     * analytics.
+     */
+    public static final Path EVENT_EXPORT_PATH = Paths.get("src/main/resources/events");
+
+    /**
+     * The format the events of played games are exported in.
+     */
+    public static final GameEventExporter.Format EVENT_EXPORT_FORMAT = GameEventExporter.Format.NDJSON;
+
+    /**
+     * The directory of the archive of the results of finished games with AI
+     * players, see {@code hProjekt.controller.analytics.ResultArchive}.
+     */
+    public static final Path RESULTS_ARCHIVE_PATH = Paths.get("src/main/resources/results");
+
+    /**
+     * The number of entries of the transposition table shared by all AI
+     * controllers. Each entry takes 16 bytes.
+     */
+    public static final int TRANSPOSITION_TABLE_ENTRIES = 1 << 20;
+
+    /**
+     * The time in milliseconds a searching AI controller may think about a
+     * single turn.
+     */
+    public static final long AI_MOVE_TIME_BUDGET_MILLIS = 500;
+
+    /**
+     * The time in milliseconds an AI controller may take for a decision with a
+     * single sensible action, like accepting a curse.
+     */
+    public static final long AI_QUICK_DECISION_MILLIS = 20;
+
+    /**
+     * The time in milliseconds an AI controller may take for a step of a drive
+     * or for choosing a tile.
+     */
+    public static final long AI_DRIVE_DECISION_MILLIS = 100;
+
+    /**
+     * The number of threads the AI scheduler runs decisions on.
+     */
+    public static final int AI_SCHEDULER_THREADS = 2;
+
+    /**
+     * Whether AI controllers think about their next turn while the other
+     * players act.
+     */
+    public static final boolean AI_PONDERING = true;
+
+    /**
+     * The number of threads the AI controllers ponder on.
+     */
+    public static final int AI_PONDER_THREADS = 1;
+
+    /**
+     * The path the latency histograms of the AI decisions of every finished game
+     * are appended to.
+     */
+    public static final Path AI_LATENCY_PATH = Paths.get("src/main/resources/ai-latency.csv");
+
+    /**
+     * The classpath resource of the evaluation weights the learned AI
+     * controller ships with.
+     */
+    public static final String AI_WEIGHTS_RESOURCE = "/ai/evaluation-weights.txt";
+
+    /**
+     * The path of the evaluation weights written by
+     * {@code hProjekt.controller.ai.training.TrainingPipeline}. If the file
+     * exists, it overrides {@link #AI_WEIGHTS_RESOURCE}.
+     */
+    public static final Path AI_WEIGHTS_PATH = Paths.get("src/main/resources/ai/evaluation-weights.txt");
+
+    /**
+     * The path where the ratings of the AI controllers are stored, see
+     * {@code hProjekt.controller.rating.RatingService}.
+     */
+    public static final Path AI_RATINGS_PATH = Paths.get("src/main/resources/ai/ratings.txt");
 }
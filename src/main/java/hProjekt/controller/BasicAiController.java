@@ -12,6 +12,7 @@ import hProjekt.controller.actions.PlayPathCard;
 import hProjekt.controller.actions.PlayerAction;
 import hProjekt.controller.actions.SelectPosition;
 import hProjekt.controller.actions.StartDrive;
+import hProjekt.controller.ai.StartPositions;
 import hProjekt.model.GameState;
 import hProjekt.model.cards.PathCard;
 import hProjekt.model.grid.HexGrid;
@@ -76,8 +77,7 @@ public class BasicAiController extends AiController {
             playerController.triggerAction(new AcceptCurse());
         }
         if (allowedActions.contains(SelectPosition.class)) {
-            playerController.triggerAction(new SelectPosition(
-                    hexGrid.getTiles().values().stream().findAny().orElseThrow().getPosition()));
+            playerController.triggerAction(new SelectPosition(StartPositions.choose(playerController)));
         }
         if (allowedActions.contains(CollectTreasure.class)
                 && !playerController.getPlayerState().collectableTreasures().isEmpty()) {
@@ -2,23 +2,35 @@ package hProjekt.controller;
 
 import java.util.ArrayList;
 import java.util.Comparator;
-import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Random;
+import java.util.Set;
 import java.util.Stack;
+import java.util.concurrent.CopyOnWriteArrayList;
 
+import org.jetbrains.annotations.Nullable;
 import org.tudalgo.algoutils.student.annotation.DoNotTouch;
 import org.tudalgo.algoutils.student.annotation.StudentImplementationRequired;
 
 import hProjekt.Config;
 import hProjekt.controller.actions.PlayerAction;
 import hProjekt.controller.actions.UseAmulet;
+import hProjekt.controller.analytics.GameEventExporter;
+import hProjekt.controller.analytics.ResultArchiveWriter;
+import hProjekt.controller.ai.AiScheduler;
+import hProjekt.controller.ai.ZobristTracker;
+import hProjekt.controller.network.GameServer;
+import hProjekt.controller.rating.RatingService;
+import hProjekt.controller.replay.GameLogRecorder;
 import hProjekt.model.GameState;
 import hProjekt.model.Player;
 import hProjekt.model.cards.CurseCard;
 import hProjekt.model.cards.GoldCard;
 import hProjekt.model.cards.PathCard;
 import hProjekt.model.cards.TreasureCard;
+import hProjekt.model.snapshot.PersistentGameState;
 import javafx.beans.property.IntegerProperty;
 import javafx.beans.property.Property;
 import javafx.beans.property.SimpleIntegerProperty;
@@ -48,23 +60,51 @@ import javafx.scene.paint.Color;
  */
 public class GameController {
     private final GameState state;
+    private final long seed;
+    private final Random random;
+
+    private volatile @Nullable String mapName;
+    private volatile Set<Integer> remotePlayerIds = Set.of();
 
     private final Map<Player, PlayerController> playerControllers;
     private final List<AiController> aiControllers = new ArrayList<>();
     private final IntegerProperty roundCounter = new SimpleIntegerProperty(0);
 
     private final Property<PlayerController> activePlayerController = new SimpleObjectProperty<>();
+    private final List<GameEventListener> gameEventListeners = new CopyOnWriteArrayList<>();
+    private final ZobristTracker zobristTracker = new ZobristTracker();
+    private final TreasureCollectionTracker treasureCollectionTracker = new TreasureCollectionTracker();
+
+    private volatile @Nullable TurnCheckpoint checkpoint;
+    private @Nullable TurnCheckpoint resumePoint;
+    private boolean checkpointsEnabled;
 
     private boolean stopped = false;
 
     /**
-     * Creates a new GameController with the given game state.
+     * Creates a new GameController with the given game state and a seed drawn
+     * from {@link Config#RANDOM}.
      *
      * @param state the game state
      */
     public GameController(final GameState state) {
+        this(state, Config.RANDOM.nextLong());
+    }
+
+    /**
+     * Creates a new GameController with the given game state and seed.
+     *
+     * @param state the game state
+     * @param seed  the seed of the game's random number generator
+     */
+    public GameController(final GameState state, final long seed) {
         this.state = state;
-        playerControllers = new HashMap<>();
+        this.seed = seed;
+        this.random = new Random(seed);
+        // Keep the turn order of the players stable so that games can be replayed
+        playerControllers = new LinkedHashMap<>();
+        gameEventListeners.add(zobristTracker);
+        gameEventListeners.add(treasureCollectionTracker);
     }
 
     /**
@@ -76,6 +116,68 @@ public class GameController {
         return state;
     }
 
+    /**
+     * Returns the name of the saved map the game is played on.
+     *
+     * @return the name of the map or {@code null} if the map wasn't loaded from
+     *         a saved map
+     */
+    public @Nullable String getMapName() {
+        return mapName;
+    }
+
+    /**
+     * Sets the name of the saved map the game is played on. It has to be set
+     * before the game starts. Games set up by the setup menu get it from their
+     * {@link GameSetup}.
+     *
+     * @param mapName the name of the map, can be null
+     */
+    public void setMapName(final @Nullable String mapName) {
+        this.mapName = mapName;
+    }
+
+    /**
+     * Returns the ids of the players remote clients may play when the game is
+     * served by a {@link GameServer}.
+     *
+     * @return the ids of the remote players
+     */
+    public Set<Integer> getRemotePlayerIds() {
+        return remotePlayerIds;
+    }
+
+    /**
+     * Sets the ids of the players remote clients may play when the game is
+     * served by a {@link GameServer}. It has to be set before the game starts.
+     * Games set up by the setup menu get them from their {@link GameSetup}.
+     *
+     * @param remotePlayerIds the ids of the remote players
+     */
+    public void setRemotePlayerIds(final Set<Integer> remotePlayerIds) {
+        this.remotePlayerIds = Set.copyOf(remotePlayerIds);
+    }
+
+    /**
+     * Returns the seed of the game's random number generator.
+     *
+     * @return the seed of the game
+     */
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * Returns the random number generator of the game. Every random decision
+     * made while the game runs is drawn from it, so a game with the same seed,
+     * setup and actions plays out the same way.
+     *
+     * @return the random number generator of the game
+     */
+    public Random getRandom() {
+        return random;
+    }
+
     /**
      * Returns a map from players to player controllers.
      *
@@ -112,6 +214,122 @@ public class GameController {
         return roundCounter;
     }
 
+    /**
+     * Returns the tracker that maintains the hash of the game state while the
+     * game is running.
+     *
+     * @return the tracker of the game state hash
+     */
+    public ZobristTracker getZobristTracker() {
+        return zobristTracker;
+    }
+
+    /**
+     * Returns the tracker that follows the treasure collection in progress.
+     *
+     * @return the tracker of the treasure collection
+     */
+    public TreasureCollectionTracker getTreasureCollectionTracker() {
+        return treasureCollectionTracker;
+    }
+
+    /**
+     * Returns the checkpoint captured at the start of the current turn. It can
+     * be read from any thread.
+     *
+     * @return the checkpoint of the current turn or {@code null} if the game
+     *         hasn't started yet or doesn't capture checkpoints
+     */
+    public @Nullable TurnCheckpoint getCheckpoint() {
+        return checkpoint;
+    }
+
+    /**
+     * Lets the game capture a {@link #getCheckpoint() checkpoint} at the start
+     * of every turn, so that it can be saved. Games with a human player do that
+     * anyway, since only they can be saved from the game board, so this is
+     * needed for games of AI players only. It has to be called before the game
+     * starts.
+     */
+    public void enableCheckpoints() {
+        checkpointsEnabled = true;
+    }
+
+    /**
+     * Lets the next {@link #startGame()} resume the game at the given
+     * checkpoint instead of starting from the beginning. The game state has to
+     * be the state of the checkpoint already.
+     *
+     * @param checkpoint the checkpoint to resume at
+     */
+    public void resumeFrom(final TurnCheckpoint checkpoint) {
+        this.checkpoint = checkpoint;
+        resumePoint = checkpoint;
+    }
+
+    /**
+     * Adds a listener that is notified about the progress of the game.
+     *
+     * @param listener the listener to add
+     */
+    public void addGameEventListener(final GameEventListener listener) {
+        gameEventListeners.add(listener);
+    }
+
+    /**
+     * Removes a listener added by
+     * {@link #addGameEventListener(GameEventListener)}.
+     *
+     * @param listener the listener to remove
+     */
+    public void removeGameEventListener(final GameEventListener listener) {
+        gameEventListeners.remove(listener);
+    }
+
+    /**
+     * Notifies all listeners that the given player controller waits for an
+     * action.
+     *
+     * @param pc the waiting player controller
+     */
+    void fireBeforeAction(final PlayerController pc) {
+        gameEventListeners.forEach(listener -> listener.beforeAction(pc));
+    }
+
+    /**
+     * Notifies all listeners that the given player controller is about to
+     * execute an action. Called by {@link PlayerAction#execute}, like the
+     * other notifications about actions.
+     *
+     * @param pc     the player controller executing the action
+     * @param action the action about to be executed
+     */
+    public void fireActionStart(final PlayerController pc, final PlayerAction action) {
+        gameEventListeners.forEach(listener -> listener.onActionStart(pc, action));
+    }
+
+    /**
+     * Notifies all listeners that an action of the given player controller was
+     * rejected while it was executed.
+     *
+     * @param pc     the player controller that tried to execute the action
+     * @param action the rejected action
+     */
+    public void fireActionRejected(final PlayerController pc, final PlayerAction action) {
+        gameEventListeners.forEach(listener -> listener.onActionRejected(pc, action));
+    }
+
+    /**
+     * Notifies all listeners that the given player controller executed an
+     * action.
+     *
+     * @param pc     the player controller that executed the action
+     * @param action the executed action
+     */
+    public void fireAfterAction(final PlayerController pc, final PlayerAction action) {
+        gameEventListeners.forEach(listener -> listener.afterAction(pc, action));
+    }
+
     /**
      * Stops the game and the Thread.
      */
@@ -135,7 +353,12 @@ public class GameController {
     }
 
     /**
-     * Starts the game and handles the game loop.
+     * Starts the game and handles the game loop. The {@link GameSetup} the
+     * setup menu attached to the grid of the state is applied first. Only games
+     * whose setup asks for it are served to remote clients by the
+     * {@link GameServer#SHARED game server} and {@link #addRecorders()
+     * recorded}; other games, like tests, replays and simulations, only report
+     * to the listeners added to them.
      *
      * @throws IllegalStateException if there are not enough players
      */
@@ -143,21 +366,94 @@ public class GameController {
         if (state.getPlayers().size() < Config.MIN_PLAYERS) {
             throw new IllegalStateException("Not enough players");
         }
+        final GameSetup setup = GameSetup.takeFrom(state);
+        if (setup != null) {
+            mapName = setup.mapName();
+            if (setup.resumePoint() != null) {
+                resumeFrom(setup.resumePoint());
+            }
+        }
         if (playerControllers.isEmpty()) {
             initPlayerControllers();
         }
+        if (aiControllers.size() < playerControllers.size()) {
+            checkpointsEnabled = true;
+        }
+        if (setup != null && setup.remotePlayerIds() != null) {
+            remotePlayerIds = setup.remotePlayerIds();
+            addGameEventListener(GameServer.SHARED);
+        }
+        if (setup != null && setup.recorded()) {
+            addRecorders();
+        }
 
+        gameEventListeners.forEach(listener -> listener.onGameStart(this));
+        try {
+            runGameLoop();
+        } finally {
+            gameEventListeners.forEach(listener -> listener.onGameEnd(this));
+        }
+    }
+
+    /**
+     * Adds the listeners that record a game played in the application. Games
+     * on a saved map are recorded to {@link Config#GAME_LOGS_PATH} and their
+     * events are exported to {@link Config#EVENT_EXPORT_PATH}. The decision
+     * latencies of AI players are exported to {@link Config#AI_LATENCY_PATH},
+     * and games with AI players are rated by the
+     * {@link RatingService#SHARED rating service} and their results are
+     * archived to {@link Config#RESULTS_ARCHIVE_PATH}.
+     */
+    private void addRecorders() {
+        if (mapName != null) {
+            final GameLogRecorder recorder = GameLogRecorder.createIn(Config.GAME_LOGS_PATH, mapName);
+            if (recorder != null) {
+                addGameEventListener(recorder);
+            }
+            if (Config.EVENT_EXPORT_FORMAT != GameEventExporter.Format.NONE) {
+                addGameEventListener(GameEventExporter.SHARED.newGame());
+            }
+        }
+        if (!aiControllers.isEmpty()) {
+            addGameEventListener(AiScheduler.SHARED);
+            addGameEventListener(RatingService.SHARED);
+            addGameEventListener(ResultArchiveWriter.SHARED);
+        }
+    }
+
+    /**
+     * Runs the rounds of the game until the treasure deck is empty and
+     * determines the winner. If checkpoints are enabled, one is captured before
+     * every turn. If the game is resumed, the turns before the {@link #resumeFrom(TurnCheckpoint)
+     * resume point} are skipped.
+     */
+    private void runGameLoop() {
+        final List<PlayerController> turnOrder = List.copyOf(playerControllers.values());
+        final TurnCheckpoint resume = resumePoint;
+        resumePoint = null;
         roundCounter.set(0);
 
-        for (final PlayerController pc : playerControllers.values()) {
-            pc.drawPathCards(playerControllers.size() == 2 ? Config.MAX_CARDS_IN_HAND_WITH_TWO_PLAYERS
-                    : Config.MAX_CARDS_IN_HAND);
-            withActivePlayer(pc, () -> pc.waitForNextAction(PlayerObjective.SELECT_POSITION));
+        if (resume == null || resume.objective() == PlayerObjective.SELECT_POSITION) {
+            for (int i = resume == null ? 0 : resume.playerIndex(); i < turnOrder.size(); i++) {
+                final PlayerController pc = turnOrder.get(i);
+                captureCheckpoint(i, PlayerObjective.SELECT_POSITION);
+                pc.drawPathCards(playerControllers.size() == 2 ? Config.MAX_CARDS_IN_HAND_WITH_TWO_PLAYERS
+                        : Config.MAX_CARDS_IN_HAND);
+                withActivePlayer(pc, () -> pc.waitForNextAction(PlayerObjective.SELECT_POSITION));
+            }
         }
 
-        while (!state.getTreasureDeck().isEmpty()) {
+        int firstPlayer = 0;
+        if (resume != null && resume.objective() == PlayerObjective.REGULAR_TURN) {
+            roundCounter.set(resume.round() - 1);
+            firstPlayer = resume.playerIndex();
+        }
+        // a round that was resumed in the middle is finished even if the deck ran out during it
+        while (firstPlayer > 0 || !state.getTreasureDeck().isEmpty()) {
             roundCounter.set(roundCounter.get() + 1);
-            for (final PlayerController pc : playerControllers.values()) {
+            for (int i = firstPlayer; i < turnOrder.size(); i++) {
+                final PlayerController pc = turnOrder.get(i);
+                captureCheckpoint(i, PlayerObjective.REGULAR_TURN);
                 pc.resetRoundVariables();
                 withActivePlayer(pc, () -> {
                     PlayerAction action;
@@ -166,6 +462,7 @@ public class GameController {
                     } while (action instanceof UseAmulet);
                 });
             }
+            firstPlayer = 0;
         }
 
         state.getWinnerProperty().setValue(state.getPlayers().stream()
@@ -173,6 +470,24 @@ public class GameController {
                 .get());
     }
 
+    /**
+     * Captures the checkpoint of the turn that is about to start. Capturing
+     * copies the deck and scans the whole grid, so games nobody can save, like
+     * rated or replayed games, skip it.
+     *
+     * @param playerIndex the index of the active player in turn order
+     * @param objective   the objective the player starts the turn with
+     */
+    private void captureCheckpoint(final int playerIndex, final PlayerObjective objective) {
+        if (!checkpointsEnabled) {
+            // a checkpoint the game was resumed from is outdated now
+            checkpoint = null;
+            return;
+        }
+        checkpoint = new TurnCheckpoint(roundCounter.get(), playerIndex, objective,
+                PersistentGameState.capture(state));
+    }
+
     /**
      * Handles the collection of the treasure for a given color of the treasure
      * trail.
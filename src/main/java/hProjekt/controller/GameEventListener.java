@@ -0,0 +1,77 @@
+package hProjekt.controller;
+
+import hProjekt.controller.actions.PlayerAction;
+
+/**
+ * Listens to the progress of a game run by a {@link GameController}.
+ * <p>
+ * All methods are called on the thread running
+ * {@link GameController#startGame()}, so they must not block.
+ *
+ * @see GameController#addGameEventListener(GameEventListener)
+ */
+public interface GameEventListener {
+
+    /**
+     * Called after the player controllers were created and before the first
+     * card is drawn.
+     *
+     * @param gameController the controller of the started game
+     */
+    default void onGameStart(final GameController gameController) {
+    }
+
+    /**
+     * Called after the state of a player was updated and before the player
+     * controller waits for the next action. Actions triggered here are executed
+     * immediately.
+     *
+     * @param playerController the player controller waiting for an action
+     */
+    default void beforeAction(final PlayerController playerController) {
+    }
+
+    /**
+     * Called after an allowed action was taken and right before it is executed.
+     * Actions that wait for further actions while they are executed, like
+     * {@link hProjekt.controller.actions.StartDrive}, are reported here before
+     * the actions they wait for, while {@link #afterAction(PlayerController,
+     * PlayerAction)} reports them after.
+     *
+     * @param playerController the player controller executing the action
+     * @param action           the action about to be executed
+     */
+    default void onActionStart(final PlayerController playerController, final PlayerAction action) {
+    }
+
+    /**
+     * Called when an action reported by {@link #onActionStart(PlayerController,
+     * PlayerAction)} was rejected as illegal while it was executed. The player
+     * controller waits for another action afterwards.
+     *
+     * @param playerController the player controller that tried to execute the
+     *                         action
+     * @param action           the rejected action
+     */
+    default void onActionRejected(final PlayerController playerController, final PlayerAction action) {
+    }
+
+    /**
+     * Called after an action was successfully executed. Actions that were
+     * rejected as illegal are not reported.
+     *
+     * @param playerController the player controller that executed the action
+     * @param action           the executed action
+     */
+    default void afterAction(final PlayerController playerController, final PlayerAction action) {
+    }
+
+    /**
+     * Called when the game loop exits, either because the game is over or
+     * because it was stopped or failed.
+     *
+     * @param gameController the controller of the ended game
+     */
+    default void onGameEnd(final GameController gameController) {
+    }
+}
@@ -0,0 +1,94 @@
+package hProjekt.controller;
+
+import java.util.Set;
+
+import org.jetbrains.annotations.Nullable;
+
+import hProjekt.controller.network.GameServer;
+import hProjekt.model.GameState;
+import hProjekt.model.grid.HexGrid;
+import hProjekt.model.grid.RasterHexGrid;
+
+/**
+ * What the setup menu decided about a game that its {@link GameState} doesn't
+ * hold: the saved map the game is played on, for a saved game the turn it
+ * resumes at and whether the game is served to remote clients.
+ * <p>
+ * The scene switcher creates the {@link GameController} of a game itself and
+ * only hands the state to the setup menu, so the setup travels to the
+ * controller with the grid the menu puts into the state. The menu
+ * {@link #attachTo(HexGrid) attaches} it to the grid it loaded and the
+ * controller takes it off again when the game starts.
+ *
+ * @param mapName     the name of the saved map or {@code null}
+ * @param resumePoint the checkpoint a saved game resumes at or {@code null} to
+ *                    play the game from the beginning
+ * @param recorded    whether the game is recorded like the games played in the
+ *                    application: logged, exported, rated and archived to the
+ *                    files configured in {@link hProjekt.Config}
+ * @param remotePlayerIds the ids of the players remote clients may play if the
+ *                        game is served by the {@link GameServer#SHARED game
+ *                        server} or {@code null} if it isn't served
+ */
+public record GameSetup(@Nullable String mapName, @Nullable TurnCheckpoint resumePoint, boolean recorded,
+        @Nullable Set<Integer> remotePlayerIds) {
+
+    /**
+     * Returns the setup of a game the application plays on a saved map, which
+     * is recorded.
+     *
+     * @param mapName the name of the map
+     * @return the setup
+     */
+    public static GameSetup recorded(final String mapName) {
+        return new GameSetup(mapName, null, true, null);
+    }
+
+    /**
+     * Returns this setup resuming a saved game at the given checkpoint.
+     *
+     * @param checkpoint the checkpoint to resume at
+     * @return the new setup
+     */
+    public GameSetup resumingAt(final TurnCheckpoint checkpoint) {
+        return new GameSetup(mapName, checkpoint, recorded, remotePlayerIds);
+    }
+
+    /**
+     * Returns this setup serving the game to remote clients. Spectators can
+     * watch every served game, but only the given players can be played
+     * remotely.
+     *
+     * @param remotePlayerIds the ids of the players remote clients may play
+     * @return the new setup
+     */
+    public GameSetup servedTo(final Set<Integer> remotePlayerIds) {
+        return new GameSetup(mapName, resumePoint, recorded, Set.copyOf(remotePlayerIds));
+    }
+
+    /**
+     * Attaches this setup to the grid of a game that wasn't started yet.
+     *
+     * @param grid the grid the game is played on, as loaded by
+     *             {@link MapSaveController#loadMap(String)}
+     * @throws IllegalArgumentException if the grid wasn't loaded from a map
+     *                                  file
+     */
+    public void attachTo(final HexGrid grid) {
+        if (!(grid instanceof final RasterHexGrid raster)) {
+            throw new IllegalArgumentException("Only grids loaded from a map file carry a setup");
+        }
+        raster.setGameSetup(this);
+    }
+
+    /**
+     * Takes the setup off the grid of the given state, so it is applied only
+     * once.
+     *
+     * @param state the state of the game
+     * @return the setup or {@code null} if the grid carries none
+     */
+    static @Nullable GameSetup takeFrom(final GameState state) {
+        return state.getGrid() instanceof final RasterHexGrid raster ? raster.takeGameSetup() : null;
+    }
+}
@@ -0,0 +1,156 @@
+package hProjekt.controller;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Locale;
+
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * A snapshot of the results of a {@link LeaderboardStore}, one array per
+ * column.
+ * <p>
+ * A result takes 17 bytes: the id of the player, whose name is stored once in
+ * {@link #names()}, the AI flag, the time in seconds and the score. Filtering
+ * and sorting work on these arrays and produce the order of the rows as an
+ * {@code int[]}, so a query over a million results creates no objects per
+ * result and can run on any thread. Only the rows that are shown are turned
+ * into {@link LeaderboardStore.Result}s.
+ * <p>
+ * The store only ever appends to the arrays, so a snapshot shares them and
+ * stays valid while new results arrive.
+ *
+ * @param size    the number of results
+ * @param names   the name of every player id
+ * @param players the player id of every result
+ * @param ais     whether the player of every result is an AI
+ * @param times   the time of every result in seconds since the epoch, read as
+ *                UTC
+ * @param scores  the score of every result
+ */
+public record LeaderboardColumns(int size, String[] names, int[] players, boolean[] ais, long[] times,
+        int[] scores) {
+
+    /**
+     * The format of the timestamps in the leaderboard.
+     */
+    public static final DateTimeFormatter TIMESTAMP_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    /**
+     * The columns results can be sorted by.
+     */
+    public enum SortKey {
+        PLAYER, AI, TIMESTAMP, SCORE
+    }
+
+    /**
+     * A filter of results. Results have to match every part that is set.
+     *
+     * @param playerName a part of the player name, ignoring case, or
+     *                   {@code null} for all players
+     * @param ai         {@code true} for AI players only, {@code false} for
+     *                   humans only or {@code null} for both
+     * @param from       the earliest time in seconds since the epoch, inclusive
+     * @param to         the latest time in seconds since the epoch, exclusive
+     */
+    public record Filter(@Nullable String playerName, @Nullable Boolean ai, long from, long to) {
+
+        /**
+         * The filter every result matches.
+         */
+        public static final Filter ALL = new Filter(null, null, Long.MIN_VALUE, Long.MAX_VALUE);
+    }
+
+    /**
+     * Returns a result.
+     *
+     * @param row the position of the result in the log
+     * @return the result
+     */
+    public LeaderboardStore.Result result(final int row) {
+        return new LeaderboardStore.Result(row, names[players[row]], ais[row], formatTime(times[row]), scores[row]);
+    }
+
+    /**
+     * Filters and sorts the results. Results with equal keys keep the order of
+     * the log.
+     *
+     * @param filter     the filter
+     * @param key        the column to sort by
+     * @param descending whether to sort from the largest to the smallest key
+     * @return the positions of the matching results in the sorted order
+     */
+    public int[] query(final Filter filter, final SortKey key, final boolean descending) {
+        final boolean[] playerMatches = new boolean[names.length];
+        final String part = filter.playerName() == null ? "" : filter.playerName().toLowerCase(Locale.ROOT);
+        for (int id = 0; id < names.length; id++) {
+            playerMatches[id] = names[id].toLowerCase(Locale.ROOT).contains(part);
+        }
+        final int[] playerRanks = key == SortKey.PLAYER ? playerRanks() : null;
+
+        // the key in the upper 33 bits and the row in the lower 31, so sorting the longs sorts the rows
+        final long[] keys = new long[size];
+        int count = 0;
+        for (int row = 0; row < size; row++) {
+            if (!playerMatches[players[row]] || filter.ai() != null && filter.ai() != ais[row]
+                    || times[row] < filter.from() || times[row] >= filter.to()) {
+                continue;
+            }
+            final long value = switch (key) {
+                case PLAYER -> playerRanks[players[row]];
+                case AI -> ais[row] ? 1 : 0;
+                case TIMESTAMP -> Math.max(0, Math.min(0xFFFFFFFFL, times[row]));
+                case SCORE -> (long) scores[row] - Integer.MIN_VALUE;
+            };
+            keys[count++] = (descending ? 0xFFFFFFFFL - value : value) << 31 | row;
+        }
+        Arrays.sort(keys, 0, count);
+        final int[] rows = new int[count];
+        for (int i = 0; i < count; i++) {
+            rows[i] = (int) (keys[i] & Integer.MAX_VALUE);
+        }
+        return rows;
+    }
+
+    /**
+     * Returns the rank of every player id in the alphabetical order of the
+     * names.
+     *
+     * @return the ranks by player id
+     */
+    private int[] playerRanks() {
+        final Integer[] order = new Integer[names.length];
+        for (int id = 0; id < order.length; id++) {
+            order[id] = id;
+        }
+        Arrays.sort(order, Comparator.comparing((Integer id) -> names[id], String.CASE_INSENSITIVE_ORDER));
+        final int[] ranks = new int[names.length];
+        for (int rank = 0; rank < order.length; rank++) {
+            ranks[order[rank]] = rank;
+        }
+        return ranks;
+    }
+
+    /**
+     * Converts a time of the leaderboard to seconds since the epoch.
+     *
+     * @param time the time
+     * @return the seconds, reading the time as UTC
+     */
+    public static long toSeconds(final LocalDateTime time) {
+        return time.toEpochSecond(ZoneOffset.UTC);
+    }
+
+    /**
+     * Formats a time of the leaderboard.
+     *
+     * @param seconds the seconds since the epoch, read as UTC
+     * @return the timestamp
+     */
+    public static String formatTime(final long seconds) {
+        return LocalDateTime.ofEpochSecond(seconds, 0, ZoneOffset.UTC).format(TIMESTAMP_FORMAT);
+    }
+}
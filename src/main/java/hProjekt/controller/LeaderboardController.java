@@ -39,6 +39,7 @@ public class LeaderboardController {
      * Appends a new player's data to the leaderboard CSV file.
      * Ensures the file is initialized before writing. Each entry includes
      * the player's name, AI status, a timestamp, and the player's score.
+     * The line is written in the background by the {@link LeaderboardStore}.
      *
      * @param playerName The name of the player.
      * @param score      The score achieved by the player.
@@ -47,8 +48,7 @@ public class LeaderboardController {
      */
     @StudentImplementationRequired("P4.1")
     public static void savePlayerData(final String playerName, final int score, final boolean ai) {
-        // TODO: P4.1
-        org.tudalgo.algoutils.student.Student.crash("P4.1 - Remove if implemented");
+        LeaderboardStore.SHARED.append(playerName, score, ai);
     }
 
     /**
@@ -60,7 +60,16 @@ public class LeaderboardController {
      */
     @StudentImplementationRequired("P4.2")
     public static List<LeaderboardEntry> loadLeaderboardData() {
-        // TODO: P4.2
-        return org.tudalgo.algoutils.student.Student.crash("P4.2 - Remove if implemented");
+        return LeaderboardStore.SHARED.read(0, LeaderboardStore.SHARED.size()).stream()
+                .map(LeaderboardStore.Result::toEntry).toList();
+    }
+
+    /**
+     * Returns the best score in the leaderboard without reading the CSV file.
+     *
+     * @return the highscore or {@code 0} if the leaderboard is empty
+     */
+    public static int getHighscore() {
+        return LeaderboardStore.SHARED.getHighscore();
     }
 }
@@ -0,0 +1,574 @@
+package hProjekt.controller;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+import org.jetbrains.annotations.Nullable;
+
+import hProjekt.Config;
+
+/**
+ * The storage of the leaderboard: an append-only log with indexes kept in
+ * memory.
+ * <p>
+ * The log is the leaderboard CSV file, one line per result. New results are
+ * only ever appended, so the file is never rewritten. They are written by a
+ * background thread with group commit: all results that arrive while a batch is
+ * written and forced to the disk form the next batch, so the results of a game
+ * cost one {@code fsync} together.
+ * <p>
+ * Every result, read at startup or appended later, goes through the same
+ * {@link #index} step, which updates
+ * <ul>
+ * <li>the {@value #TOP_K} best results in a heap, so the highscore and the
+ * best results are answered without touching the file,</li>
+ * <li>the aggregates of every player and</li>
+ * <li>the {@link LeaderboardColumns columns} of all results, which views query
+ * page by page without reading the file.</li>
+ * </ul>
+ * Opening reads the log with a single read and only creates objects for the
+ * player names and the results that enter the heap.
+ */
+public class LeaderboardStore {
+
+    /**
+     * The store of {@link Config#CSV_PATH}.
+     */
+    public static final LeaderboardStore SHARED = new LeaderboardStore(Config.CSV_PATH);
+
+    /**
+     * The number of best results kept in memory.
+     */
+    public static final int TOP_K = 100;
+
+    /**
+     * The first line of the log.
+     */
+    public static final String HEADER = "PlayerName,AI,Timestamp,Score";
+
+    private static final int NAME_CACHE_SIZE = 1024;
+
+    private final Path path;
+    private final PriorityQueue<Result> topResults = new PriorityQueue<>(Result.ORDER);
+    private final Map<String, long[]> players = new HashMap<>();
+    private final List<String> names = new ArrayList<>();
+    private final List<byte[]> pending = new ArrayList<>();
+    private final String[] recentNames = new String[NAME_CACHE_SIZE];
+    private int[] playerIds = new int[1024];
+    private boolean[] ais = new boolean[1024];
+    private long[] times = new long[1024];
+    private int[] scores = new int[1024];
+    private int size;
+    private long end;
+    private long written;
+    private boolean opened;
+    private boolean writing;
+    private @Nullable Result best;
+    private @Nullable Thread writer;
+
+    /**
+     * A result in the leaderboard.
+     *
+     * @param index      the position of the result in the log, starting at
+     *                   {@code 0}
+     * @param playerName the name of the player
+     * @param ai         whether the player is an AI
+     * @param timestamp  when the game ended
+     * @param score      the score of the player
+     */
+    public record Result(int index, String playerName, boolean ai, String timestamp, int score) {
+
+        /**
+         * Orders results from the worst to the best: by score and, at the same
+         * score, the later result first.
+         */
+        public static final Comparator<Result> ORDER = Comparator.comparingInt(Result::score)
+                .thenComparing(Comparator.comparingInt(Result::index).reversed());
+
+        /**
+         * Converts this result into an entry for the view.
+         *
+         * @return the entry
+         */
+        public LeaderboardEntry toEntry() {
+            return new LeaderboardEntry(playerName, ai, timestamp, score);
+        }
+    }
+
+    /**
+     * The aggregated results of a player.
+     *
+     * @param playerName the name of the player
+     * @param games      the number of results
+     * @param totalScore the sum of the scores
+     * @param bestScore  the best score
+     */
+    public record PlayerStats(String playerName, int games, long totalScore, int bestScore) {
+
+        /**
+         * Returns the average score.
+         *
+         * @return the average score
+         */
+        public double averageScore() {
+            return games == 0 ? 0 : (double) totalScore / games;
+        }
+    }
+
+    /**
+     * Creates a new store. The log is read on first use.
+     *
+     * @param path the log file
+     */
+    public LeaderboardStore(final Path path) {
+        this.path = path;
+    }
+
+    /**
+     * Appends a result. The indexes are updated right away, the line is
+     * written in the background.
+     *
+     * @param playerName the name of the player
+     * @param score      the score of the player
+     * @param ai         whether the player is an AI
+     */
+    public void append(final String playerName, final int score, final boolean ai) {
+        final String name = playerName.replace('\n', ' ').replace('\r', ' ');
+        final long time = LeaderboardColumns.toSeconds(LocalDateTime.now());
+        final String timestamp = LeaderboardColumns.formatTime(time);
+        final byte[] line = (name + "," + ai + "," + timestamp + "," + score + "\n")
+                .getBytes(StandardCharsets.UTF_8);
+        synchronized (this) {
+            open();
+            index(name, ai, time, timestamp, score);
+            end += line.length;
+            pending.add(line);
+            if (writer == null) {
+                writer = new Thread(this::writeLoop, "LeaderboardWriter");
+                writer.setDaemon(true);
+                writer.start();
+                Runtime.getRuntime().addShutdownHook(new Thread(this::flush));
+            }
+            notifyAll();
+        }
+    }
+
+    /**
+     * Waits until all appended results are written to the disk.
+     */
+    public synchronized void flush() {
+        while (!pending.isEmpty() || writing) {
+            try {
+                wait();
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    /**
+     * Returns the best score.
+     *
+     * @return the best score or {@code 0} if there are no results
+     */
+    public synchronized int getHighscore() {
+        open();
+        return best == null ? 0 : best.score();
+    }
+
+    /**
+     * Returns the best results, the best first.
+     *
+     * @param count the number of results, at most {@value #TOP_K}
+     * @return the results
+     */
+    public synchronized List<Result> getTopResults(final int count) {
+        if (count > TOP_K) {
+            throw new IllegalArgumentException("Only the best " + TOP_K + " results are kept");
+        }
+        open();
+        final Result[] results = topResults.toArray(Result[]::new);
+        Arrays.sort(results, Result.ORDER.reversed());
+        return List.of(results).subList(0, Math.min(count, results.length));
+    }
+
+    /**
+     * Returns the aggregated results of a player.
+     *
+     * @param playerName the name of the player
+     * @return the aggregates or {@code null} if the player has no results
+     */
+    public synchronized @Nullable PlayerStats getPlayerStats(final String playerName) {
+        open();
+        final long[] aggregate = players.get(playerName);
+        return aggregate == null ? null
+                : new PlayerStats(playerName, (int) aggregate[0], aggregate[1], (int) aggregate[2]);
+    }
+
+    /**
+     * Returns the number of results.
+     *
+     * @return the number of results
+     */
+    public synchronized int size() {
+        open();
+        return size;
+    }
+
+    /**
+     * Returns the results by their position in the log.
+     *
+     * @param from  the position of the first result
+     * @param count the number of results
+     * @return the results, fewer if the log ends before
+     */
+    public List<Result> read(final int from, final int count) {
+        final LeaderboardColumns columns = getColumns();
+        final List<Result> results = new ArrayList<>();
+        for (int row = from; row < Math.min(columns.size(), from + count); row++) {
+            results.add(columns.result(row));
+        }
+        return results;
+    }
+
+    /**
+     * Returns a snapshot of all results. It stays valid while results are
+     * appended.
+     *
+     * @return the results as columns
+     */
+    public synchronized LeaderboardColumns getColumns() {
+        open();
+        return new LeaderboardColumns(size, names.toArray(String[]::new), playerIds, ais, times, scores);
+    }
+
+    /**
+     * Reads the log and builds the indexes if that wasn't done yet. A line cut
+     * off by a crash is removed.
+     * <p>
+     * The log is read into a heap buffer instead of being mapped: a mapped file
+     * can't be truncated on Windows, and a mapping is only released by the
+     * garbage collector.
+     */
+    private void open() {
+        if (opened) {
+            return;
+        }
+        opened = true;
+        try {
+            if (!Files.exists(path)) {
+                if (path.getParent() != null) {
+                    Files.createDirectories(path.getParent());
+                }
+                Files.writeString(path, HEADER + "\n");
+            }
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                final ByteBuffer buffer = ByteBuffer.allocate(Math.toIntExact(channel.size()));
+                while (buffer.hasRemaining() && channel.read(buffer) >= 0) {
+                    // read until the buffer is full
+                }
+                buffer.flip();
+                // one pass that remembers the last three commas of the current line
+                final int[] commas = new int[3];
+                int found = 0;
+                int lineStart = 0;
+                for (int i = 0; i < buffer.limit(); i++) {
+                    final byte character = buffer.get(i);
+                    if (character == ',') {
+                        commas[0] = commas[1];
+                        commas[1] = commas[2];
+                        commas[2] = i;
+                        found++;
+                    } else if (character == '\n') {
+                        if (found >= 3 && !(lineStart == 0 && startsWith(buffer, HEADER))) {
+                            indexLine(buffer, lineStart, i, commas);
+                        }
+                        end = i + 1;
+                        lineStart = i + 1;
+                        found = 0;
+                    }
+                }
+                if (channel.size() > end) {
+                    channel.truncate(end);
+                }
+            }
+        } catch (final IOException | ArithmeticException e) {
+            System.out.println("Couldn't read the leaderboard: " + e.getMessage());
+            e.printStackTrace();
+        } finally {
+            // appends go after whatever is on the disk, even if reading or truncating failed
+            end = fileSize();
+            written = end;
+        }
+    }
+
+    /**
+     * Returns the size of the log.
+     *
+     * @return the size in bytes or {@code 0} if it can't be read
+     */
+    private long fileSize() {
+        try {
+            return Files.exists(path) ? Files.size(path) : 0;
+        } catch (final IOException e) {
+            System.out.println("Couldn't read the size of the leaderboard: " + e.getMessage());
+            e.printStackTrace();
+            return 0;
+        }
+    }
+
+    /**
+     * Indexes a line of the log without creating objects for results that
+     * don't reach the best results.
+     *
+     * @param buffer    the log
+     * @param lineStart the position of the first character of the line
+     * @param lineEnd   the position of the line break
+     * @param commas    the positions of the last three commas of the line
+     */
+    private void indexLine(final ByteBuffer buffer, final int lineStart, final int lineEnd, final int[] commas) {
+        final int score = parseInt(buffer, commas[2] + 1, lineEnd);
+        final String name = name(buffer, lineStart, commas[0]);
+        final boolean ai = buffer.get(commas[0] + 1) == 't';
+        final long time = parseTime(buffer, commas[1] + 1, commas[2]);
+        if (topResults.size() >= TOP_K && score <= topResults.peek().score()) {
+            addRow(aggregate(name, score), ai, time, score);
+            return;
+        }
+        index(name, ai, time, string(buffer, commas[1] + 1, commas[2]), score);
+    }
+
+    /**
+     * Decodes a player name of the log. Names repeat a lot, so recent names are
+     * reused instead of decoding the same bytes again.
+     *
+     * @param buffer the log
+     * @param from   the position of the first byte
+     * @param to     the position after the last byte
+     * @return the name
+     */
+    private String name(final ByteBuffer buffer, final int from, final int to) {
+        int hash = 0;
+        for (int i = from; i < to; i++) {
+            hash = 31 * hash + buffer.get(i);
+        }
+        final int slot = hash & (NAME_CACHE_SIZE - 1);
+        final String recent = recentNames[slot];
+        if (recent != null && recent.length() == to - from) {
+            int i = from;
+            while (i < to && recent.charAt(i - from) == buffer.get(i)) {
+                i++;
+            }
+            if (i == to) {
+                return recent;
+            }
+        }
+        final String name = string(buffer, from, to);
+        recentNames[slot] = name;
+        return name;
+    }
+
+    /**
+     * Adds a result to the indexes.
+     *
+     * @param playerName the name of the player
+     * @param ai         whether the player is an AI
+     * @param time       when the game ended, in seconds
+     * @param timestamp  when the game ended, as written in the log
+     * @param score      the score of the player
+     */
+    private void index(final String playerName, final boolean ai, final long time, final String timestamp,
+            final int score) {
+        final Result result = new Result(size, playerName, ai, timestamp, score);
+        if (best == null || score > best.score()) {
+            best = result;
+        }
+        topResults.add(result);
+        if (topResults.size() > TOP_K) {
+            topResults.poll();
+        }
+        addRow(aggregate(playerName, score), ai, time, score);
+    }
+
+    /**
+     * Adds a score to the aggregates of a player.
+     *
+     * @param playerName the name of the player
+     * @param score      the score
+     * @return the id of the player
+     */
+    private int aggregate(final String playerName, final int score) {
+        // games, total score, best score and id, updated in place while the log is read
+        final long[] aggregate = players.computeIfAbsent(playerName, name -> {
+            names.add(name);
+            return new long[] {0, 0, Integer.MIN_VALUE, names.size() - 1};
+        });
+        aggregate[0]++;
+        aggregate[1] += score;
+        aggregate[2] = Math.max(aggregate[2], score);
+        return (int) aggregate[3];
+    }
+
+    /**
+     * Adds a result to the columns. Full columns are copied into larger arrays,
+     * the old arrays stay valid for earlier snapshots.
+     *
+     * @param playerId the id of the player
+     * @param ai       whether the player is an AI
+     * @param time     when the game ended, in seconds
+     * @param score    the score of the player
+     */
+    private void addRow(final int playerId, final boolean ai, final long time, final int score) {
+        if (size == scores.length) {
+            playerIds = Arrays.copyOf(playerIds, size * 2);
+            ais = Arrays.copyOf(ais, size * 2);
+            times = Arrays.copyOf(times, size * 2);
+            scores = Arrays.copyOf(scores, size * 2);
+        }
+        playerIds[size] = playerId;
+        ais[size] = ai;
+        times[size] = time;
+        scores[size] = score;
+        size++;
+    }
+
+    /**
+     * Writes the pending results in batches until the program ends.
+     */
+    private void writeLoop() {
+        while (true) {
+            final List<byte[]> batch;
+            synchronized (this) {
+                while (pending.isEmpty()) {
+                    try {
+                        wait();
+                    } catch (final InterruptedException e) {
+                        return;
+                    }
+                }
+                batch = new ArrayList<>(pending);
+                pending.clear();
+                writing = true;
+            }
+            final int length = batch.stream().mapToInt(line -> line.length).sum();
+            final ByteBuffer buffer = ByteBuffer.allocate(length);
+            batch.forEach(buffer::put);
+            buffer.flip();
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+                while (buffer.hasRemaining()) {
+                    written += channel.write(buffer, written);
+                }
+                channel.force(false);
+            } catch (final IOException e) {
+                System.out.println("Couldn't write the leaderboard: " + e.getMessage());
+                e.printStackTrace();
+            }
+            synchronized (this) {
+                writing = false;
+                notifyAll();
+            }
+        }
+    }
+
+    /**
+     * Parses a timestamp of the log. The fields are read by their position, so
+     * both {@code 2025-01-31 18:00:00} and the ISO form with a {@code T} and
+     * fractions of a second work.
+     *
+     * @param buffer the log
+     * @param from   the position of the first character
+     * @param to     the position after the last character
+     * @return the time in seconds or {@code 0} if it isn't a timestamp
+     */
+    private static long parseTime(final ByteBuffer buffer, final int from, final int to) {
+        if (to - from < 19) {
+            return 0;
+        }
+        final int year = parseInt(buffer, from, from + 4);
+        final int month = parseInt(buffer, from + 5, from + 7);
+        final int day = parseInt(buffer, from + 8, from + 10);
+        final int hour = parseInt(buffer, from + 11, from + 13);
+        final int minute = parseInt(buffer, from + 14, from + 16);
+        final int second = parseInt(buffer, from + 17, from + 19);
+        if (month < 1 || month > 12 || day < 1 || day > 31 || hour > 23 || minute > 59 || second > 59) {
+            return 0;
+        }
+        // days since the epoch without allocating a date, the civil calendar algorithm by Howard Hinnant
+        final int shiftedYear = month <= 2 ? year - 1 : year;
+        final int era = Math.floorDiv(shiftedYear, 400);
+        final int yearOfEra = shiftedYear - era * 400;
+        final int dayOfYear = (153 * (month > 2 ? month - 3 : month + 9) + 2) / 5 + day - 1;
+        final long days = era * 146097L + yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear - 719468;
+        return days * 86400 + hour * 3600 + minute * 60 + second;
+    }
+
+    /**
+     * Parses a decimal number.
+     *
+     * @param buffer the log
+     * @param from   the position of the first digit
+     * @param to     the position after the last digit
+     * @return the number, {@code 0} if there are no digits
+     */
+    private static int parseInt(final ByteBuffer buffer, final int from, final int to) {
+        int value = 0;
+        boolean negative = false;
+        for (int i = from; i < to; i++) {
+            final byte digit = buffer.get(i);
+            if (digit == '-') {
+                negative = true;
+            } else if (digit >= '0' && digit <= '9') {
+                value = value * 10 + digit - '0';
+            }
+        }
+        return negative ? -value : value;
+    }
+
+    /**
+     * Decodes a part of the log.
+     *
+     * @param buffer the log
+     * @param from   the position of the first byte
+     * @param to     the position after the last byte
+     * @return the text
+     */
+    private static String string(final ByteBuffer buffer, final int from, final int to) {
+        final byte[] bytes = new byte[to - from];
+        buffer.get(from, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Checks whether the log starts with a text.
+     *
+     * @param buffer the log
+     * @param text   the text
+     * @return whether it starts with the text
+     */
+    private static boolean startsWith(final ByteBuffer buffer, final String text) {
+        final byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        if (buffer.limit() < bytes.length) {
+            return false;
+        }
+        for (int i = 0; i < bytes.length; i++) {
+            if (buffer.get(i) != bytes[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,588 @@
+package hProjekt.controller;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+import org.jetbrains.annotations.Nullable;
+
+import hProjekt.controller.io.BinaryReader;
+import hProjekt.controller.io.BinaryWriter;
+import hProjekt.controller.io.MapCodec;
+import hProjekt.model.grid.Structure;
+import hProjekt.model.grid.Tile;
+
+/**
+ * An index of all saved maps and their contents.
+ * <p>
+ * For every map the catalog knows its size, the number of tiles of every type,
+ * the number of structures of every type, its content hash and where its
+ * thumbnail is stored. The entries are computed from the header, raster and
+ * structure table of the map file, without building a grid, and are kept in the
+ * index file {@value #INDEX_FILE} in the maps directory. When the catalog is
+ * first used, it reads the index and only indexes the maps whose file changed
+ * since. After that a {@link WatchService} keeps it up to date: maps that are
+ * added, changed or deleted are indexed again one by one in the background.
+ * Listing, filtering and sorting maps never opens a map file. Thumbnail
+ * positions are set one map at a time while thumbnails are rendered, so they
+ * are collected for {@value #THUMBNAIL_WRITE_DELAY_MILLIS} milliseconds and
+ * written to the index together, or when the catalog is closed or the
+ * application exits.
+ * <p>
+ * Maps of the legacy format are imported by
+ * {@link MapSaveController#loadMap(String)}, which rewrites their file in the
+ * current format. Imports never run on the thread watching the directory: a
+ * legacy map found there is imported by the next thread that uses the catalog.
+ * <p>
+ * The listeners are called on the thread that changed the catalog, which is the
+ * thread watching the directory for most changes. They are never called on the
+ * JavaFX application thread by the catalog itself, so user interfaces have to
+ * hand them over with {@code Platform.runLater}.
+ */
+public class MapCatalog {
+
+    /**
+     * The catalog of the maps directory of {@link MapSaveController}.
+     */
+    public static final MapCatalog SHARED = new MapCatalog(MapSaveController.getMapsDirectory());
+
+    /**
+     * The name of the index file.
+     */
+    public static final String INDEX_FILE = "maps.catalog";
+
+    /**
+     * The time in milliseconds thumbnail positions are collected before the
+     * index is written.
+     */
+    public static final long THUMBNAIL_WRITE_DELAY_MILLIS = 2_000;
+
+    private static final int INDEX_MAGIC = 0x54424743;
+    private static final int INDEX_VERSION = 1;
+
+    private final Path directory;
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final List<Runnable> listeners = new CopyOnWriteArrayList<>();
+    private final Set<String> pendingImports = ConcurrentHashMap.newKeySet();
+    private volatile @Nullable List<Entry> snapshot;
+    private boolean started;
+    private boolean closed;
+    private @Nullable WatchService watchService;
+    private @Nullable ScheduledExecutorService indexWriter;
+    private @Nullable Thread shutdownHook;
+    private boolean indexDirty;
+
+    /**
+     * An indexed map.
+     *
+     * @param name            the name of the map
+     * @param width           the number of {@code q} values of its bounding box
+     * @param height          the number of {@code r} values of its bounding box
+     * @param tiles           the number of tiles
+     * @param tileCounts      the number of tiles of every {@link Tile.Type}, by
+     *                        ordinal
+     * @param structureCounts the number of structures of every
+     *                        {@link Structure.Type}, by ordinal
+     * @param contentHash     the content hash of the map file
+     * @param thumbnailOffset the position of the thumbnail in the thumbnail
+     *                        cache or {@code -1} if it wasn't rendered yet
+     * @param fileSize        the size of the map file
+     * @param lastModified    the time the map file was last modified, in
+     *                        milliseconds since the epoch
+     */
+    public record Entry(String name, int width, int height, int tiles, int[] tileCounts, int[] structureCounts,
+            long contentHash, long thumbnailOffset, long fileSize, long lastModified) {
+
+        /**
+         * Returns the number of tiles of a type.
+         *
+         * @param type the tile type
+         * @return the number of tiles
+         */
+        public int tileCount(final Tile.Type type) {
+            return type.ordinal() < tileCounts.length ? tileCounts[type.ordinal()] : 0;
+        }
+
+        /**
+         * Returns the number of structures of a type.
+         *
+         * @param type the structure type
+         * @return the number of structures
+         */
+        public int structureCount(final Structure.Type type) {
+            return type.ordinal() < structureCounts.length ? structureCounts[type.ordinal()] : 0;
+        }
+
+        /**
+         * Returns the total number of structures.
+         *
+         * @return the number of structures
+         */
+        public int structures() {
+            return Arrays.stream(structureCounts).sum();
+        }
+
+        /**
+         * Returns this entry with another thumbnail position.
+         *
+         * @param offset the position of the thumbnail
+         * @return the new entry
+         */
+        public Entry withThumbnailOffset(final long offset) {
+            return new Entry(name, width, height, tiles, tileCounts, structureCounts, contentHash, offset, fileSize,
+                    lastModified);
+        }
+    }
+
+    /**
+     * Creates a new catalog. It reads its index and starts watching the
+     * directory when it is first used.
+     *
+     * @param directory the directory of the map files
+     */
+    public MapCatalog(final Path directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * Returns all maps, sorted by name.
+     *
+     * @return the entries of all maps
+     */
+    public List<Entry> getEntries() {
+        start();
+        List<Entry> current = snapshot;
+        if (current == null) {
+            current = entries.values().stream().sorted(Comparator.comparing(Entry::name)).toList();
+            snapshot = current;
+        }
+        return current;
+    }
+
+    /**
+     * Returns the names of all maps, sorted.
+     *
+     * @return the names of all maps
+     */
+    public List<String> getNames() {
+        return getEntries().stream().map(Entry::name).toList();
+    }
+
+    /**
+     * Returns the maps that pass a filter in the given order.
+     *
+     * @param filter the filter
+     * @param order  the order
+     * @return the matching entries
+     */
+    public List<Entry> query(final Predicate<Entry> filter, final Comparator<Entry> order) {
+        return getEntries().stream().filter(filter).sorted(order).toList();
+    }
+
+    /**
+     * Returns the entry of a map.
+     *
+     * @param name the name of the map
+     * @return the entry or {@code null} if there is no such map
+     */
+    public @Nullable Entry getEntry(final String name) {
+        start();
+        return entries.get(name);
+    }
+
+    /**
+     * Returns the file of a map in the directory of this catalog.
+     *
+     * @param name the name of the map
+     * @return the map file, which may not exist
+     */
+    public Path getMapFile(final String name) {
+        return directory.resolve(name + MapSaveController.MAP_FILE_EXTENSION);
+    }
+
+    /**
+     * Adds a listener that is called after the catalog changed. It is called on
+     * the thread that changed the catalog, usually the daemon thread watching
+     * the directory and never the JavaFX application thread, so user interfaces
+     * have to hand it over with {@code Platform.runLater}.
+     *
+     * @param listener the listener
+     */
+    public void addListener(final Runnable listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Removes a listener added by {@link #addListener(Runnable)}.
+     *
+     * @param listener the listener
+     */
+    public void removeListener(final Runnable listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Stores where the thumbnail of a map is kept. The listeners aren't
+     * notified, the maps didn't change. The index is written
+     * {@value #THUMBNAIL_WRITE_DELAY_MILLIS} milliseconds later, together with
+     * the positions of the other thumbnails set in the meantime.
+     *
+     * @param name   the name of the map
+     * @param offset the position of the thumbnail
+     */
+    public void setThumbnailOffset(final String name, final long offset) {
+        start();
+        final Entry entry = entries.get(name);
+        if (entry != null && entry.thumbnailOffset() != offset) {
+            entries.put(name, entry.withThumbnailOffset(offset));
+            snapshot = null;
+            scheduleIndexWrite();
+        }
+    }
+
+    /**
+     * Writes the index after {@value #THUMBNAIL_WRITE_DELAY_MILLIS}
+     * milliseconds, unless a write is already pending.
+     */
+    private synchronized void scheduleIndexWrite() {
+        if (closed || indexDirty) {
+            return;
+        }
+        indexDirty = true;
+        if (indexWriter == null) {
+            indexWriter = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                final Thread thread = new Thread(runnable, "MapCatalogWriter");
+                thread.setDaemon(true);
+                return thread;
+            });
+            shutdownHook = new Thread(this::writePendingIndex);
+            Runtime.getRuntime().addShutdownHook(shutdownHook);
+        }
+        indexWriter.schedule(this::writePendingIndex, THUMBNAIL_WRITE_DELAY_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Writes the index if thumbnail positions changed since it was written.
+     */
+    private synchronized void writePendingIndex() {
+        if (indexDirty) {
+            writeIndex();
+        }
+    }
+
+    /**
+     * Indexes a map again, for example right after it was saved.
+     *
+     * @param name the name of the map
+     */
+    public void refresh(final String name) {
+        start();
+        if (index(name, true)) {
+            changed();
+        }
+    }
+
+    /**
+     * Reads the index, brings it up to date with the directory and starts
+     * watching the directory, if that wasn't done yet. If the directory can't be
+     * created, the next use of the catalog tries again. Imports the legacy maps
+     * the watching thread found since the last call.
+     */
+    private synchronized void start() {
+        if (closed) {
+            return;
+        }
+        if (!started) {
+            try {
+                Files.createDirectories(directory);
+            } catch (final IOException e) {
+                System.out.println("Couldn't create the maps directory: " + e.getMessage());
+                return;
+            }
+            started = true;
+            // watch before reconciling, so no change in between is missed
+            try {
+                watchService = directory.getFileSystem().newWatchService();
+                directory.register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                        StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+            } catch (final IOException e) {
+                System.out.println("Couldn't watch the maps directory: " + e.getMessage());
+                closeWatchService();
+            }
+            readIndex();
+            if (reconcile(true)) {
+                writeIndex();
+            }
+            if (watchService != null) {
+                final WatchService service = watchService;
+                final Thread watcher = new Thread(() -> watch(service), "MapCatalogWatcher");
+                watcher.setDaemon(true);
+                watcher.start();
+            }
+        }
+        if (!pendingImports.isEmpty()) {
+            boolean changed = false;
+            for (final String name : List.copyOf(pendingImports)) {
+                pendingImports.remove(name);
+                changed |= index(name, true);
+            }
+            if (changed) {
+                changed();
+            }
+        }
+    }
+
+    /**
+     * Indexes the maps whose files changed since they were indexed and removes
+     * the maps whose file is gone.
+     *
+     * @param importLegacy whether maps of the legacy format are imported right
+     *                     away instead of by the next thread using the catalog
+     * @return whether an entry changed
+     */
+    private boolean reconcile(final boolean importLegacy) {
+        final Set<String> names = new HashSet<>();
+        boolean changed = false;
+        try (Stream<Path> files = Files.list(directory)) {
+            for (final Path file : (Iterable<Path>) files::iterator) {
+                final String name = mapName(file);
+                if (name != null) {
+                    names.add(name);
+                    changed |= index(name, importLegacy);
+                }
+            }
+        } catch (final IOException e) {
+            System.out.println("Couldn't list the maps: " + e.getMessage());
+            return false;
+        }
+        changed |= entries.keySet().retainAll(names);
+        snapshot = null;
+        return changed;
+    }
+
+    /**
+     * Writes the pending thumbnail positions and stops watching the directory.
+     * The entries stay available but aren't updated or written anymore. The
+     * shared catalog is never closed.
+     */
+    public synchronized void close() {
+        writePendingIndex();
+        closed = true;
+        closeWatchService();
+        if (indexWriter != null) {
+            indexWriter.shutdownNow();
+            try {
+                Runtime.getRuntime().removeShutdownHook(shutdownHook);
+            } catch (final IllegalStateException e) {
+                // the application is exiting already
+            }
+        }
+    }
+
+    /**
+     * Closes the watch service, if any, which ends the watching thread.
+     */
+    private synchronized void closeWatchService() {
+        if (watchService != null) {
+            try {
+                watchService.close();
+            } catch (final IOException e) {
+                e.printStackTrace();
+            }
+            watchService = null;
+        }
+    }
+
+    /**
+     * Indexes every map file that changes until the watch service is closed.
+     *
+     * @param service the service watching the directory
+     */
+    private void watch(final WatchService service) {
+        try {
+            while (true) {
+                final WatchKey key = service.take();
+                boolean changed = false;
+                synchronized (this) {
+                    if (closed) {
+                        return;
+                    }
+                    for (final WatchEvent<?> event : key.pollEvents()) {
+                        if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                            changed |= reconcile(false);
+                        } else if (event.context() instanceof final Path file && mapName(file) != null) {
+                            changed |= index(mapName(file), false);
+                        }
+                    }
+                }
+                if (changed) {
+                    changed();
+                }
+                if (!key.reset()) {
+                    System.out.println("The maps directory is no longer watched");
+                    return;
+                }
+            }
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (final ClosedWatchServiceException e) {
+            // the catalog was closed
+        }
+    }
+
+    /**
+     * Indexes a map if its file changed since it was indexed last.
+     *
+     * @param name         the name of the map
+     * @param importLegacy whether a map of the legacy format is imported first,
+     *                     otherwise it is left to the next thread using the
+     *                     catalog
+     * @return whether its entry changed
+     */
+    private boolean index(final String name, final boolean importLegacy) {
+        final Path path = getMapFile(name);
+        try {
+            final long size = Files.size(path);
+            final long modified = Files.getLastModifiedTime(path).toMillis();
+            final Entry old = entries.get(name);
+            if (old != null && old.fileSize() == size && old.lastModified() == modified) {
+                return false;
+            }
+            final ByteBuffer buffer = MapSaveController.readMapFile(path);
+            if (MapCodec.isLegacy(buffer)) {
+                if (!importLegacy) {
+                    pendingImports.add(name);
+                    return entries.remove(name) != null;
+                }
+                // importing rewrites the file in the current format, which the watcher sees as a change
+                MapSaveController.loadMap(name);
+                final boolean changed = index(name, false);
+                if (pendingImports.remove(name)) {
+                    throw new IllegalArgumentException("Legacy map couldn't be imported");
+                }
+                return changed;
+            }
+            final MapCodec.Header header = MapCodec.readHeader(buffer);
+            final int[] tileCounts = MapCodec.readTileHistogram(buffer, header);
+            final int[] structureCounts = MapCodec.readStructureHistogram(buffer, header);
+            final long thumbnail = old != null && old.contentHash() == header.contentHash()
+                    ? old.thumbnailOffset() : -1;
+            entries.put(name, new Entry(name, header.width(), header.height(), header.tiles(), tileCounts,
+                    structureCounts, header.contentHash(), thumbnail, size, modified));
+        } catch (final NoSuchFileException e) {
+            return entries.remove(name) != null;
+        } catch (final IOException | RuntimeException e) {
+            // a file that is still being written is indexed again by its next event
+            System.out.println("Couldn't index map " + name + ": " + e.getMessage());
+            return entries.remove(name) != null;
+        }
+        return true;
+    }
+
+    /**
+     * Persists the catalog and notifies the listeners of a change.
+     */
+    private void changed() {
+        snapshot = null;
+        writeIndex();
+        listeners.forEach(Runnable::run);
+    }
+
+    /**
+     * Reads the entries stored in the index file.
+     */
+    private void readIndex() {
+        try {
+            final BinaryReader in = new BinaryReader(Files.readAllBytes(directory.resolve(INDEX_FILE)));
+            if (in.readInt() != INDEX_MAGIC || in.readByte() != INDEX_VERSION) {
+                return;
+            }
+            final int count = in.readVarInt();
+            for (int i = 0; i < count; i++) {
+                final String name = in.readString();
+                final int width = in.readVarInt();
+                final int height = in.readVarInt();
+                final int tiles = in.readVarInt();
+                final int[] tileCounts = new int[in.readVarInt()];
+                for (int t = 0; t < tileCounts.length; t++) {
+                    tileCounts[t] = in.readVarInt();
+                }
+                final int[] structureCounts = new int[in.readVarInt()];
+                for (int s = 0; s < structureCounts.length; s++) {
+                    structureCounts[s] = in.readVarInt();
+                }
+                entries.put(name, new Entry(name, width, height, tiles, tileCounts, structureCounts, in.readLong(),
+                        in.readLong(), in.readVarLong(), in.readVarLong()));
+            }
+        } catch (final NoSuchFileException e) {
+            // nothing indexed yet
+        } catch (final IOException | RuntimeException e) {
+            System.out.println("Couldn't read the map catalog, rebuilding it: " + e.getMessage());
+            entries.clear();
+        }
+    }
+
+    /**
+     * Writes all entries to the index file.
+     */
+    private synchronized void writeIndex() {
+        if (closed) {
+            return;
+        }
+        indexDirty = false;
+        final List<Entry> all = List.copyOf(entries.values());
+        final BinaryWriter out = new BinaryWriter(64 + 64 * all.size());
+        out.writeInt(INDEX_MAGIC).writeByte(INDEX_VERSION).writeVarInt(all.size());
+        for (final Entry entry : all) {
+            out.writeString(entry.name()).writeVarInt(entry.width()).writeVarInt(entry.height())
+                    .writeVarInt(entry.tiles()).writeVarInt(entry.tileCounts().length);
+            for (final int count : entry.tileCounts()) {
+                out.writeVarInt(count);
+            }
+            out.writeVarInt(entry.structureCounts().length);
+            for (final int count : entry.structureCounts()) {
+                out.writeVarInt(count);
+            }
+            out.writeLong(entry.contentHash()).writeLong(entry.thumbnailOffset())
+                    .writeVarLong(entry.fileSize()).writeVarLong(entry.lastModified());
+        }
+        try {
+            MapSaveController.replaceFile(directory.resolve(INDEX_FILE), out.toByteArray());
+        } catch (final IOException e) {
+            System.out.println("Couldn't write the map catalog: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Returns the name of the map stored in a file.
+     *
+     * @param file the file
+     * @return the name of the map or {@code null} if it isn't a map file
+     */
+    private static @Nullable String mapName(final Path file) {
+        final String fileName = file.getFileName().toString();
+        return fileName.endsWith(MapSaveController.MAP_FILE_EXTENSION)
+                ? fileName.substring(0, fileName.length() - MapSaveController.MAP_FILE_EXTENSION.length())
+                : null;
+    }
+}
@@ -1,23 +1,24 @@
 package hProjekt.controller;
 
-import java.io.FileInputStream;
-import java.io.FileNotFoundException;
-import java.io.FileOutputStream;
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.ObjectInputFilter;
 import java.io.ObjectInputStream;
-import java.io.ObjectOutputStream;
+import java.nio.ByteBuffer;
 import java.nio.file.Files;
 import java.nio.file.InvalidPathException;
+import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
 import java.util.List;
 import java.util.Map;
 
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import hProjekt.controller.io.MapCodec;
 import hProjekt.model.grid.HexGrid;
-import hProjekt.model.grid.HexGridImpl;
 import hProjekt.model.grid.Structure;
 import hProjekt.model.grid.Tile;
 import hProjekt.model.grid.TilePosition;
@@ -35,19 +36,44 @@ import hProjekt.model.mapEditor.SerializableHexGrid;
  * a specific resource directory relative to the project root (default:
  * {@code src/main/resources/maps}).
  * </p>
+ * <p>
+ * Maps are written in version 2 of the format, see {@link MapCodec}. Maps
+ * saved as serialized {@link SerializableHexGrid}s by older versions are
+ * imported when they are loaded: they are read with a filter that only
+ * accepts the classes of a map and rewritten in the current format.
+ * </p>
+ * <p>
+ * Map files are small, so they are read into a heap buffer in one go and the
+ * loaded grids copy their tile raster out of it. Files are never overwritten
+ * in place but replaced, so a reader never sees a half written map.
+ * </p>
  */
 public class MapSaveController {
     private static final String MAPS_DIRECTORY = "maps";
     private static final Path MAPS_PATH = Paths.get("../../src/main/resources", MAPS_DIRECTORY);
-    private static final String MAP_FILE_EXTENSION = ".tobago";
+
+    /**
+     * The extension of map files.
+     */
+    public static final String MAP_FILE_EXTENSION = ".tobago";
+
+    /**
+     * The only classes a legacy map file may contain.
+     */
+    private static final ObjectInputFilter LEGACY_FILTER = ObjectInputFilter.Config.createFilter(
+            "maxdepth=8;maxrefs=1000000;maxarray=16777216;hProjekt.model.mapEditor.SerializableHexGrid;"
+                    + "hProjekt.model.grid.TilePosition;hProjekt.model.grid.Tile$Type;"
+                    + "hProjekt.model.grid.Structure$Type;java.lang.Enum;java.util.HashMap;"
+                    + "java.util.Map$Entry;java.util.LinkedHashMap;java.util.TreeMap;java.util.ImmutableCollections$*;"
+                    + "java.lang.Object;!*");
 
     /**
      * Saves the current map state to a file with the specified name.
      * <p>
-     * This method creates a {@link SerializableHexGrid} from the provided tiles and
-     * structures and attempts to save it to a file located in the maps directory.
-     * If the directory does not exist, it will be created. The file has the
-     * {@code .tobago} extension.
+     * This method encodes the provided tiles and structures with the
+     * {@link MapCodec} and attempts to save them to a file located in the maps
+     * directory. If the directory does not exist, it will be created. The file
+     * has the {@code .tobago} extension.
      * </p>
      *
      * @param mapName    the name of the map file to begin creation (must not be
@@ -63,17 +89,15 @@ public class MapSaveController {
             return false;
         }
 
-        final SerializableHexGrid serializableHexGrid = new SerializableHexGrid(tiles, structures);
-
         try {
             Files.createDirectories(MAPS_PATH);
         } catch (final IOException e) {
             throw new RuntimeException(e);
         }
 
-        try (final ObjectOutputStream oos = new ObjectOutputStream(new FileOutputStream(
-                MAPS_PATH.resolve(mapName + MAP_FILE_EXTENSION).toFile()))) {
-            oos.writeObject(serializableHexGrid);
+        try {
+            replaceFile(MAPS_PATH.resolve(mapName + MAP_FILE_EXTENSION), MapCodec.write(tiles, structures));
+            MapCatalog.SHARED.refresh(mapName);
             return true;
         } catch (final IOException e) {
             throw new RuntimeException(e);
@@ -84,33 +108,46 @@ public class MapSaveController {
 
     /**
      * Retrieves a list of names of all saved maps found in the configured maps
-     * directory.
+     * directory. The names come from the {@link MapCatalog#SHARED map catalog},
+     * so the directory isn't listed again.
      *
      * @return A {@code List<String>} containing the names of all valid map files
-     *         found, without their file extensions. Returns an empty list if the
-     *         directory does not exist.
+     *         found, without their file extensions, sorted. Returns an empty list
+     *         if the directory does not exist.
      */
     public static List<String> getSavedMaps() {
-        try {
-            if (Files.notExists(MAPS_PATH)) {
-                return List.of();
-            }
-            return Files.list(MAPS_PATH)
-                    .filter(path -> path.toString().endsWith(MAP_FILE_EXTENSION))
-                    .map(path -> path.getFileName().toString().replace(MAP_FILE_EXTENSION, ""))
-                    .toList();
-        } catch (final IOException e) {
-            throw new RuntimeException(e);
-        }
+        return MapCatalog.SHARED.getNames();
+    }
+
+    /**
+     * Returns the directory the maps are stored in.
+     *
+     * @return the maps directory
+     */
+    public static Path getMapsDirectory() {
+        return MAPS_PATH;
+    }
+
+    /**
+     * Returns the path of a file that belongs to the given map and is stored
+     * next to it in the maps directory.
+     *
+     * @param mapName   the name of the map without the file extension
+     * @param extension the extension of the file, including the dot
+     * @return the path of the file
+     */
+    public static Path getMapFile(@NotNull final String mapName, final String extension) {
+        return MAPS_PATH.resolve(mapName + extension);
     }
 
     /**
      * Loads a {@link HexGrid} from a binary file associated with the given map
      * name.
      * <p>
-     * This method attempts to read a serialized {@link SerializableHexGrid} object
-     * from a file located in the maps directory. If successful, it
-     * reconstructs and returns a {@link HexGridImpl}.
+     * This method reads the file located in the maps directory, see
+     * {@link #readMapFile(Path)}, and decodes it with the {@link MapCodec}. A
+     * file of the legacy format is imported first, see
+     * {@link #importLegacyMap(Path, byte[])}.
      * </p>
      *
      * @param mapName The name of the map to load without the file extension.
@@ -123,14 +160,77 @@ public class MapSaveController {
             return null;
         }
 
-        try (final ObjectInputStream ois = new ObjectInputStream(new FileInputStream(
-                MAPS_PATH.resolve(mapName + MAP_FILE_EXTENSION).toFile()))) {
-            final SerializableHexGrid serializableHexGrid = (SerializableHexGrid) ois.readObject();
-            return new HexGridImpl(serializableHexGrid.tiles(), serializableHexGrid.structures());
-        } catch (final FileNotFoundException | InvalidPathException e) {
+        try {
+            final Path path = MAPS_PATH.resolve(mapName + MAP_FILE_EXTENSION);
+            final ByteBuffer buffer = readMapFile(path);
+            if (MapCodec.isLegacy(buffer)) {
+                return MapCodec.read(ByteBuffer.wrap(importLegacyMap(path, buffer.array())));
+            }
+            return MapCodec.read(buffer);
+        } catch (final NoSuchFileException | InvalidPathException e) {
             return null;
-        } catch (final IOException | ClassNotFoundException e) {
-            throw new RuntimeException(e);
+        } catch (final IOException | IllegalArgumentException e) {
+            throw new RuntimeException("Couldn't load map " + mapName, e);
+        }
+    }
+
+    /**
+     * Reads a map file into a heap buffer. Map files are only a few hundred
+     * bytes, far too small to be worth a memory mapping.
+     *
+     * @param path the map file
+     * @return a buffer backed by an array holding the whole file
+     * @throws IOException if the file can't be read
+     */
+    static ByteBuffer readMapFile(final Path path) throws IOException {
+        return ByteBuffer.wrap(Files.readAllBytes(path));
+    }
+
+    /**
+     * Converts a map file of the legacy format to the current format and
+     * replaces the file with it. If the file can't be replaced, the map is
+     * still converted and imported again on the next load.
+     *
+     * @param path  the map file
+     * @param bytes the contents of the legacy file
+     * @return the contents of the converted file
+     * @throws IOException if the legacy file can't be read
+     */
+    private static byte[] importLegacyMap(final Path path, final byte[] bytes) throws IOException {
+        final SerializableHexGrid legacy;
+        try (final ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(bytes))) {
+            ois.setObjectInputFilter(LEGACY_FILTER);
+            legacy = (SerializableHexGrid) ois.readObject();
+        } catch (final ClassNotFoundException | ClassCastException e) {
+            throw new IOException("Not a legacy map file: " + path, e);
+        }
+        final byte[] converted = MapCodec.write(legacy.tiles(), legacy.structures());
+        try {
+            replaceFile(path, converted);
+            System.out.println("Imported legacy map " + path.getFileName());
+        } catch (final IOException e) {
+            System.out.println("Couldn't rewrite legacy map " + path.getFileName() + ": " + e.getMessage());
+        }
+        return converted;
+    }
+
+    /**
+     * Replaces a file with the given contents. The contents are written to a
+     * temporary file next to it first, which is then moved over the file, so
+     * readers see either the old or the new contents.
+     *
+     * @param path     the file
+     * @param contents the new contents
+     * @throws IOException if the file can't be written
+     */
+    static void replaceFile(final Path path, final byte[] contents) throws IOException {
+        final Path temporary = Files.createTempFile(path.toAbsolutePath().getParent(),
+                path.getFileName().toString(), ".tmp");
+        try {
+            Files.write(temporary, contents);
+            Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temporary);
         }
     }
 }
@@ -0,0 +1,394 @@
+package hProjekt.controller;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.jetbrains.annotations.Nullable;
+
+import hProjekt.controller.io.MapCodec;
+import hProjekt.model.grid.RasterHexGrid;
+import hProjekt.model.grid.Tile;
+import javafx.scene.paint.Color;
+
+/**
+ * Renders small previews of saved maps and keeps them in a cache on disk.
+ * <p>
+ * A thumbnail is rasterized straight from the tile raster of the map file: every
+ * pixel is mapped to the hexagon it lies in and takes the color of its tile
+ * type, and tiles with a structure get a dark dot. No grid and no scene graph
+ * is built. The pixels are palette indices, one byte each, which keeps the
+ * cache small.
+ * <p>
+ * Thumbnails are appended to the cache file {@value #CACHE_FILE} in the maps
+ * directory, keyed by the content hash of the map, and their position is stored
+ * in the {@link MapCatalog}. Requests are served from memory, from the cache
+ * file or by rendering, in this order, on a single background thread, so a
+ * list only requests the thumbnails of the rows it shows. A map that changed
+ * gets a new content hash and is rendered again, the old thumbnail stays in the
+ * file unused.
+ */
+public class MapThumbnails {
+
+    /**
+     * The thumbnails of the maps of the {@link MapCatalog#SHARED shared catalog}.
+     */
+    public static final MapThumbnails SHARED = new MapThumbnails(
+            MapSaveController.getMapsDirectory().resolve(MapThumbnails.CACHE_FILE), MapCatalog.SHARED);
+
+    /**
+     * The name of the cache file.
+     */
+    public static final String CACHE_FILE = "thumbnails.cache";
+
+    /**
+     * The width of a thumbnail in pixels.
+     */
+    public static final int WIDTH = 96;
+
+    /**
+     * The height of a thumbnail in pixels.
+     */
+    public static final int HEIGHT = 72;
+
+    private static final int RECORD_BYTES = Long.BYTES + WIDTH * HEIGHT;
+    private static final int MEMORY_ENTRIES = 256;
+    private static final int STRUCTURE = Tile.Type.values().length + 1;
+    private static final int[] PALETTE = palette();
+
+    private final Path cacheFile;
+    private final MapCatalog catalog;
+    private final ExecutorService worker;
+    private final Map<Long, Thumbnail> memory = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(final Map.Entry<Long, Thumbnail> eldest) {
+            return size() > MEMORY_ENTRIES;
+        }
+    };
+    private @Nullable Map<Long, Long> offsets;
+
+    /**
+     * A rendered thumbnail.
+     *
+     * @param width  the width in pixels
+     * @param height the height in pixels
+     * @param pixels the colors of the pixels as ARGB, row by row
+     */
+    public record Thumbnail(int width, int height, int[] pixels) {
+    }
+
+    /**
+     * Creates a new thumbnail cache.
+     *
+     * @param cacheFile the file to keep the thumbnails in
+     * @param catalog   the catalog of the maps
+     */
+    public MapThumbnails(final Path cacheFile, final MapCatalog catalog) {
+        this.cacheFile = cacheFile;
+        this.catalog = catalog;
+        this.worker = Executors.newSingleThreadExecutor(runnable -> {
+            final Thread thread = new Thread(runnable, "MapThumbnailRenderer");
+            thread.setDaemon(true);
+            thread.setPriority(Thread.MIN_PRIORITY);
+            return thread;
+        });
+    }
+
+    /**
+     * Returns the thumbnail of a map if it is in memory.
+     *
+     * @param mapName the name of the map
+     * @return the thumbnail or {@code null} if it has to be requested
+     */
+    public @Nullable Thumbnail getIfReady(final String mapName) {
+        final MapCatalog.Entry entry = catalog.getEntry(mapName);
+        if (entry == null) {
+            return null;
+        }
+        synchronized (memory) {
+            return memory.get(entry.contentHash());
+        }
+    }
+
+    /**
+     * Requests the thumbnail of a map. It is read from the cache file or
+     * rendered in the background.
+     *
+     * @param mapName the name of the map
+     * @return the thumbnail, completed with {@code null} if the map can't be
+     *         read
+     */
+    public CompletableFuture<Thumbnail> request(final String mapName) {
+        final Thumbnail ready = getIfReady(mapName);
+        if (ready != null) {
+            return CompletableFuture.completedFuture(ready);
+        }
+        return CompletableFuture.supplyAsync(() -> load(mapName), worker);
+    }
+
+    /**
+     * Loads the thumbnail of a map from the cache file or renders and stores it.
+     * Only called on the worker thread.
+     *
+     * @param mapName the name of the map
+     * @return the thumbnail or {@code null} if the map can't be read
+     */
+    private @Nullable Thumbnail load(final String mapName) {
+        final MapCatalog.Entry entry = catalog.getEntry(mapName);
+        if (entry == null) {
+            return null;
+        }
+        final Thumbnail cached = getIfReady(mapName);
+        if (cached != null) {
+            return cached;
+        }
+        try {
+            byte[] indices = readCached(entry);
+            if (indices == null) {
+                indices = render(catalog.getMapFile(mapName));
+                final long offset = append(entry.contentHash(), indices);
+                catalog.setThumbnailOffset(mapName, offset);
+            }
+            final int[] pixels = new int[indices.length];
+            for (int i = 0; i < pixels.length; i++) {
+                pixels[i] = PALETTE[indices[i]];
+            }
+            final Thumbnail thumbnail = new Thumbnail(WIDTH, HEIGHT, pixels);
+            synchronized (memory) {
+                memory.put(entry.contentHash(), thumbnail);
+            }
+            return thumbnail;
+        } catch (final IOException | IllegalArgumentException e) {
+            System.out.println("Couldn't render the thumbnail of " + mapName + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Reads the thumbnail of a map from the cache file, first at the position
+     * stored in the catalog and then at the one found by scanning the file.
+     *
+     * @param entry the catalog entry of the map
+     * @return the palette indices of the thumbnail or {@code null} if it isn't
+     *         cached
+     * @throws IOException if the cache file can't be read
+     */
+    private @Nullable byte[] readCached(final MapCatalog.Entry entry) throws IOException {
+        if (!cacheFile.toFile().exists()) {
+            return null;
+        }
+        try (FileChannel channel = FileChannel.open(cacheFile, StandardOpenOption.READ)) {
+            if (entry.thumbnailOffset() >= 0) {
+                final byte[] indices = readRecord(channel, entry.thumbnailOffset(), entry.contentHash());
+                if (indices != null) {
+                    return indices;
+                }
+            }
+            if (offsets == null) {
+                offsets = new HashMap<>();
+                final ByteBuffer hash = ByteBuffer.allocate(Long.BYTES);
+                for (long offset = 0; offset + RECORD_BYTES <= channel.size(); offset += RECORD_BYTES) {
+                    hash.clear();
+                    channel.read(hash, offset);
+                    offsets.put(hash.getLong(0), offset);
+                }
+            }
+            final Long offset = offsets.get(entry.contentHash());
+            if (offset == null) {
+                return null;
+            }
+            catalog.setThumbnailOffset(entry.name(), offset);
+            return readRecord(channel, offset, entry.contentHash());
+        }
+    }
+
+    /**
+     * Reads a thumbnail record of the cache file.
+     *
+     * @param channel     the cache file
+     * @param offset      the position of the record
+     * @param contentHash the content hash the record must have
+     * @return the palette indices or {@code null} if the record belongs to
+     *         another map
+     * @throws IOException if the file can't be read
+     */
+    private static @Nullable byte[] readRecord(final FileChannel channel, final long offset,
+            final long contentHash) throws IOException {
+        if (offset % RECORD_BYTES != 0 || offset + RECORD_BYTES > channel.size()) {
+            return null;
+        }
+        final ByteBuffer record = ByteBuffer.allocate(RECORD_BYTES);
+        while (record.hasRemaining() && channel.read(record, offset + record.position()) >= 0) {
+            // read the whole record
+        }
+        if (record.getLong(0) != contentHash) {
+            return null;
+        }
+        final byte[] indices = new byte[WIDTH * HEIGHT];
+        record.get(Long.BYTES, indices);
+        return indices;
+    }
+
+    /**
+     * Appends a thumbnail record to the cache file.
+     *
+     * @param contentHash the content hash of the map
+     * @param indices     the palette indices of the thumbnail
+     * @return the position of the record
+     * @throws IOException if the file can't be written
+     */
+    private long append(final long contentHash, final byte[] indices) throws IOException {
+        try (FileChannel channel = FileChannel.open(cacheFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            // a record cut off by a crash is overwritten
+            final long offset = channel.size() / RECORD_BYTES * RECORD_BYTES;
+            final ByteBuffer record = ByteBuffer.allocate(RECORD_BYTES).putLong(contentHash).put(indices).flip();
+            while (record.hasRemaining()) {
+                channel.write(record, offset + record.position());
+            }
+            if (offsets != null) {
+                offsets.put(contentHash, offset);
+            }
+            return offset;
+        }
+    }
+
+    /**
+     * Rasterizes a map file into palette indices of {@link #WIDTH} by
+     * {@link #HEIGHT} pixels, scaled to fit and centered.
+     *
+     * @param mapFile the map file
+     * @return the palette indices, row by row
+     * @throws IOException              if the file can't be read
+     * @throws IllegalArgumentException if it isn't a valid map file
+     */
+    static byte[] render(final Path mapFile) throws IOException {
+        final ByteBuffer buffer = MapSaveController.readMapFile(mapFile);
+        final MapCodec.Header header = MapCodec.readHeader(buffer);
+        final int raster = buffer.position();
+        final int height = header.height();
+        buffer.position(raster + RasterHexGrid.cellBytes(header.width(), height));
+        final int[] structures = MapCodec.readStructureCells(buffer, header);
+
+        final double root3 = Math.sqrt(3);
+        double minX = Double.MAX_VALUE;
+        double maxX = -Double.MAX_VALUE;
+        double minY = Double.MAX_VALUE;
+        double maxY = -Double.MAX_VALUE;
+        for (int cell = 0; cell < header.width() * height; cell++) {
+            if (cell(buffer, raster, cell) != 0) {
+                final int q = header.minQ() + cell / height;
+                final int r = header.minR() + cell % height;
+                minX = Math.min(minX, root3 * (q + r / 2.0));
+                maxX = Math.max(maxX, root3 * (q + r / 2.0));
+                minY = Math.min(minY, 1.5 * r);
+                maxY = Math.max(maxY, 1.5 * r);
+            }
+        }
+        final byte[] indices = new byte[WIDTH * HEIGHT];
+        if (minX > maxX) {
+            return indices;
+        }
+        // the hexagons have a radius of one, the box spans them completely
+        minX -= root3 / 2;
+        maxX += root3 / 2;
+        minY -= 1;
+        maxY += 1;
+        final double scale = Math.min(WIDTH / (maxX - minX), HEIGHT / (maxY - minY));
+        final double originX = (minX + maxX) / 2 - WIDTH / 2.0 / scale;
+        final double originY = (minY + maxY) / 2 - HEIGHT / 2.0 / scale;
+
+        for (int py = 0; py < HEIGHT; py++) {
+            for (int px = 0; px < WIDTH; px++) {
+                final double x = originX + (px + 0.5) / scale;
+                final double y = originY + (py + 0.5) / scale;
+                final double fractionalR = y / 1.5;
+                final double fractionalQ = x / root3 - fractionalR / 2;
+                final long hex = roundHex(fractionalQ, fractionalR);
+                final int q = (int) (hex >> 32) - header.minQ();
+                final int r = (int) hex - header.minR();
+                if (q >= 0 && q < header.width() && r >= 0 && r < height) {
+                    indices[py * WIDTH + px] = (byte) cell(buffer, raster, q * height + r);
+                }
+            }
+        }
+
+        final int dot = Math.max(1, (int) Math.round(scale * 0.3));
+        for (final int cell : structures) {
+            final int q = header.minQ() + cell / height;
+            final int r = header.minR() + cell % height;
+            final int centerX = (int) ((root3 * (q + r / 2.0) - originX) * scale);
+            final int centerY = (int) ((1.5 * r - originY) * scale);
+            for (int py = centerY - dot / 2; py < centerY - dot / 2 + dot; py++) {
+                for (int px = centerX - dot / 2; px < centerX - dot / 2 + dot; px++) {
+                    if (px >= 0 && px < WIDTH && py >= 0 && py < HEIGHT) {
+                        indices[py * WIDTH + px] = (byte) STRUCTURE;
+                    }
+                }
+            }
+        }
+        return indices;
+    }
+
+    /**
+     * Rounds fractional axial coordinates to the hexagon they lie in.
+     *
+     * @param q the fractional {@code q}
+     * @param r the fractional {@code r}
+     * @return the {@code q} in the upper and the {@code r} in the lower half
+     */
+    private static long roundHex(final double q, final double r) {
+        final double s = -q - r;
+        long roundQ = Math.round(q);
+        long roundR = Math.round(r);
+        final long roundS = Math.round(s);
+        final double dq = Math.abs(roundQ - q);
+        final double dr = Math.abs(roundR - r);
+        final double ds = Math.abs(roundS - s);
+        if (dq > dr && dq > ds) {
+            roundQ = -roundR - roundS;
+        } else if (dr > ds) {
+            roundR = -roundQ - roundS;
+        }
+        return (roundQ << 32) | (roundR & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Returns the value of a cell of the tile raster of a map file.
+     *
+     * @param buffer the map file
+     * @param raster the position of the raster
+     * @param cell   the index of the cell
+     * @return {@code 0} for no tile, the ordinal of the tile type plus one
+     *         otherwise
+     */
+    private static int cell(final ByteBuffer buffer, final int raster, final int cell) {
+        final int bits = buffer.get(raster + (cell >>> 1));
+        return (cell & 1) == 0 ? (bits >>> 4) & 0xF : bits & 0xF;
+    }
+
+    /**
+     * Builds the palette of the thumbnails: transparent for the sea, the colors
+     * of the tile types and a dark brown for structures.
+     *
+     * @return the ARGB colors by palette index
+     */
+    private static int[] palette() {
+        final Tile.Type[] types = Tile.Type.values();
+        final int[] palette = new int[256];
+        for (int i = 0; i < types.length; i++) {
+            final Color color = types[i].color;
+            palette[i + 1] = 0xFF000000 | (int) Math.round(color.getRed() * 255) << 16
+                    | (int) Math.round(color.getGreen() * 255) << 8 | (int) Math.round(color.getBlue() * 255);
+        }
+        palette[types.length + 1] = 0xFF3B2A1A;
+        return palette;
+    }
+}
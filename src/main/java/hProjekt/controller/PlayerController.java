@@ -37,7 +37,7 @@ import javax.swing.text.Position;
  */
 public class PlayerController {
     private final GameController gameController;
-    private final BlockingDeque<PlayerAction> actions = new LinkedBlockingDeque<>();
+    private final BlockingDeque<PlayerAction> actions = new ActionQueue();
 
     private final Player player;
     private final Property<PlayerState> playerStateProperty = new SimpleObjectProperty<>(
@@ -107,6 +107,26 @@ public class PlayerController {
         return playerStateProperty.getValue();
     }
 
+    /**
+     * Returns the {@link GameController} this controller is part of.
+     *
+     * @return the game controller
+     */
+    public GameController getGameController() {
+        return gameController;
+    }
+
+    /**
+     * Returns the Zobrist hash of the game state, updated after every executed
+     * action.
+     *
+     * @return the hash of the game state
+     * @see GameController#getZobristTracker()
+     */
+    public long getStateHash() {
+        return gameController.getZobristTracker().getHash();
+    }
+
     /**
      * Updates the {@link #playerStateProperty} with the current
      * {@link PlayerState}.
@@ -660,17 +680,31 @@ public class PlayerController {
      * </ol>
      */
     private void drawPathCard() {
-        final CardType cardType = CardType.values()[Config.RANDOM.nextInt(CardType.values().length)];
+        final CardType cardType = CardType.values()[gameController.getRandom().nextInt(CardType.values().length)];
         final List<Types> types = new ArrayList<>(Arrays.asList(Tile.Type.values()));
         if (!cardType.equals(CardType.IN_AREA) && !cardType.equals(CardType.IN_BIGGEST_AREA)
                 && !cardType.equals(CardType.NOT_IN_AREA) && !cardType.equals(CardType.NOT_IN_BIGGEST_AREA)) {
             types.add(null);
             types.addAll(Arrays.asList(Structure.Type.values()));
         }
-        final Types tileType = types.get(Config.RANDOM.nextInt(types.size()));
+        final Types tileType = types.get(gameController.getRandom().nextInt(types.size()));
         player.getPathCards().add(cardType.cardConstructor.apply(player, tileType));
     }
 
+    /**
+     * The queue of triggered actions. Taking the next action tells the
+     * {@link GameEventListener}s of the game that the player waits for it.
+     */
+    private final class ActionQueue extends LinkedBlockingDeque<PlayerAction> {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        public PlayerAction take() throws InterruptedException {
+            gameController.fireBeforeAction(PlayerController.this);
+            return super.take();
+        }
+    }
+
     @Override
     public String toString() {
         return "PlayerController[" +
@@ -0,0 +1,207 @@
+package hProjekt.controller;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Stream;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import hProjekt.Config;
+import hProjekt.controller.ai.StartPositions;
+import hProjekt.controller.io.SaveGameCodec;
+import hProjekt.model.GameState;
+import hProjekt.model.Player;
+import hProjekt.model.grid.HexGrid;
+
+/**
+ * Controller class responsible for suspending games to files and resuming
+ * them.
+ * <p>
+ * A game is saved as the {@link TurnCheckpoint} the {@link GameController}
+ * captured at the start of the current turn, so saving doesn't have to wait
+ * for the game thread and a resumed game starts that turn again. Only games
+ * with a human player capture checkpoints, unless they are
+ * {@link GameController#enableCheckpoints() enabled}. The files are
+ * encoded by the {@link SaveGameCodec} and stored with the extension
+ * {@code .tobagosave} in {@link Config#SAVED_GAMES_PATH}.
+ * <p>
+ * Taking the checkpoint is all that happens on the calling thread. Encoding and
+ * writing the file is done by a background thread, and the file is replaced
+ * atomically, so a crash while saving leaves the previous save intact.
+ * <p>
+ * The end screen of a stopped game saves it, and the setup menu resumes saved
+ * games with {@link #resumeGame(SaveGameCodec.SaveGame, GameSetup, HexGrid, GameState)}.
+ */
+public class SaveGameController {
+    /**
+     * The extension of saved game files.
+     */
+    public static final String SAVE_FILE_EXTENSION = ".tobagosave";
+
+    private static final ExecutorService WRITER = Executors.newSingleThreadExecutor(runnable -> {
+        final Thread thread = new Thread(runnable, "SaveGameWriter");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * Saves the given game at the start of its current turn.
+     *
+     * @param gameController the game to save
+     * @param name           the name of the save, without the file extension
+     * @return a future completed with the written file, or completed
+     *         exceptionally if the game hasn't started yet, doesn't capture
+     *         checkpoints or the file can't be written
+     */
+    public static CompletableFuture<Path> saveGame(final GameController gameController,
+            @NotNull final String name) {
+        final TurnCheckpoint checkpoint = gameController.getCheckpoint();
+        if (checkpoint == null) {
+            return CompletableFuture.failedFuture(
+                    new IllegalStateException("The game hasn't started yet or doesn't capture checkpoints"));
+        }
+        final GameState state = gameController.getState();
+        final Map<Integer, Config.AvailableAiControllers> ais = new HashMap<>();
+        for (final Player player : state.getPlayers()) {
+            if (player.isAi()) {
+                ais.put(player.getID(), player.getAiController());
+            }
+        }
+        final SaveGameCodec.SaveGame game = new SaveGameCodec.SaveGame(StartPositions.contentHash(state.getGrid()),
+                gameController.getMapName(), Map.copyOf(ais), checkpoint);
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                Files.createDirectories(Config.SAVED_GAMES_PATH);
+                final Path path = Config.SAVED_GAMES_PATH.resolve(name + SAVE_FILE_EXTENSION);
+                MapSaveController.replaceFile(path, SaveGameCodec.write(game));
+                return path;
+            } catch (final IOException e) {
+                throw new RuntimeException("Couldn't save game " + name, e);
+            }
+        }, WRITER);
+    }
+
+    /**
+     * Loads a saved game. The returned controller resumes the game at the saved
+     * turn when it is {@link GameController#startGame() started}.
+     * <p>
+     * The map of the game is looked up in the {@link MapCatalog#SHARED map
+     * catalog} by its content hash, so it is found even if it was renamed.
+     *
+     * @param name the name of the save, without the file extension
+     * @return the controller of the loaded game, or {@code null} if the save or
+     *         its map doesn't exist
+     * @throws RuntimeException if the save can't be read or is malformed
+     */
+    public static @Nullable GameController loadGame(@NotNull final String name) {
+        final SaveGameCodec.SaveGame game = readSave(name);
+        if (game == null) {
+            return null;
+        }
+        final String mapName = findMap(game);
+        final HexGrid grid = mapName == null ? null : MapSaveController.loadMap(mapName);
+        if (grid == null) {
+            System.out.println("The map of saved game " + name + " doesn't exist anymore");
+            return null;
+        }
+        final GameState state = game.checkpoint().state().materialize(grid, game.ais());
+        final GameController gameController = new GameController(state);
+        gameController.setMapName(mapName);
+        gameController.resumeFrom(game.checkpoint());
+        return gameController;
+    }
+
+    /**
+     * Reads a saved game.
+     *
+     * @param name the name of the save, without the file extension
+     * @return the saved game or {@code null} if the save doesn't exist
+     * @throws RuntimeException if the save can't be read or is malformed
+     */
+    public static @Nullable SaveGameCodec.SaveGame readSave(@NotNull final String name) {
+        try {
+            return SaveGameCodec.read(Files.readAllBytes(Config.SAVED_GAMES_PATH.resolve(name + SAVE_FILE_EXTENSION)));
+        } catch (final NoSuchFileException | InvalidPathException e) {
+            return null;
+        } catch (final IOException | IllegalArgumentException e) {
+            throw new RuntimeException("Couldn't load saved game " + name, e);
+        }
+    }
+
+    /**
+     * Resumes a saved game in the state of a game that wasn't started yet, the
+     * state the setup menu fills. The grid carries the given {@link GameSetup}
+     * with the saved turn, so the controller of the state resumes the game there
+     * when it is started.
+     *
+     * @param game  the saved game
+     * @param setup the setup of the resumed game, naming the {@link #findMap map}
+     *              of the game
+     * @param grid  a freshly loaded grid of the map
+     * @param state the state of the game, without players
+     * @throws IllegalStateException    if the state has players already
+     * @throws IllegalArgumentException if the grid wasn't loaded from a map file
+     */
+    public static void resumeGame(final SaveGameCodec.SaveGame game, final GameSetup setup, final HexGrid grid,
+            final GameState state) {
+        if (!state.getPlayers().isEmpty()) {
+            throw new IllegalStateException("The game has players already");
+        }
+        setup.resumingAt(game.checkpoint()).attachTo(grid);
+        state.setGrid(grid);
+        game.checkpoint().state().restore(state, game.ais());
+    }
+
+    /**
+     * Retrieves the names of all saved games, sorted.
+     *
+     * @return the names of the saved games without their file extension, or an
+     *         empty list if there are none
+     */
+    public static List<String> getSavedGames() {
+        if (!Files.isDirectory(Config.SAVED_GAMES_PATH)) {
+            return List.of();
+        }
+        try (final Stream<Path> files = Files.list(Config.SAVED_GAMES_PATH)) {
+            return files.map(path -> path.getFileName().toString())
+                    .filter(fileName -> fileName.endsWith(SAVE_FILE_EXTENSION))
+                    .map(fileName -> fileName.substring(0, fileName.length() - SAVE_FILE_EXTENSION.length()))
+                    .sorted()
+                    .toList();
+        } catch (final IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Finds the map of a saved game in the {@link MapCatalog#SHARED map catalog}
+     * by its content hash, so it is found even if it was renamed. If several
+     * maps have the same content, the name the map had when the game was saved
+     * is preferred.
+     *
+     * @param game the saved game
+     * @return the name of the map or {@code null} if there is no such map
+     */
+    public static @Nullable String findMap(final SaveGameCodec.SaveGame game) {
+        String found = null;
+        for (final MapCatalog.Entry entry : MapCatalog.SHARED.getEntries()) {
+            if (entry.contentHash() == game.mapHash()) {
+                if (entry.name().equals(game.mapName())) {
+                    return game.mapName();
+                }
+                found = entry.name();
+            }
+        }
+        return found;
+    }
+}
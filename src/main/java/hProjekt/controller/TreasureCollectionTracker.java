@@ -0,0 +1,152 @@
+package hProjekt.controller;
+
+import hProjekt.controller.actions.AcceptTreasure;
+import hProjekt.controller.actions.PlayerAction;
+import hProjekt.model.GameState;
+import hProjekt.model.cards.CurseCard;
+import hProjekt.model.cards.TreasureOdds;
+
+/**
+ * Follows the treasure collection in progress to answer how likely the
+ * remaining treasure cards contain a curse.
+ * <p>
+ * A collection starts when the first player is asked to draw treasure cards and
+ * ends with the first objective that isn't part of it. The number of cards drawn
+ * for the collection is the growth of the deck depth since its start, and every
+ * accepted treasure counts as a handed out gold card. Drawn curses are
+ * revealed, so the curses left in the deck when the collection starts are
+ * known; the curses drawn for the collection itself are not. Gold cards declined by all
+ * players are not seen, so the risk is a slight overestimate after them.
+ * <p>
+ * Every {@link GameController} owns a tracker, see
+ * {@link GameController#getTreasureCollectionTracker()}.
+ */
+public class TreasureCollectionTracker implements GameEventListener {
+
+    private volatile GameState game;
+    private volatile int startDepth = -1;
+    private volatile int cursesLeft;
+    private volatile int dealt;
+
+    @Override
+    public void onGameStart(final GameController gameController) {
+        game = gameController.getState();
+        startDepth = -1;
+    }
+
+    @Override
+    public void beforeAction(final PlayerController playerController) {
+        switch (playerController.getPlayerObjective()) {
+            case DRAW_TREASURE_CARDS -> {
+                if (startDepth < 0) {
+                    cursesLeft = countCursesLeft();
+                    startDepth = getDepth();
+                    dealt = 0;
+                }
+            }
+            case CONFIRM_TREASURE_CARDS, ACCEPT_TREASURE -> {
+            }
+            default -> startDepth = -1;
+        }
+    }
+
+    @Override
+    public void afterAction(final PlayerController playerController, final PlayerAction action) {
+        if (startDepth >= 0 && action instanceof final AcceptTreasure acceptTreasure && acceptTreasure.accept()) {
+            dealt++;
+        }
+    }
+
+    /**
+     * Returns whether a treasure collection is in progress.
+     *
+     * @return whether treasure cards are being drawn or handed out
+     */
+    public boolean isCollecting() {
+        return startDepth >= 0;
+    }
+
+    /**
+     * Returns the number of cards drawn from the treasure deck so far.
+     *
+     * @return the depth of the deck
+     */
+    public int getDepth() {
+        final GameState state = game;
+        return state == null ? 0 : TreasureOdds.DECK_SIZE - state.getTreasureDeck().size();
+    }
+
+    /**
+     * Returns the number of curses that were left in the treasure deck when the
+     * collection in progress started.
+     *
+     * @return the number of curses left before the collection
+     */
+    public int getCursesLeft() {
+        return cursesLeft;
+    }
+
+    /**
+     * Counts the curses left in the treasure deck.
+     *
+     * @return the number of curses that weren't drawn yet
+     */
+    private int countCursesLeft() {
+        final GameState state = game;
+        return state == null ? 0
+                : (int) state.getTreasureDeck().stream().filter(CurseCard.class::isInstance).count();
+    }
+
+    /**
+     * Returns the number of cards drawn for the collection in progress.
+     *
+     * @return the number of drawn cards or {@code 0} if no treasure is collected
+     */
+    public int getDrawn() {
+        final int start = startDepth;
+        return start < 0 ? 0 : getDepth() - start;
+    }
+
+    /**
+     * Returns the number of gold cards handed out in the collection in progress.
+     *
+     * @return the number of accepted treasures
+     */
+    public int getDealt() {
+        return dealt;
+    }
+
+    /**
+     * Returns the probability that a curse is among the cards of the collection
+     * in progress that are not handed out yet, including the offered one.
+     *
+     * @return the probability or {@code 0} if no treasure is collected
+     */
+    public double getCurseRisk() {
+        final int start = startDepth;
+        return start < 0 ? 0 : TreasureOdds.remainingCurseRisk(start, cursesLeft, getDepth() - start, dealt);
+    }
+
+    /**
+     * Returns the probability that a curse is among the cards after the offered
+     * one in the collection in progress.
+     *
+     * @return the probability or {@code 0} if no treasure is collected
+     */
+    public double getCurseRiskAfterOffer() {
+        final int start = startDepth;
+        return start < 0 ? 0
+                : TreasureOdds.remainingCurseRisk(start, cursesLeft, getDepth() - start, dealt + 1);
+    }
+
+    /**
+     * Returns the number of cards of the collection in progress after the
+     * offered one.
+     *
+     * @return the number of remaining cards, {@code 0} if no treasure is
+     *         collected
+     */
+    public int getRemainingAfterOffer() {
+        return Math.max(0, getDrawn() - dealt - 1);
+    }
+}
@@ -0,0 +1,22 @@
+package hProjekt.controller;
+
+import hProjekt.model.snapshot.PersistentGameState;
+
+/**
+ * The state of a game at the start of a turn, from which the game can be
+ * resumed.
+ * <p>
+ * The {@link GameController} captures a checkpoint before every turn of a game
+ * that can be saved, so the game can be suspended at any time and resumed at
+ * the start of the turn that was in progress.
+ *
+ * @param round       the round of the turn, {@code 0} while the players select
+ *                    their starting positions
+ * @param playerIndex the index of the active player in turn order
+ * @param objective   the objective the active player starts the turn with,
+ *                    either {@link PlayerObjective#SELECT_POSITION} or
+ *                    {@link PlayerObjective#REGULAR_TURN}
+ * @param state       the state of the game
+ */
+public record TurnCheckpoint(int round, int playerIndex, PlayerObjective objective, PersistentGameState state) {
+}
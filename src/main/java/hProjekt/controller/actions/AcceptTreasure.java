@@ -13,7 +13,7 @@ import hProjekt.controller.PlayerController;
 public record AcceptTreasure(boolean accept) implements PlayerAction {
 
     @Override
-    public void execute(final PlayerController pc) {
+    public void perform(final PlayerController pc) {
         pc.acceptTreasure(accept);
     }
 }
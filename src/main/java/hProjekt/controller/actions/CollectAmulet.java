@@ -10,7 +10,7 @@ import hProjekt.controller.PlayerController;
 public class CollectAmulet implements PlayerAction {
 
     @Override
-    public void execute(final PlayerController pc) throws IllegalActionException {
+    public void perform(final PlayerController pc) throws IllegalActionException {
         pc.collectAmulet();
     }
 }
@@ -13,7 +13,7 @@ import javafx.scene.paint.Color;
  */
 public record CollectTreasure(Color trailColor) implements PlayerAction {
     @Override
-    public void execute(final PlayerController pc) throws IllegalActionException {
+    public void perform(final PlayerController pc) throws IllegalActionException {
         pc.collectTreasure(trailColor);
     }
 }
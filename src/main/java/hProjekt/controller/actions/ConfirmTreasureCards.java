@@ -9,7 +9,7 @@ import hProjekt.controller.PlayerController;
  */
 public class ConfirmTreasureCards implements PlayerAction {
     @Override
-    public void execute(final PlayerController pc) {
+    public void perform(final PlayerController pc) {
         // This is intentionally left blank
     }
 }
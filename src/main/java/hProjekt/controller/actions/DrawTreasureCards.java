@@ -11,7 +11,7 @@ import hProjekt.controller.PlayerController;
 public class DrawTreasureCards implements PlayerAction {
 
     @Override
-    public void execute(final PlayerController pc) {
+    public void perform(final PlayerController pc) {
         pc.drawTreasureCards();
     }
 }
@@ -13,7 +13,7 @@ import hProjekt.model.grid.Tile;
 public record DriveAction(Tile targetTile) implements PlayerAction {
 
     @Override
-    public void execute(final PlayerController pc) throws IllegalActionException {
+    public void perform(final PlayerController pc) throws IllegalActionException {
         pc.drive(targetTile);
     }
 }
@@ -1,5 +1,7 @@
 package hProjekt.controller.actions;
 
+import hProjekt.controller.GameController;
+import hProjekt.controller.GameEventListener;
 import hProjekt.controller.PlayerController;
 
 /**
@@ -8,10 +10,30 @@ import hProjekt.controller.PlayerController;
  */
 public interface PlayerAction {
     /**
-     * Executes the action.
+     * Executes the action. The {@link GameEventListener}s of the game are told
+     * when the action starts and when it was executed or rejected.
      *
      * @param pc the player controller that executes the action
      * @throws IllegalActionException if the action is illegal
      */
-    void execute(PlayerController pc) throws IllegalActionException;
+    default void execute(final PlayerController pc) throws IllegalActionException {
+        final GameController gameController = pc.getGameController();
+        gameController.fireActionStart(pc, this);
+        try {
+            perform(pc);
+        } catch (final IllegalActionException e) {
+            gameController.fireActionRejected(pc, this);
+            throw e;
+        }
+        gameController.fireAfterAction(pc, this);
+    }
+
+    /**
+     * Does what the action tells the player controller to do, without telling
+     * the listeners of the game. Only called by {@link #execute}.
+     *
+     * @param pc the player controller that executes the action
+     * @throws IllegalActionException if the action is illegal
+     */
+    void perform(PlayerController pc) throws IllegalActionException;
 }
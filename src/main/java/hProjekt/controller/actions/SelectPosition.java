@@ -14,7 +14,7 @@ import hProjekt.model.grid.TilePosition;
 public record SelectPosition(TilePosition position) implements PlayerAction {
 
     @Override
-    public void execute(final PlayerController pc) throws IllegalActionException {
+    public void perform(final PlayerController pc) throws IllegalActionException {
         pc.selectStartingPosition(position);
     }
 
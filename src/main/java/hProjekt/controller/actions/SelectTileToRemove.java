@@ -17,7 +17,7 @@ import javafx.scene.paint.Color;
  */
 public record SelectTileToRemove(TilePosition tilePosition, Color color) implements PlayerAction {
     @Override
-    public void execute(final PlayerController pc) throws IllegalActionException {
+    public void perform(final PlayerController pc) throws IllegalActionException {
         pc.selectTileToRemove(tilePosition, color);
     }
 }
@@ -10,7 +10,7 @@ import hProjekt.controller.PlayerController;
 public record StartDrive() implements PlayerAction {
 
     @Override
-    public void execute(final PlayerController pc) {
+    public void perform(final PlayerController pc) {
         pc.startDrive();
     }
 
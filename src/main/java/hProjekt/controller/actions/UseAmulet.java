@@ -13,7 +13,7 @@ import hProjekt.controller.PlayerController;
 public record UseAmulet(AmuletAction amuletAction) implements PlayerAction {
 
     @Override
-    public void execute(final PlayerController pc) throws IllegalActionException {
+    public void perform(final PlayerController pc) throws IllegalActionException {
         pc.useAmulet(amuletAction);
     }
 }
@@ -0,0 +1,324 @@
+package hProjekt.controller.ai;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import hProjekt.Config;
+import hProjekt.controller.GameController;
+import hProjekt.controller.GameEventListener;
+import hProjekt.controller.PlayerObjective;
+
+/**
+ * Runs the decisions of AI controllers off the game loop thread and enforces
+ * a deadline on each of them.
+ * <p>
+ * A decision is submitted as an {@link AnytimeComputation} together with a
+ * fallback result. The computation runs on a dedicated pool of
+ * {@link Config#AI_SCHEDULER_THREADS} threads and offers better results while
+ * it runs. The best result is committed as soon as the computation returns or
+ * when the deadline of the objective passes, see
+ * {@link #deadlineMillis(PlayerObjective)}, so a slow search can't stall the
+ * game. A controller cancels its pending decision when its objective changes,
+ * which also tells a computation still running to stop. Decisions on
+ * objectives a player doesn't have yet can be {@link #ponder pondered} in the
+ * background while the other players act.
+ * <p>
+ * The time from submitting to committing is recorded per game and objective.
+ * When a game with AI players ends, its histograms are appended to
+ * {@link Config#AI_LATENCY_PATH} and dropped.
+ */
+public class AiScheduler implements GameEventListener {
+
+    /**
+     * The scheduler shared by all AI controllers.
+     */
+    public static final AiScheduler SHARED = new AiScheduler(Config.AI_SCHEDULER_THREADS);
+
+    private final ExecutorService executor;
+    private final ExecutorService ponderExecutor;
+    private final ScheduledExecutorService timer;
+    private final Map<GameController, Latencies> games = Collections.synchronizedMap(new WeakHashMap<>());
+
+    /**
+     * The latency histograms of the decisions made in a single game.
+     */
+    public static class Latencies {
+        private final Map<PlayerObjective, LatencyHistogram> decisions = new EnumMap<>(PlayerObjective.class);
+        private final LatencyHistogram ponders = new LatencyHistogram();
+
+        /**
+         * Creates empty histograms for all objectives.
+         */
+        Latencies() {
+            for (final PlayerObjective objective : PlayerObjective.values()) {
+                decisions.put(objective, new LatencyHistogram());
+            }
+        }
+
+        /**
+         * Returns the latency histogram of the given objective.
+         *
+         * @param objective the objective
+         * @return the histogram of the time from submitting to committing
+         */
+        public LatencyHistogram get(final PlayerObjective objective) {
+            return decisions.get(objective);
+        }
+
+        /**
+         * Returns the latency histogram of the ponder decisions.
+         *
+         * @return the histogram of the time from submitting to committing
+         */
+        public LatencyHistogram ponders() {
+            return ponders;
+        }
+
+        /**
+         * Returns the number of recorded decisions, including ponder
+         * decisions.
+         *
+         * @return the number of decisions
+         */
+        public long count() {
+            long count = ponders.count();
+            for (final LatencyHistogram histogram : decisions.values()) {
+                count += histogram.count();
+            }
+            return count;
+        }
+    }
+
+    /**
+     * Creates a new scheduler.
+     *
+     * @param threads the number of threads running computations
+     */
+    public AiScheduler(final int threads) {
+        this.executor = Executors.newFixedThreadPool(threads,
+                daemonThreads("AiSchedulerThread", Thread.NORM_PRIORITY));
+        this.ponderExecutor = Executors.newFixedThreadPool(Config.AI_PONDER_THREADS,
+                daemonThreads("AiPonderThread", Thread.MIN_PRIORITY));
+        this.timer = Executors.newSingleThreadScheduledExecutor(daemonThreads("AiDeadlineThread",
+                Thread.MAX_PRIORITY));
+    }
+
+    /**
+     * Returns the time an AI controller may take to decide on the given
+     * objective. Objectives with a single sensible action get
+     * {@link Config#AI_QUICK_DECISION_MILLIS}, the steps of a drive
+     * {@link Config#AI_DRIVE_DECISION_MILLIS} and the choice of a turn
+     * {@link Config#AI_MOVE_TIME_BUDGET_MILLIS}.
+     *
+     * @param objective the objective
+     * @return the time in milliseconds
+     */
+    public static long deadlineMillis(final PlayerObjective objective) {
+        return switch (objective) {
+            case REGULAR_TURN, PLAY_PATH_CARD -> Config.AI_MOVE_TIME_BUDGET_MILLIS;
+            case DRIVE, EXTRA_DRIVE, SELECT_POSITION, SELECT_TILE_TO_REMOVE -> Config.AI_DRIVE_DECISION_MILLIS;
+            default -> Config.AI_QUICK_DECISION_MILLIS;
+        };
+    }
+
+    /**
+     * Submits a decision on the given objective.
+     *
+     * @param game        the game the decision is made in
+     * @param objective   the objective to decide on
+     * @param fallback    the result to commit if the computation offers nothing
+     *                    better in time
+     * @param computation the computation
+     * @param commit      the consumer of the committed result, called once on a
+     *                    scheduler thread unless the decision is cancelled
+     * @param <T>         the type of the result
+     * @return the pending decision
+     */
+    public <T> Decision<T> submit(final GameController game, final PlayerObjective objective, final T fallback,
+            final AnytimeComputation<T> computation, final Consumer<T> commit) {
+        return schedule(executor, false, objective, fallback, computation, commit,
+                getLatencies(game).get(objective));
+    }
+
+    /**
+     * Submits a decision on an objective this player doesn't have yet, which
+     * is made while other players act. Ponder decisions run on their own
+     * {@link Config#AI_PONDER_THREADS} threads with low priority, so they never
+     * delay the decisions of the active player, and get the same time as the
+     * objective they anticipate, counted from when they start running.
+     *
+     * @param game        the game the decision is made in
+     * @param objective   the anticipated objective
+     * @param fallback    the result to commit if the computation offers nothing
+     *                    better in time
+     * @param computation the computation
+     * @param commit      the consumer of the committed result, called once on a
+     *                    scheduler thread unless the decision is cancelled
+     * @param <T>         the type of the result
+     * @return the pending decision
+     */
+    public <T> Decision<T> ponder(final GameController game, final PlayerObjective objective, final T fallback,
+            final AnytimeComputation<T> computation, final Consumer<T> commit) {
+        return schedule(ponderExecutor, true, objective, fallback, computation, commit,
+                getLatencies(game).ponders());
+    }
+
+    /**
+     * Creates a decision and runs its computation on the given executor.
+     *
+     * @param runner         the executor to run the computation on
+     * @param timedFromStart whether the deadline is counted from the start of
+     *                       the computation instead of from now
+     * @param objective      the objective to decide on
+     * @param fallback       the initial result
+     * @param computation    the computation
+     * @param commit         the consumer of the committed result
+     * @param histogram      the histogram to record the latency to
+     * @param <T>            the type of the result
+     * @return the pending decision
+     */
+    private <T> Decision<T> schedule(final ExecutorService runner, final boolean timedFromStart,
+            final PlayerObjective objective, final T fallback, final AnytimeComputation<T> computation,
+            final Consumer<T> commit, final LatencyHistogram histogram) {
+        final Decision<T> decision = new Decision<>(objective, fallback, commit, histogram);
+        if (!timedFromStart) {
+            startTimer(decision);
+        }
+        runner.execute(() -> {
+            if (decision.isResolved()) {
+                return;
+            }
+            if (timedFromStart) {
+                startTimer(decision);
+            }
+            decision.markStarted();
+            try {
+                computation.compute(decision);
+            } catch (final RuntimeException e) {
+                e.printStackTrace();
+            }
+            decision.commit();
+        });
+        return decision;
+    }
+
+    /**
+     * Sets the deadline of the given decision and schedules its commit.
+     *
+     * @param decision the decision
+     */
+    private void startTimer(final Decision<?> decision) {
+        final long millis = deadlineMillis(decision.getObjective());
+        decision.setDeadline(System.nanoTime() + millis * 1_000_000,
+                timer.schedule(decision::commit, millis, TimeUnit.MILLISECONDS));
+    }
+
+    /**
+     * Returns the latency histograms of the given game, which are kept until
+     * the game ends.
+     *
+     * @param game the game
+     * @return the histograms of the decisions made in the game
+     */
+    public Latencies getLatencies(final GameController game) {
+        return games.computeIfAbsent(game, key -> new Latencies());
+    }
+
+    /**
+     * Appends the latency histograms of a game as CSV, one line per objective
+     * and non-empty bucket. Ponder decisions are written as objective
+     * {@code PONDER}. The header is written if the file is new.
+     *
+     * @param path      the file to append to
+     * @param game      the seed of the game, written as its identifier
+     * @param latencies the histograms of the game
+     * @throws IOException if the file can't be written
+     */
+    public static void exportLatencies(final Path path, final long game, final Latencies latencies)
+            throws IOException {
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        final boolean created = !Files.exists(path);
+        try (BufferedWriter writer = Files.newBufferedWriter(path, StandardOpenOption.CREATE,
+                StandardOpenOption.APPEND)) {
+            if (created) {
+                writer.write("game,objective,upper_bound_micros,count");
+                writer.newLine();
+            }
+            for (final PlayerObjective objective : PlayerObjective.values()) {
+                writeBuckets(writer, game + "," + objective.name(), latencies.get(objective));
+            }
+            writeBuckets(writer, game + ",PONDER", latencies.ponders());
+        }
+    }
+
+    /**
+     * Writes the non-empty buckets of a histogram as CSV lines.
+     *
+     * @param writer    the writer
+     * @param prefix    the leading columns of every line
+     * @param histogram the histogram
+     * @throws IOException if writing fails
+     */
+    private static void writeBuckets(final BufferedWriter writer, final String prefix,
+            final LatencyHistogram histogram) throws IOException {
+        for (int bucket = 0; bucket < LatencyHistogram.BUCKETS; bucket++) {
+            final long count = histogram.count(bucket);
+            if (count > 0) {
+                writer.write(prefix + "," + LatencyHistogram.upperBoundMicros(bucket) + "," + count);
+                writer.newLine();
+            }
+        }
+    }
+
+    @Override
+    public void onGameStart(final GameController gameController) {
+        games.put(gameController, new Latencies());
+    }
+
+    @Override
+    public void onGameEnd(final GameController gameController) {
+        final Latencies latencies = games.remove(gameController);
+        if (latencies == null || latencies.count() == 0) {
+            return;
+        }
+        try {
+            exportLatencies(Config.AI_LATENCY_PATH, gameController.getSeed(), latencies);
+        } catch (final IOException e) {
+            System.out.println("Couldn't export AI latencies: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Creates a factory of numbered daemon threads.
+     *
+     * @param name     the name of the threads
+     * @param priority the priority of the threads
+     * @return the thread factory
+     */
+    static ThreadFactory daemonThreads(final String name, final int priority) {
+        final AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            final Thread thread = new Thread(runnable);
+            thread.setName(name + "-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            thread.setPriority(priority);
+            return thread;
+        };
+    }
+}
@@ -0,0 +1,23 @@
+package hProjekt.controller.ai;
+
+/**
+ * A computation that can be stopped at any time and still deliver a result.
+ * <p>
+ * Implementations {@link Decision#offer(Object) offer} every improvement of
+ * their result to the given decision and return as soon as
+ * {@link Decision#shouldStop()} is {@code true}. They must not rely on being
+ * run to completion: the {@link AiScheduler} commits the best offered result
+ * at the deadline whether the computation has returned or not.
+ *
+ * @param <T> the type of the result
+ */
+@FunctionalInterface
+public interface AnytimeComputation<T> {
+
+    /**
+     * Runs the computation.
+     *
+     * @param decision the decision to offer results to
+     */
+    void compute(Decision<T> decision);
+}
@@ -0,0 +1,852 @@
+package hProjekt.controller.ai;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import hProjekt.Config;
+import hProjekt.controller.MapSaveController;
+import hProjekt.controller.analytics.ResultArchiveWriter;
+import hProjekt.model.grid.HexGrid;
+
+/**
+ * Plays many simulated games in lockstep, for balance studies of maps.
+ * <p>
+ * The rules and the player policy are those of {@link Simulation#newGame} and
+ * {@link Simulation#rollout}, but the state of all games is stored in flat
+ * primitive arrays instead of one object per game, and every {@link #step()}
+ * advances all running games by one turn. The candidate tiles of the treasure
+ * trails are bitsets laid out word by word across games, and the tiles of the
+ * card every game uses in a phase are gathered into the same layout, so
+ * counting the candidates, intersecting them with the cards in hand and
+ * applying the played cards are each one word-wise AND across the games per
+ * trail and word. These loops run on a {@link BitsetKernel}, by default the
+ * Vector API one if the JVM was started with the {@code jdk.incubator.vector}
+ * module and plain loops otherwise. Only the choice of the move, driving and
+ * the treasure distribution run game by game.
+ * <p>
+ * Every game has its own SplitMix64 stream, so the results of a game only
+ * depend on the seed and its index, not on the number of games in the batch.
+ */
+public final class BatchSimulation {
+
+    /**
+     * The value of a curse card in the treasure deck.
+     */
+    private static final int CURSE = 0;
+
+    private static final int MAX_TRAIL_LENGTH = 64;
+    private static final int NO_MOVE = -1;
+    private static final int DRIVE = -2;
+    private static final int PASS = -3;
+    private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+
+    /**
+     * The number of games advanced together through all phases of a turn.
+     */
+    private static final int BLOCK_GAMES = 256;
+
+    private final SimulationBoard board;
+    private final BitsetKernel kernel;
+    private final int games;
+    private final int players;
+    private final int trails;
+    private final int words;
+    private final int kinds;
+    private final int handCapacity;
+    private final int handLimit;
+    private final int deckSize;
+
+    /**
+     * The tiles passing every card kind, indexed by {@code word * kinds + kind}.
+     */
+    private final long[] cardWords;
+
+    /**
+     * The card kinds to draw uniformly from, every card type equally often.
+     */
+    private final int[] kindTable;
+    private final long[] allTiles;
+
+    private final long[] seeds;
+    private final int[] turn;
+    private final int[] turns;
+    private final int[] deckDepth;
+    private final int[] curses;
+    private final boolean[] over;
+    private final int[] deck;
+
+    private final int[] position;
+    private final int[] goldSum;
+    private final int[] gold;
+    private final int[] hands;
+
+    private final long[] trailTiles;
+    private final int[] trailLength;
+    private final long[] candidates;
+    private final byte[] trailOwners;
+
+    private final int[] moveTrail;
+    private final int[] moveSlot;
+    private final int[] playKind;
+    private final int[] slotKind;
+    private final long[] intersections;
+    private final long[] turnBits;
+    private final int[] playSlot;
+    private final int[] playTrail;
+    private final long[] bestRemaining;
+
+    /**
+     * The tiles of the card of every game in the current phase, indexed by
+     * {@code word * games + game}.
+     */
+    private final long[] cardMasks;
+
+    private final boolean[] blockOver;
+    private final long[] scratch;
+    private final int[] pool = new int[MAX_TRAIL_LENGTH + 1];
+    private final int[] windroses = new int[MAX_TRAIL_LENGTH];
+
+    /**
+     * Creates new games, dealt like {@link Simulation#newGame}.
+     *
+     * @param board   the board all games are played on
+     * @param games   the number of games
+     * @param players the number of players per game
+     * @param seed    the seed of the games
+     */
+    public BatchSimulation(final SimulationBoard board, final int games, final int players, final long seed) {
+        this(board, games, players, seed, BitsetKernel.best());
+    }
+
+    /**
+     * Creates new games that use the given kernel for the bulk loops.
+     *
+     * @param board   the board all games are played on
+     * @param games   the number of games
+     * @param players the number of players per game
+     * @param seed    the seed of the games
+     * @param kernel  the kernel of the bulk loops
+     */
+    BatchSimulation(final SimulationBoard board, final int games, final int players, final long seed,
+            final BitsetKernel kernel) {
+        this.board = board;
+        this.kernel = kernel;
+        this.games = games;
+        this.players = players;
+        this.trails = Config.TREASURE_TRAIL_COLORS.size();
+        this.words = board.words();
+        this.kinds = SimulationBoard.CARD_KINDS;
+        this.handCapacity = Config.MAX_CARDS_IN_HAND_WITH_TWO_PLAYERS;
+        this.handLimit = players == 2 ? Config.MAX_CARDS_IN_HAND_WITH_TWO_PLAYERS : Config.MAX_CARDS_IN_HAND;
+        this.deckSize = Config.TOP_PILE_GOLD_CARDS + Config.LOWER_PILE_GOLD_CARDS + Config.TOTAL_CURSE_CARDS;
+
+        cardWords = new long[words * kinds];
+        for (int kind = 0; kind < kinds; kind++) {
+            final long[] tiles = board.cardTiles(kind);
+            for (int w = 0; w < words; w++) {
+                cardWords[w * kinds + kind] = tiles[w];
+            }
+        }
+        kindTable = kindTable(board.cardKindsByType());
+        allTiles = new long[words];
+        board.allTiles(allTiles);
+
+        seeds = new long[games];
+        turn = new int[games];
+        turns = new int[games];
+        deckDepth = new int[games];
+        curses = new int[games];
+        over = new boolean[games];
+        deck = new int[games * deckSize];
+        position = new int[games * players];
+        goldSum = new int[games * players];
+        gold = new int[games * players * (Config.MAX_GOLD_CARD_VALUE + 1)];
+        hands = new int[games * players * handCapacity];
+        trailTiles = new long[trails * words * games];
+        trailLength = new int[trails * games];
+        candidates = new long[trails * games];
+        trailOwners = new byte[trails * games * MAX_TRAIL_LENGTH];
+        moveTrail = new int[games];
+        moveSlot = new int[games];
+        playKind = new int[games];
+        slotKind = new int[games];
+        intersections = new long[handCapacity * trails * games];
+        turnBits = new long[games];
+        playSlot = new int[games];
+        playTrail = new int[games];
+        bestRemaining = new long[games];
+        cardMasks = new long[words * games];
+        blockOver = new boolean[(games + BLOCK_GAMES - 1) / BLOCK_GAMES];
+        scratch = new long[words];
+
+        final SplittableRandom streams = new SplittableRandom(seed);
+        for (int g = 0; g < games; g++) {
+            seeds[g] = streams.nextLong();
+            deal(g);
+        }
+    }
+
+    /**
+     * Returns the number of games.
+     *
+     * @return the number of games
+     */
+    public int games() {
+        return games;
+    }
+
+    /**
+     * Returns the number of players per game.
+     *
+     * @return the number of players
+     */
+    public int players() {
+        return players;
+    }
+
+    /**
+     * Returns the name of the kernel of the bulk loops.
+     *
+     * @return the name of the kernel
+     */
+    public String kernel() {
+        return kernel.name();
+    }
+
+    /**
+     * Returns whether the given game is over.
+     *
+     * @param game the index of the game
+     * @return whether the game is over
+     */
+    public boolean isOver(final int game) {
+        return over[game];
+    }
+
+    /**
+     * Returns the number of turns played in the given game.
+     *
+     * @param game the index of the game
+     * @return the number of turns
+     */
+    public int turns(final int game) {
+        return turns[game];
+    }
+
+    /**
+     * Returns the gold of a player.
+     *
+     * @param game   the index of the game
+     * @param player the index of the player
+     * @return the summed value of the gold cards
+     */
+    public int gold(final int game, final int player) {
+        return goldSum[game * players + player];
+    }
+
+    /**
+     * Returns the reward of a player like {@link Simulation#reward(int)}.
+     *
+     * @param game   the index of the game
+     * @param player the index of the player
+     * @return the reward in {@code [0, 1]}
+     */
+    public double reward(final int game, final int player) {
+        final int base = game * players;
+        int best = Integer.MIN_VALUE;
+        for (int p = 0; p < players; p++) {
+            if (p != player) {
+                best = Math.max(best, goldSum[base + p]);
+            }
+        }
+        final int own = goldSum[base + player];
+        if (!over[game]) {
+            return 0.5 + 0.5 * Math.tanh((own - best) / 8.0);
+        }
+        if (own < best) {
+            return 0;
+        }
+        int tied = 0;
+        for (int p = 0; p < players; p++) {
+            if (goldSum[base + p] == own) {
+                tied++;
+            }
+        }
+        return 1.0 / tied;
+    }
+
+    /**
+     * Plays until all games are over or the given number of turns was played.
+     *
+     * @param maxTurns the maximum number of turns
+     * @return the number of games that are over
+     */
+    public int run(final int maxTurns) {
+        for (int i = 0; i < maxTurns && step(); i++) {
+            // every step plays one turn of every running game
+        }
+        int finished = 0;
+        for (int g = 0; g < games; g++) {
+            if (over[g]) {
+                finished++;
+            }
+        }
+        return finished;
+    }
+
+    /**
+     * Plays one turn in every game that isn't over. The games are processed in
+     * blocks of {@link #BLOCK_GAMES}, so the data of a block stays in the cache
+     * between the phases of a turn. Blocks whose games are all over are skipped.
+     *
+     * @return whether a game was still running
+     */
+    public boolean step() {
+        boolean running = false;
+        for (int block = 0; block < blockOver.length; block++) {
+            if (!blockOver[block]) {
+                final int from = block * BLOCK_GAMES;
+                blockOver[block] = !step(from, Math.min(games, from + BLOCK_GAMES));
+                running |= !blockOver[block];
+            }
+        }
+        return running;
+    }
+
+    /**
+     * Plays one turn in every game of a block that isn't over.
+     *
+     * @param from the index of the first game of the block
+     * @param to   the index after the last game of the block
+     * @return whether a game of the block was still running
+     */
+    private boolean step(final int from, final int to) {
+        countCandidates(from, to);
+        countIntersections(from, to);
+        for (int g = from; g < to; g++) {
+            turnBits[g] = nextLong(g);
+        }
+        choosePlays(from, to);
+        boolean running = false;
+        for (int g = from; g < to; g++) {
+            if (over[g]) {
+                setMove(g, NO_MOVE, NO_MOVE);
+            } else {
+                running = true;
+                chooseMove(g);
+            }
+        }
+        if (!running) {
+            return false;
+        }
+        applyPlays(from, to);
+        for (int g = from; g < to; g++) {
+            if (!over[g]) {
+                finishMove(g);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Counts the candidate tiles of every trail in every game of a block.
+     *
+     * @param from the index of the first game of the block
+     * @param to   the index after the last game of the block
+     */
+    private void countCandidates(final int from, final int to) {
+        for (int t = 0; t < trails; t++) {
+            final int out = t * games;
+            Arrays.fill(candidates, out + from, out + to, 0);
+            for (int w = 0; w < words; w++) {
+                kernel.count(trailTiles, (t * words + w) * games + from, candidates, out + from, to - from);
+            }
+        }
+    }
+
+    /**
+     * Counts the candidate tiles of every trail that pass every card in the hand
+     * of the player to move, in every game of a block.
+     *
+     * @param from the index of the first game of the block
+     * @param to   the index after the last game of the block
+     */
+    private void countIntersections(final int from, final int to) {
+        for (int slot = 0; slot < handLimit; slot++) {
+            for (int g = from; g < to; g++) {
+                slotKind[g] = hands[(g * players + turn[g]) * handCapacity + slot];
+            }
+            gatherCards(from, to, slotKind, -1);
+            for (int t = 0; t < trails; t++) {
+                final int out = (slot * trails + t) * games;
+                Arrays.fill(intersections, out + from, out + to, 0);
+                for (int w = 0; w < words; w++) {
+                    kernel.countAnd(trailTiles, (t * words + w) * games + from, cardMasks, w * games + from,
+                            intersections, out + from, to - from);
+                }
+            }
+        }
+    }
+
+    /**
+     * Intersects the trails with the cards played in this step in every game of
+     * a block.
+     *
+     * @param from the index of the first game of the block
+     * @param to   the index after the last game of the block
+     */
+    private void applyPlays(final int from, final int to) {
+        for (int t = 0; t < trails; t++) {
+            gatherCards(from, to, playKind, t);
+            for (int w = 0; w < words; w++) {
+                kernel.and(trailTiles, (t * words + w) * games + from, cardMasks, w * games + from, to - from);
+            }
+        }
+    }
+
+    /**
+     * Gathers the tiles of a card of every game of a block into
+     * {@link #cardMasks}.
+     *
+     * @param from  the index of the first game of the block
+     * @param to    the index after the last game of the block
+     * @param kind  the card kind of every game
+     * @param trail the trail the card must have been played on, all tiles are
+     *              kept in the games that didn't, or -1 to gather the cards of
+     *              all games
+     */
+    private void gatherCards(final int from, final int to, final int[] kind, final int trail) {
+        for (int w = 0; w < words; w++) {
+            final int out = w * games;
+            final int cards = w * kinds;
+            for (int g = from; g < to; g++) {
+                final boolean played = trail < 0 || moveTrail[g] == trail && moveSlot[g] >= 0;
+                cardMasks[out + g] = played ? cardWords[cards + kind[g]] : -1L;
+            }
+        }
+    }
+
+    /**
+     * Chooses the card each player to move would play in every game of a block:
+     * usually the card that narrows a trail the most, with the random choices of
+     * {@link Simulation}'s rollout policy taken from two bits of the random
+     * number of the turn per card and trail.
+     *
+     * @param from the index of the first game of the block
+     * @param to   the index after the last game of the block
+     */
+    private void choosePlays(final int from, final int to) {
+        Arrays.fill(playSlot, from, to, -1);
+        Arrays.fill(playTrail, from, to, -1);
+        Arrays.fill(bestRemaining, from, to, Long.MAX_VALUE);
+        for (int slot = 0; slot < handLimit; slot++) {
+            for (int t = 0; t < trails; t++) {
+                final int lengths = t * games;
+                final int counts = (slot * trails + t) * games;
+                final int shift = 2 * (slot * trails + t);
+                for (int g = from; g < to; g++) {
+                    final int length = trailLength[lengths + g];
+                    final long remaining = intersections[counts + g];
+                    final boolean first = length == 0 && playSlot[g] < 0;
+                    final boolean better = length > 0 && length < MAX_TRAIL_LENGTH && remaining > 0
+                            && remaining < bestRemaining[g] && remaining < candidates[lengths + g]
+                            && (turnBits[g] >>> shift & 3) != 0;
+                    if (first || better) {
+                        playSlot[g] = slot;
+                        playTrail[g] = t;
+                    }
+                    if (better) {
+                        bestRemaining[g] = remaining;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Chooses the move of the player to move with the rollout policy of
+     * {@link Simulation}: drive to a collectable treasure in reach, sometimes
+     * drive towards the trail with the fewest candidates, otherwise play the
+     * card chosen by {@link #choosePlays}, drive to a solved trail or pass.
+     *
+     * @param g the index of the game
+     */
+    private void chooseMove(final int g) {
+        final int player = g * players + turn[g];
+        final int from = position[player];
+        int bestDrive = -1;
+        long bestDriveCandidates = Long.MAX_VALUE;
+        for (int t = 0; t < trails && from >= 0; t++) {
+            if (trailLength[t * games + g] == 0) {
+                continue;
+            }
+            final long count = candidates[t * games + g];
+            if (count == 1 && board.distance(from, singleTile(t, g)) <= Config.DRIVE_LIMIT) {
+                setMove(g, DRIVE, t);
+                return;
+            }
+            if (count < bestDriveCandidates) {
+                bestDrive = t;
+                bestDriveCandidates = count;
+            }
+        }
+        // the top 16 bits of the turn decide on the drive with a chance of 1 in 3
+        if (bestDrive >= 0 && bestDriveCandidates <= 3 && ((turnBits[g] >>> 48) * 3 >>> 16) == 0) {
+            setMove(g, DRIVE, bestDrive);
+        } else if (playSlot[g] >= 0) {
+            setMove(g, playSlot[g], playTrail[g]);
+            playKind[g] = hands[player * handCapacity + playSlot[g]];
+        } else if (bestDriveCandidates == 1) {
+            setMove(g, DRIVE, bestDrive);
+        } else {
+            setMove(g, PASS, NO_MOVE);
+        }
+    }
+
+    /**
+     * Carries out the parts of the chosen move that aren't done in bulk and ends
+     * the turn.
+     *
+     * @param g the index of the game
+     */
+    private void finishMove(final int g) {
+        final int player = g * players + turn[g];
+        final int slot = moveSlot[g];
+        if (slot >= 0) {
+            final int trail = moveTrail[g] * games + g;
+            trailOwners[trail * MAX_TRAIL_LENGTH + trailLength[trail]++] = (byte) turn[g];
+            hands[player * handCapacity + slot] = randomKind(g);
+        } else if (slot == DRIVE) {
+            drive(g, moveTrail[g]);
+        } else {
+            hands[player * handCapacity + nextInt(g, handLimit)] = randomKind(g);
+        }
+        turns[g]++;
+        turn[g] = (turn[g] + 1) % players;
+        if (turn[g] == 0 && deckDepth[g] == 0) {
+            over[g] = true;
+        }
+    }
+
+    /**
+     * Drives the player to move towards the closest candidate of a trail and
+     * collects the treasure on arrival.
+     *
+     * @param g     the index of the game
+     * @param trail the index of the trail
+     */
+    private void drive(final int g, final int trail) {
+        final int player = g * players + turn[g];
+        for (int w = 0; w < words; w++) {
+            scratch[w] = trailTiles[(trail * words + w) * games + g];
+        }
+        final int target = position[player] < 0 ? -1 : board.nearest(position[player], scratch);
+        if (target < 0) {
+            return;
+        }
+        for (int step = 0; step < Config.DRIVE_LIMIT && position[player] != target; step++) {
+            position[player] = board.stepToward(position[player], target);
+        }
+        if (position[player] == target && trailLength[trail * games + g] > 0
+                && SimulationBoard.count(scratch) == 1) {
+            collect(g, trail);
+        }
+    }
+
+    /**
+     * Distributes the treasure of a trail like {@link Simulation} does and resets
+     * the trail.
+     *
+     * @param g     the index of the game
+     * @param trail the index of the trail
+     */
+    private void collect(final int g, final int trail) {
+        final int index = trail * games + g;
+        int left = 0;
+        for (int i = trailLength[index] - 1; i >= 0; i--) {
+            windroses[left++] = trailOwners[index * MAX_TRAIL_LENGTH + i];
+        }
+        final int cards = left + 1;
+        for (int i = 0; i < cards; i++) {
+            pool[i] = drawTreasureCard(g);
+        }
+        for (int i = cards - 1; i > 0; i--) {
+            final int j = nextInt(g, i + 1);
+            final int swap = pool[i];
+            pool[i] = pool[j];
+            pool[j] = swap;
+        }
+        int next = 0;
+        for (int i = 0; i < cards && next < left; i++) {
+            if (pool[i] == CURSE) {
+                for (int w = next; w < left; w++) {
+                    boolean first = true;
+                    for (int v = next; v < w && first; v++) {
+                        first = windroses[v] != windroses[w];
+                    }
+                    if (first) {
+                        curse(g * players + windroses[w]);
+                    }
+                }
+                break;
+            }
+            addGold(g * players + windroses[next++], pool[i]);
+        }
+        for (int w = 0; w < words; w++) {
+            trailTiles[(trail * words + w) * games + g] = allTiles[w];
+        }
+        trailLength[index] = 0;
+    }
+
+    /**
+     * Curses a player, who loses the most valuable gold card. Amulets don't
+     * spawn in simulated games, so none protect.
+     *
+     * @param player the index of the player across all games
+     */
+    private void curse(final int player) {
+        final int base = player * (Config.MAX_GOLD_CARD_VALUE + 1);
+        for (int value = Config.MAX_GOLD_CARD_VALUE; value > 0; value--) {
+            if (gold[base + value] > 0) {
+                gold[base + value]--;
+                goldSum[player] -= value;
+                return;
+            }
+        }
+    }
+
+    /**
+     * Adds a gold card to a player.
+     *
+     * @param player the index of the player across all games
+     * @param value  the value of the gold card
+     */
+    private void addGold(final int player, final int value) {
+        gold[player * (Config.MAX_GOLD_CARD_VALUE + 1) + value]++;
+        goldSum[player] += value;
+    }
+
+    /**
+     * Draws the top card of the treasure deck of a game or a random gold card
+     * if it is empty.
+     *
+     * @param g the index of the game
+     * @return the value of the card, {@link #CURSE} for a curse
+     */
+    private int drawTreasureCard(final int g) {
+        if (deckDepth[g] == 0) {
+            return 1 + nextInt(g, Config.MAX_GOLD_CARD_VALUE);
+        }
+        final int card = deck[g * deckSize + --deckDepth[g]];
+        if (card == CURSE) {
+            curses[g]--;
+        }
+        return card;
+    }
+
+    /**
+     * Deals a new game: random positions, full hands, empty trails and a
+     * shuffled treasure deck with the curses in its lower part.
+     *
+     * @param g the index of the game
+     */
+    private void deal(final int g) {
+        for (int p = 0; p < players; p++) {
+            final int player = g * players + p;
+            position[player] = nextInt(g, board.size());
+            for (int slot = 0; slot < handLimit; slot++) {
+                hands[player * handCapacity + slot] = randomKind(g);
+            }
+        }
+        for (int t = 0; t < trails; t++) {
+            for (int w = 0; w < words; w++) {
+                trailTiles[(t * words + w) * games + g] = allTiles[w];
+            }
+        }
+        deckDepth[g] = deckSize;
+        curses[g] = Config.TOTAL_CURSE_CARDS;
+        final int base = g * deckSize;
+        for (int i = 0; i < deckSize; i++) {
+            deck[base + i] = 1 + nextInt(g, Config.MAX_GOLD_CARD_VALUE);
+        }
+        final int lowerPile = Math.min(deckSize, Config.LOWER_PILE_GOLD_CARDS + Config.TOTAL_CURSE_CARDS);
+        for (int c = 0; c < Config.TOTAL_CURSE_CARDS && c < lowerPile; c++) {
+            int index;
+            do {
+                index = nextInt(g, lowerPile);
+            } while (deck[base + index] == CURSE);
+            deck[base + index] = CURSE;
+        }
+    }
+
+    /**
+     * Returns the only candidate tile of a solved trail.
+     *
+     * @param t the index of the trail
+     * @param g the index of the game
+     * @return the index of the tile
+     */
+    private int singleTile(final int t, final int g) {
+        for (int w = 0; w < words; w++) {
+            final long bits = trailTiles[(t * words + w) * games + g];
+            if (bits != 0) {
+                return (w << 6) | Long.numberOfTrailingZeros(bits);
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Records the chosen move of a game.
+     *
+     * @param g     the index of the game
+     * @param slot  the hand slot of the played card, {@link #DRIVE} or
+     *              {@link #PASS}
+     * @param trail the index of the trail or {@link #NO_MOVE}
+     */
+    private void setMove(final int g, final int slot, final int trail) {
+        moveSlot[g] = slot;
+        moveTrail[g] = trail;
+    }
+
+    /**
+     * Draws a random card kind of a game.
+     *
+     * @param g the index of the game
+     * @return the card kind
+     */
+    private int randomKind(final int g) {
+        return kindTable[nextInt(g, kindTable.length)];
+    }
+
+    /**
+     * Returns the next random number of a game.
+     *
+     * @param g     the index of the game
+     * @param bound the exclusive upper bound
+     * @return a number in {@code [0, bound)}
+     */
+    private int nextInt(final int g, final int bound) {
+        return (int) (((nextLong(g) >>> 32) * bound) >>> 32);
+    }
+
+    /**
+     * Returns the next 64 random bits of a game, from its SplitMix64 stream.
+     *
+     * @param g the index of the game
+     * @return the random bits
+     */
+    private long nextLong(final int g) {
+        long z = seeds[g] += GOLDEN_GAMMA;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * Builds a table of card kinds in which every card type takes the same
+     * number of entries, split evenly among its kinds.
+     *
+     * @param kindsByType the card kinds of every card type
+     * @return the table
+     */
+    private static int[] kindTable(final int[][] kindsByType) {
+        int entries = 1;
+        for (final int[] kinds : kindsByType) {
+            entries = entries / gcd(entries, kinds.length) * kinds.length;
+        }
+        final int[] table = new int[entries * kindsByType.length];
+        int i = 0;
+        for (final int[] kinds : kindsByType) {
+            for (int j = 0; j < entries; j++) {
+                table[i++] = kinds[j % kinds.length];
+            }
+        }
+        return table;
+    }
+
+    /**
+     * Returns the greatest common divisor of two positive numbers.
+     *
+     * @param a the first number
+     * @param b the second number
+     * @return the greatest common divisor
+     */
+    private static int gcd(final int a, final int b) {
+        return b == 0 ? a : gcd(b, a % b);
+    }
+
+    /**
+     * Plays a batch of games on a saved map and prints how often each seat wins,
+     * the mean gold per seat and the throughput compared to playing the same
+     * number of {@link Simulation}s one after another.
+     * <p>
+     * Arguments: the name of the map, the number of games, the number of players
+     * and optionally a {@link ResultArchiveWriter result archive} to append the
+     * finished games to. Without arguments, 4096 three player games are played on
+     * the {@code default} map. The Vector API kernel is used if the JVM is started
+     * with {@code --add-modules jdk.incubator.vector}.
+     *
+     * @param args the arguments
+     * @throws IOException if the archive can't be written
+     */
+    public static void main(final String[] args) throws IOException {
+        final String map = args.length > 0 ? args[0] : "default";
+        final int games = args.length > 1 ? Integer.parseInt(args[1]) : 4096;
+        final int players = args.length > 2 ? Integer.parseInt(args[2]) : 3;
+        final HexGrid grid = MapSaveController.loadMap(map);
+        if (grid == null) {
+            throw new IllegalArgumentException("Unknown map: " + map);
+        }
+        final SimulationBoard board = SimulationBoard.of(grid);
+        final int maxTurns = 512;
+
+        final long batchStart = System.nanoTime();
+        final BatchSimulation batch = new BatchSimulation(board, games, players, System.nanoTime());
+        final int finished = batch.run(maxTurns);
+        final double batchSeconds = (System.nanoTime() - batchStart) / 1e9;
+
+        final long singleStart = System.nanoTime();
+        final SplittableRandom random = new SplittableRandom();
+        for (int g = 0; g < games; g++) {
+            Simulation.newGame(board, players, random).rollout(maxTurns, random);
+        }
+        final double singleSeconds = (System.nanoTime() - singleStart) / 1e9;
+
+        System.out.printf("%d of %d games finished%n", finished, games);
+        for (int p = 0; p < players; p++) {
+            double wins = 0;
+            long gold = 0;
+            for (int g = 0; g < games; g++) {
+                if (batch.isOver(g)) {
+                    wins += batch.reward(g, p);
+                }
+                gold += batch.gold(g, p);
+            }
+            System.out.printf("Seat %d: wins %.1f%%, mean gold %.1f%n", p + 1,
+                    100 * wins / Math.max(1, finished), (double) gold / games);
+        }
+        System.out.printf("Batch (%s kernel): %.0f games/s, one by one: %.0f games/s%n", batch.kernel(),
+                games / batchSeconds, games / singleSeconds);
+
+        if (args.length > 3) {
+            final List<String> controllers = Collections.nCopies(players, "ROLLOUT");
+            try (final ResultArchiveWriter archive = new ResultArchiveWriter(Paths.get(args[3]))) {
+                for (int g = 0; g < games; g++) {
+                    if (!batch.isOver(g)) {
+                        continue;
+                    }
+                    final int[] gold = new int[players];
+                    for (int p = 0; p < players; p++) {
+                        gold[p] = batch.gold(g, p);
+                    }
+                    archive.append(map, controllers, gold);
+                }
+            }
+        }
+    }
+}
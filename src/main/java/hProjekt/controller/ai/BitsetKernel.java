@@ -0,0 +1,413 @@
+package hProjekt.controller.ai;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * The bulk loops of {@link BatchSimulation}: word-wise operations on bitsets
+ * laid out across games, so that the word of every game is next to the same
+ * word of the next game.
+ * <p>
+ * There are two implementations. {@link #SCALAR} is a plain loop over the
+ * words. {@link #VECTOR} uses the Vector API of the {@code jdk.incubator.vector}
+ * module, which is only resolved if the JVM is started with
+ * {@code --add-modules jdk.incubator.vector}; it is {@code null} otherwise.
+ * The build doesn't add the incubator module to the compiler, so the vector
+ * operations are looked up at runtime and called through method handles held
+ * in constants, which the JIT compiler inlines.
+ */
+abstract class BitsetKernel {
+
+    /**
+     * The kernel of plain loops, available everywhere.
+     */
+    static final BitsetKernel SCALAR = new Scalar();
+
+    /**
+     * The kernel of the Vector API, or {@code null} if the module isn't
+     * available.
+     */
+    static final @Nullable BitsetKernel VECTOR = Vector.isAvailable() ? new Vector() : null;
+
+    /**
+     * Returns the fastest available kernel.
+     *
+     * @return the vector kernel if available, otherwise the scalar kernel
+     */
+    static BitsetKernel best() {
+        return VECTOR != null ? VECTOR : SCALAR;
+    }
+
+    /**
+     * Returns the name of the kernel, for reports.
+     *
+     * @return the name
+     */
+    abstract String name();
+
+    /**
+     * Intersects words with masks: {@code words[i] &= masks[i]}.
+     *
+     * @param words       the words to intersect
+     * @param wordsOffset the index of the first word
+     * @param masks       the masks
+     * @param masksOffset the index of the first mask
+     * @param length      the number of words
+     */
+    abstract void and(long[] words, int wordsOffset, long[] masks, int masksOffset, int length);
+
+    /**
+     * Adds the number of set bits of words to counts:
+     * {@code counts[i] += bitCount(words[i])}.
+     *
+     * @param words        the words
+     * @param wordsOffset  the index of the first word
+     * @param counts       the counts
+     * @param countsOffset the index of the first count
+     * @param length       the number of words
+     */
+    abstract void count(long[] words, int wordsOffset, long[] counts, int countsOffset, int length);
+
+    /**
+     * Adds the number of bits set in both words and masks to counts:
+     * {@code counts[i] += bitCount(words[i] & masks[i])}.
+     *
+     * @param words        the words
+     * @param wordsOffset  the index of the first word
+     * @param masks        the masks
+     * @param masksOffset  the index of the first mask
+     * @param counts       the counts
+     * @param countsOffset the index of the first count
+     * @param length       the number of words
+     */
+    abstract void countAnd(long[] words, int wordsOffset, long[] masks, int masksOffset, long[] counts,
+            int countsOffset, int length);
+
+    /**
+     * The kernel of plain loops.
+     */
+    private static final class Scalar extends BitsetKernel {
+
+        @Override
+        String name() {
+            return "scalar";
+        }
+
+        @Override
+        void and(final long[] words, final int wordsOffset, final long[] masks, final int masksOffset,
+                final int length) {
+            for (int i = 0; i < length; i++) {
+                words[wordsOffset + i] &= masks[masksOffset + i];
+            }
+        }
+
+        @Override
+        void count(final long[] words, final int wordsOffset, final long[] counts, final int countsOffset,
+                final int length) {
+            for (int i = 0; i < length; i++) {
+                counts[countsOffset + i] += Long.bitCount(words[wordsOffset + i]);
+            }
+        }
+
+        @Override
+        void countAnd(final long[] words, final int wordsOffset, final long[] masks, final int masksOffset,
+                final long[] counts, final int countsOffset, final int length) {
+            for (int i = 0; i < length; i++) {
+                counts[countsOffset + i] += Long.bitCount(words[wordsOffset + i] & masks[masksOffset + i]);
+            }
+        }
+    }
+
+    /**
+     * The kernel of the Vector API, on {@code LongVector}s of the preferred
+     * species of the hardware. The words that don't fill a whole vector are
+     * handled by the scalar kernel.
+     * <p>
+     * The vectors are passed around as {@code Object}s. The lane-wise bit count
+     * {@code VectorOperators.BIT_COUNT} exists since Java 19; before that, the
+     * bits are counted with shifts, masks and a multiplication on the vectors.
+     */
+    private static final class Vector extends BitsetKernel {
+
+        private static final String PACKAGE = "jdk.incubator.vector.";
+
+        private static final @Nullable Class<?> LONG_VECTOR = find("LongVector");
+        private static final @Nullable Object SPECIES = species();
+        private static final int LANES = SPECIES == null ? 0 : lanes();
+
+        private static final @Nullable MethodHandle FROM_ARRAY = fromArray();
+        private static final @Nullable MethodHandle INTO_ARRAY = method("intoArray", void.class, long[].class,
+                int.class);
+        private static final @Nullable MethodHandle AND = lanewise("AND");
+        private static final @Nullable MethodHandle ADD = lanewise("ADD");
+        private static final @Nullable MethodHandle SUB = lanewise("SUB");
+        private static final @Nullable MethodHandle AND_SCALAR = lanewiseScalar("AND");
+        private static final @Nullable MethodHandle LSHR_SCALAR = lanewiseScalar("LSHR");
+        private static final @Nullable MethodHandle MUL_SCALAR = lanewiseScalar("MUL");
+        private static final @Nullable MethodHandle BIT_COUNT = unary("BIT_COUNT");
+
+        @Override
+        String name() {
+            return "vector (" + LANES + " lanes)";
+        }
+
+        @Override
+        void and(final long[] words, final int wordsOffset, final long[] masks, final int masksOffset,
+                final int length) {
+            final int bound = length - length % LANES;
+            try {
+                for (int i = 0; i < bound; i += LANES) {
+                    final Object a = (Object) FROM_ARRAY.invokeExact(words, wordsOffset + i);
+                    final Object b = (Object) FROM_ARRAY.invokeExact(masks, masksOffset + i);
+                    INTO_ARRAY.invokeExact((Object) AND.invokeExact(a, b), words, wordsOffset + i);
+                }
+            } catch (final Throwable e) {
+                throw rethrow(e);
+            }
+            SCALAR.and(words, wordsOffset + bound, masks, masksOffset + bound, length - bound);
+        }
+
+        @Override
+        void count(final long[] words, final int wordsOffset, final long[] counts, final int countsOffset,
+                final int length) {
+            final int bound = length - length % LANES;
+            try {
+                for (int i = 0; i < bound; i += LANES) {
+                    final Object bits = bitCount((Object) FROM_ARRAY.invokeExact(words, wordsOffset + i));
+                    final Object sum = (Object) ADD.invokeExact((Object) FROM_ARRAY.invokeExact(counts,
+                            countsOffset + i), bits);
+                    INTO_ARRAY.invokeExact(sum, counts, countsOffset + i);
+                }
+            } catch (final Throwable e) {
+                throw rethrow(e);
+            }
+            SCALAR.count(words, wordsOffset + bound, counts, countsOffset + bound, length - bound);
+        }
+
+        @Override
+        void countAnd(final long[] words, final int wordsOffset, final long[] masks, final int masksOffset,
+                final long[] counts, final int countsOffset, final int length) {
+            final int bound = length - length % LANES;
+            try {
+                for (int i = 0; i < bound; i += LANES) {
+                    final Object a = (Object) FROM_ARRAY.invokeExact(words, wordsOffset + i);
+                    final Object b = (Object) FROM_ARRAY.invokeExact(masks, masksOffset + i);
+                    final Object bits = bitCount((Object) AND.invokeExact(a, b));
+                    final Object sum = (Object) ADD.invokeExact((Object) FROM_ARRAY.invokeExact(counts,
+                            countsOffset + i), bits);
+                    INTO_ARRAY.invokeExact(sum, counts, countsOffset + i);
+                }
+            } catch (final Throwable e) {
+                throw rethrow(e);
+            }
+            SCALAR.countAnd(words, wordsOffset + bound, masks, masksOffset + bound, counts, countsOffset + bound,
+                    length - bound);
+        }
+
+        /**
+         * Counts the set bits of every lane of a vector.
+         *
+         * @param vector the vector
+         * @return the vector of the counts
+         * @throws Throwable if a vector operation fails
+         */
+        private static Object bitCount(final Object vector) throws Throwable {
+            if (BIT_COUNT != null) {
+                return (Object) BIT_COUNT.invokeExact(vector);
+            }
+            Object x = vector;
+            x = (Object) SUB.invokeExact(x,
+                    (Object) AND_SCALAR.invokeExact((Object) LSHR_SCALAR.invokeExact(x, 1L), 0x5555555555555555L));
+            x = (Object) ADD.invokeExact((Object) AND_SCALAR.invokeExact(x, 0x3333333333333333L),
+                    (Object) AND_SCALAR.invokeExact((Object) LSHR_SCALAR.invokeExact(x, 2L), 0x3333333333333333L));
+            x = (Object) AND_SCALAR.invokeExact((Object) ADD.invokeExact(x,
+                    (Object) LSHR_SCALAR.invokeExact(x, 4L)), 0x0F0F0F0F0F0F0F0FL);
+            return (Object) LSHR_SCALAR.invokeExact((Object) MUL_SCALAR.invokeExact(x, 0x0101010101010101L), 56L);
+        }
+
+        /**
+         * Returns whether the module was resolved and every operation was found.
+         *
+         * @return whether the kernel can be used
+         */
+        private static boolean isAvailable() {
+            return LANES > 0 && FROM_ARRAY != null && INTO_ARRAY != null && AND != null && ADD != null
+                    && (BIT_COUNT != null
+                            || SUB != null && AND_SCALAR != null && LSHR_SCALAR != null && MUL_SCALAR != null);
+        }
+
+        /**
+         * Wraps an exception of a vector operation, which only throws unchecked
+         * exceptions.
+         *
+         * @param e the exception
+         * @return the exception to throw
+         */
+        private static RuntimeException rethrow(final Throwable e) {
+            if (e instanceof RuntimeException runtime) {
+                return runtime;
+            }
+            if (e instanceof Error error) {
+                throw error;
+            }
+            return new IllegalStateException(e);
+        }
+
+        /**
+         * Loads a class of the Vector API.
+         *
+         * @param name the simple name of the class
+         * @return the class or {@code null} if the module isn't resolved
+         */
+        private static @Nullable Class<?> find(final String name) {
+            if (ModuleLayer.boot().findModule("jdk.incubator.vector").isEmpty()) {
+                return null;
+            }
+            try {
+                return Class.forName(PACKAGE + name);
+            } catch (final ReflectiveOperationException | LinkageError e) {
+                return null;
+            }
+        }
+
+        /**
+         * Returns the preferred species of {@code LongVector}.
+         *
+         * @return the species or {@code null} if it isn't available
+         */
+        private static @Nullable Object species() {
+            try {
+                return LONG_VECTOR == null ? null : LONG_VECTOR.getField("SPECIES_PREFERRED").get(null);
+            } catch (final ReflectiveOperationException | RuntimeException e) {
+                return null;
+            }
+        }
+
+        /**
+         * Returns the number of lanes of the preferred species.
+         *
+         * @return the number of lanes or 0 if it isn't available
+         */
+        private static int lanes() {
+            try {
+                return (int) find("VectorSpecies").getMethod("length").invoke(SPECIES);
+            } catch (final ReflectiveOperationException | RuntimeException e) {
+                return 0;
+            }
+        }
+
+        /**
+         * Returns {@code LongVector.fromArray} bound to the preferred species, of
+         * type {@code (long[], int)Object}.
+         *
+         * @return the handle or {@code null} if it isn't available
+         */
+        private static @Nullable MethodHandle fromArray() {
+            try {
+                final Class<?> species = find("VectorSpecies");
+                if (LONG_VECTOR == null || SPECIES == null || species == null) {
+                    return null;
+                }
+                final MethodHandle handle = MethodHandles.publicLookup().findStatic(LONG_VECTOR, "fromArray",
+                        MethodType.methodType(LONG_VECTOR, species, long[].class, int.class));
+                return MethodHandles.insertArguments(handle, 0, SPECIES)
+                        .asType(MethodType.methodType(Object.class, long[].class, int.class));
+            } catch (final ReflectiveOperationException | RuntimeException e) {
+                return null;
+            }
+        }
+
+        /**
+         * Returns an instance method of {@code LongVector}, with the vector as
+         * {@code Object} and the result as {@code Object} unless it is void.
+         *
+         * @param name       the name of the method
+         * @param returnType the declared return type, {@code LongVector} if null
+         * @param parameters the declared parameter types
+         * @return the handle or {@code null} if it isn't available
+         */
+        private static @Nullable MethodHandle method(final String name, final @Nullable Class<?> returnType,
+                final Class<?>... parameters) {
+            if (LONG_VECTOR == null) {
+                return null;
+            }
+            try {
+                final Class<?> declared = returnType == null ? LONG_VECTOR : returnType;
+                final MethodHandle handle = MethodHandles.publicLookup().findVirtual(LONG_VECTOR, name,
+                        MethodType.methodType(declared, parameters));
+                final Class<?> erased = declared == void.class ? void.class : Object.class;
+                return handle.asType(handle.type().changeReturnType(erased).changeParameterType(0, Object.class));
+            } catch (final ReflectiveOperationException | RuntimeException e) {
+                return null;
+            }
+        }
+
+        /**
+         * Returns {@code LongVector.lanewise} of a binary operator on two vectors,
+         * of type {@code (Object, Object)Object}.
+         *
+         * @param operator the name of the operator in {@code VectorOperators}
+         * @return the handle or {@code null} if it isn't available
+         */
+        private static @Nullable MethodHandle lanewise(final String operator) {
+            final Class<?> vector = find("Vector");
+            return vector == null ? null : bind(operator, "VectorOperators$Binary", vector);
+        }
+
+        /**
+         * Returns {@code LongVector.lanewise} of a binary operator on a vector and
+         * a scalar, of type {@code (Object, long)Object}.
+         *
+         * @param operator the name of the operator in {@code VectorOperators}
+         * @return the handle or {@code null} if it isn't available
+         */
+        private static @Nullable MethodHandle lanewiseScalar(final String operator) {
+            return bind(operator, "VectorOperators$Binary", long.class);
+        }
+
+        /**
+         * Returns {@code LongVector.lanewise} of a unary operator, of type
+         * {@code (Object)Object}.
+         *
+         * @param operator the name of the operator in {@code VectorOperators}
+         * @return the handle or {@code null} if it isn't available
+         */
+        private static @Nullable MethodHandle unary(final String operator) {
+            return bind(operator, "VectorOperators$Unary", null);
+        }
+
+        /**
+         * Returns {@code LongVector.lanewise} bound to an operator.
+         *
+         * @param operator     the name of the operator in {@code VectorOperators}
+         * @param operatorType the name of the operator interface
+         * @param operand      the type of the second operand, {@code null} for
+         *                     unary operators
+         * @return the handle or {@code null} if it isn't available
+         */
+        private static @Nullable MethodHandle bind(final String operator, final String operatorType,
+                final @Nullable Class<?> operand) {
+            final Class<?> operators = find("VectorOperators");
+            final Class<?> type = find(operatorType);
+            if (operators == null || type == null) {
+                return null;
+            }
+            try {
+                final Object value = operators.getField(operator).get(null);
+                final MethodHandle handle = operand == null ? method("lanewise", null, type)
+                        : method("lanewise", null, type, operand);
+                if (handle == null) {
+                    return null;
+                }
+                final MethodHandle bound = MethodHandles.insertArguments(handle, 1, value);
+                return operand == null || operand.isPrimitive() ? bound
+                        : bound.asType(bound.type().changeParameterType(1, Object.class));
+            } catch (final ReflectiveOperationException | RuntimeException e) {
+                return null;
+            }
+        }
+    }
+}
@@ -0,0 +1,185 @@
+package hProjekt.controller.ai;
+
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import org.jetbrains.annotations.Nullable;
+
+import hProjekt.controller.PlayerObjective;
+
+/**
+ * A pending decision of an AI controller, created by
+ * {@link AiScheduler#submit}.
+ * <p>
+ * A decision holds the best result offered so far, starting with a fallback,
+ * and is resolved exactly once: it is either committed, which hands the best
+ * result to its consumer, or cancelled, which drops it. Committing happens when
+ * the computation returns or the deadline passes, whichever comes first.
+ * Cancelling happens when the objective the decision was made for is stale.
+ *
+ * @param <T> the type of the result
+ */
+public class Decision<T> {
+
+    private static final int PENDING = 0;
+    private static final int COMMITTED = 1;
+    private static final int CANCELLED = 2;
+
+    private final PlayerObjective objective;
+    private final long startNanos;
+    private volatile long deadlineNanos = Long.MAX_VALUE;
+    private final Consumer<T> commit;
+    private final LatencyHistogram latencies;
+    private final AtomicInteger resolution = new AtomicInteger(PENDING);
+    private volatile boolean started;
+    private volatile T best;
+    private volatile @Nullable Future<?> timer;
+
+    /**
+     * Creates a new pending decision.
+     *
+     * @param objective the objective the decision is made for
+     * @param fallback  the result to commit if nothing better is offered
+     * @param commit    the consumer of the committed result
+     * @param latencies the histogram to record the latency of the decision to
+     */
+    Decision(final PlayerObjective objective, final T fallback, final Consumer<T> commit,
+            final LatencyHistogram latencies) {
+        this.objective = objective;
+        this.startNanos = System.nanoTime();
+        this.best = fallback;
+        this.commit = commit;
+        this.latencies = latencies;
+    }
+
+    /**
+     * Returns the objective the decision is made for.
+     *
+     * @return the objective
+     */
+    public PlayerObjective getObjective() {
+        return objective;
+    }
+
+    /**
+     * Returns the deadline of the decision.
+     *
+     * @return the deadline as {@link System#nanoTime()}, {@link Long#MAX_VALUE}
+     *         until the deadline is set
+     */
+    public long getDeadline() {
+        return deadlineNanos;
+    }
+
+    /**
+     * Returns the best result offered so far.
+     *
+     * @return the best result
+     */
+    public T getBest() {
+        return best;
+    }
+
+    /**
+     * Replaces the best result. Results offered after the decision was resolved
+     * are ignored.
+     *
+     * @param result the new best result
+     */
+    public void offer(final T result) {
+        if (resolution.get() == PENDING) {
+            best = result;
+        }
+    }
+
+    /**
+     * Checks whether the computation should stop, because the decision was
+     * resolved or its deadline passed.
+     *
+     * @return whether the computation should stop
+     */
+    public boolean shouldStop() {
+        return resolution.get() != PENDING || System.nanoTime() >= deadlineNanos;
+    }
+
+    /**
+     * Checks whether the computation of the decision has started running.
+     *
+     * @return whether the computation has started
+     */
+    public boolean isStarted() {
+        return started;
+    }
+
+    /**
+     * Checks whether the decision was committed or cancelled.
+     *
+     * @return whether the decision was resolved
+     */
+    public boolean isResolved() {
+        return resolution.get() != PENDING;
+    }
+
+    /**
+     * Checks whether the decision was cancelled.
+     *
+     * @return whether the decision was cancelled
+     */
+    public boolean isCancelled() {
+        return resolution.get() == CANCELLED;
+    }
+
+    /**
+     * Drops the decision without committing a result, unless it was already
+     * committed.
+     */
+    public void cancel() {
+        if (resolution.compareAndSet(PENDING, CANCELLED)) {
+            stopTimer();
+        }
+    }
+
+    /**
+     * Marks the computation of the decision as running.
+     */
+    void markStarted() {
+        started = true;
+    }
+
+    /**
+     * Commits the best result if the decision is still pending.
+     */
+    void commit() {
+        if (resolution.compareAndSet(PENDING, COMMITTED)) {
+            stopTimer();
+            latencies.record(System.nanoTime() - startNanos);
+            commit.accept(best);
+        }
+    }
+
+    /**
+     * Sets the deadline and the timer that commits the decision at the
+     * deadline.
+     *
+     * @param deadlineNanos the deadline as {@link System#nanoTime()}
+     * @param timer         the scheduled commit
+     */
+    void setDeadline(final long deadlineNanos, final Future<?> timer) {
+        this.deadlineNanos = deadlineNanos;
+        this.timer = timer;
+        if (resolution.get() != PENDING) {
+            timer.cancel(false);
+        }
+    }
+
+    /**
+     * Cancels the scheduled commit at the deadline, if any.
+     */
+    private void stopTimer() {
+        final Future<?> scheduled = timer;
+        if (scheduled != null) {
+            scheduled.cancel(false);
+        }
+    }
+}
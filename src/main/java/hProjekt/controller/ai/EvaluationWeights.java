@@ -0,0 +1,210 @@
+package hProjekt.controller.ai;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import hProjekt.Config;
+
+/**
+ * The weights of a logistic evaluation over {@link PositionFeatures}, which
+ * estimates the probability that a player wins from a position.
+ * <p>
+ * Weights are stored as text, one {@code name weight} pair per line, with the
+ * bias named {@code bias}. Features missing from a file get the weight
+ * {@code 0} and unknown names are ignored, so files stay readable when
+ * features are added or removed.
+ */
+public class EvaluationWeights {
+
+    /**
+     * The name of the bias in a weights file.
+     */
+    public static final String BIAS = "bias";
+
+    private static volatile EvaluationWeights defaultWeights;
+
+    private final double bias;
+    private final double[] weights;
+
+    /**
+     * Creates new weights.
+     *
+     * @param bias    the bias
+     * @param weights the weight of every feature, {@link PositionFeatures#COUNT}
+     *                values
+     * @throws IllegalArgumentException if the number of weights is wrong
+     */
+    public EvaluationWeights(final double bias, final double[] weights) {
+        if (weights.length != PositionFeatures.COUNT) {
+            throw new IllegalArgumentException("Expected " + PositionFeatures.COUNT + " weights");
+        }
+        this.bias = bias;
+        this.weights = weights.clone();
+    }
+
+    /**
+     * Returns the default weights, loaded on first use: the trained weights at
+     * {@link Config#AI_WEIGHTS_PATH} if that file exists, otherwise the weights
+     * shipped as {@link Config#AI_WEIGHTS_RESOURCE}. Without either, only the
+     * gold lead is weighted.
+     *
+     * @return the default weights
+     */
+    public static EvaluationWeights getDefault() {
+        if (defaultWeights == null) {
+            synchronized (EvaluationWeights.class) {
+                if (defaultWeights == null) {
+                    defaultWeights = loadOrFallback(Config.AI_WEIGHTS_PATH, Config.AI_WEIGHTS_RESOURCE);
+                }
+            }
+        }
+        return defaultWeights;
+    }
+
+    /**
+     * Returns the bias.
+     *
+     * @return the bias
+     */
+    public double getBias() {
+        return bias;
+    }
+
+    /**
+     * Returns a copy of the feature weights.
+     *
+     * @return the weights in the order of {@link PositionFeatures#NAMES}
+     */
+    public double[] getWeights() {
+        return weights.clone();
+    }
+
+    /**
+     * Estimates the probability to win of the position with the given features.
+     *
+     * @param features the features
+     * @return the probability in {@code (0, 1)}
+     */
+    public double evaluate(final float[] features) {
+        double z = bias;
+        for (int i = 0; i < weights.length; i++) {
+            z += weights[i] * features[i];
+        }
+        return 1 / (1 + Math.exp(-z));
+    }
+
+    /**
+     * Loads weights from a file.
+     *
+     * @param path the file
+     * @return the loaded weights
+     * @throws IOException if the file can't be read or is malformed
+     */
+    public static EvaluationWeights load(final Path path) throws IOException {
+        return parse(Files.readAllLines(path));
+    }
+
+    /**
+     * Loads weights from a stream, e.g. a classpath resource. The stream is not
+     * closed.
+     *
+     * @param in the stream
+     * @return the loaded weights
+     * @throws IOException if the stream can't be read or is malformed
+     */
+    public static EvaluationWeights load(final InputStream in) throws IOException {
+        return parse(new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8)).lines().toList());
+    }
+
+    /**
+     * Parses the lines of a weights file.
+     *
+     * @param lines the lines
+     * @return the parsed weights
+     * @throws IOException if a weight is malformed
+     */
+    private static EvaluationWeights parse(final List<String> lines) throws IOException {
+        final Map<String, Integer> indices = new HashMap<>();
+        for (int i = 0; i < PositionFeatures.COUNT; i++) {
+            indices.put(PositionFeatures.NAMES[i], i);
+        }
+        double bias = 0;
+        final double[] weights = new double[PositionFeatures.COUNT];
+        for (final String line : lines) {
+            final String[] parts = line.trim().split("\\s+");
+            if (parts.length != 2 || parts[0].startsWith("#")) {
+                continue;
+            }
+            final double value;
+            try {
+                value = Double.parseDouble(parts[1]);
+            } catch (final NumberFormatException e) {
+                throw new IOException("Malformed weight: " + line, e);
+            }
+            if (parts[0].equals(BIAS)) {
+                bias = value;
+            } else if (indices.containsKey(parts[0])) {
+                weights[indices.get(parts[0])] = value;
+            }
+        }
+        return new EvaluationWeights(bias, weights);
+    }
+
+    /**
+     * Saves these weights to a file, replacing it if it exists.
+     *
+     * @param path the file
+     * @throws IOException if the file can't be written
+     */
+    public void save(final Path path) throws IOException {
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        try (BufferedWriter writer = Files.newBufferedWriter(path)) {
+            writer.write(BIAS + " " + bias);
+            writer.newLine();
+            for (int i = 0; i < weights.length; i++) {
+                writer.write(PositionFeatures.NAMES[i] + " " + weights[i]);
+                writer.newLine();
+            }
+        }
+    }
+
+    /**
+     * Loads weights from the given file if it exists, otherwise from the given
+     * classpath resource, falling back to weighting the gold lead only.
+     *
+     * @param path     the file overriding the resource
+     * @param resource the name of the classpath resource
+     * @return the loaded or fallback weights
+     */
+    static EvaluationWeights loadOrFallback(final Path path, final String resource) {
+        try {
+            if (Files.exists(path)) {
+                return load(path);
+            }
+            try (InputStream in = EvaluationWeights.class.getResourceAsStream(resource)) {
+                if (in != null) {
+                    return load(in);
+                }
+            }
+            System.out.println("No evaluation weights at " + path + " or " + resource + ", using the gold lead only");
+        } catch (final IOException | UncheckedIOException e) {
+            System.out.println("Couldn't load evaluation weights: " + e.getMessage());
+        }
+        final double[] weights = new double[PositionFeatures.COUNT];
+        weights[Arrays.asList(PositionFeatures.NAMES).indexOf("gold_lead")] = 4;
+        return new EvaluationWeights(0, weights);
+    }
+}
@@ -0,0 +1,185 @@
+package hProjekt.controller.ai;
+
+import hProjekt.Config;
+import hProjekt.controller.PlayerController;
+import hProjekt.model.GameState;
+import hProjekt.model.grid.HexGrid;
+import javafx.beans.property.IntegerProperty;
+import javafx.beans.property.Property;
+
+/**
+ * An AI controller that plays the path card which narrows a treasure trail
+ * the most where it matters to this player.
+ * <p>
+ * Every playable pair of hand card and trail is scored by the information it
+ * gains, the binary logarithm of how much it shrinks the candidate tiles of
+ * the trail, times the expected value of the remaining candidates for this
+ * player. A candidate tile is worth more the fewer turns this player needs to
+ * drive there and the further the other players are away from it. The values
+ * of all tiles are computed once per decision, after which every pair only
+ * costs an intersection of two bitsets of the {@link SimulationBoard} and a sum
+ * over the remaining candidates, so a decision takes well below a millisecond
+ * even on maps with thousands of tiles.
+ * <p>
+ * A trail with a single candidate in reach is always driven to, and other
+ * solved trails are driven towards unless a card is worth more.
+ */
+public class InformationGainAiController extends MacroMoveAiController {
+
+    /**
+     * The share of a treasure this player expects if another player is as
+     * close to it.
+     */
+    private static final double TIED_SHARE = 0.5;
+
+    /**
+     * The share of a treasure this player expects if another player is closer
+     * to it.
+     */
+    private static final double BEHIND_SHARE = 0.25;
+
+    /**
+     * Creates a new information gain AI controller with the given player
+     * controller, hex grid, game state and active player controller.
+     *
+     * @param playerController       the player controller
+     * @param hexGrid                the hex grid
+     * @param gameState              the game state
+     * @param activePlayerController the active player controller
+     * @param roundCounterProperty   the round counter property
+     */
+    public InformationGainAiController(final PlayerController playerController, final HexGrid hexGrid,
+            final GameState gameState, final Property<PlayerController> activePlayerController,
+            final IntegerProperty roundCounterProperty) {
+        super(playerController, hexGrid, gameState, activePlayerController, roundCounterProperty);
+    }
+
+    @Override
+    protected int chooseMove(final Simulation observation, final int[] moves, final int moveCount,
+            final long stateHash, final Decision<Integer> decision) {
+        final double[] tileValues = new double[board.size()];
+        final long[] scratch = new long[board.words()];
+        computeTileValues(observation, tileValues);
+        final int from = observation.position(observation.me());
+
+        int best = moves[0];
+        double bestScore = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < moveCount; i++) {
+            final int move = moves[i];
+            final double score;
+            if (Simulation.isPass(move)) {
+                score = Double.NEGATIVE_INFINITY;
+            } else if (Simulation.isDrive(move)) {
+                score = driveScore(observation, tileValues, from, Simulation.trailOf(move));
+            } else {
+                score = playScore(observation, tileValues, scratch, Simulation.trailOf(move),
+                        observation.handCard(observation.me(), Simulation.slot(move)));
+            }
+            if (score > bestScore) {
+                best = move;
+                bestScore = score;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Scores playing the given card kind on the given trail.
+     *
+     * @param observation the observed state
+     * @param tileValues  the values of the tiles
+     * @param scratch     a bitset to compute the remaining candidates in
+     * @param trail       the index of the trail
+     * @param kind        the card kind
+     * @return the information gain times the expected value of the remaining
+     *         candidates
+     */
+    private double playScore(final Simulation observation, final double[] tileValues, final long[] scratch,
+            final int trail, final int kind) {
+        final long[] candidates = observation.trail(trail);
+        final long[] tiles = board.cardTiles(kind);
+        int remaining = 0;
+        for (int w = 0; w < scratch.length; w++) {
+            scratch[w] = candidates[w] & tiles[w];
+            remaining += Long.bitCount(scratch[w]);
+        }
+        if (remaining == 0) {
+            return Double.NEGATIVE_INFINITY;
+        }
+        final double gain = Math.log((double) SimulationBoard.count(candidates) / remaining) / Math.log(2);
+        return gain * sumValues(tileValues, scratch) / remaining;
+    }
+
+    /**
+     * Scores driving towards the given trail. Collecting a solved trail is worth
+     * as much information as the whole board holds, scaled by the value of its
+     * tile. Driving towards an unsolved trail gains nothing and is only
+     * preferred over passing, the fewer candidates the better.
+     *
+     * @param observation the observed state
+     * @param tileValues  the values of the tiles
+     * @param from        the index of the tile of this player
+     * @param trail       the index of the trail
+     * @return the score of the drive
+     */
+    private double driveScore(final Simulation observation, final double[] tileValues, final int from,
+            final int trail) {
+        final long[] candidates = observation.trail(trail);
+        final int count = SimulationBoard.count(candidates);
+        if (count != 1) {
+            return -count;
+        }
+        final int target = board.nearest(from, candidates);
+        if (board.distance(from, target) <= Config.DRIVE_LIMIT) {
+            return Double.POSITIVE_INFINITY;
+        }
+        return Math.log(board.size()) / Math.log(2) * tileValues[target];
+    }
+
+    /**
+     * Computes the expected value of a treasure on every tile for this player.
+     *
+     * @param observation the observed state
+     * @param tileValues  the array to write the values to
+     */
+    private void computeTileValues(final Simulation observation, final double[] tileValues) {
+        final int me = observation.me();
+        final int from = observation.position(me);
+        for (int tile = 0; tile < tileValues.length; tile++) {
+            final int distance = from < 0 ? SimulationBoard.UNREACHABLE : board.distance(from, tile);
+            if (distance == SimulationBoard.UNREACHABLE) {
+                tileValues[tile] = 0;
+                continue;
+            }
+            int closestOther = SimulationBoard.UNREACHABLE;
+            for (int p = 0; p < observation.players(); p++) {
+                final int position = observation.position(p);
+                if (p != me && position >= 0) {
+                    closestOther = Math.min(closestOther, board.distance(position, tile));
+                }
+            }
+            final double share = distance < closestOther ? 1 : distance == closestOther ? TIED_SHARE : BEHIND_SHARE;
+            final int turns = (distance + Config.DRIVE_LIMIT - 1) / Config.DRIVE_LIMIT;
+            tileValues[tile] = share / (1 + turns);
+        }
+    }
+
+    /**
+     * Sums the values of the tiles in the given bitset.
+     *
+     * @param tileValues the values of the tiles
+     * @param tiles      the bitset
+     * @return the summed value
+     */
+    private static double sumValues(final double[] tileValues, final long[] tiles) {
+        double sum = 0;
+        for (int w = 0; w < tiles.length; w++) {
+            long bits = tiles[w];
+            while (bits != 0) {
+                sum += tileValues[(w << 6) | Long.numberOfTrailingZeros(bits)];
+                bits &= bits - 1;
+            }
+        }
+        return sum;
+    }
+}
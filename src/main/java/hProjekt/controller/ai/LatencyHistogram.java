@@ -0,0 +1,88 @@
+package hProjekt.controller.ai;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A lock-free histogram of latencies with buckets of exponentially growing
+ * width.
+ * <p>
+ * Bucket {@code i} counts the latencies of less than {@code 2^i} microseconds
+ * that don't fit into a smaller bucket, so 32 buckets cover everything up to
+ * more than an hour with a relative error of at most a factor of two. Recording
+ * is a single atomic increment and may happen from any thread.
+ */
+public class LatencyHistogram {
+
+    /**
+     * The number of buckets.
+     */
+    public static final int BUCKETS = 32;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+
+    /**
+     * Records a latency.
+     *
+     * @param nanos the latency in nanoseconds
+     */
+    public void record(final long nanos) {
+        final long micros = Math.max(0, nanos / 1_000);
+        counts.incrementAndGet(Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(micros)));
+    }
+
+    /**
+     * Returns the number of latencies recorded into the given bucket.
+     *
+     * @param bucket the index of the bucket
+     * @return the number of latencies
+     */
+    public long count(final int bucket) {
+        return counts.get(bucket);
+    }
+
+    /**
+     * Returns the number of recorded latencies.
+     *
+     * @return the number of latencies
+     */
+    public long count() {
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            total += counts.get(i);
+        }
+        return total;
+    }
+
+    /**
+     * Returns the exclusive upper bound of the latencies of the given bucket.
+     *
+     * @param bucket the index of the bucket
+     * @return the upper bound in microseconds
+     */
+    public static long upperBoundMicros(final int bucket) {
+        return 1L << bucket;
+    }
+
+    /**
+     * Returns an upper bound of the given percentile of the recorded latencies.
+     *
+     * @param percentile the percentile between 0 and 100
+     * @return the upper bound of the bucket containing the percentile in
+     *         microseconds, {@code 0} if nothing was recorded
+     */
+    public long percentileMicros(final double percentile) {
+        final long total = count();
+        if (total == 0) {
+            return 0;
+        }
+        final long rank = (long) Math.ceil(total * percentile / 100);
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts.get(i);
+            if (seen >= Math.max(1, rank)) {
+                return upperBoundMicros(i);
+            }
+        }
+        return upperBoundMicros(BUCKETS - 1);
+    }
+}
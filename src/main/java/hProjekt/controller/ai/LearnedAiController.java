@@ -0,0 +1,78 @@
+package hProjekt.controller.ai;
+
+import java.util.SplittableRandom;
+
+import hProjekt.controller.PlayerController;
+import hProjekt.model.GameState;
+import hProjekt.model.grid.HexGrid;
+import javafx.beans.property.IntegerProperty;
+import javafx.beans.property.Property;
+
+/**
+ * An AI controller that chooses the move leading to the position with the best
+ * learned evaluation.
+ * <p>
+ * Every legal macro move is played on determinizations of the hidden
+ * information, and the resulting positions are scored by the
+ * {@link EvaluationWeights#getDefault() default evaluation weights}, which are
+ * trained by self-play with {@code hProjekt.controller.ai.training}. The moves
+ * are evaluated round by round on fresh determinizations until
+ * {@link #MAX_SAMPLES} rounds are done or the decision should stop, and the
+ * move with the best average evaluation is chosen.
+ */
+public class LearnedAiController extends MacroMoveAiController {
+
+    /**
+     * The maximum number of determinizations every move is evaluated on.
+     */
+    private static final int MAX_SAMPLES = 64;
+
+    private final EvaluationWeights weights = EvaluationWeights.getDefault();
+
+    /**
+     * Creates a new learned AI controller with the given player controller, hex
+     * grid, game state and active player controller.
+     *
+     * @param playerController       the player controller
+     * @param hexGrid                the hex grid
+     * @param gameState              the game state
+     * @param activePlayerController the active player controller
+     * @param roundCounterProperty   the round counter property
+     */
+    public LearnedAiController(final PlayerController playerController, final HexGrid hexGrid,
+            final GameState gameState, final Property<PlayerController> activePlayerController,
+            final IntegerProperty roundCounterProperty) {
+        super(playerController, hexGrid, gameState, activePlayerController, roundCounterProperty);
+    }
+
+    @Override
+    protected int chooseMove(final Simulation observation, final int[] moves, final int moveCount,
+            final long stateHash, final Decision<Integer> decision) {
+        if (moveCount == 1) {
+            return moves[0];
+        }
+        final SplittableRandom random = new SplittableRandom(stateHash);
+        final Simulation determinized = Simulation.copyOf(observation);
+        final Simulation simulation = Simulation.copyOf(observation);
+        final float[] features = new float[PositionFeatures.COUNT];
+        final double[] values = new double[moveCount];
+        int best = 0;
+        for (int sample = 0; sample < MAX_SAMPLES && (sample == 0 || !decision.shouldStop()); sample++) {
+            determinized.copyFrom(observation);
+            determinized.determinize(random);
+            for (int i = 0; i < moveCount; i++) {
+                simulation.copyFrom(determinized);
+                simulation.apply(moves[i], random);
+                PositionFeatures.extract(simulation, observation.me(), features);
+                values[i] += weights.evaluate(features);
+            }
+            for (int i = 0; i < moveCount; i++) {
+                if (values[i] > values[best]) {
+                    best = i;
+                }
+            }
+            decision.offer(moves[best]);
+        }
+        return moves[best];
+    }
+}
@@ -0,0 +1,381 @@
+package hProjekt.controller.ai;
+
+import java.util.List;
+import java.util.concurrent.locks.LockSupport;
+
+import org.jetbrains.annotations.Nullable;
+
+import hProjekt.Config;
+import hProjekt.controller.AiController;
+import hProjekt.controller.GameController;
+import hProjekt.controller.GameEventListener;
+import hProjekt.controller.PlayerController;
+import hProjekt.controller.PlayerObjective;
+import hProjekt.controller.TreasureCollectionTracker;
+import hProjekt.controller.actions.AcceptCurse;
+import hProjekt.controller.actions.AcceptTreasure;
+import hProjekt.controller.actions.CollectAmulet;
+import hProjekt.controller.actions.CollectTreasure;
+import hProjekt.controller.actions.ConfirmTreasureCards;
+import hProjekt.controller.actions.DrawTreasureCards;
+import hProjekt.controller.actions.DriveAction;
+import hProjekt.controller.actions.EndTurn;
+import hProjekt.controller.actions.PlayerAction;
+import hProjekt.controller.actions.PlayPathCard;
+import hProjekt.controller.actions.SelectPosition;
+import hProjekt.controller.actions.SelectTileToRemove;
+import hProjekt.controller.actions.StartDrive;
+import hProjekt.model.GameState;
+import hProjekt.model.Player;
+import hProjekt.model.PlayerState;
+import hProjekt.model.cards.GoldCard;
+import hProjekt.model.cards.PathCard;
+import hProjekt.model.cards.PathCardKey;
+import hProjekt.model.cards.TreasureOdds;
+import hProjekt.model.grid.HexGrid;
+import hProjekt.model.grid.Tile;
+import hProjekt.model.grid.TilePosition;
+import javafx.beans.property.IntegerProperty;
+import javafx.beans.property.Property;
+import javafx.scene.paint.Color;
+
+/**
+ * An AI controller that decides its regular turns as macro moves of a
+ * {@link Simulation} and carries them out with the regular actions.
+ * <p>
+ * Subclasses only implement {@link #chooseMove}. A chosen path card is played
+ * directly, and a drive is split into single {@link DriveAction}s towards the
+ * closest candidate tile of the chosen trail. All other objectives are
+ * answered the same way for every subclass.
+ * <p>
+ * Every decision runs through the {@link AiScheduler}: the live state is read
+ * on the game loop thread, the move is chosen on a scheduler thread, and the
+ * action is triggered when the decision is committed. A decision still pending
+ * when the objective changes is cancelled.
+ * <p>
+ * While the other players act, the controller ponders: after every action
+ * that changed the {@link ZobristTracker hash} of the game state, the next
+ * regular turn of this player is chosen in the background with
+ * {@link AiScheduler#ponder}. Actions that leave the state unchanged keep the
+ * ponder running. When the turn arrives in the pondered state, the pondered
+ * move is taken over, usually without any waiting.
+ */
+public abstract class MacroMoveAiController extends AiController implements GameEventListener {
+
+    private static final long PONDER_POLL_NANOS = 1_000_000;
+
+    /**
+     * The board of the game.
+     */
+    protected final SimulationBoard board;
+
+    private volatile @Nullable TilePosition driveTarget;
+    private volatile int drives;
+    private @Nullable Decision<?> pending;
+    private volatile @Nullable Ponder ponder;
+
+    /**
+     * Creates a new macro move AI controller with the given player controller,
+     * hex grid, game state and active player controller.
+     *
+     * @param playerController       the player controller
+     * @param hexGrid                the hex grid
+     * @param gameState              the game state
+     * @param activePlayerController the active player controller
+     * @param roundCounterProperty   the round counter property
+     */
+    protected MacroMoveAiController(final PlayerController playerController, final HexGrid hexGrid,
+            final GameState gameState, final Property<PlayerController> activePlayerController,
+            final IntegerProperty roundCounterProperty) {
+        super(playerController, hexGrid, gameState, activePlayerController, roundCounterProperty);
+        this.board = SimulationBoard.of(hexGrid);
+        playerController.getGameController().addGameEventListener(this);
+    }
+
+    /**
+     * Chooses one of the given legal moves of the observed state. This runs on
+     * a thread of the {@link AiScheduler}, possibly while other players act and
+     * concurrently to another call, and must not read the live game state.
+     * Implementations that improve their choice over time
+     * {@link Decision#offer(Object) offer} it to the decision and return once
+     * {@link Decision#shouldStop()} is {@code true}.
+     *
+     * @param observation the observed state, with this player to move
+     * @param moves       the legal moves, see {@link Simulation#legalMoves}
+     * @param moveCount   the number of legal moves, at least one
+     * @param stateHash   the hash of the live game state when it was observed
+     * @param decision    the pending decision
+     * @return the chosen move
+     */
+    protected abstract int chooseMove(Simulation observation, int[] moves, int moveCount, long stateHash,
+            Decision<Integer> decision);
+
+    @Override
+    protected void executeActionBasedOnObjective(final PlayerObjective objective) {
+        if (pending != null) {
+            pending.cancel();
+        }
+        pending = switch (objective) {
+            case SELECT_POSITION -> act(objective, new SelectPosition(StartPositions.choose(playerController)));
+            case REGULAR_TURN -> regularTurn(objective, false);
+            case PLAY_PATH_CARD -> regularTurn(objective, true);
+            case DRIVE, EXTRA_DRIVE -> act(objective, driveStep(objective));
+            case DRAW_TREASURE_CARDS -> act(objective, new DrawTreasureCards());
+            case CONFIRM_TREASURE_CARDS -> act(objective, new ConfirmTreasureCards());
+            case ACCEPT_TREASURE -> act(objective, new AcceptTreasure(acceptTreasure()));
+            case ACCEPT_CURSE -> act(objective, new AcceptCurse());
+            case SELECT_TILE_TO_REMOVE -> act(objective, selectTileToRemove());
+            default -> null;
+        };
+    }
+
+    /**
+     * Submits a decision that triggers the given action without any further
+     * computation.
+     *
+     * @param objective the objective
+     * @param action    the action, can be {@code null} to do nothing
+     * @return the pending decision or {@code null}
+     */
+    private @Nullable Decision<PlayerAction> act(final PlayerObjective objective,
+            final @Nullable PlayerAction action) {
+        if (action == null) {
+            return null;
+        }
+        return AiScheduler.SHARED.submit(playerController.getGameController(), objective, action, decision -> {
+        }, playerController::triggerAction);
+    }
+
+    /**
+     * Submits the choice of the macro move of a regular turn. The live state is
+     * observed right away, the move is chosen in the background and carried out
+     * when the decision is committed.
+     *
+     * @param objective the objective
+     * @param playOnly  whether only path cards may be played
+     * @return the pending decision
+     */
+    private Decision<?> regularTurn(final PlayerObjective objective, final boolean playOnly) {
+        final PlayerState state = playerController.getPlayerState();
+        final long stateHash = playerController.getStateHash();
+        final Ponder pondered = ponder;
+        ponder = null;
+        if (!playOnly && !state.collectableTreasures().isEmpty()) {
+            if (pondered != null) {
+                pondered.decision().cancel();
+            }
+            return act(objective, new CollectTreasure(state.collectableTreasures().iterator().next()));
+        }
+        if (pondered != null) {
+            final Decision<Integer> ponderDecision = pondered.decision();
+            if (!playOnly && pondered.stateHash() == stateHash && ponderDecision.isStarted()
+                    && !ponderDecision.isCancelled()) {
+                return AiScheduler.SHARED.submit(playerController.getGameController(), objective,
+                        ponderDecision.getBest(), decision -> adopt(ponderDecision, decision),
+                        move -> carryOut(state, pondered.observation(), move, false));
+            }
+            ponderDecision.cancel();
+        }
+        final Simulation observation = Simulation.observe(board, gameState, playerController.getPlayer());
+        final int[] moves = new int[4 * (Config.MAX_CARDS_IN_HAND_WITH_TWO_PLAYERS + 1)];
+        final int moveCount = observation.legalMoves(moves, playOnly);
+        return AiScheduler.SHARED.submit(playerController.getGameController(), objective, moves[0],
+                decision -> decision.offer(chooseMove(observation, moves, moveCount, stateHash, decision)),
+                move -> carryOut(state, observation, move, playOnly));
+    }
+
+    /**
+     * Waits for a ponder decision of the same state to finish and takes over
+     * its result. If the ponder decision started too late to finish before the
+     * deadline, its best result so far is taken and it is cancelled.
+     *
+     * @param pondered the ponder decision
+     * @param decision the decision taking over
+     */
+    private static void adopt(final Decision<Integer> pondered, final Decision<Integer> decision) {
+        while (!pondered.isResolved() && !decision.shouldStop()) {
+            LockSupport.parkNanos(PONDER_POLL_NANOS);
+        }
+        decision.offer(pondered.getBest());
+        pondered.cancel();
+    }
+
+    /**
+     * Starts thinking about the next regular turn of this player whenever
+     * another player changed the game state. A ponder of an older state is
+     * cancelled; a ponder of the same state, e.g. after an action that only
+     * draws cards, keeps running.
+     *
+     * @param actor  the player controller that executed the action
+     * @param action the executed action
+     */
+    @Override
+    public void afterAction(final PlayerController actor, final PlayerAction action) {
+        if (!Config.AI_PONDERING || actor == playerController) {
+            return;
+        }
+        final long stateHash = playerController.getStateHash();
+        final Ponder current = ponder;
+        if (stateHash == 0 || current != null && current.stateHash() == stateHash) {
+            return;
+        }
+        if (current != null) {
+            current.decision().cancel();
+        }
+        final Simulation observation = Simulation.observe(board, gameState, playerController.getPlayer());
+        final int[] moves = new int[4 * (Config.MAX_CARDS_IN_HAND_WITH_TWO_PLAYERS + 1)];
+        final int moveCount = observation.legalMoves(moves, false);
+        ponder = new Ponder(stateHash, observation, AiScheduler.SHARED.ponder(playerController.getGameController(),
+                PlayerObjective.REGULAR_TURN, moves[0],
+                decision -> decision.offer(chooseMove(observation, moves, moveCount, stateHash, decision)),
+                move -> {
+                }));
+    }
+
+    @Override
+    public void onGameEnd(final GameController gameController) {
+        final Ponder current = ponder;
+        if (current != null) {
+            current.decision().cancel();
+        }
+        if (pending != null) {
+            pending.cancel();
+        }
+    }
+
+    /**
+     * Starts carrying out the given macro move of a regular turn.
+     *
+     * @param state       the state of this player when the move was chosen
+     * @param observation the observed state the move was chosen in
+     * @param move        the move
+     * @param playOnly    whether only path cards may be played
+     */
+    private void carryOut(final PlayerState state, final Simulation observation, final int move,
+            final boolean playOnly) {
+        if (!Simulation.isPass(move) && !Simulation.isDrive(move)) {
+            final Color color = Config.TREASURE_TRAIL_COLORS.get(Simulation.trailOf(move));
+            final PathCardKey kind = board.cardKey(observation.handCard(observation.me(), Simulation.slot(move)));
+            final PathCard card = state.validPathCards().getOrDefault(color, List.of()).stream()
+                    .filter(kind::matches)
+                    .findFirst()
+                    .orElse(null);
+            if (card != null) {
+                playerController.triggerAction(new PlayPathCard(card, color));
+                return;
+            }
+        }
+        // A rejected action leaves the objective unchanged, so this controller wouldn't be asked again. If the
+        // simulation's rules allowed a card the live trail doesn't, any valid card is played instead.
+        if (playOnly || !Simulation.isPass(move) && !Simulation.isDrive(move)
+                && state.validPathCards().values().stream().anyMatch(cards -> !cards.isEmpty())) {
+            state.validPathCards().entrySet().stream()
+                    .filter(entry -> !entry.getValue().isEmpty())
+                    .findAny()
+                    .ifPresent(entry -> playerController.triggerAction(
+                            new PlayPathCard(entry.getValue().getFirst(), entry.getKey())));
+            return;
+        }
+        driveTarget = null;
+        if (Simulation.isDrive(move) && observation.position(observation.me()) >= 0) {
+            final int target = board.nearest(observation.position(observation.me()),
+                    observation.trail(Simulation.trailOf(move)));
+            driveTarget = target < 0 ? null : board.position(target);
+        }
+        drives = 0;
+        playerController.triggerAction(new StartDrive());
+    }
+
+    /**
+     * A decision pondered for the given state.
+     *
+     * @param stateHash   the hash of the pondered state
+     * @param observation the observed state
+     * @param decision    the ponder decision
+     */
+    private record Ponder(long stateHash, Simulation observation, Decision<Integer> decision) {
+    }
+
+    /**
+     * Returns the next step of the planned drive.
+     *
+     * @param objective the current objective
+     * @return the action of the next step
+     */
+    private PlayerAction driveStep(final PlayerObjective objective) {
+        final PlayerState state = playerController.getPlayerState();
+        if (!state.collectableTreasures().isEmpty()) {
+            return new CollectTreasure(state.collectableTreasures().iterator().next());
+        }
+        final TilePosition position = playerController.getPlayer().getPosition();
+        final Tile current = hexGrid.getTileAt(position);
+        if (objective == PlayerObjective.DRIVE && current != null && current.hasAmulet()) {
+            return new CollectAmulet();
+        }
+        final int from = board.index(position);
+        final int target = board.index(driveTarget);
+        final int next = from < 0 || target < 0 ? from : board.stepToward(from, target);
+        if (drives >= Config.DRIVE_LIMIT || next == from) {
+            return new EndTurn();
+        }
+        drives++;
+        return new DriveAction(hexGrid.getTileAt(board.position(next)));
+    }
+
+    /**
+     * Returns whether to accept the offered gold card.
+     * <p>
+     * A declined card goes to another player, while this player is offered the
+     * next card instead, which may be a curse costing the most valuable gold
+     * card. So a card is declined only if its value counted twice is less than
+     * what the next card is expected to gain, using the exact odds of the
+     * {@link TreasureCollectionTracker}.
+     *
+     * @return whether to accept the offered card
+     */
+    private boolean acceptTreasure() {
+        final TreasureCollectionTracker tracker = playerController.getGameController().getTreasureCollectionTracker();
+        final GoldCard offered = playerController.getOfferedGoldCard();
+        if (offered == null || tracker.getRemainingAfterOffer() == 0) {
+            return true;
+        }
+        final Player player = playerController.getPlayer();
+        final int loss = player.getAmulets() > 0 ? 0
+                : player.getGoldCards().stream().mapToInt(GoldCard::value).max().orElse(0);
+        final double risk = tracker.getCurseRiskAfterOffer();
+        return 2 * offered.value() >= (1 - risk) * TreasureOdds.MEAN_GOLD_VALUE - risk * loss;
+    }
+
+    /**
+     * Returns the removal of the candidate tile farthest away from this player
+     * from the trail with the most candidates, which brings the treasure closer.
+     *
+     * @return the removal or {@code null} if no trail has candidates to remove
+     */
+    private @Nullable PlayerAction selectTileToRemove() {
+        final Simulation observation = Simulation.observe(board, gameState, playerController.getPlayer());
+        final int from = observation.position(observation.me());
+        int bestTrail = -1;
+        int bestTile = -1;
+        int bestCount = 1;
+        for (int trail = 0; trail < Config.TREASURE_TRAIL_COLORS.size(); trail++) {
+            final long[] candidates = observation.trail(trail);
+            final int count = SimulationBoard.count(candidates);
+            if (observation.trailLength(trail) == 0 || count <= bestCount) {
+                continue;
+            }
+            int farthest = -1;
+            for (int tile = 0; tile < board.size(); tile++) {
+                if (SimulationBoard.contains(candidates, tile) && (farthest < 0
+                        || from >= 0 && board.distance(from, tile) > board.distance(from, farthest))) {
+                    farthest = tile;
+                }
+            }
+            bestTrail = trail;
+            bestTile = farthest;
+            bestCount = count;
+        }
+        return bestTrail < 0 ? null
+                : new SelectTileToRemove(board.position(bestTile), Config.TREASURE_TRAIL_COLORS.get(bestTrail));
+    }
+}
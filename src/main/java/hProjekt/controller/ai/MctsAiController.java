@@ -0,0 +1,480 @@
+package hProjekt.controller.ai;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+import hProjekt.Config;
+import hProjekt.controller.AiControllerFactory;
+import hProjekt.controller.PlayerController;
+import hProjekt.model.GameState;
+import hProjekt.model.grid.HexGrid;
+import javafx.beans.property.IntegerProperty;
+import javafx.beans.property.Property;
+
+/**
+ * An AI controller that chooses its turns with a determinized Monte Carlo Tree
+ * Search.
+ * <p>
+ * For every regular turn the legal macro moves of a {@link Simulation} are
+ * searched until the deadline of the {@link AiScheduler} passes. Every
+ * iteration draws a new determinization of the hidden information, selects a
+ * move with UCB1 and goes on selecting the moves of all players with UCB1 in
+ * the search tree below it, until it reaches a move that wasn't tried yet.
+ * That move is added to the tree and the game is played on with the rollout
+ * policy of the simulation. Since the hidden information differs between
+ * determinizations, the tree is an information set tree: play moves are
+ * identified by the card kind instead of the hand slot, only the moves legal in
+ * the current determinization are selected and their exploration counts how
+ * often they were available. The search uses root parallelism: every worker
+ * granted by the {@link SearchPool#SHARED shared search pool} grows its own
+ * tree, and the statistics of the root moves are summed up after every slice
+ * of the search. How long and on how
+ * many workers a controller searches is set by its {@link SearchBudget}, which
+ * makes up the difficulty tiers of the AI. The results are stored in the {@link TranspositionTable#SHARED
+ * shared transposition table} under the
+ * {@link hProjekt.model.snapshot.Zobrist Zobrist} hash of the state, so
+ * another search of the same state, by this or any other controller, starts
+ * from them.
+ */
+public class MctsAiController extends MacroMoveAiController {
+
+    /**
+     * The length of a search slice, after which the best move so far is
+     * offered.
+     */
+    private static final long SLICE_NANOS = 25_000_000;
+    private static final int ROLLOUT_TURNS = 48;
+    private static final double EXPLORATION = Math.sqrt(2);
+    private static final int MAX_PRIOR_VISITS = 64;
+    private static final int MAX_TREE_NODES = 1 << 16;
+    private static final long NO_ENTRY = -1;
+
+    private final SearchBudget budget;
+
+    /**
+     * Creates a new MCTS AI controller with the given player controller, hex
+     * grid, game state and active player controller.
+     *
+     * @param playerController       the player controller
+     * @param hexGrid                the hex grid
+     * @param gameState              the game state
+     * @param activePlayerController the active player controller
+     * @param roundCounterProperty   the round counter property
+     */
+    public MctsAiController(final PlayerController playerController, final HexGrid hexGrid,
+            final GameState gameState, final Property<PlayerController> activePlayerController,
+            final IntegerProperty roundCounterProperty) {
+        this(playerController, hexGrid, gameState, activePlayerController, roundCounterProperty,
+                SearchBudget.HARD);
+    }
+
+    /**
+     * Creates a new MCTS AI controller that searches within the given budget.
+     *
+     * @param playerController       the player controller
+     * @param hexGrid                the hex grid
+     * @param gameState              the game state
+     * @param activePlayerController the active player controller
+     * @param roundCounterProperty   the round counter property
+     * @param budget                 the limits of every search
+     */
+    public MctsAiController(final PlayerController playerController, final HexGrid hexGrid,
+            final GameState gameState, final Property<PlayerController> activePlayerController,
+            final IntegerProperty roundCounterProperty, final SearchBudget budget) {
+        super(playerController, hexGrid, gameState, activePlayerController, roundCounterProperty);
+        this.budget = budget;
+    }
+
+    /**
+     * Returns a factory of MCTS AI controllers that search within the given
+     * budget.
+     *
+     * @param budget the limits of every search
+     * @return the factory
+     */
+    public static AiControllerFactory withBudget(final SearchBudget budget) {
+        return (playerController, hexGrid, gameState, activePlayerController, roundCounterProperty) ->
+                new MctsAiController(playerController, hexGrid, gameState, activePlayerController,
+                        roundCounterProperty, budget);
+    }
+
+    /**
+     * Returns the limits of every search of this controller.
+     *
+     * @return the search budget
+     */
+    public SearchBudget getBudget() {
+        return budget;
+    }
+
+    @Override
+    protected int chooseMove(final Simulation observation, final int[] moves, final int moveCount,
+            final long stateHash, final Decision<Integer> decision) {
+        return search(observation, moves, moveCount, stateHash, decision);
+    }
+
+    /**
+     * Searches the given moves of the observed state in parallel until the
+     * decision should stop or the {@link SearchBudget} is used up and returns
+     * the most visited one.
+     * <p>
+     * The search runs in slices of {@link #SLICE_NANOS}. After every slice the
+     * statistics of the workers are merged and the most visited move so far is
+     * offered to the decision, so a decision committed at its deadline gets the
+     * result of all finished slices.
+     *
+     * @param observation the observed state, with this player to move
+     * @param moves       the legal moves
+     * @param moveCount   the number of legal moves
+     * @param stateHash   the hash of the live game state
+     * @param decision    the pending decision
+     * @return the chosen move
+     */
+    protected int search(final Simulation observation, final int[] moves, final int moveCount,
+            final long stateHash, final Decision<Integer> decision) {
+        if (moveCount == 1) {
+            return moves[0];
+        }
+        final int[] visits = new int[moveCount];
+        final double[] rewards = new double[moveCount];
+        final long[] keys = new long[moveCount];
+        for (int i = 0; i < moveCount; i++) {
+            keys[i] = moveKey(observation, stateHash, moves[i]);
+            final long entry = TranspositionTable.SHARED.get(keys[i], NO_ENTRY);
+            if (entry != NO_ENTRY) {
+                visits[i] = Math.min(TranspositionTable.visits(entry), MAX_PRIOR_VISITS);
+                rewards[i] = TranspositionTable.reward(entry) * visits[i]
+                        / Math.max(1, TranspositionTable.visits(entry));
+            }
+        }
+
+        final long searchEnd = System.nanoTime() + budget.timeMillis() * 1_000_000;
+        final SplittableRandom seeds = new SplittableRandom();
+        final SplittableRandom[] randoms = new SplittableRandom[budget.threads()];
+        final Tree[] trees = new Tree[budget.threads()];
+        for (int w = 0; w < randoms.length; w++) {
+            randoms[w] = seeds.split();
+            trees[w] = new Tree(observation.me(), moveCount);
+        }
+        long iterations = 0;
+        int best = mostVisited(visits);
+        try (SearchPool.Search search = SearchPool.SHARED.open()) {
+            while (!decision.shouldStop() && iterations < budget.maxIterations()) {
+                final long end = Math.min(decision.getDeadline(), searchEnd);
+                if (System.nanoTime() >= end) {
+                    break;
+                }
+                final long sliceEnd = Math.min(end, System.nanoTime() + SLICE_NANOS);
+                final int[] sliceVisits = visits.clone();
+                final double[] sliceRewards = rewards.clone();
+                final int workers = SearchPool.SHARED.quota(budget.threads());
+                final long workerIterations = Math.max(1, (budget.maxIterations() - iterations) / workers);
+                for (final double[] statistics : search.run(workers, sliceEnd,
+                        worker -> () -> searchWorker(observation, moves, moveCount, sliceVisits, sliceRewards,
+                                sliceEnd, workerIterations, decision, trees[worker], randoms[worker]))) {
+                    for (int i = 0; i < moveCount; i++) {
+                        visits[i] += (int) statistics[2 * i] - sliceVisits[i];
+                        rewards[i] += statistics[2 * i + 1] - sliceRewards[i];
+                        iterations += (long) statistics[2 * i] - sliceVisits[i];
+                    }
+                }
+                best = mostVisited(visits);
+                decision.offer(moves[best]);
+            }
+        }
+
+        for (int i = 0; i < moveCount; i++) {
+            TranspositionTable.SHARED.put(keys[i],
+                    TranspositionTable.packStatistics(visits[i], (float) rewards[i]));
+        }
+        return moves[best];
+    }
+
+    /**
+     * Runs one slice of the search of a single worker.
+     *
+     * @param observation   the observed state, shared read only
+     * @param moves         the legal moves
+     * @param moveCount     the number of legal moves
+     * @param priorVisits   the visits to start with
+     * @param priorRewards  the summed rewards to start with
+     * @param sliceEnd      the end of the slice as {@link System#nanoTime()}
+     * @param maxIterations the maximum number of iterations of the slice
+     * @param decision      the pending decision
+     * @param tree          the search tree of this worker
+     * @param random        the source of randomness of this worker
+     * @return the visits and summed rewards of each move, interleaved
+     */
+    private static double[] searchWorker(final Simulation observation, final int[] moves, final int moveCount,
+            final int[] priorVisits, final double[] priorRewards, final long sliceEnd, final long maxIterations,
+            final Decision<Integer> decision, final Tree tree, final SplittableRandom random) {
+        final Simulation root = Simulation.copyOf(observation);
+        final Simulation simulation = Simulation.copyOf(observation);
+        final int[] legalMoves = new int[4 * (Config.MAX_CARDS_IN_HAND_WITH_TWO_PLAYERS + 1)];
+        final double[] statistics = new double[2 * moveCount];
+        int total = 0;
+        for (int i = 0; i < moveCount; i++) {
+            statistics[2 * i] = priorVisits[i];
+            statistics[2 * i + 1] = priorRewards[i];
+            total += priorVisits[i];
+        }
+        long iterations = 0;
+        while (iterations < maxIterations
+                && ((iterations++ & 15) != 0 || System.nanoTime() < sliceEnd && !decision.shouldStop())) {
+            int selected = 0;
+            double bestValue = Double.NEGATIVE_INFINITY;
+            for (int i = 0; i < moveCount; i++) {
+                final double n = statistics[2 * i];
+                final double value = n == 0 ? Double.POSITIVE_INFINITY
+                        : statistics[2 * i + 1] / n + EXPLORATION * Math.sqrt(Math.log(total + 1) / n);
+                if (value > bestValue) {
+                    selected = i;
+                    bestValue = value;
+                }
+            }
+            simulation.copyFrom(root);
+            simulation.determinize(random);
+            simulation.apply(moves[selected], random);
+            tree.rootMove(selected).iterate(simulation, legalMoves, tree, random);
+            statistics[2 * selected]++;
+            statistics[2 * selected + 1] += simulation.reward();
+            total++;
+        }
+        return statistics;
+    }
+
+    /**
+     * Returns the index of the move with the most visits.
+     *
+     * @param visits the visits of the moves
+     * @return the index of the most visited move
+     */
+    private static int mostVisited(final int[] visits) {
+        int best = 0;
+        for (int i = 1; i < visits.length; i++) {
+            if (visits[i] > visits[best]) {
+                best = i;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Returns the transposition table key of a move in the given state. Play
+     * moves are keyed by the card kind instead of the hand slot, since the order
+     * of the hand is not part of the state.
+     *
+     * @param observation the observed state
+     * @param stateHash   the hash of the state
+     * @param move        the move
+     * @return the key of the move
+     */
+    private static long moveKey(final Simulation observation, final long stateHash, final int move) {
+        long z = stateHash ^ (canonicalMove(observation, move) + 1) * 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 31)) * 0xBF58476D1CE4E5B9L;
+        return z ^ (z >>> 29);
+    }
+
+    /**
+     * Returns a move of the player to move with play moves identified by the
+     * card kind instead of the hand slot, so that the move is the same in every
+     * determinization.
+     *
+     * @param simulation the state the move is played in
+     * @param move       the move
+     * @return the canonical move
+     */
+    static int canonicalMove(final Simulation simulation, final int move) {
+        return Simulation.isDrive(move) || Simulation.isPass(move) ? move
+                : Simulation.playMove(simulation.handCard(simulation.turn(), Simulation.slot(move)),
+                        Simulation.trailOf(move));
+    }
+
+    /**
+     * The search tree of a single worker: a subtree below every root move and
+     * the number of nodes it holds, which is bounded by
+     * {@link #MAX_TREE_NODES}.
+     */
+    static final class Tree {
+        private final Node[] rootMoves;
+        private int size;
+
+        /**
+         * Creates a tree without any nodes below the root moves.
+         *
+         * @param me        the index of the searching player, who plays the root
+         *                  moves
+         * @param moveCount the number of root moves
+         */
+        Tree(final int me, final int moveCount) {
+            rootMoves = new Node[moveCount];
+            for (int i = 0; i < moveCount; i++) {
+                rootMoves[i] = new Node(me);
+            }
+            size = moveCount;
+        }
+
+        /**
+         * Returns the node reached by the given root move.
+         *
+         * @param index the index of the root move
+         * @return the node
+         */
+        Node rootMove(final int index) {
+            return rootMoves[index];
+        }
+
+        /**
+         * Returns the number of nodes in this tree.
+         *
+         * @return the number of nodes
+         */
+        int size() {
+            return size;
+        }
+    }
+
+    /**
+     * A node of the search tree, reached by a move of the player
+     * {@link #mover}. Its statistics are kept from the mover's point of view, and
+     * its children are the moves tried in the state after it, keyed by their
+     * {@link #canonicalMove(Simulation, int) canonical move}.
+     */
+    static final class Node {
+        private final int mover;
+        private int visits;
+        private double reward;
+        private int availability = 1;
+        private int[] keys = new int[0];
+        private Node[] children = new Node[0];
+
+        /**
+         * Creates a node without visits.
+         *
+         * @param mover the index of the player whose move reaches this node
+         */
+        Node(final int mover) {
+            this.mover = mover;
+        }
+
+        /**
+         * Runs one iteration from the state of this node. One of the untried
+         * legal moves of the player to move is added to the tree, unless it is
+         * full, and the game is played on by the rollout policy. Otherwise the
+         * child with the best UCB1 value is played and searched on. The hands of
+         * the other players change with every determinization, so there are
+         * nearly always untried moves; a node only gets a new child while it has
+         * at most the square root of its visits as children, which lets the
+         * search reach below it. The reward of every node on the way is
+         * updated.
+         *
+         * @param simulation the simulated game in the state of this node, it is
+         *                   played on
+         * @param moves      an array to list the legal moves in
+         * @param tree       the tree this node belongs to
+         * @param random     the source of randomness
+         */
+        void iterate(final Simulation simulation, final int[] moves, final Tree tree,
+                final SplittableRandom random) {
+            if (!simulation.isOver()) {
+                final int count = simulation.legalMoves(moves, false);
+                int untried = 0;
+                int untriedMove = 0;
+                Node best = null;
+                int bestMove = 0;
+                double bestValue = Double.NEGATIVE_INFINITY;
+                for (int i = 0; i < count; i++) {
+                    final Node child = child(canonicalMove(simulation, moves[i]));
+                    if (child == null) {
+                        if (random.nextInt(++untried) == 0) {
+                            untriedMove = moves[i];
+                        }
+                        continue;
+                    }
+                    child.availability++;
+                    final double value = child.reward / child.visits
+                            + EXPLORATION * Math.sqrt(Math.log(child.availability) / child.visits);
+                    if (value > bestValue) {
+                        best = child;
+                        bestMove = moves[i];
+                        bestValue = value;
+                    }
+                }
+                final int player = simulation.turn();
+                if (untried > 0 && (best == null || keys.length * keys.length <= visits)) {
+                    final Node child = tree.size < MAX_TREE_NODES
+                            ? addChild(canonicalMove(simulation, untriedMove), new Node(player), tree) : null;
+                    simulation.apply(untriedMove, random);
+                    simulation.rollout(ROLLOUT_TURNS, random);
+                    if (child != null) {
+                        child.update(simulation);
+                    }
+                } else {
+                    simulation.apply(bestMove, random);
+                    best.iterate(simulation, moves, tree, random);
+                }
+            }
+            update(simulation);
+        }
+
+        /**
+         * Returns the number of iterations that passed this node.
+         *
+         * @return the number of visits
+         */
+        int visits() {
+            return visits;
+        }
+
+        /**
+         * Returns the children of this node.
+         *
+         * @return the nodes reached by the moves tried after this node
+         */
+        Node[] children() {
+            return children.clone();
+        }
+
+        /**
+         * Adds the reward of the mover in the given finished iteration.
+         *
+         * @param simulation the simulated game at the end of the iteration
+         */
+        private void update(final Simulation simulation) {
+            visits++;
+            reward += simulation.reward(mover);
+        }
+
+        /**
+         * Returns the child reached by the given canonical move.
+         *
+         * @param key the canonical move
+         * @return the child or {@code null} if the move wasn't tried yet
+         */
+        private Node child(final int key) {
+            for (int i = 0; i < keys.length; i++) {
+                if (keys[i] == key) {
+                    return children[i];
+                }
+            }
+            return null;
+        }
+
+        /**
+         * Adds a child reached by the given canonical move.
+         *
+         * @param key   the canonical move
+         * @param child the new child
+         * @param tree  the tree this node belongs to
+         * @return the new child
+         */
+        private Node addChild(final int key, final Node child, final Tree tree) {
+            keys = Arrays.copyOf(keys, keys.length + 1);
+            keys[keys.length - 1] = key;
+            children = Arrays.copyOf(children, children.length + 1);
+            children[children.length - 1] = child;
+            tree.size++;
+            return child;
+        }
+    }
+}
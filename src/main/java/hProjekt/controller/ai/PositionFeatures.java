@@ -0,0 +1,152 @@
+package hProjekt.controller.ai;
+
+import java.util.Arrays;
+
+import hProjekt.Config;
+import hProjekt.model.cards.CardType;
+
+/**
+ * Extracts a compact feature vector of a {@link Simulation} from the point of
+ * view of one player, the input of the learned evaluation.
+ * <p>
+ * All features are scaled to roughly {@code [-1, 1]}. The treasure trails are
+ * interchangeable, so their features are ordered by the number of candidate
+ * tiles instead of by color: the first trail features always describe the
+ * trail closest to being solved.
+ */
+public final class PositionFeatures {
+
+    /**
+     * The number of features per treasure trail.
+     */
+    private static final int TRAIL_FEATURES = 4;
+
+    /**
+     * The names of the features, in the order of the vector.
+     */
+    public static final String[] NAMES = names();
+
+    /**
+     * The number of features.
+     */
+    public static final int COUNT = NAMES.length;
+
+    private PositionFeatures() {
+    }
+
+    /**
+     * Writes the features of the given player into the target.
+     *
+     * @param simulation the simulated game, all hands must be known
+     * @param player     the index of the player
+     * @param target     the array to write the {@link #COUNT} features to
+     */
+    public static void extract(final Simulation simulation, final int player, final float[] target) {
+        final SimulationBoard board = simulation.board();
+        int bestOther = 0;
+        for (int p = 0; p < simulation.players(); p++) {
+            if (p != player) {
+                bestOther = Math.max(bestOther, simulation.gold(p));
+            }
+        }
+        final int deckSize = Config.TOP_PILE_GOLD_CARDS + Config.LOWER_PILE_GOLD_CARDS + Config.TOTAL_CURSE_CARDS;
+        int i = 0;
+        target[i++] = clip((simulation.gold(player) - bestOther) / 10f);
+        target[i++] = simulation.gold(player) / 50f;
+        target[i++] = Math.min(simulation.amulets(player), 4) / 4f;
+        target[i++] = (float) simulation.deckDepth() / deckSize;
+        target[i++] = (float) simulation.curses() / Math.max(1, Config.TOTAL_CURSE_CARDS);
+
+        int negations = 0;
+        int playable = 0;
+        float bestNarrowing = 0;
+        for (int slot = 0; slot < simulation.handSize(player); slot++) {
+            final int kind = simulation.handCard(player, slot);
+            final CardType type = board.cardKey(kind).type();
+            if (type != null && type.negation) {
+                negations++;
+            }
+            for (int trail = 0; trail < Config.TREASURE_TRAIL_COLORS.size(); trail++) {
+                if (simulation.trailLength(trail) > 0 && simulation.canPlay(kind, trail)) {
+                    playable++;
+                    final long[] candidates = simulation.trail(trail);
+                    final float kept = (float) SimulationBoard.countIntersection(candidates, board.cardTiles(kind))
+                            / SimulationBoard.count(candidates);
+                    bestNarrowing = Math.max(bestNarrowing, 1 - kept);
+                }
+            }
+        }
+        target[i++] = simulation.handSize(player) / (float) Config.MAX_CARDS_IN_HAND_WITH_TWO_PLAYERS;
+        target[i++] = negations / (float) Config.MAX_CARDS_IN_HAND_WITH_TWO_PLAYERS;
+        target[i++] = Math.min(playable, 8) / 8f;
+        target[i++] = bestNarrowing;
+
+        final int trails = Config.TREASURE_TRAIL_COLORS.size();
+        final long[] order = new long[trails];
+        for (int trail = 0; trail < trails; trail++) {
+            order[trail] = (long) SimulationBoard.count(simulation.trail(trail)) << 8 | trail;
+        }
+        Arrays.sort(order);
+        final int from = simulation.position(player);
+        final float logSize = (float) Math.log(board.size() + 1);
+        for (final long entry : order) {
+            final int trail = (int) (entry & 0xFF);
+            final long[] candidates = simulation.trail(trail);
+            final int count = (int) (entry >>> 8);
+            final int mine = from < 0 ? SimulationBoard.UNREACHABLE : distanceTo(board, from, candidates);
+            int closestOther = SimulationBoard.UNREACHABLE;
+            for (int p = 0; p < simulation.players(); p++) {
+                if (p != player && simulation.position(p) >= 0) {
+                    closestOther = Math.min(closestOther, distanceTo(board, simulation.position(p), candidates));
+                }
+            }
+            target[i++] = (float) Math.log(count + 1) / logSize;
+            target[i++] = Math.min(mine, 4 * Config.DRIVE_LIMIT) / (4f * Config.DRIVE_LIMIT);
+            target[i++] = clip((closestOther - mine) / (float) (2 * Config.DRIVE_LIMIT));
+            target[i++] = count == 1 && simulation.trailLength(trail) > 0 ? 1 : 0;
+        }
+    }
+
+    /**
+     * Returns the distance from a tile to the closest tile of a set.
+     *
+     * @param board the board
+     * @param from  the index of the start tile
+     * @param tiles the bitset of target tiles
+     * @return the distance or {@link SimulationBoard#UNREACHABLE}
+     */
+    private static int distanceTo(final SimulationBoard board, final int from, final long[] tiles) {
+        final int nearest = board.nearest(from, tiles);
+        return nearest < 0 ? SimulationBoard.UNREACHABLE : board.distance(from, nearest);
+    }
+
+    /**
+     * Clips a value to {@code [-1, 1]}.
+     *
+     * @param value the value
+     * @return the clipped value
+     */
+    private static float clip(final float value) {
+        return Math.max(-1, Math.min(1, value));
+    }
+
+    /**
+     * Builds the names of the features.
+     *
+     * @return the names
+     */
+    private static String[] names() {
+        final String[] general = {"gold_lead", "gold", "amulets", "deck_left", "curses_left", "hand_size",
+            "hand_negations", "playable_cards", "best_narrowing"};
+        final int trails = Config.TREASURE_TRAIL_COLORS.size();
+        final String[] names = Arrays.copyOf(general, general.length + trails * TRAIL_FEATURES);
+        for (int rank = 0; rank < trails; rank++) {
+            final int offset = general.length + rank * TRAIL_FEATURES;
+            names[offset] = "trail" + rank + "_candidates";
+            names[offset + 1] = "trail" + rank + "_distance";
+            names[offset + 2] = "trail" + rank + "_race";
+            names[offset + 3] = "trail" + rank + "_solved";
+        }
+        return names;
+    }
+}
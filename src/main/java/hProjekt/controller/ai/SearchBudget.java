@@ -0,0 +1,51 @@
+package hProjekt.controller.ai;
+
+import hProjekt.Config;
+
+/**
+ * The limits of a single search of the {@link MctsAiController}, which make up
+ * the difficulty tiers of the AI.
+ * <p>
+ * A search stops as soon as it ran {@code maxIterations} iterations, took
+ * {@code timeMillis} or reached the deadline of the {@link AiScheduler},
+ * whichever comes first. The {@code threads} are an upper bound on the workers
+ * the search asks the {@link SearchPool} for; the pool may grant fewer while
+ * other searches run.
+ *
+ * @param maxIterations the maximum number of search iterations
+ * @param timeMillis    the maximum time of a search in milliseconds
+ * @param threads       the maximum number of workers
+ */
+public record SearchBudget(long maxIterations, long timeMillis, int threads) {
+
+    /**
+     * A fast heuristic: a few hundred rollouts on a single worker.
+     */
+    public static final SearchBudget EASY = new SearchBudget(256, 50, 1);
+
+    /**
+     * A medium search on two workers.
+     */
+    public static final SearchBudget MEDIUM = new SearchBudget(8_192, 250, 2);
+
+    /**
+     * A strong search that uses the whole time of a turn and every worker it
+     * is granted.
+     */
+    public static final SearchBudget HARD = new SearchBudget(Long.MAX_VALUE, Config.AI_MOVE_TIME_BUDGET_MILLIS,
+            Runtime.getRuntime().availableProcessors());
+
+    /**
+     * Creates a new search budget.
+     *
+     * @param maxIterations the maximum number of search iterations
+     * @param timeMillis    the maximum time of a search in milliseconds
+     * @param threads       the maximum number of workers
+     * @throws IllegalArgumentException if a limit is not positive
+     */
+    public SearchBudget {
+        if (maxIterations <= 0 || timeMillis <= 0 || threads <= 0) {
+            throw new IllegalArgumentException("Search limits must be positive");
+        }
+    }
+}
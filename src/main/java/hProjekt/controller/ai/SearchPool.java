@@ -0,0 +1,172 @@
+package hProjekt.controller.ai;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntFunction;
+
+/**
+ * A bounded pool of search workers shared by all AI controllers.
+ * <p>
+ * The pool runs at most one worker per processor, no matter how many searches
+ * run at the same time, so many strong AIs in one game can't oversubscribe the
+ * machine. Every running search gets a fair quota of the workers: the number
+ * it asks for, but at most an equal share of all workers among the open
+ * searches and at least one. Workers are handed out first come, first served,
+ * so no search starves behind the others.
+ * <p>
+ * A search {@link #open() opens} a {@link Search}, runs its slices through it
+ * and closes it when done.
+ */
+public class SearchPool {
+
+    /**
+     * The pool shared by all AI controllers, with one worker per processor.
+     */
+    public static final SearchPool SHARED = new SearchPool(Runtime.getRuntime().availableProcessors());
+
+    private final int workers;
+    private final ExecutorService executor;
+    private final Semaphore permits;
+    private final AtomicInteger searches = new AtomicInteger();
+
+    /**
+     * Creates a new pool.
+     *
+     * @param workers the number of workers
+     */
+    public SearchPool(final int workers) {
+        this.workers = workers;
+        this.executor = Executors.newFixedThreadPool(workers,
+                AiScheduler.daemonThreads("AiSearchWorker", Thread.NORM_PRIORITY));
+        this.permits = new Semaphore(workers, true);
+    }
+
+    /**
+     * Returns the number of workers.
+     *
+     * @return the number of workers
+     */
+    public int getWorkers() {
+        return workers;
+    }
+
+    /**
+     * Returns the number of open searches.
+     *
+     * @return the number of searches sharing the workers
+     */
+    public int getOpenSearches() {
+        return searches.get();
+    }
+
+    /**
+     * Returns the number of workers a search asking for the given number gets
+     * now.
+     *
+     * @param requested the number of workers the search asks for
+     * @return the quota of the search
+     */
+    public int quota(final int requested) {
+        return Math.max(1, Math.min(requested, workers / Math.max(1, searches.get())));
+    }
+
+    /**
+     * Opens a new search, which lowers the quota of all other searches.
+     *
+     * @return the search, to be closed when done
+     */
+    public Search open() {
+        searches.incrementAndGet();
+        return new Search();
+    }
+
+    /**
+     * A search holding a share of the workers while it is open.
+     */
+    public class Search implements AutoCloseable {
+
+        private boolean closed;
+
+        /**
+         * Runs one task per granted worker and waits for all of them.
+         * <p>
+         * The search waits for its quota of workers until the deadline, then for
+         * a single one. If not even that is free before the deadline, nothing
+         * runs.
+         *
+         * @param requested     the number of workers to ask for
+         * @param deadlineNanos the latest time to start as {@link System#nanoTime()}
+         * @param task          creates the task of the worker with the given index
+         * @param <T>           the type of the results
+         * @return the results of the tasks, empty if no worker was granted
+         */
+        public <T> List<T> run(final int requested, final long deadlineNanos, final IntFunction<Callable<T>> task) {
+            if (closed) {
+                throw new IllegalStateException("Search is closed");
+            }
+            final int granted = acquire(quota(requested), deadlineNanos);
+            if (granted == 0) {
+                return List.of();
+            }
+            try {
+                final List<Callable<T>> tasks = new ArrayList<>();
+                for (int i = 0; i < granted; i++) {
+                    tasks.add(task.apply(i));
+                }
+                final List<T> results = new ArrayList<>();
+                for (final Future<T> result : executor.invokeAll(tasks)) {
+                    results.add(result.get());
+                }
+                return results;
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException("AI search was interrupted", e);
+            } catch (final ExecutionException e) {
+                throw new RuntimeException("AI search failed", e.getCause());
+            } finally {
+                permits.release(granted);
+            }
+        }
+
+        @Override
+        public void close() {
+            if (!closed) {
+                closed = true;
+                searches.decrementAndGet();
+            }
+        }
+
+        /**
+         * Takes the given number of workers or a single one, waiting until the
+         * deadline at most.
+         *
+         * @param quota         the number of workers to take
+         * @param deadlineNanos the deadline as {@link System#nanoTime()}
+         * @return the number of workers taken, {@code 0} if none was free
+         */
+        private int acquire(final int quota, final long deadlineNanos) {
+            try {
+                final long wait = Math.max(0, deadlineNanos - System.nanoTime());
+                if (permits.tryAcquire(quota, wait, TimeUnit.NANOSECONDS)) {
+                    return quota;
+                }
+                if (quota > 1 && permits.tryAcquire(1, Math.max(0, deadlineNanos - System.nanoTime()),
+                        TimeUnit.NANOSECONDS)) {
+                    return 1;
+                }
+                return 0;
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException("AI search was interrupted", e);
+            }
+        }
+    }
+}
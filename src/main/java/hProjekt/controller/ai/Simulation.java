@@ -0,0 +1,865 @@
+package hProjekt.controller.ai;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import hProjekt.Config;
+import hProjekt.model.GameState;
+import hProjekt.model.Player;
+import hProjekt.model.cards.CurseCard;
+import hProjekt.model.cards.GoldCard;
+import hProjekt.model.cards.PathCard;
+import hProjekt.model.cards.PathCardKey;
+import hProjekt.model.cards.RemoveTileCard;
+import hProjekt.model.cards.TreasureCard;
+import hProjekt.model.grid.Tile;
+
+/**
+ * A mutable, array based copy of a game that plays whole turns without the
+ * {@code PlayerController} machinery. This is the headless rules core the
+ * searching AI controllers run their rollouts on.
+ * <p>
+ * A turn is a single macro move: either a path card is played on a treasure
+ * trail or the player drives up to {@link Config#DRIVE_LIMIT} steps towards
+ * the closest candidate tile of a trail, collecting amulets and the treasure
+ * on arrival. The treasure distribution follows
+ * {@code GameController.collectTreasure}, with every player always accepting
+ * the offered gold. Amulets are collected but never used and don't respawn, and
+ * the collector of a treasure doesn't play an extra card. A player that can
+ * neither play nor drive exchanges a random path card instead, which stands in
+ * for the amulets and keeps trails from getting stuck.
+ * <p>
+ * Hidden information is handled by determinization: {@link #observe} copies
+ * everything the given player knows, and {@link #determinize} fills in the
+ * hands and gold values of the other players and the order of the treasure
+ * deck at random. A simulation is not thread safe, every search thread works
+ * on its own copy created with {@link #copyFrom(Simulation)}.
+ */
+public final class Simulation {
+
+    /**
+     * The value of a curse card in the treasure deck.
+     */
+    private static final int CURSE = 0;
+
+    private static final int MAX_TRAIL_LENGTH = 64;
+    private static final int MOVE_DRIVE = 1 << 16;
+    private static final int MOVE_PASS = 1 << 17;
+
+    private final SimulationBoard board;
+    private final int players;
+    private final int me;
+
+    private final int[] position;
+    private final int[] amulets;
+    private final int[][] gold;
+    private final int[] goldSum;
+    private final int[][] hands;
+    private final int[] handSize;
+    private final boolean[] hiddenGold;
+    private final long[][] trails;
+    private final int[] trailLength;
+    private final int[][] trailOwners;
+    private final long[] amuletTiles;
+    private final int[] deck;
+    private int deckDepth;
+    private int curses;
+    private int turn;
+    private int turns;
+    private boolean over;
+
+    private final int[] pool = new int[MAX_TRAIL_LENGTH + 1];
+    private final int[] windroses = new int[MAX_TRAIL_LENGTH];
+
+    /**
+     * Creates an empty simulation.
+     *
+     * @param board    the board
+     * @param players  the number of players
+     * @param me       the index of the player whose knowledge is simulated
+     * @param deckSize the capacity of the treasure deck
+     */
+    private Simulation(final SimulationBoard board, final int players, final int me, final int deckSize) {
+        this.board = board;
+        this.players = players;
+        this.me = me;
+        position = new int[players];
+        amulets = new int[players];
+        gold = new int[players][Config.MAX_GOLD_CARD_VALUE + 1];
+        goldSum = new int[players];
+        hands = new int[players][Config.MAX_CARDS_IN_HAND_WITH_TWO_PLAYERS];
+        handSize = new int[players];
+        hiddenGold = new boolean[players];
+        trails = new long[Config.TREASURE_TRAIL_COLORS.size()][board.words()];
+        trailLength = new int[trails.length];
+        trailOwners = new int[trails.length][MAX_TRAIL_LENGTH];
+        amuletTiles = new long[board.words()];
+        deck = new int[deckSize];
+    }
+
+    /**
+     * Creates a copy of the given simulation.
+     *
+     * @param other the simulation to copy
+     * @return the copy
+     */
+    public static Simulation copyOf(final Simulation other) {
+        final Simulation copy = new Simulation(other.board, other.players, other.me, other.deck.length);
+        copy.copyFrom(other);
+        return copy;
+    }
+
+    /**
+     * Captures everything the given player knows about the game. The unknown
+     * parts are left empty until {@link #determinize(SplittableRandom)} is
+     * called.
+     *
+     * @param board  the board of the game
+     * @param state  the live game state
+     * @param player the player whose knowledge is captured
+     * @return the observed simulation
+     */
+    public static Simulation observe(final SimulationBoard board, final GameState state, final Player player) {
+        final List<Player> livePlayers = state.getPlayers();
+        final Simulation simulation = new Simulation(board, livePlayers.size(), livePlayers.indexOf(player),
+                state.getTreasureDeck().size());
+        for (int p = 0; p < livePlayers.size(); p++) {
+            final Player live = livePlayers.get(p);
+            simulation.position[p] = board.index(live.getPosition());
+            simulation.amulets[p] = live.getAmulets();
+            if (live == player) {
+                for (final GoldCard card : live.getGoldCards()) {
+                    simulation.gold[p][card.value()]++;
+                    simulation.goldSum[p] += card.value();
+                }
+                for (final PathCard card : live.getPathCards()) {
+                    final int kind = board.cardKind(PathCardKey.of(card));
+                    if (kind >= 0 && simulation.handSize[p] < simulation.hands[p].length) {
+                        simulation.hands[p][simulation.handSize[p]++] = kind;
+                    }
+                }
+            } else {
+                // Only the number of gold cards of the other players is known
+                simulation.gold[p][0] = live.getGoldCards().size();
+                simulation.hiddenGold[p] = true;
+                simulation.handSize[p] = Math.min(live.getPathCards().size(), simulation.hands[p].length);
+            }
+        }
+        for (int t = 0; t < simulation.trails.length; t++) {
+            board.allTiles(simulation.trails[t]);
+            for (final PathCard card : state.getTreasureTrails().get(Config.TREASURE_TRAIL_COLORS.get(t))) {
+                if (simulation.trailLength[t] == MAX_TRAIL_LENGTH) {
+                    break;
+                }
+                if (card instanceof final RemoveTileCard removeTileCard) {
+                    final int tile = board.index(removeTileCard.getTilePosition());
+                    if (tile >= 0) {
+                        simulation.trails[t][tile >>> 6] &= ~(1L << tile);
+                    }
+                } else {
+                    final int kind = board.cardKind(PathCardKey.of(card));
+                    if (kind >= 0) {
+                        and(simulation.trails[t], board.cardTiles(kind));
+                    }
+                }
+                simulation.trailOwners[t][simulation.trailLength[t]++] = livePlayers.indexOf(card.getPlayer());
+            }
+        }
+        for (final Tile tile : state.getGrid().getTiles().values()) {
+            if (tile.hasAmulet()) {
+                final int index = board.index(tile.getPosition());
+                simulation.amuletTiles[index >>> 6] |= 1L << index;
+            }
+        }
+        simulation.deckDepth = state.getTreasureDeck().size();
+        // Drawn curse cards are revealed, so the number of curses left is public
+        for (final TreasureCard card : state.getTreasureDeck()) {
+            if (card instanceof CurseCard) {
+                simulation.curses++;
+            }
+        }
+        simulation.turn = simulation.me;
+        return simulation;
+    }
+
+    /**
+     * Creates a new game on the given board with every player on a random tile,
+     * full hands and a freshly shuffled treasure deck, as used for self-play.
+     * All information is known, the first player observes and moves first.
+     *
+     * @param board   the board
+     * @param players the number of players
+     * @param random  the source of randomness
+     * @return the new game
+     */
+    public static Simulation newGame(final SimulationBoard board, final int players,
+            final SplittableRandom random) {
+        final Simulation simulation = new Simulation(board, players, 0,
+                Config.TOP_PILE_GOLD_CARDS + Config.LOWER_PILE_GOLD_CARDS + Config.TOTAL_CURSE_CARDS);
+        final int handLimit = players == 2 ? Config.MAX_CARDS_IN_HAND_WITH_TWO_PLAYERS : Config.MAX_CARDS_IN_HAND;
+        for (int p = 0; p < players; p++) {
+            simulation.position[p] = random.nextInt(board.size());
+            simulation.handSize[p] = handLimit;
+            for (int i = 0; i < handLimit; i++) {
+                simulation.hands[p][i] = board.randomCardKind(random);
+            }
+        }
+        for (final long[] trail : simulation.trails) {
+            board.allTiles(trail);
+        }
+        simulation.deckDepth = simulation.deck.length;
+        simulation.curses = Config.TOTAL_CURSE_CARDS;
+        simulation.determinize(random);
+        return simulation;
+    }
+
+    /**
+     * Fills in everything the observing player doesn't know at random: the hands
+     * and gold values of the other players and the order and values of the
+     * treasure deck. Curse cards are only placed into the lower part of the deck,
+     * like {@code GameState} does.
+     *
+     * @param random the source of randomness
+     */
+    public void determinize(final SplittableRandom random) {
+        for (int p = 0; p < players; p++) {
+            if (p == me) {
+                continue;
+            }
+            for (int i = 0; i < handSize[p]; i++) {
+                hands[p][i] = board.randomCardKind(random);
+            }
+            if (hiddenGold[p]) {
+                final int count = gold[p][0];
+                Arrays.fill(gold[p], 0);
+                goldSum[p] = 0;
+                for (int i = 0; i < count; i++) {
+                    addGold(p, randomGold(random));
+                }
+                hiddenGold[p] = false;
+            }
+        }
+        for (int i = 0; i < deckDepth; i++) {
+            deck[i] = randomGold(random);
+        }
+        final int lowerPile = Math.min(deckDepth, Config.LOWER_PILE_GOLD_CARDS + Config.TOTAL_CURSE_CARDS);
+        for (int c = 0; c < curses && c < lowerPile; c++) {
+            int index;
+            do {
+                index = random.nextInt(lowerPile);
+            } while (deck[index] == CURSE);
+            deck[index] = CURSE;
+        }
+    }
+
+    /**
+     * Overwrites this simulation with the given one. Both must have been created
+     * for the same game.
+     *
+     * @param other the simulation to copy
+     */
+    public void copyFrom(final Simulation other) {
+        System.arraycopy(other.position, 0, position, 0, players);
+        System.arraycopy(other.amulets, 0, amulets, 0, players);
+        System.arraycopy(other.goldSum, 0, goldSum, 0, players);
+        System.arraycopy(other.handSize, 0, handSize, 0, players);
+        System.arraycopy(other.hiddenGold, 0, hiddenGold, 0, players);
+        for (int p = 0; p < players; p++) {
+            System.arraycopy(other.gold[p], 0, gold[p], 0, gold[p].length);
+            System.arraycopy(other.hands[p], 0, hands[p], 0, hands[p].length);
+        }
+        for (int t = 0; t < trails.length; t++) {
+            System.arraycopy(other.trails[t], 0, trails[t], 0, trails[t].length);
+            System.arraycopy(other.trailOwners[t], 0, trailOwners[t], 0, other.trailLength[t]);
+        }
+        System.arraycopy(other.trailLength, 0, trailLength, 0, trails.length);
+        System.arraycopy(other.amuletTiles, 0, amuletTiles, 0, amuletTiles.length);
+        System.arraycopy(other.deck, 0, deck, 0, other.deckDepth);
+        deckDepth = other.deckDepth;
+        curses = other.curses;
+        turn = other.turn;
+        turns = other.turns;
+        over = other.over;
+    }
+
+    /**
+     * Returns the board of this simulation.
+     *
+     * @return the board
+     */
+    public SimulationBoard board() {
+        return board;
+    }
+
+    /**
+     * Returns the number of players.
+     *
+     * @return the number of players
+     */
+    public int players() {
+        return players;
+    }
+
+    /**
+     * Returns the index of the player to move.
+     *
+     * @return the index of the player to move
+     */
+    public int turn() {
+        return turn;
+    }
+
+    /**
+     * Returns the index of the observing player.
+     *
+     * @return the index of the observing player
+     */
+    public int me() {
+        return me;
+    }
+
+    /**
+     * Returns the number of amulets of the given player.
+     *
+     * @param player the index of the player
+     * @return the number of amulets
+     */
+    public int amulets(final int player) {
+        return amulets[player];
+    }
+
+    /**
+     * Returns the summed value of the gold cards of the given player.
+     *
+     * @param player the index of the player
+     * @return the summed value
+     */
+    public int gold(final int player) {
+        return goldSum[player];
+    }
+
+    /**
+     * Returns the number of path cards in the hand of the given player.
+     *
+     * @param player the index of the player
+     * @return the number of path cards
+     */
+    public int handSize(final int player) {
+        return handSize[player];
+    }
+
+    /**
+     * Returns the number of cards left in the treasure deck.
+     *
+     * @return the number of cards
+     */
+    public int deckDepth() {
+        return deckDepth;
+    }
+
+    /**
+     * Returns the number of curse cards left in the treasure deck.
+     *
+     * @return the number of curse cards
+     */
+    public int curses() {
+        return curses;
+    }
+
+    /**
+     * Returns the index of the tile the given player stands on.
+     *
+     * @param player the index of the player
+     * @return the index of the tile or {@code -1}
+     */
+    public int position(final int player) {
+        return position[player];
+    }
+
+    /**
+     * Returns the card kind in the given hand slot of a player.
+     *
+     * @param player the index of the player
+     * @param slot   the hand slot
+     * @return the card kind
+     */
+    public int handCard(final int player, final int slot) {
+        return hands[player][slot];
+    }
+
+    /**
+     * Returns the current candidate tiles of the given treasure trail. The
+     * returned array must not be modified.
+     *
+     * @param trail the index of the trail
+     * @return the bitset of candidate tiles
+     */
+    public long[] trail(final int trail) {
+        return trails[trail];
+    }
+
+    /**
+     * Returns the number of cards on the given treasure trail.
+     *
+     * @param trail the index of the trail
+     * @return the number of cards
+     */
+    public int trailLength(final int trail) {
+        return trailLength[trail];
+    }
+
+    /**
+     * Returns whether the game is over.
+     *
+     * @return whether the game is over
+     */
+    public boolean isOver() {
+        return over;
+    }
+
+    /**
+     * Returns the number of turns played.
+     *
+     * @return the number of turns
+     */
+    public int turns() {
+        return turns;
+    }
+
+    /**
+     * Creates the move that plays the card in the given hand slot on a trail.
+     *
+     * @param slot  the hand slot
+     * @param trail the index of the trail
+     * @return the move
+     */
+    public static int playMove(final int slot, final int trail) {
+        return slot << 2 | trail;
+    }
+
+    /**
+     * Creates the move that drives towards the given trail.
+     *
+     * @param trail the index of the trail
+     * @return the move
+     */
+    public static int driveMove(final int trail) {
+        return MOVE_DRIVE | trail;
+    }
+
+    /**
+     * Returns whether the given move drives.
+     *
+     * @param move the move
+     * @return whether the move drives
+     */
+    public static boolean isDrive(final int move) {
+        return (move & MOVE_DRIVE) != 0;
+    }
+
+    /**
+     * Returns whether the given move passes, which exchanges a path card.
+     *
+     * @param move the move
+     * @return whether the move passes
+     */
+    public static boolean isPass(final int move) {
+        return move == MOVE_PASS;
+    }
+
+    /**
+     * Returns the hand slot of a move created by {@link #playMove(int, int)}.
+     *
+     * @param move the move
+     * @return the hand slot
+     */
+    public static int slot(final int move) {
+        return (move & 0xFFFF) >>> 2;
+    }
+
+    /**
+     * Returns the trail index of a play or drive move.
+     *
+     * @param move the move
+     * @return the index of the trail
+     */
+    public static int trailOf(final int move) {
+        return move & 3;
+    }
+
+    /**
+     * Checks whether the given card kind may be played on the given trail: the
+     * trail must be empty, or the card must reduce its candidates without
+     * eliminating all of them.
+     *
+     * @param kind  the card kind
+     * @param trail the index of the trail
+     * @return whether the card may be played
+     */
+    public boolean canPlay(final int kind, final int trail) {
+        if (trailLength[trail] == 0) {
+            return true;
+        }
+        final int remaining = SimulationBoard.countIntersection(trails[trail], board.cardTiles(kind));
+        return remaining > 0 && remaining < SimulationBoard.count(trails[trail]);
+    }
+
+    /**
+     * Lists the legal moves of the player to move.
+     *
+     * @param moves    the array to write the moves to, must hold at least
+     *                 {@code 4 * (hand limit + 1)} moves
+     * @param playOnly whether only play moves are listed
+     * @return the number of moves
+     */
+    public int legalMoves(final int[] moves, final boolean playOnly) {
+        int count = 0;
+        final int[] hand = hands[turn];
+        for (int slot = 0; slot < handSize[turn]; slot++) {
+            if (indexOf(hand, hand[slot], slot) >= 0) {
+                // Equal cards lead to the same states
+                continue;
+            }
+            for (int trail = 0; trail < trails.length; trail++) {
+                if (canPlay(hand[slot], trail)) {
+                    moves[count++] = playMove(slot, trail);
+                }
+            }
+        }
+        if (!playOnly && position[turn] >= 0) {
+            for (int trail = 0; trail < trails.length; trail++) {
+                if (trailLength[trail] > 0 && board.nearest(position[turn], trails[trail]) >= 0) {
+                    moves[count++] = driveMove(trail);
+                }
+            }
+        }
+        if (count == 0) {
+            moves[count++] = MOVE_PASS;
+        }
+        return count;
+    }
+
+    /**
+     * Plays the given move for the player to move and ends the turn.
+     *
+     * @param move   the move
+     * @param random the source of randomness
+     */
+    public void apply(final int move, final SplittableRandom random) {
+        if (isDrive(move)) {
+            drive(turn, trailOf(move), random);
+        } else if (isPass(move)) {
+            if (handSize[turn] > 0) {
+                hands[turn][random.nextInt(handSize[turn])] = board.randomCardKind(random);
+            }
+        } else {
+            play(turn, slot(move), trailOf(move), random);
+        }
+        endTurn();
+    }
+
+    /**
+     * Plays the game until it is over or the given number of turns was played,
+     * using a greedy randomized policy for all players.
+     *
+     * @param maxTurns the maximum number of turns to play
+     * @param random   the source of randomness
+     */
+    public void rollout(final int maxTurns, final SplittableRandom random) {
+        final int end = turns + maxTurns;
+        while (!over && turns < end) {
+            apply(policyMove(random), random);
+        }
+    }
+
+    /**
+     * Returns the reward of the observing player.
+     *
+     * @return the reward
+     * @see #reward(int)
+     */
+    public double reward() {
+        return reward(me);
+    }
+
+    /**
+     * Returns the reward of the given player in {@code [0, 1]}. A finished game
+     * yields {@code 1} for a win, shared between tied players, and {@code 0} for
+     * a loss. An unfinished game is scored by the gold lead over the best
+     * opponent.
+     *
+     * @param player the index of the player
+     * @return the reward
+     */
+    public double reward(final int player) {
+        int best = Integer.MIN_VALUE;
+        int tied = 0;
+        for (int p = 0; p < players; p++) {
+            if (p == player) {
+                continue;
+            }
+            if (goldSum[p] > best) {
+                best = goldSum[p];
+            }
+        }
+        if (over) {
+            if (goldSum[player] < best) {
+                return 0;
+            }
+            for (int p = 0; p < players; p++) {
+                if (goldSum[p] == goldSum[player]) {
+                    tied++;
+                }
+            }
+            return 1.0 / tied;
+        }
+        return 0.5 + 0.5 * Math.tanh((goldSum[player] - best) / 8.0);
+    }
+
+    /**
+     * Chooses the move of the rollout policy: drive to a collectable treasure in
+     * reach, otherwise usually play the card that narrows a trail the most and
+     * sometimes drive towards the trail with the fewest candidates. If no card
+     * can be played, the player drives to a solved trail or passes.
+     *
+     * @param random the source of randomness
+     * @return the chosen move
+     */
+    private int policyMove(final SplittableRandom random) {
+        final int from = position[turn];
+        int bestDrive = -1;
+        int bestDriveCandidates = Integer.MAX_VALUE;
+        for (int trail = 0; trail < trails.length && from >= 0; trail++) {
+            if (trailLength[trail] == 0) {
+                continue;
+            }
+            final int candidates = SimulationBoard.count(trails[trail]);
+            if (candidates == 1) {
+                final int target = board.nearest(from, trails[trail]);
+                if (target >= 0 && board.distance(from, target) <= Config.DRIVE_LIMIT) {
+                    return driveMove(trail);
+                }
+            }
+            if (candidates < bestDriveCandidates) {
+                bestDrive = trail;
+                bestDriveCandidates = candidates;
+            }
+        }
+        if (bestDrive >= 0 && bestDriveCandidates <= 3 && random.nextInt(3) == 0) {
+            return driveMove(bestDrive);
+        }
+        int bestPlay = -1;
+        int bestRemaining = Integer.MAX_VALUE;
+        final int[] hand = hands[turn];
+        for (int slot = 0; slot < handSize[turn]; slot++) {
+            for (int trail = 0; trail < trails.length; trail++) {
+                if (trailLength[trail] == 0) {
+                    if (bestPlay < 0) {
+                        bestPlay = playMove(slot, trail);
+                    }
+                    continue;
+                }
+                final int remaining = SimulationBoard.countIntersection(trails[trail], board.cardTiles(hand[slot]));
+                if (remaining > 0 && remaining < bestRemaining && remaining < SimulationBoard.count(trails[trail])
+                        && random.nextInt(4) != 0) {
+                    bestPlay = playMove(slot, trail);
+                    bestRemaining = remaining;
+                }
+            }
+        }
+        if (bestPlay >= 0) {
+            return bestPlay;
+        }
+        return bestDriveCandidates == 1 ? driveMove(bestDrive) : MOVE_PASS;
+    }
+
+    /**
+     * Plays a card and draws a new one.
+     *
+     * @param player the index of the player
+     * @param slot   the hand slot of the card
+     * @param trail  the index of the trail
+     * @param random the source of randomness
+     */
+    private void play(final int player, final int slot, final int trail, final SplittableRandom random) {
+        final int kind = hands[player][slot];
+        if (!canPlay(kind, trail) || trailLength[trail] == MAX_TRAIL_LENGTH) {
+            return;
+        }
+        and(trails[trail], board.cardTiles(kind));
+        trailOwners[trail][trailLength[trail]++] = player;
+        hands[player][slot] = board.randomCardKind(random);
+    }
+
+    /**
+     * Drives towards the closest candidate tile of a trail, collecting the
+     * amulet and the treasure on arrival.
+     *
+     * @param player the index of the player
+     * @param trail  the index of the trail
+     * @param random the source of randomness
+     */
+    private void drive(final int player, final int trail, final SplittableRandom random) {
+        final int target = position[player] < 0 ? -1 : board.nearest(position[player], trails[trail]);
+        if (target < 0) {
+            return;
+        }
+        for (int step = 0; step < Config.DRIVE_LIMIT && position[player] != target; step++) {
+            position[player] = board.stepToward(position[player], target);
+        }
+        final int tile = position[player];
+        if (SimulationBoard.contains(amuletTiles, tile)) {
+            amuletTiles[tile >>> 6] &= ~(1L << tile);
+            amulets[player]++;
+        }
+        if (tile == target && trailLength[trail] > 0 && SimulationBoard.count(trails[trail]) == 1) {
+            collect(trail, random);
+        }
+    }
+
+    /**
+     * Distributes the treasure of a trail: every windrose draws a treasure card,
+     * one more is added, and the shuffled cards are offered to the windroses in
+     * reverse order. A curse hits all players with windroses left.
+     *
+     * @param trail  the index of the trail
+     * @param random the source of randomness
+     */
+    private void collect(final int trail, final SplittableRandom random) {
+        int left = 0;
+        for (int i = trailLength[trail] - 1; i >= 0; i--) {
+            if (trailOwners[trail][i] >= 0) {
+                windroses[left++] = trailOwners[trail][i];
+            }
+        }
+        final int cards = left + 1;
+        for (int i = 0; i < cards; i++) {
+            pool[i] = drawTreasureCard(random);
+        }
+        for (int i = cards - 1; i > 0; i--) {
+            final int j = random.nextInt(i + 1);
+            final int swap = pool[i];
+            pool[i] = pool[j];
+            pool[j] = swap;
+        }
+        int next = 0;
+        for (int i = 0; i < cards && next < left; i++) {
+            if (pool[i] == CURSE) {
+                for (int w = next; w < left; w++) {
+                    boolean first = true;
+                    for (int v = next; v < w && first; v++) {
+                        first = windroses[v] != windroses[w];
+                    }
+                    if (first) {
+                        curse(windroses[w]);
+                    }
+                }
+                break;
+            }
+            addGold(windroses[next++], pool[i]);
+        }
+        board.allTiles(trails[trail]);
+        trailLength[trail] = 0;
+    }
+
+    /**
+     * Curses a player: an amulet protects, otherwise the most valuable gold card
+     * is lost.
+     *
+     * @param player the index of the player
+     */
+    private void curse(final int player) {
+        if (amulets[player] > 0) {
+            amulets[player]--;
+            return;
+        }
+        for (int value = Config.MAX_GOLD_CARD_VALUE; value > 0; value--) {
+            if (gold[player][value] > 0) {
+                gold[player][value]--;
+                goldSum[player] -= value;
+                return;
+            }
+        }
+    }
+
+    /**
+     * Draws the top card of the treasure deck or a random gold card if the deck
+     * is empty.
+     *
+     * @param random the source of randomness
+     * @return the value of the card, {@link #CURSE} for a curse
+     */
+    private int drawTreasureCard(final SplittableRandom random) {
+        if (deckDepth == 0) {
+            return randomGold(random);
+        }
+        final int card = deck[--deckDepth];
+        if (card == CURSE) {
+            curses--;
+        }
+        return card;
+    }
+
+    /**
+     * Passes the turn to the next player and ends the game after the last round
+     * if the treasure deck is empty.
+     */
+    private void endTurn() {
+        turns++;
+        turn = (turn + 1) % players;
+        if (turn == 0 && deckDepth == 0) {
+            over = true;
+        }
+    }
+
+    /**
+     * Adds a gold card to a player.
+     *
+     * @param player the index of the player
+     * @param value  the value of the gold card
+     */
+    private void addGold(final int player, final int value) {
+        gold[player][value]++;
+        goldSum[player] += value;
+    }
+
+    /**
+     * Returns the value of a random gold card.
+     *
+     * @param random the source of randomness
+     * @return the value
+     */
+    private static int randomGold(final SplittableRandom random) {
+        return random.nextInt(1, Config.MAX_GOLD_CARD_VALUE + 1);
+    }
+
+    /**
+     * Intersects the target bitset with the given one.
+     *
+     * @param target the bitset to modify
+     * @param tiles  the bitset to intersect with
+     */
+    private static void and(final long[] target, final long[] tiles) {
+        for (int i = 0; i < target.length; i++) {
+            target[i] &= tiles[i];
+        }
+    }
+
+    /**
+     * Returns the first index of a value before the given end.
+     *
+     * @param values the values to search
+     * @param value  the value to find
+     * @param end    the exclusive end of the search
+     * @return the index or {@code -1}
+     */
+    private static int indexOf(final int[] values, final int value, final int end) {
+        for (int i = 0; i < end; i++) {
+            if (values[i] == value) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,435 @@
+package hProjekt.controller.ai;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.WeakHashMap;
+
+import hProjekt.model.cards.CardType;
+import hProjekt.model.cards.PathCard;
+import hProjekt.model.cards.PathCardKey;
+import hProjekt.model.cards.RemoveTileCard;
+import hProjekt.model.grid.HexGrid;
+import hProjekt.model.grid.Structure;
+import hProjekt.model.grid.Tile;
+import hProjekt.model.grid.TilePosition;
+import hProjekt.model.grid.Types;
+
+/**
+ * An immutable, index based view of a {@link HexGrid} for the headless rules
+ * core of the AI controllers.
+ * <p>
+ * Every tile gets a dense index, so sets of tiles are stored as bitsets of
+ * {@link #words()} longs. Since the filter of a path card only depends on its
+ * type and filter type, the tiles passing each of the {@value #CARD_KINDS} card
+ * kinds are evaluated once with the real filters and stored as a bitset.
+ * Evaluating a treasure trail then is a sequence of bitwise ANDs.
+ * <p>
+ * Driving from a tile reaches every tile of its area and all of its neighbours
+ * in one step. The number of steps between all pairs of tiles is precomputed
+ * with one breadth-first search per tile, expanding every area only once.
+ * <p>
+ * Boards are cached per grid, see {@link #of(HexGrid)}. A board must only be
+ * created for a grid whose tiles don't change anymore.
+ */
+public final class SimulationBoard {
+
+    /**
+     * The number of distinct path card kinds a player can draw.
+     */
+    public static final int CARD_KINDS = 64;
+
+    /**
+     * The distance between two tiles that can't reach each other.
+     */
+    public static final int UNREACHABLE = Byte.MAX_VALUE;
+
+    private static final Map<HexGrid, SimulationBoard> CACHE = Collections.synchronizedMap(new WeakHashMap<>());
+
+    private final TilePosition[] positions;
+    private final Map<TilePosition, Integer> indices = new HashMap<>();
+    private final int words;
+    private final long[] allTiles;
+    private final int[][] neighbours;
+    private final int[][] areaMembers;
+    private final int[] areaOf;
+    private final byte[] distances;
+    private final List<PathCardKey> cardKinds = new ArrayList<>();
+    private final Map<PathCardKey, Integer> cardKindIndices = new HashMap<>();
+    private final long[][] cardTiles;
+    private final int[][] cardKindsByType;
+
+    /**
+     * Creates a new board for the given grid.
+     *
+     * @param grid the grid to index
+     */
+    private SimulationBoard(final HexGrid grid) {
+        final List<Tile> tiles = new ArrayList<>(grid.getTiles().values());
+        tiles.sort((a, b) -> a.getPosition().compareTo(b.getPosition()));
+        positions = tiles.stream().map(Tile::getPosition).toArray(TilePosition[]::new);
+        for (int i = 0; i < positions.length; i++) {
+            indices.put(positions[i], i);
+        }
+        words = Math.max(1, (positions.length + 63) >>> 6);
+        allTiles = new long[words];
+        for (int i = 0; i < positions.length; i++) {
+            allTiles[i >>> 6] |= 1L << i;
+        }
+
+        neighbours = new int[positions.length][];
+        for (int i = 0; i < positions.length; i++) {
+            final TilePosition position = positions[i];
+            neighbours[i] = Arrays.stream(TilePosition.EdgeDirection.values())
+                    .map(direction -> indices.get(TilePosition.neighbour(position, direction)))
+                    .filter(Objects::nonNull)
+                    .mapToInt(Integer::intValue)
+                    .toArray();
+        }
+
+        areaOf = new int[positions.length];
+        Arrays.fill(areaOf, -1);
+        final List<int[]> areas = new ArrayList<>();
+        for (int i = 0; i < positions.length; i++) {
+            if (areaOf[i] >= 0) {
+                continue;
+            }
+            final List<Integer> members = new ArrayList<>(List.of(i));
+            areaOf[i] = areas.size();
+            final Set<TilePosition> area = tiles.get(i).getArea();
+            if (area != null) {
+                for (final TilePosition position : area) {
+                    final Integer member = indices.get(position);
+                    if (member != null && areaOf[member] < 0) {
+                        areaOf[member] = areas.size();
+                        members.add(member);
+                    }
+                }
+            }
+            areas.add(members.stream().mapToInt(Integer::intValue).toArray());
+        }
+        areaMembers = areas.toArray(int[][]::new);
+        distances = computeDistances();
+
+        final List<int[]> kindsByType = new ArrayList<>();
+        for (final CardType type : CardType.values()) {
+            final List<Types> filterTypes = new ArrayList<>(Arrays.asList(Tile.Type.values()));
+            if (type != CardType.IN_AREA && type != CardType.IN_BIGGEST_AREA && type != CardType.NOT_IN_AREA
+                    && type != CardType.NOT_IN_BIGGEST_AREA) {
+                filterTypes.add(null);
+                filterTypes.addAll(Arrays.asList(Structure.Type.values()));
+            }
+            final int[] kinds = new int[filterTypes.size()];
+            for (int i = 0; i < kinds.length; i++) {
+                final PathCardKey key = new PathCardKey(0, type, filterTypes.get(i), null);
+                kinds[i] = cardKinds.size();
+                cardKindIndices.put(key, cardKinds.size());
+                cardKinds.add(key);
+            }
+            kindsByType.add(kinds);
+        }
+        cardKindsByType = kindsByType.toArray(int[][]::new);
+        cardTiles = new long[cardKinds.size()][];
+        for (int kind = 0; kind < cardKinds.size(); kind++) {
+            final PathCard card = cardKinds.get(kind).toCard(null);
+            final long[] passing = new long[words];
+            for (int i = 0; i < positions.length; i++) {
+                if (card.getTileFilterFunction().test(tiles.get(i))) {
+                    passing[i >>> 6] |= 1L << i;
+                }
+            }
+            cardTiles[kind] = passing;
+        }
+    }
+
+    /**
+     * Returns the board of the given grid, creating it on first use.
+     *
+     * @param grid the grid
+     * @return the board of the grid
+     */
+    public static SimulationBoard of(final HexGrid grid) {
+        return CACHE.computeIfAbsent(grid, SimulationBoard::new);
+    }
+
+    /**
+     * Returns the number of tiles.
+     *
+     * @return the number of tiles
+     */
+    public int size() {
+        return positions.length;
+    }
+
+    /**
+     * Returns the number of longs of a tile bitset.
+     *
+     * @return the number of longs of a tile bitset
+     */
+    public int words() {
+        return words;
+    }
+
+    /**
+     * Returns the index of the tile at the given position.
+     *
+     * @param position the position of the tile, can be {@code null}
+     * @return the index of the tile or {@code -1} if there is none
+     */
+    public int index(final TilePosition position) {
+        final Integer index = position == null ? null : indices.get(position);
+        return index == null ? -1 : index;
+    }
+
+    /**
+     * Returns the position of the tile with the given index.
+     *
+     * @param index the index of the tile
+     * @return the position of the tile
+     */
+    public TilePosition position(final int index) {
+        return positions[index];
+    }
+
+    /**
+     * Copies the bitset of all tiles into the given array.
+     *
+     * @param target the array to copy into
+     */
+    public void allTiles(final long[] target) {
+        System.arraycopy(allTiles, 0, target, 0, words);
+    }
+
+    /**
+     * Returns the kind of the given card.
+     *
+     * @param key the key of the card
+     * @return the kind of the card or {@code -1} for {@link RemoveTileCard}s
+     */
+    public int cardKind(final PathCardKey key) {
+        if (key.removedTile() != null) {
+            return -1;
+        }
+        final Integer kind = cardKindIndices.get(new PathCardKey(0, key.type(), key.filterType(), null));
+        return kind == null ? -1 : kind;
+    }
+
+    /**
+     * Returns the key of the given card kind, without an owner.
+     *
+     * @param kind the card kind
+     * @return the key of the card kind
+     */
+    public PathCardKey cardKey(final int kind) {
+        return cardKinds.get(kind);
+    }
+
+    /**
+     * Returns the bitset of the tiles passing the filter of the given card kind.
+     * The returned array must not be modified.
+     *
+     * @param kind the card kind
+     * @return the bitset of passing tiles
+     */
+    public long[] cardTiles(final int kind) {
+        return cardTiles[kind];
+    }
+
+    /**
+     * Draws a random card kind with the same distribution as
+     * {@code PlayerController.drawPathCard()}: a uniformly chosen card type
+     * followed by a uniformly chosen filter type.
+     *
+     * @param random the source of randomness
+     * @return the drawn card kind
+     */
+    public int randomCardKind(final SplittableRandom random) {
+        final int[] kinds = cardKindsByType[random.nextInt(cardKindsByType.length)];
+        return kinds[random.nextInt(kinds.length)];
+    }
+
+    /**
+     * Returns the card kinds of every card type, the distribution
+     * {@link #randomCardKind(SplittableRandom)} draws from. The returned arrays
+     * must not be modified.
+     *
+     * @return the card kinds, indexed by card type
+     */
+    int[][] cardKindsByType() {
+        return cardKindsByType;
+    }
+
+    /**
+     * Returns the number of drive steps between two tiles.
+     *
+     * @param from the index of the start tile
+     * @param to   the index of the target tile
+     * @return the number of steps or {@link #UNREACHABLE}
+     */
+    public int distance(final int from, final int to) {
+        return distances[from * positions.length + to];
+    }
+
+    /**
+     * Returns the tile reachable in one drive step from the given tile that is
+     * closest to the target.
+     *
+     * @param from   the index of the start tile
+     * @param target the index of the target tile
+     * @return the index of the next tile, {@code from} if the target is reached or
+     *         unreachable
+     */
+    public int stepToward(final int from, final int target) {
+        int best = from;
+        int bestDistance = distance(from, target);
+        for (final int neighbour : neighbours[from]) {
+            final int d = distance(neighbour, target);
+            if (d < bestDistance) {
+                best = neighbour;
+                bestDistance = d;
+            }
+        }
+        for (final int member : areaMembers[areaOf[from]]) {
+            final int d = distance(member, target);
+            if (d < bestDistance) {
+                best = member;
+                bestDistance = d;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Returns the tile of the given set closest to the given tile.
+     *
+     * @param from  the index of the start tile
+     * @param tiles the bitset of candidate tiles
+     * @return the index of the closest reachable tile or {@code -1}
+     */
+    public int nearest(final int from, final long[] tiles) {
+        int best = -1;
+        int bestDistance = UNREACHABLE;
+        final int row = from * positions.length;
+        for (int w = 0; w < words; w++) {
+            long bits = tiles[w];
+            while (bits != 0) {
+                final int tile = (w << 6) | Long.numberOfTrailingZeros(bits);
+                bits &= bits - 1;
+                final int d = distances[row + tile];
+                if (d < bestDistance) {
+                    best = tile;
+                    bestDistance = d;
+                }
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Returns the tile with the smallest sum of distances to all other tiles.
+     *
+     * @return the index of the most central tile
+     */
+    public int mostCentralTile() {
+        int best = 0;
+        long bestSum = Long.MAX_VALUE;
+        for (int from = 0; from < positions.length; from++) {
+            long sum = 0;
+            for (int to = 0; to < positions.length; to++) {
+                sum += distance(from, to);
+            }
+            if (sum < bestSum) {
+                best = from;
+                bestSum = sum;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Counts the tiles in the given bitset.
+     *
+     * @param tiles the bitset
+     * @return the number of set bits
+     */
+    public static int count(final long[] tiles) {
+        int count = 0;
+        for (final long word : tiles) {
+            count += Long.bitCount(word);
+        }
+        return count;
+    }
+
+    /**
+     * Counts the tiles in the intersection of two bitsets without creating it.
+     *
+     * @param a the first bitset
+     * @param b the second bitset
+     * @return the number of tiles in both bitsets
+     */
+    public static int countIntersection(final long[] a, final long[] b) {
+        int count = 0;
+        for (int i = 0; i < a.length; i++) {
+            count += Long.bitCount(a[i] & b[i]);
+        }
+        return count;
+    }
+
+    /**
+     * Checks whether the given tile is in the bitset.
+     *
+     * @param tiles the bitset
+     * @param tile  the index of the tile
+     * @return whether the tile is in the bitset
+     */
+    public static boolean contains(final long[] tiles, final int tile) {
+        return (tiles[tile >>> 6] & 1L << tile) != 0;
+    }
+
+    /**
+     * Computes the number of drive steps between all pairs of tiles.
+     *
+     * @return the distances, row major by start tile
+     */
+    private byte[] computeDistances() {
+        final int size = positions.length;
+        final byte[] result = new byte[size * size];
+        Arrays.fill(result, (byte) UNREACHABLE);
+        final int[] queue = new int[size];
+        final boolean[] expanded = new boolean[areaMembers.length];
+        for (int source = 0; source < size; source++) {
+            final int row = source * size;
+            Arrays.fill(expanded, false);
+            int head = 0;
+            int tail = 0;
+            result[row + source] = 0;
+            queue[tail++] = source;
+            while (head < tail) {
+                final int tile = queue[head++];
+                final int next = Math.min(result[row + tile] + 1, UNREACHABLE - 1);
+                for (final int neighbour : neighbours[tile]) {
+                    if (result[row + neighbour] == UNREACHABLE) {
+                        result[row + neighbour] = (byte) next;
+                        queue[tail++] = neighbour;
+                    }
+                }
+                if (!expanded[areaOf[tile]]) {
+                    expanded[areaOf[tile]] = true;
+                    for (final int member : areaMembers[areaOf[tile]]) {
+                        if (result[row + member] == UNREACHABLE) {
+                            result[row + member] = (byte) next;
+                            queue[tail++] = member;
+                        }
+                    }
+                }
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,339 @@
+package hProjekt.controller.ai;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.IntStream;
+
+import org.jetbrains.annotations.Nullable;
+
+import hProjekt.Config;
+import hProjekt.controller.GameController;
+import hProjekt.controller.MapSaveController;
+import hProjekt.controller.PlayerController;
+import hProjekt.controller.io.MapCodec;
+import hProjekt.model.GameState;
+import hProjekt.model.Player;
+import hProjekt.model.grid.HexGrid;
+import hProjekt.model.grid.RasterHexGrid;
+import hProjekt.model.grid.Structure;
+import hProjekt.model.grid.Tile;
+import hProjekt.model.grid.TilePosition;
+
+/**
+ * A ranking of all tiles of a map as starting positions.
+ * <p>
+ * Good starting tiles only depend on the static map, so every tile is scored
+ * once, in parallel, by a weighted sum of
+ * <ul>
+ * <li>its reach, the share of tiles within {@link Config#DRIVE_LIMIT} drive
+ * steps,</li>
+ * <li>its centrality, the inverse of the mean drive distance to all tiles,</li>
+ * <li>the size of its area relative to the biggest area,</li>
+ * <li>its coast access, the inverse distance to the closest beach, and</li>
+ * <li>the density of structures on and next to it.</li>
+ * </ul>
+ * <p>
+ * Rankings of saved maps are persisted next to the {@code .tobago} file with
+ * the extension {@value #FILE_EXTENSION}, keyed by a hash of the map content.
+ * The first game on a map computes and writes the ranking, all later games only
+ * read it, and rankings are kept in memory per content hash after that. A
+ * ranking whose hash doesn't match the map is computed again. Running
+ * {@link #main(String[])} ranks all saved maps ahead of time.
+ */
+public final class StartPositions {
+
+    /**
+     * The extension of the ranking files.
+     */
+    public static final String FILE_EXTENSION = ".start";
+
+    private static final String HEADER = "# start positions ";
+    private static final double REACH_WEIGHT = 0.35;
+    private static final double CENTRALITY_WEIGHT = 0.2;
+    private static final double AREA_WEIGHT = 0.2;
+    private static final double COAST_WEIGHT = 0.1;
+    private static final double STRUCTURE_WEIGHT = 0.15;
+
+    private static final Map<Long, StartPositions> CACHE = new ConcurrentHashMap<>();
+
+    private final long contentHash;
+    private final List<TilePosition> ranking;
+    private final Map<TilePosition, Double> scores;
+
+    /**
+     * Creates a new ranking.
+     *
+     * @param contentHash the hash of the ranked map
+     * @param ranking     the tiles from best to worst
+     * @param scores      the score of every tile
+     */
+    private StartPositions(final long contentHash, final List<TilePosition> ranking,
+            final Map<TilePosition, Double> scores) {
+        this.contentHash = contentHash;
+        this.ranking = List.copyOf(ranking);
+        this.scores = Map.copyOf(scores);
+    }
+
+    /**
+     * Returns the ranking of the given map, reading it from next to the map file
+     * or computing and writing it if it is missing or outdated.
+     *
+     * @param grid    the map
+     * @param mapName the name of the saved map or {@code null} to only keep the
+     *                ranking in memory
+     * @return the ranking
+     */
+    public static StartPositions of(final HexGrid grid, final @Nullable String mapName) {
+        return CACHE.computeIfAbsent(contentHash(grid), hash -> {
+            if (mapName == null) {
+                return analyze(grid);
+            }
+            final Path path = MapSaveController.getMapFile(mapName, FILE_EXTENSION);
+            try {
+                final StartPositions loaded = load(path);
+                if (loaded.contentHash == hash) {
+                    return loaded;
+                }
+            } catch (final NoSuchFileException e) {
+                // ranked for the first time
+            } catch (final IOException e) {
+                System.out.println("Couldn't load start positions: " + e.getMessage());
+            }
+            final StartPositions analyzed = analyze(grid);
+            try {
+                analyzed.save(path);
+            } catch (final IOException e) {
+                System.out.println("Couldn't save start positions: " + e.getMessage());
+            }
+            return analyzed;
+        });
+    }
+
+    /**
+     * Returns the tiles from best to worst starting position.
+     *
+     * @return the ranking
+     */
+    public List<TilePosition> getRanking() {
+        return ranking;
+    }
+
+    /**
+     * Returns the score of a tile.
+     *
+     * @param position the position of the tile
+     * @return the score in {@code [0, 1]}, {@code 0} for unknown tiles
+     */
+    public double getScore(final TilePosition position) {
+        return scores.getOrDefault(position, 0.0);
+    }
+
+    /**
+     * Returns the best starting position that isn't taken yet.
+     *
+     * @param taken the positions of the other players
+     * @return the best free position, the best position if all are taken
+     */
+    public TilePosition best(final Collection<TilePosition> taken) {
+        return ranking.stream().filter(position -> !taken.contains(position)).findFirst()
+                .orElse(ranking.get(0));
+    }
+
+    /**
+     * Returns the best starting position on the map of a game that no other
+     * player has taken.
+     *
+     * @param playerController the controller of the player choosing
+     * @return the starting position
+     */
+    public static TilePosition choose(final PlayerController playerController) {
+        final GameController gameController = playerController.getGameController();
+        final GameState gameState = gameController.getState();
+        return of(gameState.getGrid(), gameController.getMapName()).best(gameState.getPlayers().stream()
+                .map(Player::getPosition)
+                .filter(Objects::nonNull)
+                .toList());
+    }
+
+    /**
+     * Scores all tiles of a map.
+     *
+     * @param grid the map
+     * @return the ranking of the map
+     */
+    public static StartPositions analyze(final HexGrid grid) {
+        final SimulationBoard board = SimulationBoard.of(grid);
+        final int size = board.size();
+        final Tile[] tiles = new Tile[size];
+        final long[] beaches = new long[board.words()];
+        int biggestArea = 1;
+        for (int i = 0; i < size; i++) {
+            tiles[i] = grid.getTileAt(board.position(i));
+            if (tiles[i].getType() == Tile.Type.BEACH) {
+                beaches[i >>> 6] |= 1L << i;
+            }
+            biggestArea = Math.max(biggestArea, areaSize(tiles[i]));
+        }
+        final int maxArea = biggestArea;
+        final int[] structures = IntStream.range(0, size).parallel().map(i -> {
+            int count = grid.getStructureAt(board.position(i)) == null ? 0 : 1;
+            for (final TilePosition.EdgeDirection direction : TilePosition.EdgeDirection.values()) {
+                if (grid.getStructureAt(TilePosition.neighbour(board.position(i), direction)) != null) {
+                    count++;
+                }
+            }
+            return count;
+        }).toArray();
+        final int maxStructures = Math.max(1, Arrays.stream(structures).max().orElse(0));
+        final double[] meanDistances = IntStream.range(0, size).parallel().mapToDouble(i -> {
+            long sum = 0;
+            for (int j = 0; j < size; j++) {
+                sum += board.distance(i, j);
+            }
+            return (double) sum / size;
+        }).toArray();
+        final double minMean = Math.max(1e-9, Arrays.stream(meanDistances).min().orElse(1));
+
+        final double[] scores = IntStream.range(0, size).parallel().mapToDouble(i -> {
+            int reachable = 0;
+            for (int j = 0; j < size; j++) {
+                if (board.distance(i, j) <= Config.DRIVE_LIMIT) {
+                    reachable++;
+                }
+            }
+            final int beach = board.nearest(i, beaches);
+            final double coast = beach < 0 ? 0 : 1.0 / (1 + board.distance(i, beach));
+            return REACH_WEIGHT * reachable / size
+                    + CENTRALITY_WEIGHT * Math.min(1, minMean / Math.max(1e-9, meanDistances[i]))
+                    + AREA_WEIGHT * areaSize(tiles[i]) / maxArea
+                    + COAST_WEIGHT * coast
+                    + STRUCTURE_WEIGHT * structures[i] / maxStructures;
+        }).toArray();
+
+        final Map<TilePosition, Double> scoreMap = new HashMap<>();
+        final List<TilePosition> ranking = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            scoreMap.put(board.position(i), scores[i]);
+            ranking.add(board.position(i));
+        }
+        ranking.sort(Comparator.comparingDouble((TilePosition position) -> -scoreMap.get(position))
+                .thenComparing(Comparator.naturalOrder()));
+        return new StartPositions(contentHash(grid), ranking, scoreMap);
+    }
+
+    /**
+     * Computes a hash of the tiles and structures of a map that doesn't depend
+     * on the file format it is stored in. It is the content hash of the map
+     * file, see {@link MapCodec#hashTile}, so a grid loaded from a file isn't
+     * hashed again.
+     *
+     * @param grid the map
+     * @return the hash
+     */
+    public static long contentHash(final HexGrid grid) {
+        if (grid instanceof final RasterHexGrid raster) {
+            return raster.getContentHash();
+        }
+        final List<TilePosition> positions = new ArrayList<>(grid.getTiles().keySet());
+        positions.sort(Comparator.naturalOrder());
+        long hash = positions.size();
+        for (final TilePosition position : positions) {
+            final Structure structure = grid.getStructureAt(position);
+            hash = MapCodec.hashTile(hash, position.q(), position.r(), grid.getTileAt(position).getType().ordinal(),
+                    structure == null ? -1 : structure.getType().ordinal());
+        }
+        return hash;
+    }
+
+    /**
+     * Loads a ranking from a file.
+     *
+     * @param path the file
+     * @return the loaded ranking
+     * @throws IOException if the file can't be read or is malformed
+     */
+    public static StartPositions load(final Path path) throws IOException {
+        final List<String> lines = Files.readAllLines(path);
+        if (lines.isEmpty() || !lines.get(0).startsWith(HEADER)) {
+            throw new IOException("Not a start position file: " + path);
+        }
+        try {
+            final long hash = Long.parseUnsignedLong(lines.get(0).substring(HEADER.length()).trim(), 16);
+            final List<TilePosition> ranking = new ArrayList<>();
+            final Map<TilePosition, Double> scores = new HashMap<>();
+            for (final String line : lines.subList(1, lines.size())) {
+                final String[] parts = line.trim().split("\\s+");
+                if (parts.length != 3) {
+                    continue;
+                }
+                final TilePosition position = new TilePosition(Integer.parseInt(parts[0]),
+                        Integer.parseInt(parts[1]));
+                ranking.add(position);
+                scores.put(position, Double.parseDouble(parts[2]));
+            }
+            if (ranking.isEmpty()) {
+                throw new IOException("Empty start position file: " + path);
+            }
+            return new StartPositions(hash, ranking, scores);
+        } catch (final NumberFormatException e) {
+            throw new IOException("Malformed start position file: " + path, e);
+        }
+    }
+
+    /**
+     * Saves this ranking to a file, replacing it if it exists.
+     *
+     * @param path the file
+     * @throws IOException if the file can't be written
+     */
+    public void save(final Path path) throws IOException {
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        try (BufferedWriter writer = Files.newBufferedWriter(path)) {
+            writer.write(HEADER + Long.toHexString(contentHash));
+            writer.newLine();
+            for (final TilePosition position : ranking) {
+                writer.write(position.q() + " " + position.r() + " " + (float) getScore(position));
+                writer.newLine();
+            }
+        }
+    }
+
+    /**
+     * Ranks the starting positions of all saved maps.
+     *
+     * @param args unused
+     */
+    public static void main(final String[] args) {
+        for (final String mapName : MapSaveController.getSavedMaps()) {
+            final HexGrid grid = MapSaveController.loadMap(mapName);
+            if (grid != null) {
+                final StartPositions positions = of(grid, mapName);
+                System.out.println(mapName + ": best start " + positions.getRanking().get(0));
+            }
+        }
+    }
+
+    /**
+     * Returns the size of the area of a tile.
+     *
+     * @param tile the tile
+     * @return the number of tiles in its area, at least {@code 1}
+     */
+    private static int areaSize(final Tile tile) {
+        return tile.getArea() == null ? 1 : Math.max(1, tile.getArea().size());
+    }
+}
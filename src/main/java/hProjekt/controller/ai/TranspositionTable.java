@@ -0,0 +1,136 @@
+package hProjekt.controller.ai;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import hProjekt.Config;
+import hProjekt.model.snapshot.Zobrist;
+
+/**
+ * A fixed-size, lock-free hash table that maps {@link Zobrist} hashes of game
+ * states to a 64-bit payload.
+ * <p>
+ * Every slot holds two words, the payload and the payload XOR-ed with the hash
+ * it belongs to. A reader only accepts a slot if both words XOR to the hash it
+ * looks for, so a slot torn by two concurrent writers or overwritten by another
+ * state is detected as a miss instead of returning a wrong payload. Writers
+ * always replace the slot, which keeps the table bounded without any eviction
+ * bookkeeping. Lost updates are possible under contention and are acceptable
+ * for a cache of search results.
+ * <p>
+ * {@link #SHARED} is used by all AI controllers, so positions searched by one
+ * controller are reused by the others.
+ */
+public class TranspositionTable {
+
+    /**
+     * The table shared by all AI controllers.
+     */
+    public static final TranspositionTable SHARED = new TranspositionTable(Config.TRANSPOSITION_TABLE_ENTRIES);
+
+    private final AtomicLongArray slots;
+    private final int mask;
+
+    /**
+     * Creates a new empty table.
+     *
+     * @param entries the minimum number of entries, rounded up to the next power
+     *                of two
+     * @throws IllegalArgumentException if entries is not positive or too large
+     */
+    public TranspositionTable(final int entries) {
+        if (entries <= 0 || entries > 1 << 29) {
+            throw new IllegalArgumentException("Invalid number of entries: " + entries);
+        }
+        final int capacity = entries == 1 ? 1 : Integer.highestOneBit(entries - 1) << 1;
+        this.slots = new AtomicLongArray(capacity * 2);
+        this.mask = capacity - 1;
+    }
+
+    /**
+     * Returns the number of entries of this table.
+     *
+     * @return the number of entries
+     */
+    public int capacity() {
+        return mask + 1;
+    }
+
+    /**
+     * Returns the payload stored for the given hash.
+     *
+     * @param hash         the hash of the state
+     * @param defaultValue the value to return if the hash is not stored
+     * @return the stored payload or {@code defaultValue}
+     */
+    public long get(final long hash, final long defaultValue) {
+        final int slot = slot(hash);
+        final long check = slots.get(slot);
+        final long data = slots.get(slot + 1);
+        return (check ^ data) == hash ? data : defaultValue;
+    }
+
+    /**
+     * Stores the payload for the given hash, replacing whatever was stored in
+     * its slot.
+     *
+     * @param hash the hash of the state
+     * @param data the payload
+     */
+    public void put(final long hash, final long data) {
+        final int slot = slot(hash);
+        slots.set(slot + 1, data);
+        slots.set(slot, hash ^ data);
+    }
+
+    /**
+     * Removes all entries.
+     */
+    public void clear() {
+        for (int i = 0; i < slots.length(); i++) {
+            slots.set(i, 0);
+        }
+    }
+
+    /**
+     * Packs search statistics into a payload.
+     *
+     * @param visits the number of visits of the state
+     * @param reward the sum of the rewards of all visits
+     * @return the packed payload
+     */
+    public static long packStatistics(final int visits, final float reward) {
+        return ((long) visits << 32) | (Float.floatToRawIntBits(reward) & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Returns the number of visits of a payload created by
+     * {@link #packStatistics(int, float)}.
+     *
+     * @param data the payload
+     * @return the number of visits
+     */
+    public static int visits(final long data) {
+        return (int) (data >>> 32);
+    }
+
+    /**
+     * Returns the sum of the rewards of a payload created by
+     * {@link #packStatistics(int, float)}.
+     *
+     * @param data the payload
+     * @return the sum of the rewards
+     */
+    public static float reward(final long data) {
+        return Float.intBitsToFloat((int) data);
+    }
+
+    /**
+     * Returns the index of the first word of the slot of the given hash.
+     *
+     * @param hash the hash of the state
+     * @return the index of the slot
+     */
+    private int slot(final long hash) {
+        return (int) ((hash ^ (hash >>> 32)) & mask) << 1;
+    }
+}
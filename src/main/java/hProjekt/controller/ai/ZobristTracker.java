@@ -0,0 +1,308 @@
+package hProjekt.controller.ai;
+
+import java.util.Collection;
+import java.util.List;
+
+import org.jetbrains.annotations.Nullable;
+
+import hProjekt.Config;
+import hProjekt.controller.GameController;
+import hProjekt.controller.GameEventListener;
+import hProjekt.controller.PlayerController;
+import hProjekt.controller.PlayerObjective;
+import hProjekt.controller.actions.PlayerAction;
+import hProjekt.model.GameState;
+import hProjekt.model.Player;
+import hProjekt.model.cards.GoldCard;
+import hProjekt.model.cards.PathCard;
+import hProjekt.model.cards.PathCardKey;
+import hProjekt.model.grid.HexGrid;
+import hProjekt.model.grid.Statue;
+import hProjekt.model.grid.Tile;
+import hProjekt.model.grid.TilePosition;
+import hProjekt.model.snapshot.PersistentGameState;
+import hProjekt.model.snapshot.PersistentPlayer;
+import hProjekt.model.snapshot.Zobrist;
+import javafx.scene.paint.Color;
+
+/**
+ * Keeps a {@link PersistentGameState} and its {@link Zobrist} hash in sync with
+ * a running game.
+ * <p>
+ * The mirror is updated once after every executed action. Outside of actions,
+ * only the game loop changes the state, when it deals the hands during setup,
+ * so the mirror is also updated when a player waits to select a start
+ * position. The hash is thus current whenever a decision is made or another
+ * listener reacts to an action. An update only looks at the
+ * parts of the live state an action can change and remembers what it saw: the
+ * players' hands (bounded by the hand limit) are compared to the cards seen
+ * last time by identity, the treasure trails only by their size and last card,
+ * the gold cards only from the last one seen on. Statues only turn and amulets
+ * only spawn after a treasure trail was collected, so the statues and the whole
+ * board are only scanned then; otherwise just the tiles the players stand on
+ * are checked for amulets. Each change is applied to the hash by XOR-ing the
+ * keys of the old and new values, so the cost of an update depends neither on
+ * the size of the map nor on the length of the trails.
+ * <p>
+ * Updates run on the game thread. {@link #getHash()} and {@link #getState()}
+ * may be called from any thread and return the state after the last update.
+ * Every {@link GameController} owns a tracker, see
+ * {@link GameController#getZobristTracker()}.
+ */
+public class ZobristTracker implements GameEventListener {
+    private static final PathCard[] NO_CARDS = new PathCard[0];
+
+    private @Nullable GameState game;
+    private volatile @Nullable PersistentGameState state;
+    private PathCard[][] hands = new PathCard[0][];
+    private final int[] trailSizes = new int[Config.TREASURE_TRAIL_COLORS.size()];
+    private final PathCard[] trailEnds = new PathCard[Config.TREASURE_TRAIL_COLORS.size()];
+    private List<Statue> statues = List.of();
+
+    /**
+     * Returns the hash of the game state after the last update.
+     *
+     * @return the hash of the game state or {@code 0} if the game hasn't
+     *         started yet
+     */
+    public long getHash() {
+        final PersistentGameState current = state;
+        return current == null ? 0 : current.zobristHash();
+    }
+
+    /**
+     * Returns the persistent mirror of the game state after the last update.
+     *
+     * @return the mirrored game state or {@code null} if the game hasn't started
+     *         yet
+     */
+    public @Nullable PersistentGameState getState() {
+        return state;
+    }
+
+    @Override
+    public void onGameStart(final GameController gameController) {
+        game = gameController.getState();
+        statues = game.getGrid().getStructures().values().stream()
+                .filter(Statue.class::isInstance)
+                .map(Statue.class::cast)
+                .toList();
+        recapture(game);
+    }
+
+    @Override
+    public void beforeAction(final PlayerController playerController) {
+        if (game != null && playerController.getPlayerObjective() == PlayerObjective.SELECT_POSITION) {
+            update(game);
+        }
+    }
+
+    @Override
+    public void afterAction(final PlayerController playerController, final PlayerAction action) {
+        if (game != null) {
+            update(game);
+        }
+    }
+
+    @Override
+    public void onGameEnd(final GameController gameController) {
+        if (game != null) {
+            update(game);
+        }
+    }
+
+    /**
+     * Captures the mirror from scratch and remembers the live objects it was
+     * captured from.
+     *
+     * @param live the live game state
+     */
+    private void recapture(final GameState live) {
+        final List<Player> players = live.getPlayers();
+        hands = new PathCard[players.size()][];
+        for (int i = 0; i < players.size(); i++) {
+            hands[i] = players.get(i).getPathCards().toArray(NO_CARDS);
+        }
+        for (int i = 0; i < Config.TREASURE_TRAIL_COLORS.size(); i++) {
+            final List<PathCard> trail = live.getTreasureTrails().get(Config.TREASURE_TRAIL_COLORS.get(i));
+            trailSizes[i] = trail.size();
+            trailEnds[i] = trail.isEmpty() ? null : trail.get(trail.size() - 1);
+        }
+        state = PersistentGameState.capture(live);
+    }
+
+    /**
+     * Applies the changes of the live state since the last update to the
+     * mirror.
+     *
+     * @param live the live game state
+     */
+    private void update(final GameState live) {
+        PersistentGameState next = state;
+        final List<Player> players = live.getPlayers();
+        if (next == null || next.players().size() != players.size()
+                || live.getTreasureDeck().size() > next.deckDepth()) {
+            recapture(live);
+            return;
+        }
+        final TilePosition[] oldPositions = new TilePosition[players.size()];
+        for (int i = 0; i < players.size(); i++) {
+            oldPositions[i] = next.players().get(i).position();
+            next = next.withPlayer(i, update(i, next.players().get(i), players.get(i)));
+        }
+
+        boolean collected = false;
+        for (int i = 0; i < Config.TREASURE_TRAIL_COLORS.size(); i++) {
+            final Color color = Config.TREASURE_TRAIL_COLORS.get(i);
+            final List<PathCard> trail = live.getTreasureTrails().get(color);
+            int kept = trailSizes[i];
+            if (trail.size() == kept && (kept == 0 || trail.get(kept - 1) == trailEnds[i])) {
+                continue;
+            }
+            if (trail.size() < kept || kept > 0 && trail.get(kept - 1) != trailEnds[i]) {
+                next = next.withTrailCleared(color);
+                collected = true;
+                kept = 0;
+            }
+            for (int j = kept; j < trail.size(); j++) {
+                next = next.withTrailCard(color, PathCardKey.of(trail.get(j)));
+            }
+            trailSizes[i] = trail.size();
+            trailEnds[i] = trail.isEmpty() ? null : trail.get(trail.size() - 1);
+        }
+
+        while (next.deckDepth() > live.getTreasureDeck().size()) {
+            next = next.withTreasureCardDrawn();
+        }
+
+        final HexGrid grid = live.getGrid();
+        if (collected) {
+            for (final Statue statue : statues) {
+                next = next.withStatueDirection(statue.getPosition(), statue.getDirection());
+            }
+            for (final Tile tile : grid.getTiles().values()) {
+                next = next.withAmulet(tile.getPosition(), tile.hasAmulet());
+            }
+        } else {
+            for (int i = 0; i < players.size(); i++) {
+                next = updateAmulet(next, grid, oldPositions[i]);
+                next = updateAmulet(next, grid, players.get(i).getPosition());
+            }
+        }
+        state = next;
+    }
+
+    /**
+     * Applies the changes of the given live player to its mirror.
+     *
+     * @param index  the index of the player
+     * @param mirror the mirrored player
+     * @param player the live player
+     * @return the updated mirror
+     */
+    private PersistentPlayer update(final int index, final PersistentPlayer mirror, final Player player) {
+        PersistentPlayer next = mirror;
+        if (player.getPosition() != null && !player.getPosition().equals(next.position())) {
+            next = next.withPosition(player.getPosition());
+        }
+        if (player.getAmulets() != next.amulets()) {
+            next = next.withAmulets(player.getAmulets());
+        }
+
+        final Collection<PathCard> hand = player.getPathCards();
+        final PathCard[] seen = hands[index];
+        if (!sameCards(hand, seen)) {
+            for (final PathCard card : seen) {
+                if (!containsIdentical(hand, card)) {
+                    next = next.withoutCard(PathCardKey.of(card));
+                }
+            }
+            for (final PathCard card : hand) {
+                if (!containsIdentical(seen, card)) {
+                    next = next.withCard(PathCardKey.of(card));
+                }
+            }
+            hands[index] = hand.toArray(NO_CARDS);
+        }
+
+        final List<GoldCard> goldCards = player.getGoldCards();
+        final int kept = next.goldCards().size();
+        if (goldCards.size() < kept || kept > 0 && goldCards.get(kept - 1).value() != next.goldCards().peek()) {
+            // Gold cards were taken by a curse, which is rare enough to recapture
+            return PersistentPlayer.capture(player);
+        }
+        for (int i = kept; i < goldCards.size(); i++) {
+            next = next.withGoldCard(goldCards.get(i).value());
+        }
+        return next;
+    }
+
+    /**
+     * Returns whether the given hand holds exactly the given cards in the same
+     * iteration order.
+     *
+     * @param hand the live hand
+     * @param seen the cards seen in the hand at the last update
+     * @return whether the hand is unchanged
+     */
+    private static boolean sameCards(final Collection<PathCard> hand, final PathCard[] seen) {
+        if (hand.size() != seen.length) {
+            return false;
+        }
+        int i = 0;
+        for (final PathCard card : hand) {
+            if (card != seen[i++]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns whether the given cards contain the given card itself, not just
+     * an equal one.
+     *
+     * @param cards the cards to search
+     * @param card  the card to search for
+     * @return whether the card is contained
+     */
+    private static boolean containsIdentical(final Collection<PathCard> cards, final PathCard card) {
+        for (final PathCard other : cards) {
+            if (other == card) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns whether the given cards contain the given card itself, not just
+     * an equal one.
+     *
+     * @param cards the cards to search
+     * @param card  the card to search for
+     * @return whether the card is contained
+     */
+    private static boolean containsIdentical(final PathCard[] cards, final PathCard card) {
+        for (final PathCard other : cards) {
+            if (other == card) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Applies the amulet flag of the tile at the given position to the mirror.
+     *
+     * @param state    the mirrored state
+     * @param grid     the live grid
+     * @param position the position of the tile, can be {@code null}
+     * @return the updated mirror
+     */
+    private static PersistentGameState updateAmulet(final PersistentGameState state, final HexGrid grid,
+            final @Nullable TilePosition position) {
+        final Tile tile = position == null ? null : grid.getTileAt(position);
+        return tile == null ? state : state.withAmulet(position, tile.hasAmulet());
+    }
+}
@@ -0,0 +1,6 @@
+/**
+ * Contains the searching AI controllers and the infrastructure they share, like
+ * the incrementally maintained hash of the game state, the transposition table
+ * and the headless simulation of the rules used for rollouts.
+ */
+package hProjekt.controller.ai;
@@ -0,0 +1,96 @@
+package hProjekt.controller.ai.training;
+
+import java.io.IOException;
+
+import hProjekt.controller.ai.EvaluationWeights;
+import hProjekt.controller.ai.PositionFeatures;
+
+/**
+ * A logistic regression over {@link PositionFeatures} trained by streaming
+ * stochastic gradient descent.
+ * <p>
+ * Every sample is used once per pass as soon as it is read, with a learning
+ * rate per weight scaled by AdaGrad and a small L2 penalty, so training needs
+ * memory for the weights only.
+ */
+public class LogisticRegression {
+
+    private static final double EPSILON = 1e-8;
+
+    private final double learningRate;
+    private final double l2;
+    private final double[] weights = new double[PositionFeatures.COUNT + 1];
+    private final double[] squaredGradients = new double[PositionFeatures.COUNT + 1];
+
+    /**
+     * Creates a new regression with all weights {@code 0}.
+     *
+     * @param learningRate the base learning rate
+     * @param l2           the strength of the L2 penalty
+     */
+    public LogisticRegression(final double learningRate, final double l2) {
+        this.learningRate = learningRate;
+        this.l2 = l2;
+    }
+
+    /**
+     * Trains on all samples of the given reader.
+     *
+     * @param reader the reader of the samples
+     * @return the mean log loss of the samples before each update
+     * @throws IOException if reading fails
+     */
+    public double train(final SampleReader reader) throws IOException {
+        final float[] features = new float[PositionFeatures.COUNT];
+        double loss = 0;
+        long samples = 0;
+        while (reader.next(features)) {
+            final double label = reader.getLabel();
+            final double prediction = predict(features);
+            loss -= label * Math.log(prediction + EPSILON) + (1 - label) * Math.log(1 - prediction + EPSILON);
+            samples++;
+            final double error = prediction - label;
+            update(0, error);
+            for (int i = 0; i < features.length; i++) {
+                update(i + 1, error * features[i] + l2 * weights[i + 1]);
+            }
+        }
+        return samples == 0 ? 0 : loss / samples;
+    }
+
+    /**
+     * Predicts the label of the given features.
+     *
+     * @param features the features
+     * @return the predicted probability
+     */
+    public double predict(final float[] features) {
+        double z = weights[0];
+        for (int i = 0; i < features.length; i++) {
+            z += weights[i + 1] * features[i];
+        }
+        return 1 / (1 + Math.exp(-z));
+    }
+
+    /**
+     * Returns the trained weights.
+     *
+     * @return the weights
+     */
+    public EvaluationWeights toWeights() {
+        final double[] featureWeights = new double[PositionFeatures.COUNT];
+        System.arraycopy(weights, 1, featureWeights, 0, featureWeights.length);
+        return new EvaluationWeights(weights[0], featureWeights);
+    }
+
+    /**
+     * Applies a gradient step to a single weight.
+     *
+     * @param index    the index of the weight, {@code 0} is the bias
+     * @param gradient the gradient
+     */
+    private void update(final int index, final double gradient) {
+        squaredGradients[index] += gradient * gradient;
+        weights[index] -= learningRate * gradient / (Math.sqrt(squaredGradients[index]) + EPSILON);
+    }
+}
@@ -0,0 +1,72 @@
+package hProjekt.controller.ai.training;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import hProjekt.controller.ai.PositionFeatures;
+
+/**
+ * Reads the samples of a file written by {@link SampleWriter} one at a time.
+ */
+public class SampleReader implements AutoCloseable {
+
+    private final DataInputStream in;
+    private float label;
+
+    /**
+     * Opens a sample file.
+     *
+     * @param path the file
+     * @throws IOException if the file can't be read or was written with other
+     *                     features
+     */
+    public SampleReader(final Path path) throws IOException {
+        this.in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path), 1 << 16));
+        if (in.readInt() != SampleWriter.MAGIC) {
+            in.close();
+            throw new IOException("Not a sample file: " + path);
+        }
+        if (in.readInt() != PositionFeatures.COUNT) {
+            in.close();
+            throw new IOException("Sample file has a different number of features: " + path);
+        }
+    }
+
+    /**
+     * Reads the next sample.
+     *
+     * @param features the array to read the features into
+     * @return {@code true} if a sample was read, {@code false} at the end of the
+     *         file
+     * @throws IOException if reading fails or the file is truncated
+     */
+    public boolean next(final float[] features) throws IOException {
+        try {
+            label = in.readFloat();
+        } catch (final EOFException e) {
+            return false;
+        }
+        for (int i = 0; i < PositionFeatures.COUNT; i++) {
+            features[i] = in.readFloat();
+        }
+        return true;
+    }
+
+    /**
+     * Returns the label of the last read sample.
+     *
+     * @return the label
+     */
+    public float getLabel() {
+        return label;
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+}
@@ -0,0 +1,71 @@
+package hProjekt.controller.ai.training;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import hProjekt.controller.ai.PositionFeatures;
+
+/**
+ * Appends training samples to a file as they are produced.
+ * <p>
+ * A sample file starts with the magic number {@link #MAGIC} and the number of
+ * features per sample. Every sample follows as its label and its features, all
+ * as 32-bit floats, so a sample takes {@code 4 * (features + 1)} bytes and
+ * nothing but the write buffer is held in memory.
+ *
+ * @see SampleReader
+ */
+public class SampleWriter implements AutoCloseable {
+
+    /**
+     * The magic number at the start of every sample file, {@code HPSF}.
+     */
+    public static final int MAGIC = 0x48505346;
+
+    private final DataOutputStream out;
+    private long samples;
+
+    /**
+     * Creates a new sample file, replacing it if it exists.
+     *
+     * @param path the file
+     * @throws IOException if the file can't be created
+     */
+    public SampleWriter(final Path path) throws IOException {
+        this.out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path), 1 << 16));
+        out.writeInt(MAGIC);
+        out.writeInt(PositionFeatures.COUNT);
+    }
+
+    /**
+     * Appends a sample.
+     *
+     * @param features the features of the position
+     * @param label    the outcome of the game for the player of the position
+     * @throws IOException if writing fails
+     */
+    public void write(final float[] features, final float label) throws IOException {
+        out.writeFloat(label);
+        for (int i = 0; i < PositionFeatures.COUNT; i++) {
+            out.writeFloat(features[i]);
+        }
+        samples++;
+    }
+
+    /**
+     * Returns the number of samples written so far.
+     *
+     * @return the number of samples
+     */
+    public long getSamples() {
+        return samples;
+    }
+
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+}
@@ -0,0 +1,65 @@
+package hProjekt.controller.ai.training;
+
+import java.io.IOException;
+import java.util.SplittableRandom;
+
+import hProjekt.controller.ai.PositionFeatures;
+import hProjekt.controller.ai.Simulation;
+import hProjekt.controller.ai.SimulationBoard;
+
+/**
+ * Plays headless games with the rollout policy of the {@link Simulation} and
+ * turns them into training samples.
+ * <p>
+ * Before every turn the features of the position are extracted from the point
+ * of view of every player. Once the game is over, each of them is labelled
+ * with the final reward of its player and written out. Only the positions of
+ * the running game are buffered, so memory doesn't grow with the number of
+ * games.
+ */
+public final class SelfPlay {
+
+    /**
+     * The number of turns after which a game is abandoned without producing
+     * samples.
+     */
+    public static final int MAX_TURNS = 512;
+
+    private SelfPlay() {
+    }
+
+    /**
+     * Plays the given number of games and writes their samples.
+     *
+     * @param board   the board to play on
+     * @param players the number of players
+     * @param games   the number of games
+     * @param random  the source of randomness
+     * @param out     the writer of the samples
+     * @return the number of finished games
+     * @throws IOException if writing a sample fails
+     */
+    public static int play(final SimulationBoard board, final int players, final int games,
+            final SplittableRandom random, final SampleWriter out) throws IOException {
+        final float[][] features = new float[MAX_TURNS * players][PositionFeatures.COUNT];
+        int finished = 0;
+        for (int game = 0; game < games; game++) {
+            final Simulation simulation = Simulation.newGame(board, players, random);
+            int positions = 0;
+            while (!simulation.isOver() && positions < features.length) {
+                for (int p = 0; p < players; p++) {
+                    PositionFeatures.extract(simulation, p, features[positions++]);
+                }
+                simulation.rollout(1, random);
+            }
+            if (!simulation.isOver()) {
+                continue;
+            }
+            for (int i = 0; i < positions; i++) {
+                out.write(features[i], (float) simulation.reward(i % players));
+            }
+            finished++;
+        }
+        return finished;
+    }
+}
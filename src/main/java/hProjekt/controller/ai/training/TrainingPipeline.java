@@ -0,0 +1,129 @@
+package hProjekt.controller.ai.training;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.SplittableRandom;
+import java.util.stream.IntStream;
+
+import hProjekt.Config;
+import hProjekt.controller.MapSaveController;
+import hProjekt.controller.ai.EvaluationWeights;
+import hProjekt.controller.ai.SimulationBoard;
+import hProjekt.model.grid.HexGrid;
+
+/**
+ * Trains the {@link EvaluationWeights} of the learned AI controller by
+ * self-play.
+ * <p>
+ * The games are played in batches of {@link #BATCH_GAMES} in parallel, each
+ * batch streaming its samples into its own shard file in a temporary
+ * directory. The regression then makes several passes over the shards in a
+ * shuffled order, reading one sample at a time. Finally the weights are written
+ * and the shards are deleted.
+ * <p>
+ * Usage: {@code TrainingPipeline [map] [games] [players] [epochs] [output]},
+ * which defaults to 20000 three player games on the {@code default} map, 3
+ * passes and {@link Config#AI_WEIGHTS_PATH}.
+ */
+public final class TrainingPipeline {
+
+    /**
+     * The number of games per batch and shard file.
+     */
+    public static final int BATCH_GAMES = 500;
+
+    private static final double LEARNING_RATE = 0.05;
+    private static final double L2 = 1e-5;
+
+    private TrainingPipeline() {
+    }
+
+    /**
+     * Runs the pipeline.
+     *
+     * @param args the map, the number of games, players and passes and the
+     *             output file, all optional
+     * @throws IOException if a file can't be read or written
+     */
+    public static void main(final String[] args) throws IOException {
+        final String map = args.length > 0 ? args[0] : "default";
+        final int games = args.length > 1 ? Integer.parseInt(args[1]) : 20_000;
+        final int players = args.length > 2 ? Integer.parseInt(args[2]) : 3;
+        final int epochs = args.length > 3 ? Integer.parseInt(args[3]) : 3;
+        final Path output = args.length > 4 ? Paths.get(args[4]) : Config.AI_WEIGHTS_PATH;
+
+        final HexGrid grid = MapSaveController.loadMap(map);
+        if (grid == null) {
+            throw new IllegalArgumentException("Unknown map: " + map);
+        }
+        final EvaluationWeights weights = train(SimulationBoard.of(grid), games, players, epochs);
+        weights.save(output);
+        System.out.println("Saved evaluation weights to " + output);
+    }
+
+    /**
+     * Plays the given number of games and trains weights on their samples.
+     *
+     * @param board   the board to play on
+     * @param games   the number of games
+     * @param players the number of players
+     * @param epochs  the number of passes over the samples
+     * @return the trained weights
+     * @throws IOException if the sample files can't be written or read
+     */
+    public static EvaluationWeights train(final SimulationBoard board, final int games, final int players,
+            final int epochs) throws IOException {
+        final Path directory = Files.createTempDirectory("hprojekt-selfplay");
+        final int batches = (games + BATCH_GAMES - 1) / BATCH_GAMES;
+        final SplittableRandom seeds = new SplittableRandom();
+        final SplittableRandom[] randoms = new SplittableRandom[batches];
+        for (int i = 0; i < batches; i++) {
+            randoms[i] = seeds.split();
+        }
+        final List<Path> shards = new ArrayList<>();
+        for (int i = 0; i < batches; i++) {
+            shards.add(directory.resolve("batch-" + i + ".samples"));
+        }
+        try {
+            final long start = System.nanoTime();
+            final int finished = IntStream.range(0, batches).parallel().map(batch -> {
+                final int batchGames = Math.min(BATCH_GAMES, games - batch * BATCH_GAMES);
+                try (SampleWriter writer = new SampleWriter(shards.get(batch))) {
+                    return SelfPlay.play(board, players, batchGames, randoms[batch], writer);
+                } catch (final IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }).sum();
+            System.out.printf("Played %d games (%d finished) in %.1f s%n", games, finished,
+                    (System.nanoTime() - start) / 1e9);
+
+            final LogisticRegression regression = new LogisticRegression(LEARNING_RATE, L2);
+            final Random shuffler = new Random(seeds.nextLong());
+            for (int epoch = 1; epoch <= epochs; epoch++) {
+                Collections.shuffle(shards, shuffler);
+                double loss = 0;
+                for (final Path shard : shards) {
+                    try (SampleReader reader = new SampleReader(shard)) {
+                        loss += regression.train(reader);
+                    }
+                }
+                System.out.printf("Epoch %d: mean log loss %.4f%n", epoch, loss / shards.size());
+            }
+            return regression.toWeights();
+        } catch (final UncheckedIOException e) {
+            throw e.getCause();
+        } finally {
+            for (final Path shard : shards) {
+                Files.deleteIfExists(shard);
+            }
+            Files.deleteIfExists(directory);
+        }
+    }
+}
@@ -0,0 +1,7 @@
+/**
+ * Contains the self-play pipeline that trains the evaluation weights of the
+ * learned AI controller. Positions are streamed to sample files while games
+ * are played and read back one at a time for training, so the number of
+ * positions is only bounded by the disk.
+ */
+package hProjekt.controller.ai.training;
@@ -0,0 +1,212 @@
+package hProjekt.controller.analytics;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import hProjekt.controller.io.BinaryReader;
+import hProjekt.controller.io.BinaryWriter;
+
+/**
+ * Writes events in a compact binary format with one column per field.
+ * <p>
+ * A file starts with the magic bytes {@code TBEV} and a version byte, followed
+ * by one block per batch. A block is its length in four bytes and the number of
+ * events, followed by the columns in the order of the fields of
+ * {@link GameEvent}. The game, sequence and time columns store the difference
+ * to the previous event of the file, so they mostly take a byte per event.
+ * The details are stored in a dictionary per file: a detail seen before is
+ * its index, a new one is the size of the dictionary followed by the string.
+ * An event takes 10 to 15 bytes, about a tenth of its NDJSON line.
+ * <p>
+ * The blocks of a file have to be read in order, see {@link #read(Path)}.
+ */
+public class ColumnarEventSink extends RollingEventSink {
+    /**
+     * The extension of the files.
+     */
+    public static final String FILE_EXTENSION = ".tbev";
+
+    private static final byte[] MAGIC = "TBEV".getBytes(StandardCharsets.US_ASCII);
+    private static final int VERSION = 1;
+
+    private final BinaryWriter out = new BinaryWriter(1 << 16);
+    private final Map<String, Integer> dictionary = new HashMap<>();
+    private long previousGame;
+    private int previousSequence;
+    private long previousTime;
+
+    /**
+     * Creates a new sink.
+     *
+     * @param directory   the directory to write the files to
+     * @param maxFileSize the size in bytes after which a new file is started
+     */
+    public ColumnarEventSink(final Path directory, final long maxFileSize) {
+        super(directory, FILE_EXTENSION, maxFileSize);
+    }
+
+    @Override
+    protected ByteBuffer startFile() {
+        dictionary.clear();
+        previousGame = 0;
+        previousSequence = 0;
+        previousTime = 0;
+        out.reset();
+        out.writeBytes(MAGIC, 0, MAGIC.length).writeByte(VERSION);
+        return out.toByteBuffer();
+    }
+
+    @Override
+    protected ByteBuffer encode(final List<GameEvent> events) {
+        out.reset();
+        out.writeInt(0).writeVarInt(events.size());
+        for (final GameEvent event : events) {
+            writeSignedVarLong(event.game() - previousGame);
+            previousGame = event.game();
+        }
+        for (final GameEvent event : events) {
+            out.writeSignedVarInt(event.sequence() - previousSequence);
+            previousSequence = event.sequence();
+        }
+        for (final GameEvent event : events) {
+            writeSignedVarLong(event.time() - previousTime);
+            previousTime = event.time();
+        }
+        events.forEach(event -> out.writeVarInt(event.round()));
+        events.forEach(event -> out.writeSignedVarInt(event.player()));
+        events.forEach(event -> out.writeByte(event.kind().ordinal()));
+        events.forEach(event -> out.writeSignedVarInt(event.trail()));
+        events.forEach(event -> out.writeSignedVarInt(event.value()));
+        for (final GameEvent event : events) {
+            final Integer index = dictionary.get(event.detail());
+            if (index != null) {
+                out.writeVarInt(index);
+            } else {
+                out.writeVarInt(dictionary.size()).writeString(event.detail());
+                dictionary.put(event.detail(), dictionary.size());
+            }
+        }
+        out.setInt(0, out.size() - Integer.BYTES);
+        return out.toByteBuffer();
+    }
+
+    /**
+     * Reads all events of a file written by this sink.
+     *
+     * @param path the file
+     * @return the events in the order they were written
+     * @throws IOException if the file can't be read or is malformed
+     */
+    public static List<GameEvent> read(final Path path) throws IOException {
+        final BinaryReader in = new BinaryReader(Files.readAllBytes(path));
+        if (in.remaining() < MAGIC.length + 1 || !Arrays.equals(in.readBytes(MAGIC.length), MAGIC)
+                || in.readByte() != VERSION) {
+            throw new IOException("Not a columnar event file: " + path);
+        }
+        final List<String> details = new ArrayList<>();
+        final List<GameEvent> events = new ArrayList<>();
+        // the game, sequence and time of the last event read
+        final long[] previous = new long[3];
+        try {
+            while (in.hasRemaining()) {
+                final int length = in.readInt();
+                if (length > in.remaining()) {
+                    // the block was cut off while it was written
+                    break;
+                }
+                readBlock(in, previous, details, events);
+            }
+        } catch (final RuntimeException e) {
+            throw new IOException("Malformed columnar event file: " + path, e);
+        }
+        return events;
+    }
+
+    /**
+     * Reads a block of events.
+     *
+     * @param in       the reader, after the length of the block
+     * @param previous the game, sequence and time of the last event read,
+     *                 updated to the last event of this block
+     * @param details  the dictionary of the details read so far
+     * @param events   the list to add the events to
+     */
+    private static void readBlock(final BinaryReader in, final long[] previous, final List<String> details,
+            final List<GameEvent> events) {
+        final int count = in.readVarInt();
+        final long[] games = new long[count];
+        final int[] sequences = new int[count];
+        final long[] times = new long[count];
+        final int[] rounds = new int[count];
+        final int[] players = new int[count];
+        final int[] kinds = new int[count];
+        final int[] trails = new int[count];
+        final int[] values = new int[count];
+        for (int i = 0; i < count; i++) {
+            games[i] = (i == 0 ? previous[0] : games[i - 1]) + readSignedVarLong(in);
+        }
+        for (int i = 0; i < count; i++) {
+            sequences[i] = (int) (i == 0 ? previous[1] : sequences[i - 1]) + in.readSignedVarInt();
+        }
+        for (int i = 0; i < count; i++) {
+            times[i] = (i == 0 ? previous[2] : times[i - 1]) + readSignedVarLong(in);
+        }
+        for (int i = 0; i < count; i++) {
+            rounds[i] = in.readVarInt();
+        }
+        for (int i = 0; i < count; i++) {
+            players[i] = in.readSignedVarInt();
+        }
+        for (int i = 0; i < count; i++) {
+            kinds[i] = in.readByte();
+        }
+        for (int i = 0; i < count; i++) {
+            trails[i] = in.readSignedVarInt();
+        }
+        for (int i = 0; i < count; i++) {
+            values[i] = in.readSignedVarInt();
+        }
+        final GameEvent.Kind[] allKinds = GameEvent.Kind.values();
+        for (int i = 0; i < count; i++) {
+            final int index = in.readVarInt();
+            if (index == details.size()) {
+                details.add(in.readString());
+            }
+            events.add(new GameEvent(games[i], sequences[i], times[i], rounds[i], players[i], allKinds[kinds[i]],
+                    trails[i], values[i], details.get(index)));
+        }
+        if (count > 0) {
+            previous[0] = games[count - 1];
+            previous[1] = sequences[count - 1];
+            previous[2] = times[count - 1];
+        }
+    }
+
+    /**
+     * Writes a zigzag encoded variable length long.
+     *
+     * @param value the value
+     */
+    private void writeSignedVarLong(final long value) {
+        out.writeVarLong((value << 1) ^ (value >> 63));
+    }
+
+    /**
+     * Reads a long written by {@link #writeSignedVarLong(long)}.
+     *
+     * @param in the reader
+     * @return the value
+     */
+    private static long readSignedVarLong(final BinaryReader in) {
+        final long value = in.readVarLong();
+        return (value >>> 1) ^ -(value & 1);
+    }
+}
@@ -0,0 +1,27 @@
+package hProjekt.controller.analytics;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Writes exported game events. Sinks are only used by the writer thread of a
+ * {@link GameEventExporter}, so they don't have to be thread safe.
+ */
+public interface EventSink {
+
+    /**
+     * Writes a batch of events.
+     *
+     * @param events the events in the order they happened
+     * @throws IOException if the events can't be written
+     */
+    void write(List<GameEvent> events) throws IOException;
+
+    /**
+     * Closes the sink. Events written after closing start a new file.
+     *
+     * @throws IOException if the sink can't be closed
+     */
+    default void close() throws IOException {
+    }
+}
@@ -0,0 +1,71 @@
+package hProjekt.controller.analytics;
+
+/**
+ * An event of a game, as exported for analytics.
+ * <p>
+ * All kinds of events share the same fields, so they can be written as rows of
+ * a single table. Fields that don't apply to a kind are {@code -1} or empty.
+ *
+ * @param game     the id of the game
+ * @param sequence the number of the event in its game, starting at {@code 0}
+ * @param time     when the event happened in milliseconds since the epoch
+ * @param round    the round of the game, {@code 0} while the starting
+ *                 positions are selected
+ * @param player   the id of the player or {@code -1}
+ * @param kind     the kind of the event
+ * @param trail    the index of the treasure trail in
+ *                 {@code Config.TREASURE_TRAIL_COLORS} or {@code -1}
+ * @param value    the value of the event, see {@link Kind}
+ * @param detail   the detail of the event, see {@link Kind}
+ */
+public record GameEvent(long game, int sequence, long time, int round, int player, Kind kind, int trail, int value,
+        String detail) {
+
+    /**
+     * The kinds of events.
+     */
+    public enum Kind {
+        /**
+         * The game started. The value is the number of players, the detail the
+         * name of the map.
+         */
+        GAME_START,
+        /**
+         * A player takes part in the game. The value is {@code 1} for AI players
+         * and {@code 0} for humans, the detail is the name of the player.
+         */
+        PLAYER,
+        /**
+         * A player executed an action. The detail is the name of the action.
+         */
+        ACTION,
+        /**
+         * A path card was added to a treasure trail. The player is the owner of
+         * the card, the value is the new length of the trail and the detail the
+         * type of the card.
+         */
+        TRAIL_CARD,
+        /**
+         * A treasure trail was cleared.
+         */
+        TRAIL_CLEARED,
+        /**
+         * A player collected the treasure of a trail.
+         */
+        TREASURE_COLLECTED,
+        /**
+         * A player accepted a curse.
+         */
+        CURSE,
+        /**
+         * The gold of a player changed. The value is the new total value of the
+         * player's gold cards.
+         */
+        SCORE,
+        /**
+         * The game ended. The player is the winner and the value their gold, or
+         * both are {@code -1} if the game was stopped.
+         */
+        GAME_END
+    }
+}
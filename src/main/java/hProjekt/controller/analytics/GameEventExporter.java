@@ -0,0 +1,364 @@
+package hProjekt.controller.analytics;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.jetbrains.annotations.Nullable;
+
+import hProjekt.Config;
+import hProjekt.controller.GameController;
+import hProjekt.controller.GameEventListener;
+import hProjekt.controller.PlayerController;
+import hProjekt.controller.actions.AcceptCurse;
+import hProjekt.controller.actions.CollectTreasure;
+import hProjekt.controller.actions.PlayerAction;
+import hProjekt.model.GameState;
+import hProjekt.model.Player;
+import hProjekt.model.cards.PathCard;
+import hProjekt.model.cards.RemoveTileCard;
+
+/**
+ * Exports the events of games to an {@link EventSink}.
+ * <p>
+ * Every game gets its own listener from {@link #newGame()}, which turns the
+ * progress of the game into {@link GameEvent}s. The events of all games are
+ * put into a bounded queue and written by a single writer thread in batches of
+ * up to {@value #BATCH_SIZE}, so the game thread only pays for creating and
+ * enqueueing an event. If the writer falls behind and the queue is full, the
+ * game thread waits for it instead of dropping events. Write errors, including
+ * runtime exceptions thrown by the sink, are printed and the batch is skipped,
+ * but the games and the writer go on.
+ * <p>
+ * The writer thread is started with the first event. Events still queued when
+ * the application exits are written by a shutdown hook, which gives up after
+ * {@value #SHUTDOWN_TIMEOUT_MILLIS} milliseconds so a stuck sink can't keep the
+ * application from exiting.
+ */
+public class GameEventExporter {
+    /**
+     * The number of events the queue holds before the games have to wait for
+     * the writer.
+     */
+    public static final int QUEUE_CAPACITY = 8192;
+
+    /**
+     * The maximum number of events written at once.
+     */
+    public static final int BATCH_SIZE = 1024;
+
+    /**
+     * The size in bytes after which the sinks start a new file.
+     */
+    public static final long MAX_FILE_SIZE = 64L << 20;
+
+    /**
+     * The time in milliseconds the shutdown hook waits for the queued events to
+     * be written.
+     */
+    public static final long SHUTDOWN_TIMEOUT_MILLIS = 5_000;
+
+    /**
+     * The exporter used by all games, writing to
+     * {@link Config#EVENT_EXPORT_PATH} in {@link Config#EVENT_EXPORT_FORMAT}.
+     */
+    public static final GameEventExporter SHARED = new GameEventExporter(
+            Config.EVENT_EXPORT_FORMAT.createSink(Config.EVENT_EXPORT_PATH), QUEUE_CAPACITY);
+
+    /**
+     * The formats events can be exported in.
+     */
+    public enum Format {
+        /**
+         * Events are not exported.
+         */
+        NONE,
+        /**
+         * Events are written by a {@link NdjsonEventSink}.
+         */
+        NDJSON,
+        /**
+         * Events are written by a {@link ColumnarEventSink}.
+         */
+        COLUMNAR;
+
+        /**
+         * Creates a sink writing in this format.
+         *
+         * @param directory the directory to write the files to
+         * @return the sink
+         */
+        public EventSink createSink(final Path directory) {
+            return switch (this) {
+                case NONE -> events -> {
+                };
+                case NDJSON -> new NdjsonEventSink(directory, MAX_FILE_SIZE);
+                case COLUMNAR -> new ColumnarEventSink(directory, MAX_FILE_SIZE);
+            };
+        }
+    }
+
+    private final EventSink sink;
+    private final BlockingQueue<GameEvent> queue;
+    private final AtomicLong published = new AtomicLong();
+    private long exported;
+    private volatile @Nullable Thread writer;
+
+    /**
+     * Creates a new exporter.
+     *
+     * @param sink     the sink to write the events to
+     * @param capacity the number of events the queue holds
+     */
+    public GameEventExporter(final EventSink sink, final int capacity) {
+        this.sink = sink;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+    }
+
+    /**
+     * Creates a listener that exports the events of a single game.
+     *
+     * @return the listener, to be added to the {@link GameController} of the
+     *         game
+     */
+    public GameEventListener newGame() {
+        return new GameTrace();
+    }
+
+    /**
+     * Queues an event to be written. Waits while the queue is full.
+     *
+     * @param event the event
+     */
+    public void publish(final GameEvent event) {
+        if (writer == null) {
+            startWriter();
+        }
+        boolean interrupted = false;
+        while (true) {
+            try {
+                queue.put(event);
+                break;
+            } catch (final InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        published.incrementAndGet();
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Waits until all events published so far are written.
+     */
+    public void flush() {
+        flush(0);
+    }
+
+    /**
+     * Waits until all events published so far are written, but at most the
+     * given time.
+     *
+     * @param timeoutMillis the maximum time to wait in milliseconds, or
+     *                      {@code 0} to wait as long as it takes
+     * @return whether all events were written in time
+     */
+    public boolean flush(final long timeoutMillis) {
+        final long target = published.get();
+        final long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        synchronized (this) {
+            while (exported < target) {
+                final long remaining = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+                if (timeoutMillis > 0 && remaining <= 0) {
+                    return false;
+                }
+                try {
+                    wait(timeoutMillis > 0 ? remaining : 0);
+                } catch (final InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Writes the queued events when the application exits, giving up after
+     * {@value #SHUTDOWN_TIMEOUT_MILLIS} milliseconds.
+     */
+    private void flushOnExit() {
+        if (!flush(SHUTDOWN_TIMEOUT_MILLIS)) {
+            System.out.println("Gave up exporting the queued game events");
+        }
+    }
+
+    /**
+     * Starts the writer thread if it isn't running yet.
+     */
+    private synchronized void startWriter() {
+        if (writer == null) {
+            final Thread thread = new Thread(this::writeLoop, "GameEventWriter");
+            thread.setDaemon(true);
+            thread.start();
+            Runtime.getRuntime().addShutdownHook(new Thread(this::flushOnExit));
+            writer = thread;
+        }
+    }
+
+    /**
+     * Writes the queued events in batches.
+     */
+    private void writeLoop() {
+        final List<GameEvent> batch = new ArrayList<>(BATCH_SIZE);
+        while (true) {
+            try {
+                batch.add(queue.take());
+            } catch (final InterruptedException e) {
+                return;
+            }
+            queue.drainTo(batch, BATCH_SIZE - 1);
+            try {
+                sink.write(batch);
+            } catch (final IOException | RuntimeException e) {
+                System.out.println("Couldn't export game events: " + e);
+            }
+            synchronized (this) {
+                exported += batch.size();
+                notifyAll();
+            }
+            batch.clear();
+        }
+    }
+
+    /**
+     * Turns the progress of a game into events.
+     * <p>
+     * Changes of the treasure trails and the gold of the players are found by
+     * comparing them to their state after the previous action, which costs a
+     * few comparisons per action.
+     */
+    private final class GameTrace implements GameEventListener {
+        private final long game = ThreadLocalRandom.current().nextLong() & Long.MAX_VALUE;
+        private GameController gameController;
+        private int sequence;
+        private int[] trailSizes;
+        private PathCard[] trailEnds;
+        private int[] gold;
+
+        @Override
+        public void onGameStart(final GameController gameController) {
+            this.gameController = gameController;
+            final GameState state = gameController.getState();
+            final List<Player> players = state.getPlayers();
+            emit(-1, GameEvent.Kind.GAME_START, -1, players.size(),
+                    gameController.getMapName() == null ? "" : gameController.getMapName());
+            gold = new int[players.size()];
+            for (int i = 0; i < players.size(); i++) {
+                final Player player = players.get(i);
+                emit(player.getID(), GameEvent.Kind.PLAYER, -1, player.isAi() ? 1 : 0, player.getName());
+                gold[i] = player.getTotalGoldCardValue();
+            }
+            trailSizes = new int[Config.TREASURE_TRAIL_COLORS.size()];
+            trailEnds = new PathCard[trailSizes.length];
+            for (int i = 0; i < trailSizes.length; i++) {
+                final List<PathCard> trail = state.getTreasureTrails().get(Config.TREASURE_TRAIL_COLORS.get(i));
+                trailSizes[i] = trail.size();
+                trailEnds[i] = trail.isEmpty() ? null : trail.get(trail.size() - 1);
+            }
+        }
+
+        @Override
+        public void afterAction(final PlayerController playerController, final PlayerAction action) {
+            final int player = playerController.getPlayer().getID();
+            emit(player, GameEvent.Kind.ACTION, -1, 0, action.getClass().getSimpleName());
+            if (action instanceof final CollectTreasure collectTreasure) {
+                emit(player, GameEvent.Kind.TREASURE_COLLECTED,
+                        Config.TREASURE_TRAIL_COLORS.indexOf(collectTreasure.trailColor()), 0, "");
+            } else if (action instanceof AcceptCurse) {
+                emit(player, GameEvent.Kind.CURSE, -1, 0, "");
+            }
+            emitChanges();
+        }
+
+        @Override
+        public void onGameEnd(final GameController gameController) {
+            emitChanges();
+            final Player winner = gameController.getState().getWinnerProperty().getValue();
+            emit(winner == null ? -1 : winner.getID(), GameEvent.Kind.GAME_END, -1,
+                    winner == null ? -1 : winner.getTotalGoldCardValue(), "");
+        }
+
+        /**
+         * Emits the changes of the treasure trails and the gold since the
+         * previous action. A trail that is shorter than before or ends with
+         * another card was cleared.
+         */
+        private void emitChanges() {
+            final GameState state = gameController.getState();
+            for (int i = 0; i < trailSizes.length; i++) {
+                final List<PathCard> trail = state.getTreasureTrails().get(Config.TREASURE_TRAIL_COLORS.get(i));
+                final PathCard end = trail.isEmpty() ? null : trail.get(trail.size() - 1);
+                if (trail.size() == trailSizes[i] && end == trailEnds[i]) {
+                    continue;
+                }
+                int size = trailSizes[i];
+                if (trail.size() <= size) {
+                    emit(-1, GameEvent.Kind.TRAIL_CLEARED, i, 0, "");
+                    size = 0;
+                }
+                while (size < trail.size()) {
+                    final PathCard card = trail.get(size++);
+                    emit(card.getPlayer() == null ? -1 : card.getPlayer().getID(), GameEvent.Kind.TRAIL_CARD, i,
+                            size, describe(card));
+                }
+                trailSizes[i] = trail.size();
+                trailEnds[i] = end;
+            }
+            final List<Player> players = state.getPlayers();
+            for (int i = 0; i < gold.length; i++) {
+                final int total = players.get(i).getTotalGoldCardValue();
+                if (total != gold[i]) {
+                    gold[i] = total;
+                    emit(players.get(i).getID(), GameEvent.Kind.SCORE, -1, total, "");
+                }
+            }
+        }
+
+        /**
+         * Describes a card of a treasure trail. A {@link RemoveTileCard} has no
+         * type and is described by the tile it removes instead.
+         *
+         * @param card the card
+         * @return the description
+         */
+        private String describe(final PathCard card) {
+            if (card instanceof final RemoveTileCard removeTileCard) {
+                return "REMOVE_TILE " + removeTileCard.getTilePosition();
+            }
+            return card.getType().name();
+        }
+
+        /**
+         * Publishes an event of this game.
+         *
+         * @param player the id of the player or {@code -1}
+         * @param kind   the kind of the event
+         * @param trail  the index of the treasure trail or {@code -1}
+         * @param value  the value of the event
+         * @param detail the detail of the event
+         */
+        private void emit(final int player, final GameEvent.Kind kind, final int trail, final int value,
+                final String detail) {
+            publish(new GameEvent(game, sequence++, System.currentTimeMillis(),
+                    gameController.roundCounterProperty().get(), player, kind, trail, value, detail));
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package hProjekt.controller.analytics;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Writes events as newline delimited JSON, one object per line:
+ *
+ * <pre>
+ * {"game":7,"seq":4,"time":1700000000000,"round":1,"player":2,"kind":"ACTION","trail":-1,"value":0,"detail":"EndTurn"}
+ * </pre>
+ *
+ * Every line has all fields, so the files can be loaded as a table by most
+ * analytics tools.
+ */
+public class NdjsonEventSink extends RollingEventSink {
+    /**
+     * The extension of the files.
+     */
+    public static final String FILE_EXTENSION = ".ndjson";
+
+    private final StringBuilder text = new StringBuilder();
+
+    /**
+     * Creates a new sink.
+     *
+     * @param directory   the directory to write the files to
+     * @param maxFileSize the size in bytes after which a new file is started
+     */
+    public NdjsonEventSink(final Path directory, final long maxFileSize) {
+        super(directory, FILE_EXTENSION, maxFileSize);
+    }
+
+    @Override
+    protected ByteBuffer startFile() {
+        return ByteBuffer.allocate(0);
+    }
+
+    @Override
+    protected ByteBuffer encode(final List<GameEvent> events) {
+        text.setLength(0);
+        for (final GameEvent event : events) {
+            text.append("{\"game\":").append(event.game())
+                    .append(",\"seq\":").append(event.sequence())
+                    .append(",\"time\":").append(event.time())
+                    .append(",\"round\":").append(event.round())
+                    .append(",\"player\":").append(event.player())
+                    .append(",\"kind\":\"").append(event.kind().name())
+                    .append("\",\"trail\":").append(event.trail())
+                    .append(",\"value\":").append(event.value())
+                    .append(",\"detail\":\"");
+            appendEscaped(event.detail());
+            text.append("\"}\n");
+        }
+        return StandardCharsets.UTF_8.encode(text.toString());
+    }
+
+    /**
+     * Appends a string with the characters JSON doesn't allow in strings
+     * escaped.
+     *
+     * @param value the string
+     */
+    private void appendEscaped(final String value) {
+        for (int i = 0; i < value.length(); i++) {
+            final char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                text.append('\\').append(c);
+            } else if (c < 0x20) {
+                text.append(String.format("\\u%04x", (int) c));
+            } else {
+                text.append(c);
+            }
+        }
+    }
+}
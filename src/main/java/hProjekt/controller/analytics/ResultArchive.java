@@ -0,0 +1,505 @@
+package hProjekt.controller.analytics;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import hProjekt.Config;
+import hProjekt.controller.io.BinaryReader;
+
+/**
+ * An archive of game results in a columnar format, made for aggregate queries
+ * over millions of games like the win rate per seat, map or AI controller.
+ * <p>
+ * An archive is a directory of files written by {@link ResultArchiveWriter}s.
+ * A file starts with the magic bytes {@code TBRA} and a version byte, followed
+ * by row groups of up to {@value ResultArchiveWriter#ROW_GROUP_SIZE} results,
+ * one result per player of a game. A row group is its length in four bytes, the
+ * number of results and games, the dictionaries of the map names and the
+ * controller names used in it and the byte length of every column, followed by
+ * the columns:
+ * <ol>
+ * <li>the number of seats of every game, which also gives the seat of every
+ * result,</li>
+ * <li>the map of every game as runs of equal dictionary indices,</li>
+ * <li>the controller of every result as its dictionary index,</li>
+ * <li>the score of every result as the difference to the previous score,</li>
+ * <li>whether the result won its game, one bit per result.</li>
+ * </ol>
+ * A result takes about three bytes. Every row group can be decoded on its own,
+ * so a row group that was cut off while it was written is ignored and the
+ * others are still read.
+ * <p>
+ * {@link #open(Path)} maps the files into memory and only reads the headers of
+ * the row groups. A query decodes only the columns it needs and scans the row
+ * groups in parallel, so aggregating ten million results takes well below a
+ * second.
+ */
+public class ResultArchive {
+    /**
+     * The extension of the files.
+     */
+    public static final String FILE_EXTENSION = ".tbra";
+
+    static final byte[] MAGIC = "TBRA".getBytes(StandardCharsets.US_ASCII);
+    static final int VERSION = 1;
+    static final int GAMES = 0;
+    static final int MAPS = 1;
+    static final int CONTROLLERS = 2;
+    static final int SCORES = 3;
+    static final int WINS = 4;
+    static final int COLUMNS = 5;
+
+    /**
+     * The columns results can be grouped by.
+     */
+    public enum GroupBy {
+        /**
+         * The number of players of the game.
+         */
+        PLAYERS,
+        /**
+         * The seat in the turn order, starting at 1.
+         */
+        SEAT,
+        /**
+         * The name of the map.
+         */
+        MAP,
+        /**
+         * The controller of the player, see
+         * {@link hProjekt.controller.rating.RatingService#competitor}.
+         */
+        CONTROLLER
+    }
+
+    /**
+     * How often a group of results won.
+     *
+     * @param results the number of results
+     * @param wins    the number of results that won their game, ties count as
+     *                wins for all tied players
+     */
+    public record WinRate(long results, long wins) {
+
+        /**
+         * Returns the share of the results that won.
+         *
+         * @return the win rate between 0 and 1
+         */
+        public double rate() {
+            return results == 0 ? 0 : (double) wins / results;
+        }
+
+        /**
+         * Adds the results of another group.
+         *
+         * @param other the other group
+         * @return the combined win rate
+         */
+        public WinRate plus(final WinRate other) {
+            return new WinRate(results + other.results, wins + other.wins);
+        }
+    }
+
+    /**
+     * A row group of a file.
+     *
+     * @param buffer      the row group after its length
+     * @param results     the number of results
+     * @param games       the number of games
+     * @param maps        the map names by dictionary index
+     * @param controllers the controller names by dictionary index
+     * @param offsets     the position of every column in the buffer, and its
+     *                    end
+     */
+    private record RowGroup(ByteBuffer buffer, int results, int games, String[] maps, String[] controllers,
+            int[] offsets) {
+
+        /**
+         * Returns a reader of a column.
+         *
+         * @param column the column
+         * @return the reader
+         */
+        BinaryReader column(final int column) {
+            return new BinaryReader(buffer.slice(offsets[column], offsets[column + 1] - offsets[column]));
+        }
+    }
+
+    private final List<RowGroup> rowGroups;
+    private final long results;
+    private final long games;
+
+    private ResultArchive(final List<RowGroup> rowGroups) {
+        this.rowGroups = rowGroups;
+        this.results = rowGroups.stream().mapToLong(RowGroup::results).sum();
+        this.games = rowGroups.stream().mapToLong(RowGroup::games).sum();
+    }
+
+    /**
+     * Opens the archive in a directory. Results written later aren't seen by the
+     * returned archive.
+     *
+     * @param directory the directory of the archive
+     * @return the archive, empty if the directory doesn't exist
+     * @throws IOException if a file can't be read or isn't an archive file
+     */
+    public static ResultArchive open(final Path directory) throws IOException {
+        final List<Path> files;
+        try (final Stream<Path> list = Files.list(directory)) {
+            files = list.filter(path -> path.getFileName().toString().endsWith(FILE_EXTENSION)).sorted().toList();
+        } catch (final NoSuchFileException e) {
+            return new ResultArchive(List.of());
+        }
+        final List<RowGroup> rowGroups = new ArrayList<>();
+        for (final Path file : files) {
+            final ByteBuffer buffer;
+            try (final FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                // the mapping stays valid after the channel is closed
+                buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            }
+            final BinaryReader header = new BinaryReader(buffer);
+            if (header.remaining() < MAGIC.length + 1 || !Arrays.equals(header.readBytes(MAGIC.length), MAGIC)
+                    || header.readByte() != VERSION) {
+                throw new IOException("Not a result archive file: " + file);
+            }
+            try {
+                while (buffer.remaining() >= Integer.BYTES) {
+                    final int length = buffer.getInt();
+                    if (length > buffer.remaining()) {
+                        // the row group was cut off while it was written
+                        break;
+                    }
+                    rowGroups.add(readHeader(buffer.slice(buffer.position(), length)));
+                    buffer.position(buffer.position() + length);
+                }
+            } catch (final RuntimeException e) {
+                throw new IOException("Malformed result archive file: " + file, e);
+            }
+        }
+        return new ResultArchive(List.copyOf(rowGroups));
+    }
+
+    /**
+     * Reads the header of a row group.
+     *
+     * @param buffer the row group after its length
+     * @return the row group
+     */
+    private static RowGroup readHeader(final ByteBuffer buffer) {
+        final BinaryReader in = new BinaryReader(buffer.duplicate());
+        final int results = in.readVarInt();
+        final int games = in.readVarInt();
+        final String[] maps = new String[in.readVarInt()];
+        for (int i = 0; i < maps.length; i++) {
+            maps[i] = in.readString();
+        }
+        final String[] controllers = new String[in.readVarInt()];
+        for (int i = 0; i < controllers.length; i++) {
+            controllers[i] = in.readString();
+        }
+        final int[] lengths = new int[COLUMNS];
+        for (int column = 0; column < COLUMNS; column++) {
+            lengths[column] = in.readVarInt();
+        }
+        final int[] offsets = new int[COLUMNS + 1];
+        offsets[0] = in.buffer().position();
+        for (int column = 0; column < COLUMNS; column++) {
+            offsets[column + 1] = offsets[column] + lengths[column];
+        }
+        if (offsets[COLUMNS] > buffer.limit()) {
+            throw new IllegalArgumentException("Columns exceed the row group");
+        }
+        return new RowGroup(buffer, results, games, maps, controllers, offsets);
+    }
+
+    /**
+     * Returns the number of results in the archive.
+     *
+     * @return the number of results
+     */
+    public long results() {
+        return results;
+    }
+
+    /**
+     * Returns the number of games in the archive.
+     *
+     * @return the number of games
+     */
+    public long games() {
+        return games;
+    }
+
+    /**
+     * Returns the win rates of the results grouped by the given columns. Only the
+     * grouping columns and the wins are read.
+     *
+     * @param keys the columns to group by, none to aggregate all results
+     * @return the win rate of every group, keyed by the values of the columns in
+     *         the given order
+     */
+    public Map<List<String>, WinRate> winRates(final GroupBy... keys) {
+        return IntStream.range(0, rowGroups.size()).parallel().mapToObj(i -> {
+            final RowGroup rowGroup = rowGroups.get(i);
+            final Grouping grouping = new Grouping(rowGroup, keys);
+            final long[] counts = new long[grouping.size * 2];
+            final BinaryReader in = rowGroup.column(WINS);
+            int bits = 0;
+            for (int row = 0; row < rowGroup.results(); row++) {
+                if (row % Byte.SIZE == 0) {
+                    bits = in.readByte();
+                }
+                final int group = grouping.groups[row];
+                counts[group * 2]++;
+                counts[group * 2 + 1] += bits >> (row % Byte.SIZE) & 1;
+            }
+            final Map<List<String>, WinRate> winRates = new HashMap<>();
+            for (int group = 0; group < grouping.size; group++) {
+                if (counts[group * 2] > 0) {
+                    winRates.put(grouping.key(group), new WinRate(counts[group * 2], counts[group * 2 + 1]));
+                }
+            }
+            return winRates;
+        }).reduce((left, right) -> {
+            right.forEach((key, winRate) -> left.merge(key, winRate, WinRate::plus));
+            return left;
+        }).orElseGet(HashMap::new);
+    }
+
+    /**
+     * Returns the distributions of the scores grouped by the given columns. Only
+     * the grouping columns and the scores are read.
+     *
+     * @param keys the columns to group by, none to aggregate all results
+     * @return the score distribution of every group, keyed by the values of the
+     *         columns in the given order
+     */
+    public Map<List<String>, ScoreDistribution> scoreDistributions(final GroupBy... keys) {
+        return IntStream.range(0, rowGroups.size()).parallel().mapToObj(i -> {
+            final RowGroup rowGroup = rowGroups.get(i);
+            final Grouping grouping = new Grouping(rowGroup, keys);
+            final int[] scores = new int[rowGroup.results()];
+            final BinaryReader in = rowGroup.column(SCORES);
+            int min = Integer.MAX_VALUE;
+            int max = Integer.MIN_VALUE;
+            int score = 0;
+            for (int row = 0; row < scores.length; row++) {
+                score += in.readSignedVarInt();
+                scores[row] = score;
+                min = Math.min(min, score);
+                max = Math.max(max, score);
+            }
+            final int range = max - min + 1;
+            final long[] counts = new long[scores.length == 0 ? 0 : grouping.size * range];
+            for (int row = 0; row < scores.length; row++) {
+                counts[grouping.groups[row] * range + scores[row] - min]++;
+            }
+            final Map<List<String>, ScoreDistribution> distributions = new HashMap<>();
+            for (int group = 0; group < grouping.size && scores.length > 0; group++) {
+                final long[] groupCounts = Arrays.copyOfRange(counts, group * range, (group + 1) * range);
+                if (Arrays.stream(groupCounts).anyMatch(count -> count > 0)) {
+                    distributions.put(grouping.key(group), new ScoreDistribution(min, groupCounts));
+                }
+            }
+            return distributions;
+        }).reduce((left, right) -> {
+            right.forEach((key, distribution) -> left.merge(key, distribution, ScoreDistribution::plus));
+            return left;
+        }).orElseGet(HashMap::new);
+    }
+
+    /**
+     * The group of every result of a row group. The values of the grouping
+     * columns are combined into one number per result, so the results can be
+     * counted in arrays.
+     */
+    private static class Grouping {
+        private final GroupBy[] keys;
+        private final RowGroup rowGroup;
+        private final int[] radices;
+        private final int[] groups;
+        private final int size;
+
+        /**
+         * Decodes the grouping columns of a row group.
+         *
+         * @param rowGroup the row group
+         * @param keys     the columns to group by
+         */
+        Grouping(final RowGroup rowGroup, final GroupBy[] keys) {
+            this.keys = keys;
+            this.rowGroup = rowGroup;
+            this.radices = new int[keys.length];
+            this.groups = new int[rowGroup.results()];
+
+            final boolean needsSeats = Arrays.stream(keys).anyMatch(key -> key == GroupBy.PLAYERS
+                    || key == GroupBy.SEAT || key == GroupBy.MAP);
+            final int[] gameSeats = needsSeats ? readGameSeats() : null;
+            final int maxSeats = needsSeats ? Arrays.stream(gameSeats).max().orElse(0) : 0;
+            int size = 1;
+            for (int k = 0; k < keys.length; k++) {
+                final int[] values = switch (keys[k]) {
+                    case PLAYERS -> expand(gameSeats, gameSeats);
+                    case SEAT -> seats(gameSeats);
+                    case MAP -> expand(gameSeats, readGameMaps());
+                    case CONTROLLER -> readControllers();
+                };
+                radices[k] = switch (keys[k]) {
+                    case PLAYERS -> maxSeats + 1;
+                    case SEAT -> maxSeats;
+                    case MAP -> rowGroup.maps().length;
+                    case CONTROLLER -> rowGroup.controllers().length;
+                };
+                for (int row = 0; row < groups.length; row++) {
+                    groups[row] = groups[row] * radices[k] + values[row];
+                }
+                size *= radices[k];
+            }
+            this.size = size;
+        }
+
+        /**
+         * Returns the values of the grouping columns of a group.
+         *
+         * @param group the group
+         * @return the values in the order of the keys
+         */
+        List<String> key(final int group) {
+            final String[] values = new String[keys.length];
+            int rest = group;
+            for (int k = keys.length - 1; k >= 0; k--) {
+                final int value = rest % radices[k];
+                rest /= radices[k];
+                values[k] = switch (keys[k]) {
+                    case PLAYERS -> Integer.toString(value);
+                    case SEAT -> Integer.toString(value + 1);
+                    case MAP -> rowGroup.maps()[value];
+                    case CONTROLLER -> rowGroup.controllers()[value];
+                };
+            }
+            return List.of(values);
+        }
+
+        private int[] readGameSeats() {
+            final int[] gameSeats = new int[rowGroup.games()];
+            final BinaryReader in = rowGroup.column(GAMES);
+            for (int game = 0; game < gameSeats.length; game++) {
+                gameSeats[game] = in.readVarInt();
+            }
+            return gameSeats;
+        }
+
+        private int[] readGameMaps() {
+            final int[] gameMaps = new int[rowGroup.games()];
+            final BinaryReader in = rowGroup.column(MAPS);
+            int game = 0;
+            while (game < gameMaps.length) {
+                final int run = in.readVarInt();
+                Arrays.fill(gameMaps, game, game + run, in.readVarInt());
+                game += run;
+            }
+            return gameMaps;
+        }
+
+        private int[] readControllers() {
+            final int[] controllers = new int[rowGroup.results()];
+            final BinaryReader in = rowGroup.column(CONTROLLERS);
+            for (int row = 0; row < controllers.length; row++) {
+                controllers[row] = in.readVarInt();
+            }
+            return controllers;
+        }
+
+        /**
+         * Repeats a value of every game for each of its results.
+         *
+         * @param gameSeats  the number of seats of every game
+         * @param gameValues the value of every game
+         * @return the value of every result
+         */
+        private int[] expand(final int[] gameSeats, final int[] gameValues) {
+            final int[] values = new int[rowGroup.results()];
+            int row = 0;
+            for (int game = 0; game < gameSeats.length; game++) {
+                Arrays.fill(values, row, row + gameSeats[game], gameValues[game]);
+                row += gameSeats[game];
+            }
+            return values;
+        }
+
+        /**
+         * Returns the seat of every result, starting at 0.
+         *
+         * @param gameSeats the number of seats of every game
+         * @return the seat of every result
+         */
+        private int[] seats(final int[] gameSeats) {
+            final int[] seats = new int[rowGroup.results()];
+            int row = 0;
+            for (final int count : gameSeats) {
+                for (int seat = 0; seat < count; seat++) {
+                    seats[row++] = seat;
+                }
+            }
+            return seats;
+        }
+    }
+
+    /**
+     * Prints the win rates per number of players and seat, per map and per
+     * controller and the score distribution per controller of an archive.
+     * <p>
+     * Usage: {@code ResultArchive [directory]}, which defaults to
+     * {@link Config#RESULTS_ARCHIVE_PATH}.
+     *
+     * @param args the directory of the archive, optional
+     * @throws IOException if the archive can't be read
+     */
+    public static void main(final String[] args) throws IOException {
+        final Path directory = args.length > 0 ? Paths.get(args[0]) : Config.RESULTS_ARCHIVE_PATH;
+        final long openStart = System.nanoTime();
+        final ResultArchive archive = ResultArchive.open(directory);
+        System.out.printf("%d results of %d games in %d row groups, opened in %.1f ms%n", archive.results(),
+                archive.games(), archive.rowGroups.size(), (System.nanoTime() - openStart) / 1e6);
+
+        final long queryStart = System.nanoTime();
+        final Map<List<String>, WinRate> bySeat = archive.winRates(GroupBy.PLAYERS, GroupBy.SEAT);
+        final Map<List<String>, WinRate> byMap = archive.winRates(GroupBy.MAP);
+        final Map<List<String>, WinRate> byController = archive.winRates(GroupBy.CONTROLLER);
+        final Map<List<String>, ScoreDistribution> scores = archive.scoreDistributions(GroupBy.CONTROLLER);
+        final double querySeconds = (System.nanoTime() - queryStart) / 1e9;
+
+        new TreeMap<>(toStrings(bySeat)).forEach((key, winRate) -> System.out.printf("%s: %.1f%% of %d%n", key,
+                100 * winRate.rate(), winRate.results()));
+        new TreeMap<>(toStrings(byMap)).forEach((key, winRate) -> System.out.printf("Map %s: %.1f%% of %d%n", key,
+                100 * winRate.rate(), winRate.results()));
+        new TreeMap<>(toStrings(byController)).forEach((key, winRate) -> System.out.printf(
+                "Controller %s: %.1f%% of %d%n", key, 100 * winRate.rate(), winRate.results()));
+        new TreeMap<>(toStrings(scores)).forEach((key, distribution) -> System.out.printf(
+                "Scores %s: mean %.1f, median %d, 90th percentile %d, %d to %d%n", key, distribution.mean(),
+                distribution.quantile(0.5), distribution.quantile(0.9), distribution.min(), distribution.max()));
+        System.out.printf("Queries took %.2f s%n", querySeconds);
+    }
+
+    private static <V> Map<String, V> toStrings(final Map<List<String>, V> groups) {
+        final Map<String, V> result = new HashMap<>();
+        groups.forEach((key, value) -> result.put(String.join(" / ", key), value));
+        return result;
+    }
+}
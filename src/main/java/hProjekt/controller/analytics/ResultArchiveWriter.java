@@ -0,0 +1,274 @@
+package hProjekt.controller.analytics;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.jetbrains.annotations.Nullable;
+
+import hProjekt.Config;
+import hProjekt.controller.GameController;
+import hProjekt.controller.GameEventListener;
+import hProjekt.controller.io.BinaryWriter;
+import hProjekt.controller.rating.RatingService;
+import hProjekt.model.Player;
+
+/**
+ * Appends game results to a {@link ResultArchive}.
+ * <p>
+ * A writer collects the results of up to {@value #ROW_GROUP_SIZE} players in
+ * memory and then writes them as a row group to its own file in the archive,
+ * named after the time the writer was created, for example
+ * {@code results-20240131-120000-0.tbra}. The file is created with the first
+ * row group. Results that weren't written yet are written by {@link #flush()},
+ * {@link #close()} and, once a writer holds results, by a shutdown hook when
+ * the application exits.
+ * <p>
+ * The {@link #SHARED shared writer} records the games played in this
+ * application. Its row groups are filled like those of any other writer, so
+ * an archive of many games doesn't consist of row groups of a single game.
+ * Only the games since the last row group are lost if the application is
+ * killed. All methods are thread safe.
+ */
+public class ResultArchiveWriter implements GameEventListener, Closeable {
+    private static final DateTimeFormatter FILE_NAME_FORMAT = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+    /**
+     * The writer of the games played in this application, writing to
+     * {@link Config#RESULTS_ARCHIVE_PATH}.
+     */
+    public static final ResultArchiveWriter SHARED = new ResultArchiveWriter(Config.RESULTS_ARCHIVE_PATH);
+
+    /**
+     * The maximum number of results in a row group.
+     */
+    public static final int ROW_GROUP_SIZE = 1 << 16;
+
+    private final Path directory;
+    private final String prefix;
+    private final BinaryWriter out = new BinaryWriter(1 << 16);
+    private final BinaryWriter column = new BinaryWriter(1 << 16);
+    private final Map<String, Integer> maps = new LinkedHashMap<>();
+    private final Map<String, Integer> controllers = new LinkedHashMap<>();
+    private final List<Integer> gameSeats = new ArrayList<>();
+    private final List<Integer> gameMaps = new ArrayList<>();
+    private final int[] rowControllers = new int[ROW_GROUP_SIZE];
+    private final int[] rowScores = new int[ROW_GROUP_SIZE];
+    private final boolean[] rowWins = new boolean[ROW_GROUP_SIZE];
+    private int rows;
+    private boolean shutdownHookAdded;
+    private @Nullable FileChannel channel;
+
+    /**
+     * Creates a new writer. No file is created before the first row group.
+     *
+     * @param directory the directory of the archive
+     */
+    public ResultArchiveWriter(final Path directory) {
+        this.directory = directory;
+        this.prefix = "results-" + LocalDateTime.now().format(FILE_NAME_FORMAT) + "-";
+    }
+
+    /**
+     * Records a finished game, which is written with the next row group. Games
+     * that were stopped before the treasure deck was empty are ignored.
+     *
+     * @param gameController the game controller
+     */
+    @Override
+    public void onGameEnd(final GameController gameController) {
+        if (!gameController.getState().getTreasureDeck().isEmpty()) {
+            return;
+        }
+        final List<Player> players = gameController.getState().getPlayers();
+        final List<String> competitors = new ArrayList<>();
+        final int[] scores = new int[players.size()];
+        for (int i = 0; i < scores.length; i++) {
+            competitors.add(RatingService.competitor(players.get(i)));
+            scores[i] = players.get(i).getTotalGoldCardValue();
+        }
+        final String mapName = gameController.getMapName();
+        try {
+            append(mapName == null ? "" : mapName, competitors, scores);
+        } catch (final IOException e) {
+            System.out.println("Couldn't archive the results of the game: " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Adds the results of a game. The players with the highest score win.
+     *
+     * @param map         the name of the map
+     * @param controllers the controller in every seat, see
+     *                    {@link RatingService#competitor(Player)}
+     * @param scores      the score of every seat
+     * @throws IOException if a full row group can't be written
+     */
+    public synchronized void append(final String map, final List<String> controllers, final int[] scores)
+            throws IOException {
+        if (controllers.size() != scores.length || scores.length == 0) {
+            throw new IllegalArgumentException("Every seat needs a controller and a score");
+        }
+        if (rows + scores.length > ROW_GROUP_SIZE) {
+            flush();
+        }
+        int best = Integer.MIN_VALUE;
+        for (final int score : scores) {
+            best = Math.max(best, score);
+        }
+        if (!shutdownHookAdded) {
+            Runtime.getRuntime().addShutdownHook(new Thread(this::closeOnExit));
+            shutdownHookAdded = true;
+        }
+        gameSeats.add(scores.length);
+        gameMaps.add(maps.computeIfAbsent(map, name -> maps.size()));
+        for (int seat = 0; seat < scores.length; seat++) {
+            rowControllers[rows] = this.controllers.computeIfAbsent(controllers.get(seat),
+                    name -> this.controllers.size());
+            rowScores[rows] = scores[seat];
+            rowWins[rows] = scores[seat] == best;
+            rows++;
+        }
+    }
+
+    /**
+     * Writes the results added since the last row group as a new row group.
+     *
+     * @throws IOException if the row group can't be written
+     */
+    public synchronized void flush() throws IOException {
+        if (rows == 0) {
+            return;
+        }
+        out.reset();
+        out.writeInt(0).writeVarInt(rows).writeVarInt(gameSeats.size());
+        out.writeVarInt(maps.size());
+        maps.keySet().forEach(out::writeString);
+        out.writeVarInt(controllers.size());
+        controllers.keySet().forEach(out::writeString);
+
+        final byte[][] columns = new byte[ResultArchive.COLUMNS][];
+        column.reset();
+        gameSeats.forEach(column::writeVarInt);
+        columns[ResultArchive.GAMES] = column.toByteArray();
+
+        column.reset();
+        for (int game = 0; game < gameMaps.size();) {
+            final int map = gameMaps.get(game);
+            int run = 1;
+            while (game + run < gameMaps.size() && gameMaps.get(game + run) == map) {
+                run++;
+            }
+            column.writeVarInt(run).writeVarInt(map);
+            game += run;
+        }
+        columns[ResultArchive.MAPS] = column.toByteArray();
+
+        column.reset();
+        for (int row = 0; row < rows; row++) {
+            column.writeVarInt(rowControllers[row]);
+        }
+        columns[ResultArchive.CONTROLLERS] = column.toByteArray();
+
+        column.reset();
+        for (int row = 0; row < rows; row++) {
+            column.writeSignedVarInt(rowScores[row] - (row == 0 ? 0 : rowScores[row - 1]));
+        }
+        columns[ResultArchive.SCORES] = column.toByteArray();
+
+        column.reset();
+        for (int row = 0; row < rows; row += Byte.SIZE) {
+            int bits = 0;
+            for (int bit = 0; bit < Byte.SIZE && row + bit < rows; bit++) {
+                bits |= (rowWins[row + bit] ? 1 : 0) << bit;
+            }
+            column.writeByte(bits);
+        }
+        columns[ResultArchive.WINS] = column.toByteArray();
+
+        for (final byte[] bytes : columns) {
+            out.writeVarInt(bytes.length);
+        }
+        for (final byte[] bytes : columns) {
+            out.writeBytes(bytes, 0, bytes.length);
+        }
+        out.setInt(0, out.size() - Integer.BYTES);
+
+        if (channel == null) {
+            channel = createFile();
+        }
+        final ByteBuffer buffer = out.toByteBuffer();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+
+        maps.clear();
+        controllers.clear();
+        gameSeats.clear();
+        gameMaps.clear();
+        rows = 0;
+    }
+
+    /**
+     * Writes the remaining results and closes the file.
+     *
+     * @throws IOException if the results can't be written
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        flush();
+        if (channel != null) {
+            channel.close();
+            channel = null;
+        }
+    }
+
+    /**
+     * Writes the remaining results when the application exits.
+     */
+    private void closeOnExit() {
+        try {
+            close();
+        } catch (final IOException e) {
+            System.out.println("Couldn't archive the results of the last games: " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Creates the file of this writer and writes its header.
+     *
+     * @return the channel of the file
+     * @throws IOException if the file can't be created
+     */
+    private FileChannel createFile() throws IOException {
+        Files.createDirectories(directory);
+        for (int number = 0;; number++) {
+            try {
+                final FileChannel file = FileChannel.open(
+                        directory.resolve(prefix + number + ResultArchive.FILE_EXTENSION), StandardOpenOption.WRITE,
+                        StandardOpenOption.CREATE_NEW);
+                final ByteBuffer header = ByteBuffer.allocate(ResultArchive.MAGIC.length + 1)
+                        .put(ResultArchive.MAGIC).put((byte) ResultArchive.VERSION).flip();
+                while (header.hasRemaining()) {
+                    file.write(header);
+                }
+                return file;
+            } catch (final FileAlreadyExistsException e) {
+                // another writer was created in the same second
+            }
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package hProjekt.controller.analytics;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * A sink that writes events to a series of files in a directory. A new file is
+ * started when the current one reached its maximum size, so every file can be
+ * processed on its own once the next one exists. A batch is never split
+ * between files.
+ * <p>
+ * The files are named after the time the sink was created and their number,
+ * for example {@code events-20240131-120000-3.ndjson}.
+ */
+public abstract class RollingEventSink implements EventSink {
+    private static final DateTimeFormatter FILE_NAME_FORMAT = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+    private final Path directory;
+    private final String prefix;
+    private final String extension;
+    private final long maxFileSize;
+    private @Nullable FileChannel channel;
+    private long fileSize;
+    private int fileNumber;
+
+    /**
+     * Creates a new sink. No file is created before the first batch.
+     *
+     * @param directory   the directory to write the files to
+     * @param extension   the extension of the files, including the dot
+     * @param maxFileSize the size in bytes after which a new file is started
+     */
+    protected RollingEventSink(final Path directory, final String extension, final long maxFileSize) {
+        this.directory = directory;
+        this.prefix = "events-" + LocalDateTime.now().format(FILE_NAME_FORMAT) + "-";
+        this.extension = extension;
+        this.maxFileSize = maxFileSize;
+    }
+
+    @Override
+    public void write(final List<GameEvent> events) throws IOException {
+        if (channel == null || fileSize >= maxFileSize) {
+            roll();
+        }
+        fileSize += writeFully(encode(events));
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (channel != null) {
+            channel.close();
+            channel = null;
+        }
+    }
+
+    /**
+     * Returns the contents a new file starts with. Encoders that keep state
+     * across batches, like a dictionary, reset it here.
+     *
+     * @return the start of a file
+     */
+    protected abstract ByteBuffer startFile();
+
+    /**
+     * Encodes a batch of events.
+     *
+     * @param events the events
+     * @return the encoded events
+     */
+    protected abstract ByteBuffer encode(List<GameEvent> events);
+
+    /**
+     * Closes the current file and starts the next one.
+     *
+     * @throws IOException if the file can't be created
+     */
+    private void roll() throws IOException {
+        close();
+        Files.createDirectories(directory);
+        channel = FileChannel.open(directory.resolve(prefix + fileNumber++ + extension), StandardOpenOption.WRITE,
+                StandardOpenOption.CREATE_NEW);
+        fileSize = writeFully(startFile());
+    }
+
+    /**
+     * Writes a buffer to the current file.
+     *
+     * @param buffer the buffer
+     * @return the number of written bytes
+     * @throws IOException if the buffer can't be written
+     */
+    private int writeFully(final ByteBuffer buffer) throws IOException {
+        final int length = buffer.remaining();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        return length;
+    }
+}
@@ -0,0 +1,125 @@
+package hProjekt.controller.analytics;
+
+import java.util.Arrays;
+
+/**
+ * The distribution of the scores of a group of results in a
+ * {@link ResultArchive}, stored as the number of results for every score
+ * between the lowest and the highest one.
+ */
+public class ScoreDistribution {
+    private final int offset;
+    private final long[] counts;
+    private final long count;
+
+    /**
+     * Creates a new distribution.
+     *
+     * @param offset the score of the first count
+     * @param counts the number of results for every score from the offset on
+     */
+    ScoreDistribution(final int offset, final long[] counts) {
+        int first = 0;
+        while (first < counts.length - 1 && counts[first] == 0) {
+            first++;
+        }
+        int last = counts.length - 1;
+        while (last > first && counts[last] == 0) {
+            last--;
+        }
+        this.offset = offset + first;
+        this.counts = Arrays.copyOfRange(counts, first, last + 1);
+        long count = 0;
+        for (final long c : this.counts) {
+            count += c;
+        }
+        this.count = count;
+    }
+
+    /**
+     * Returns the number of results.
+     *
+     * @return the number of results
+     */
+    public long count() {
+        return count;
+    }
+
+    /**
+     * Returns the number of results with a score.
+     *
+     * @param score the score
+     * @return the number of results with exactly this score
+     */
+    public long count(final int score) {
+        return score < offset || score >= offset + counts.length ? 0 : counts[score - offset];
+    }
+
+    /**
+     * Returns the lowest score.
+     *
+     * @return the lowest score
+     */
+    public int min() {
+        return offset;
+    }
+
+    /**
+     * Returns the highest score.
+     *
+     * @return the highest score
+     */
+    public int max() {
+        return offset + counts.length - 1;
+    }
+
+    /**
+     * Returns the mean score.
+     *
+     * @return the mean score
+     */
+    public double mean() {
+        double sum = 0;
+        for (int i = 0; i < counts.length; i++) {
+            sum += (double) (offset + i) * counts[i];
+        }
+        return count == 0 ? 0 : sum / count;
+    }
+
+    /**
+     * Returns the lowest score that at least the given share of the results
+     * doesn't exceed.
+     *
+     * @param quantile the share between 0 and 1, for example 0.5 for the median
+     * @return the score
+     */
+    public int quantile(final double quantile) {
+        final long rank = Math.max(1, (long) Math.ceil(quantile * count));
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return offset + i;
+            }
+        }
+        return max();
+    }
+
+    /**
+     * Adds the results of another distribution.
+     *
+     * @param other the other distribution
+     * @return the combined distribution
+     */
+    public ScoreDistribution plus(final ScoreDistribution other) {
+        final int min = Math.min(min(), other.min());
+        final long[] sum = new long[Math.max(max(), other.max()) - min + 1];
+        for (int i = 0; i < counts.length; i++) {
+            sum[offset - min + i] += counts[i];
+        }
+        for (int i = 0; i < other.counts.length; i++) {
+            sum[other.offset - min + i] += other.counts[i];
+        }
+        return new ScoreDistribution(min, sum);
+    }
+}
@@ -0,0 +1,7 @@
+/**
+ * Contains the export of game events for analytics. The events of every game
+ * are handed to a writer thread through a bounded queue and written to rolling
+ * NDJSON or columnar files. The results of finished games are kept in a
+ * columnar archive for aggregate queries.
+ */
+package hProjekt.controller.analytics;
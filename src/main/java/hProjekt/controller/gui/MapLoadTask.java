@@ -0,0 +1,94 @@
+package hProjekt.controller.gui;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+
+import org.jetbrains.annotations.Nullable;
+
+import hProjekt.controller.MapSaveController;
+import hProjekt.model.grid.HexGrid;
+import hProjekt.model.grid.HexGridImpl;
+import javafx.concurrent.Task;
+
+/**
+ * Loads a map and builds what a scene needs from it off the JavaFX application
+ * thread.
+ * <p>
+ * The task runs in two stages on a single background thread: first the map is
+ * read and its grid with all edges and areas is constructed, then the grid is
+ * passed to the build stage, which can construct controllers and their views
+ * as long as they aren't attached to a scene yet. The progress and message of
+ * the task tell which stage is running. A cancelled task stops after the
+ * current stage and discards its result.
+ * <p>
+ * The result should be attached in the {@link #setOnSucceeded(javafx.event.EventHandler)
+ * succeeded handler}, which runs on the JavaFX application thread, so that is
+ * the only part of loading a map the window waits for.
+ *
+ * @param <T> the type of the result of the build stage
+ */
+public class MapLoadTask<T> extends Task<T> {
+    private static final ExecutorService EXECUTOR = Executors.newSingleThreadExecutor(runnable -> {
+        final Thread thread = new Thread(runnable, "MapLoader");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private static final int STAGES = 2;
+
+    private final @Nullable String mapName;
+    private final String buildMessage;
+    private final Function<HexGrid, T> build;
+
+    /**
+     * Creates a new task. It has to be {@link #start() started}.
+     *
+     * @param mapName      the name of the saved map or {@code null} to build
+     *                     from an empty grid
+     * @param buildMessage the message shown while the build stage runs
+     * @param build        the build stage
+     */
+    public MapLoadTask(final @Nullable String mapName, final String buildMessage,
+            final Function<HexGrid, T> build) {
+        this.mapName = mapName;
+        this.buildMessage = buildMessage;
+        this.build = build;
+    }
+
+    /**
+     * Runs the task on the background thread.
+     *
+     * @return this task
+     */
+    public MapLoadTask<T> start() {
+        EXECUTOR.execute(this);
+        return this;
+    }
+
+    @Override
+    protected @Nullable T call() {
+        updateProgress(0, STAGES);
+        updateMessage(mapName == null ? "Creating map..." : "Loading map " + mapName + "...");
+        final HexGrid grid = mapName == null ? new HexGridImpl() : MapSaveController.loadMap(mapName);
+        if (grid == null) {
+            throw new IllegalStateException("Map " + mapName + " doesn't exist");
+        }
+        if (isCancelled()) {
+            return null;
+        }
+
+        updateProgress(1, STAGES);
+        updateMessage(buildMessage);
+        final T result = build.apply(grid);
+        if (isCancelled()) {
+            return null;
+        }
+        updateProgress(STAGES, STAGES);
+        return result;
+    }
+
+    @Override
+    protected void failed() {
+        System.out.println("Couldn't load map " + mapName + ": " + getException().getMessage());
+    }
+}
@@ -13,6 +13,7 @@ import hProjekt.controller.AmuletAction;
 import hProjekt.controller.GameController;
 import hProjekt.controller.PlayerController;
 import hProjekt.controller.PlayerObjective;
+import hProjekt.controller.TreasureCollectionTracker;
 import hProjekt.controller.actions.AcceptCurse;
 import hProjekt.controller.actions.AcceptTreasure;
 import hProjekt.controller.actions.CollectAmulet;
@@ -513,7 +514,8 @@ public class PlayerActionsController {
     /**
      * Prompts the user to accept or decline an offered treasure card by displaying
      * the {@link ConfirmationOverlay}. The offered treasure card is set in the
-     * overlay.
+     * overlay, together with the probability that a curse is among the cards
+     * that would be offered next.
      * <p>
      * The {@link AcceptTreasure} action is triggered based on the user's choice.
      */
@@ -524,7 +526,12 @@ public class PlayerActionsController {
         confirmationOverlay.setNoButtonAction("Decline treasure",
                 () -> getPlayerController().triggerAction(new AcceptTreasure(false)));
         confirmationOverlay.setTreasureCards(List.of(getPlayerState().offeredCard()));
-        confirmationOverlay.setMessage("You have been offered a treasure card.\nDo you want to accept it?");
+        final TreasureCollectionTracker tracker = getPlayerController().getGameController()
+                .getTreasureCollectionTracker();
+        confirmationOverlay.setMessage(String.format(
+                "You have been offered a treasure card.\nCurse risk of the remaining cards: %.0f%%"
+                        + "\nDo you want to accept it?",
+                100 * tracker.getCurseRiskAfterOffer()));
         gameBoardController.showConfirmationOverlay();
     }
 
@@ -1,10 +1,10 @@
 package hProjekt.controller.gui.mapEditor;
 
 import hProjekt.controller.MapSaveController;
+import hProjekt.controller.gui.MapLoadTask;
 import hProjekt.controller.gui.SceneController;
 import hProjekt.controller.gui.SceneSwitcher;
 import hProjekt.model.grid.HexGrid;
-import hProjekt.model.grid.HexGridImpl;
 import hProjekt.view.mapEditor.MapSelection;
 import javafx.beans.property.BooleanProperty;
 import javafx.beans.property.SimpleBooleanProperty;
@@ -49,34 +49,29 @@ public class MapSelectionController implements SceneController {
      * <ul>
      * <li>Validates if a map is selected or if the "create new map" flag is
      * set.</li>
-     * <li>If creating a new map, initializes an empty {@link HexGrid}.</li>
-     * <li>If loading an existing map, attempts to load the grid data using
-     * {@link MapSaveController}.</li>
+     * <li>Starts a {@link MapLoadTask} that, off the JavaFX application thread,
+     * initializes an empty {@link HexGrid} if creating a new map or loads the
+     * grid data using {@link MapSaveController} otherwise, and then builds the
+     * {@link MapEditorController} with its view.</li>
      * <li>If successful, switches the scene to the
      * {@link MapEditorController}.</li>
      * </ul>
+     * The progress of the task is shown by the view, which also reports if
+     * loading fails.
      *
-     * @return A string containing an error message if the selection is invalid or
-     *         loading fails;
-     *         {@code null} if the operation was successful.
+     * @return A string containing an error message if the selection is invalid;
+     *         {@code null} if loading was started.
      */
     private String selectAction() {
         if (selectedMap.getValueSafe().isBlank() && !createMap.get()) {
             return "No map selected!";
         }
 
-        final HexGrid grid;
-
-        if (createMap.get()) {
-            grid = new HexGridImpl();
-        } else {
-            grid = MapSaveController.loadMap(selectedMap.get());
-            if (grid == null) {
-                return "Could not load map!";
-            }
-        }
-
-        SceneSwitcher.getInstance().loadScene(new MapEditorController(grid, selectedMap.get()));
+        final String mapName = selectedMap.get();
+        final MapLoadTask<MapEditorController> task = new MapLoadTask<>(createMap.get() ? null : mapName,
+                "Building the editor...", grid -> new MapEditorController(grid, mapName));
+        task.setOnSucceeded(event -> SceneSwitcher.getInstance().loadScene(task.getValue()));
+        mapSelection.showLoading(task.start(), "Could not load map!");
 
         return null;
     }
@@ -1,9 +1,12 @@
 package hProjekt.controller.gui.menus;
 
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
 import java.util.List;
 
 import hProjekt.controller.GameController;
 import hProjekt.controller.LeaderboardController;
+import hProjekt.controller.SaveGameController;
 import hProjekt.controller.gui.SceneController;
 import hProjekt.model.Player;
 import hProjekt.view.menus.EndScreenBuilder;
@@ -14,20 +17,28 @@ import javafx.util.Builder;
  * The controller for the end screen scene.
  */
 public class EndScreenSceneController implements SceneController {
+    private static final DateTimeFormatter SAVE_NAME_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd_HH-mm-ss");
 
     private final Builder<Region> builder;
 
     /**
      * Creates a new end screen scene controller.
-     * Saves the data of all the players to the leaderboard.
+     * Saves the data of all the players to the leaderboard. A game that was
+     * stopped before it ended can be saved from the end screen and resumed in
+     * the setup menu later.
      *
-     * @param players the players to display on the end screen
+     * @param players        the players to display on the end screen
+     * @param gameController the controller of the game
      */
     public EndScreenSceneController(final List<Player> players, final GameController gameController) {
         for (final Player player : players) {
             LeaderboardController.savePlayerData(player.getName(), player.getTotalGoldCardValue(), player.isAi());
         }
-        builder = new EndScreenBuilder(SceneController::loadMainMenuScene, players);
+        final boolean canSave = gameController.getState().getWinnerProperty().getValue() == null
+                && gameController.getCheckpoint() != null;
+        builder = new EndScreenBuilder(SceneController::loadMainMenuScene, players, canSave
+                ? () -> SaveGameController.saveGame(gameController, SAVE_NAME_FORMAT.format(LocalDateTime.now()))
+                : null);
 
         gameController.stop();
     }
@@ -3,8 +3,12 @@ package hProjekt.controller.gui.menus;
 import java.util.List;
 
 import hProjekt.Config;
+import hProjekt.controller.GameSetup;
 import hProjekt.controller.MapSaveController;
+import hProjekt.controller.SaveGameController;
+import hProjekt.controller.gui.MapLoadTask;
 import hProjekt.controller.gui.SceneController;
+import hProjekt.controller.io.SaveGameCodec;
 import hProjekt.model.GameState;
 import hProjekt.model.PlayerImpl;
 import hProjekt.model.grid.HexGrid;
@@ -35,34 +39,94 @@ public class SetupGameSceneController implements SceneController {
         final List<String> availableMaps = MapSaveController.getSavedMaps();
 
         builder = new SetupGameBuilder(SceneController::loadMainMenuScene, playerBuilderList, this::startGameHandler,
-                selectedMap, availableMaps);
+                selectedMap, availableMaps, SaveGameController.getSavedGames(), this::resumeGameHandler);
     }
 
     /**
      * The handler for the start game button.
      * <p>
      * Tries to start the game with the current players. If there are not enough
-     * players, the game will not start.
+     * players or no map is selected, the game will not start.
+     * <p>
+     * The map is loaded by a {@link MapLoadTask}, whose progress is shown by the
+     * view. Once it is loaded, the players are added and the game scene is
+     * loaded on the JavaFX application thread. The name of the map reaches the
+     * game with a {@link GameSetup} attached to the grid, which also lets the
+     * game be recorded.
      *
-     * @return true if the game was started, false if not
+     * @return true if the game is loading, false if not
      */
     private boolean startGameHandler() {
         if (playerBuilderList.size() < Config.MIN_PLAYERS || playerBuilderList.size() > Config.MAX_PLAYERS) {
             return false;
         }
-        final HexGrid grid = MapSaveController.loadMap(selectedMap.get());
-        if (grid == null) {
+        final String mapName = selectedMap.get();
+        if (mapName == null || mapName.isBlank()) {
             return false;
         }
-        playerBuilderList.forEach(p -> gameState.addPlayer(p.build(gameState.getGrid())));
+        final MapLoadTask<HexGrid> task = new MapLoadTask<>(mapName, "Preparing the game...", grid -> grid);
+        task.setOnSucceeded(event -> {
+            playerBuilderList.forEach(p -> gameState.addPlayer(p.build(gameState.getGrid())));
+
+            System.out.println("Selected map: " + mapName);
+            newSetup(mapName).attachTo(task.getValue());
+            gameState.setGrid(task.getValue());
+
+            SceneController.loadGameScene();
+        });
+        builder.showLoading(task.start(), "Could not load map!");
+        return true;
+    }
 
-        System.out.println("Selected map: " + selectedMap.get());
-        gameState.setGrid(grid);
+    /**
+     * The handler for the resume game button.
+     * <p>
+     * Reads the saved game and loads its map by a {@link MapLoadTask}, like
+     * {@link #startGameHandler()}. Once the map is loaded, the saved game is
+     * restored into the game state and the game scene is loaded, which resumes
+     * the game at the saved turn.
+     *
+     * @param saveName the name of the saved game
+     * @return true if the game is loading, false if the save or its map doesn't
+     *         exist
+     */
+    private boolean resumeGameHandler(final String saveName) {
+        final SaveGameCodec.SaveGame save;
+        try {
+            save = SaveGameController.readSave(saveName);
+        } catch (final RuntimeException e) {
+            System.out.println(e.getMessage());
+            e.printStackTrace();
+            return false;
+        }
+        final String mapName = save == null ? null : SaveGameController.findMap(save);
+        if (mapName == null) {
+            return false;
+        }
+        final MapLoadTask<HexGrid> task = new MapLoadTask<>(mapName, "Restoring the game...", grid -> grid);
+        task.setOnSucceeded(event -> {
+            System.out.println("Resuming saved game: " + saveName);
+            SaveGameController.resumeGame(save, newSetup(mapName), task.getValue(), gameState);
 
-        SceneController.loadGameScene();
+            SceneController.loadGameScene();
+        });
+        builder.showLoading(task.start(), "Could not load the saved game!");
         return true;
     }
 
+    /**
+     * Returns the setup of a game started or resumed in this menu. The game is
+     * recorded and, if {@link Config#SERVE_GAMES} is set, served to the remote
+     * players {@link Config#REMOTE_PLAYER_IDS}.
+     *
+     * @param mapName the name of the map the game is played on
+     * @return the setup
+     */
+    private static GameSetup newSetup(final String mapName) {
+        final GameSetup setup = GameSetup.recorded(mapName);
+        return Config.SERVE_GAMES ? setup.servedTo(Config.REMOTE_PLAYER_IDS) : setup;
+    }
+
     @Override
     public String getTitle() {
         return "Setup Game";
@@ -0,0 +1,168 @@
+package hProjekt.controller.io;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Reads compact binary data written by a {@link BinaryWriter} from a
+ * {@link ByteBuffer}.
+ * <p>
+ * The reader does not copy the buffer, so it works on heap buffers as well as
+ * on direct or memory mapped ones. Reading past the end of the buffer throws a
+ * {@link BufferUnderflowException}.
+ *
+ * @see BinaryWriter
+ */
+public class BinaryReader {
+    private final ByteBuffer buffer;
+
+    /**
+     * Creates a new reader that reads from the current position of the given
+     * buffer.
+     *
+     * @param buffer the buffer to read from
+     */
+    public BinaryReader(final ByteBuffer buffer) {
+        this.buffer = buffer;
+    }
+
+    /**
+     * Creates a new reader for the given bytes.
+     *
+     * @param bytes the bytes to read from
+     */
+    public BinaryReader(final byte[] bytes) {
+        this(ByteBuffer.wrap(bytes));
+    }
+
+    /**
+     * Returns the underlying buffer.
+     *
+     * @return the underlying buffer
+     */
+    public ByteBuffer buffer() {
+        return buffer;
+    }
+
+    /**
+     * Returns the number of bytes left to read.
+     *
+     * @return the number of bytes left to read
+     */
+    public int remaining() {
+        return buffer.remaining();
+    }
+
+    /**
+     * Returns whether there are bytes left to read.
+     *
+     * @return {@code true} if there are bytes left to read
+     */
+    public boolean hasRemaining() {
+        return buffer.hasRemaining();
+    }
+
+    /**
+     * Reads a single unsigned byte.
+     *
+     * @return the byte as a value between 0 and 255
+     */
+    public int readByte() {
+        return buffer.get() & 0xFF;
+    }
+
+    /**
+     * Reads a boolean written by {@link BinaryWriter#writeBoolean(boolean)}.
+     *
+     * @return the read boolean
+     */
+    public boolean readBoolean() {
+        return readByte() != 0;
+    }
+
+    /**
+     * Reads four bytes in big endian order.
+     *
+     * @return the read int
+     */
+    public int readInt() {
+        return buffer.getInt();
+    }
+
+    /**
+     * Reads eight bytes in big endian order.
+     *
+     * @return the read long
+     */
+    public long readLong() {
+        return buffer.getLong();
+    }
+
+    /**
+     * Reads an unsigned variable length integer.
+     *
+     * @return the read int
+     * @throws IllegalStateException if the encoded value does not fit into an int
+     */
+    public int readVarInt() {
+        final long value = readVarLong();
+        if (value >>> 32 != 0) {
+            throw new IllegalStateException("Variable length integer is too long");
+        }
+        return (int) value;
+    }
+
+    /**
+     * Reads a zigzag encoded variable length integer.
+     *
+     * @return the read int
+     */
+    public int readSignedVarInt() {
+        final int value = readVarInt();
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    /**
+     * Reads an unsigned variable length long.
+     *
+     * @return the read long
+     * @throws IllegalStateException if the encoded value is longer than ten bytes
+     */
+    public long readVarLong() {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            final int b = readByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IllegalStateException("Variable length integer is too long");
+    }
+
+    /**
+     * Reads the given number of bytes.
+     *
+     * @param length the number of bytes to read
+     * @return a new array containing the read bytes
+     * @throws BufferUnderflowException if fewer bytes are left than requested
+     */
+    public byte[] readBytes(final int length) {
+        if (length < 0 || length > buffer.remaining()) {
+            throw new BufferUnderflowException();
+        }
+        final byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return bytes;
+    }
+
+    /**
+     * Reads a string written by {@link BinaryWriter#writeString(String)}.
+     *
+     * @return the read string
+     */
+    public String readString() {
+        return new String(readBytes(readVarInt()), StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,218 @@
+package hProjekt.controller.io;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * A growable byte buffer to write compact binary data into.
+ * <p>
+ * Besides fixed width big endian values it supports variable length integers
+ * (LEB128), which store small numbers like coordinates, counts and ordinals in a
+ * single byte.
+ *
+ * @see BinaryReader
+ */
+public class BinaryWriter {
+    private byte[] buffer;
+    private int size = 0;
+
+    /**
+     * Creates a new writer with a small initial capacity.
+     */
+    public BinaryWriter() {
+        this(64);
+    }
+
+    /**
+     * Creates a new writer with the given initial capacity.
+     *
+     * @param capacity the initial capacity in bytes
+     */
+    public BinaryWriter(final int capacity) {
+        buffer = new byte[Math.max(capacity, 16)];
+    }
+
+    /**
+     * Makes sure that at least the given number of bytes can be appended.
+     *
+     * @param additional the number of bytes to be appended
+     */
+    private void ensureCapacity(final int additional) {
+        if (size + additional > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, size + additional));
+        }
+    }
+
+    /**
+     * Writes the lowest 8 bits of the given value.
+     *
+     * @param value the value to write
+     * @return this writer
+     */
+    public BinaryWriter writeByte(final int value) {
+        ensureCapacity(1);
+        buffer[size++] = (byte) value;
+        return this;
+    }
+
+    /**
+     * Writes the given boolean as a single byte.
+     *
+     * @param value the value to write
+     * @return this writer
+     */
+    public BinaryWriter writeBoolean(final boolean value) {
+        return writeByte(value ? 1 : 0);
+    }
+
+    /**
+     * Writes the given value as four bytes in big endian order.
+     *
+     * @param value the value to write
+     * @return this writer
+     */
+    public BinaryWriter writeInt(final int value) {
+        ensureCapacity(4);
+        setInt(size, value);
+        size += 4;
+        return this;
+    }
+
+    /**
+     * Writes the given value as eight bytes in big endian order.
+     *
+     * @param value the value to write
+     * @return this writer
+     */
+    public BinaryWriter writeLong(final long value) {
+        writeInt((int) (value >>> 32));
+        return writeInt((int) value);
+    }
+
+    /**
+     * Writes the given value as an unsigned variable length integer. Values below
+     * 128 take a single byte.
+     *
+     * @param value the value to write, interpreted as unsigned
+     * @return this writer
+     */
+    public BinaryWriter writeVarInt(final int value) {
+        return writeVarLong(value & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Writes the given value as a zigzag encoded variable length integer. Values
+     * between -64 and 63 take a single byte.
+     *
+     * @param value the value to write
+     * @return this writer
+     */
+    public BinaryWriter writeSignedVarInt(final int value) {
+        return writeVarInt((value << 1) ^ (value >> 31));
+    }
+
+    /**
+     * Writes the given value as an unsigned variable length long.
+     *
+     * @param value the value to write, interpreted as unsigned
+     * @return this writer
+     */
+    public BinaryWriter writeVarLong(long value) {
+        ensureCapacity(10);
+        while ((value & ~0x7FL) != 0) {
+            buffer[size++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        buffer[size++] = (byte) value;
+        return this;
+    }
+
+    /**
+     * Writes the given bytes.
+     *
+     * @param bytes  the array containing the bytes
+     * @param offset the index of the first byte to write
+     * @param length the number of bytes to write
+     * @return this writer
+     */
+    public BinaryWriter writeBytes(final byte[] bytes, final int offset, final int length) {
+        ensureCapacity(length);
+        System.arraycopy(bytes, offset, buffer, size, length);
+        size += length;
+        return this;
+    }
+
+    /**
+     * Writes the given string as its UTF-8 length followed by its UTF-8 bytes.
+     *
+     * @param value the string to write
+     * @return this writer
+     */
+    public BinaryWriter writeString(final String value) {
+        final byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarInt(bytes.length);
+        return writeBytes(bytes, 0, bytes.length);
+    }
+
+    /**
+     * Overwrites four already written bytes at the given index with the given
+     * value in big endian order. Can be used to fill in a length prefix.
+     *
+     * @param index the index of the first byte to overwrite
+     * @param value the value to write
+     */
+    public void setInt(final int index, final int value) {
+        buffer[index] = (byte) (value >>> 24);
+        buffer[index + 1] = (byte) (value >>> 16);
+        buffer[index + 2] = (byte) (value >>> 8);
+        buffer[index + 3] = (byte) value;
+    }
+
+    /**
+     * Returns the number of bytes written so far.
+     *
+     * @return the number of bytes written so far
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Discards all written bytes so the writer can be reused.
+     */
+    public void reset() {
+        size = 0;
+    }
+
+    /**
+     * Returns a copy of the written bytes.
+     *
+     * @return a copy of the written bytes
+     */
+    public byte[] toByteArray() {
+        return Arrays.copyOf(buffer, size);
+    }
+
+    /**
+     * Returns a new {@link ByteBuffer} containing a copy of the written bytes,
+     * ready to be read.
+     *
+     * @return a new {@link ByteBuffer} containing the written bytes
+     */
+    public ByteBuffer toByteBuffer() {
+        return ByteBuffer.wrap(toByteArray());
+    }
+
+    /**
+     * Writes all written bytes to the given stream.
+     *
+     * @param out the stream to write to
+     * @throws IOException if writing to the stream fails
+     */
+    public void writeTo(final OutputStream out) throws IOException {
+        out.write(buffer, 0, size);
+    }
+}
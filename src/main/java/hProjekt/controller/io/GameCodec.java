@@ -0,0 +1,617 @@
+package hProjekt.controller.io;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+import org.jetbrains.annotations.Nullable;
+
+import hProjekt.Config;
+import hProjekt.controller.AmuletAction;
+import hProjekt.controller.PlayerObjective;
+import hProjekt.controller.actions.AcceptCurse;
+import hProjekt.controller.actions.AcceptTreasure;
+import hProjekt.controller.actions.CollectAmulet;
+import hProjekt.controller.actions.CollectTreasure;
+import hProjekt.controller.actions.ConfirmTreasureCards;
+import hProjekt.controller.actions.DrawTreasureCards;
+import hProjekt.controller.actions.DriveAction;
+import hProjekt.controller.actions.EndTurn;
+import hProjekt.controller.actions.IllegalActionException;
+import hProjekt.controller.actions.PlayPathCard;
+import hProjekt.controller.actions.PlayerAction;
+import hProjekt.controller.actions.SelectPosition;
+import hProjekt.controller.actions.SelectTileToRemove;
+import hProjekt.controller.actions.StartDrive;
+import hProjekt.controller.actions.UseAmulet;
+import hProjekt.model.PlayerState;
+import hProjekt.model.cards.CardType;
+import hProjekt.model.cards.CurseCard;
+import hProjekt.model.cards.GoldCard;
+import hProjekt.model.cards.PathCard;
+import hProjekt.model.cards.PathCardKey;
+import hProjekt.model.cards.TreasureCard;
+import hProjekt.model.grid.HexGrid;
+import hProjekt.model.grid.Structure;
+import hProjekt.model.grid.Tile;
+import hProjekt.model.grid.TilePosition;
+import hProjekt.model.grid.Types;
+import javafx.scene.paint.Color;
+
+/**
+ * Encodes and decodes game values into a compact binary form.
+ * <p>
+ * Positions, counts and ordinals are written as variable length integers, so
+ * most values take a single byte. Treasure trails are referenced by their index
+ * in {@link Config#TREASURE_TRAIL_COLORS} and {@link PathCard}s by their
+ * {@link PathCardKey}.
+ */
+public class GameCodec {
+    private static final int CARD_REMOVE_TILE = 0xFF;
+
+    private static final int TREASURE_NONE = 0;
+    private static final int TREASURE_CURSE = 1;
+    private static final int TREASURE_GOLD = 2;
+
+    private static final int DELTA_OBJECTIVE = 1;
+    private static final int DELTA_DRAWN_CARDS = 1 << 1;
+    private static final int DELTA_DRIVABLE_TILES = 1 << 2;
+    private static final int DELTA_OFFERED_CARD = 1 << 3;
+    private static final int DELTA_VALID_PATH_CARDS = 1 << 4;
+    private static final int DELTA_COLLECTABLE_TREASURES = 1 << 5;
+
+    private static final int ACTION_ACCEPT_CURSE = 0;
+    private static final int ACTION_ACCEPT_TREASURE = 1;
+    private static final int ACTION_COLLECT_AMULET = 2;
+    private static final int ACTION_COLLECT_TREASURE = 3;
+    private static final int ACTION_CONFIRM_TREASURE_CARDS = 4;
+    private static final int ACTION_DRAW_TREASURE_CARDS = 5;
+    private static final int ACTION_DRIVE = 6;
+    private static final int ACTION_END_TURN = 7;
+    private static final int ACTION_PLAY_PATH_CARD = 8;
+    private static final int ACTION_SELECT_POSITION = 9;
+    private static final int ACTION_SELECT_TILE_TO_REMOVE = 10;
+    private static final int ACTION_START_DRIVE = 11;
+    private static final int ACTION_USE_AMULET = 12;
+
+    // Values
+
+    /**
+     * Writes the given position as two zigzag encoded variable length integers.
+     *
+     * @param out      the writer to write to
+     * @param position the position to write
+     */
+    public static void writePosition(final BinaryWriter out, final TilePosition position) {
+        out.writeSignedVarInt(position.q()).writeSignedVarInt(position.r());
+    }
+
+    /**
+     * Reads a position written by {@link #writePosition(BinaryWriter, TilePosition)}.
+     *
+     * @param in the reader to read from
+     * @return the read position
+     */
+    public static TilePosition readPosition(final BinaryReader in) {
+        final int q = in.readSignedVarInt();
+        return new TilePosition(q, in.readSignedVarInt());
+    }
+
+    /**
+     * Writes the index of the given treasure trail color.
+     *
+     * @param out   the writer to write to
+     * @param color the color of the treasure trail
+     * @throws IllegalArgumentException if the color is not a treasure trail color
+     */
+    public static void writeTrailColor(final BinaryWriter out, final Color color) {
+        final int index = Config.TREASURE_TRAIL_COLORS.indexOf(color);
+        if (index < 0) {
+            throw new IllegalArgumentException("Not a treasure trail color: " + color);
+        }
+        out.writeByte(index);
+    }
+
+    /**
+     * Reads a treasure trail color written by
+     * {@link #writeTrailColor(BinaryWriter, Color)}.
+     *
+     * @param in the reader to read from
+     * @return the color of the treasure trail
+     * @throws IllegalArgumentException if the index is out of range
+     */
+    public static Color readTrailColor(final BinaryReader in) {
+        final int index = in.readByte();
+        if (index >= Config.TREASURE_TRAIL_COLORS.size()) {
+            throw new IllegalArgumentException("Invalid treasure trail index: " + index);
+        }
+        return Config.TREASURE_TRAIL_COLORS.get(index);
+    }
+
+    /**
+     * Writes the given color as its red, green, blue and opacity components.
+     *
+     * @param out   the writer to write to
+     * @param color the color to write
+     */
+    public static void writeColor(final BinaryWriter out, final Color color) {
+        out.writeLong(Double.doubleToLongBits(color.getRed()));
+        out.writeLong(Double.doubleToLongBits(color.getGreen()));
+        out.writeLong(Double.doubleToLongBits(color.getBlue()));
+        out.writeLong(Double.doubleToLongBits(color.getOpacity()));
+    }
+
+    /**
+     * Reads a color written by {@link #writeColor(BinaryWriter, Color)}.
+     *
+     * @param in the reader to read from
+     * @return the read color
+     */
+    public static Color readColor(final BinaryReader in) {
+        final double red = Double.longBitsToDouble(in.readLong());
+        final double green = Double.longBitsToDouble(in.readLong());
+        final double blue = Double.longBitsToDouble(in.readLong());
+        return new Color(red, green, blue, Double.longBitsToDouble(in.readLong()));
+    }
+
+    /**
+     * Returns the ordinal of the given type in the combined space of all
+     * {@link Types}: {@code 0} for the ocean ({@code null}), followed by all
+     * {@link Tile.Type}s and all {@link Structure.Type}s.
+     *
+     * @param type the type, can be null (null is the ocean)
+     * @return the combined ordinal of the type
+     */
+    public static int typeOrdinal(@Nullable final Types type) {
+        if (type == null) {
+            return 0;
+        }
+        if (type instanceof final Tile.Type tileType) {
+            return 1 + tileType.ordinal();
+        }
+        return 1 + Tile.Type.values().length + ((Structure.Type) type).ordinal();
+    }
+
+    /**
+     * Returns the type with the given combined ordinal.
+     *
+     * @param ordinal the combined ordinal as returned by
+     *                {@link #typeOrdinal(Types)}
+     * @return the type, can be null (null is the ocean)
+     * @throws IllegalArgumentException if the ordinal is out of range
+     */
+    public static @Nullable Types typeFromOrdinal(final int ordinal) {
+        final int tileTypes = Tile.Type.values().length;
+        if (ordinal == 0) {
+            return null;
+        }
+        if (ordinal <= tileTypes) {
+            return Tile.Type.values()[ordinal - 1];
+        }
+        if (ordinal <= tileTypes + Structure.Type.values().length) {
+            return Structure.Type.values()[ordinal - 1 - tileTypes];
+        }
+        throw new IllegalArgumentException("Invalid type ordinal: " + ordinal);
+    }
+
+    /**
+     * Writes the given path card key.
+     *
+     * @param out the writer to write to
+     * @param key the key to write
+     */
+    public static void writePathCard(final BinaryWriter out, final PathCardKey key) {
+        if (key.removedTile() != null) {
+            out.writeByte(CARD_REMOVE_TILE);
+            writePosition(out, key.removedTile());
+            return;
+        }
+        out.writeByte(key.type().ordinal());
+        out.writeVarInt(key.ownerId());
+        out.writeByte(typeOrdinal(key.filterType()));
+    }
+
+    /**
+     * Reads a path card key written by
+     * {@link #writePathCard(BinaryWriter, PathCardKey)}.
+     *
+     * @param in the reader to read from
+     * @return the read key
+     * @throws IllegalArgumentException if the card type is invalid
+     */
+    public static PathCardKey readPathCard(final BinaryReader in) {
+        final int kind = in.readByte();
+        if (kind == CARD_REMOVE_TILE) {
+            return new PathCardKey(0, null, null, readPosition(in));
+        }
+        if (kind >= CardType.values().length) {
+            throw new IllegalArgumentException("Invalid card type: " + kind);
+        }
+        final int ownerId = in.readVarInt();
+        return new PathCardKey(ownerId, CardType.values()[kind], typeFromOrdinal(in.readByte()), null);
+    }
+
+    /**
+     * Writes the given treasure card in a single byte.
+     *
+     * @param out  the writer to write to
+     * @param card the card to write, can be null
+     */
+    public static void writeTreasureCard(final BinaryWriter out, @Nullable final TreasureCard card) {
+        if (card == null) {
+            out.writeByte(TREASURE_NONE);
+        } else if (card instanceof final GoldCard goldCard) {
+            out.writeByte(TREASURE_GOLD + goldCard.value());
+        } else {
+            out.writeByte(TREASURE_CURSE);
+        }
+    }
+
+    /**
+     * Reads a treasure card written by
+     * {@link #writeTreasureCard(BinaryWriter, TreasureCard)}.
+     *
+     * @param in the reader to read from
+     * @return the read card, can be null
+     */
+    public static @Nullable TreasureCard readTreasureCard(final BinaryReader in) {
+        final int value = in.readByte();
+        return switch (value) {
+            case TREASURE_NONE -> null;
+            case TREASURE_CURSE -> new CurseCard();
+            default -> new GoldCard(value - TREASURE_GOLD);
+        };
+    }
+
+    // Actions
+
+    /**
+     * Writes the given action as an opcode followed by its parameters.
+     *
+     * @param out    the writer to write to
+     * @param action the action to write
+     * @throws IllegalArgumentException if the action type is unknown
+     */
+    public static void writeAction(final BinaryWriter out, final PlayerAction action) {
+        if (action instanceof AcceptCurse) {
+            out.writeByte(ACTION_ACCEPT_CURSE);
+        } else if (action instanceof final AcceptTreasure acceptTreasure) {
+            out.writeByte(ACTION_ACCEPT_TREASURE).writeBoolean(acceptTreasure.accept());
+        } else if (action instanceof CollectAmulet) {
+            out.writeByte(ACTION_COLLECT_AMULET);
+        } else if (action instanceof final CollectTreasure collectTreasure) {
+            out.writeByte(ACTION_COLLECT_TREASURE);
+            writeTrailColor(out, collectTreasure.trailColor());
+        } else if (action instanceof ConfirmTreasureCards) {
+            out.writeByte(ACTION_CONFIRM_TREASURE_CARDS);
+        } else if (action instanceof DrawTreasureCards) {
+            out.writeByte(ACTION_DRAW_TREASURE_CARDS);
+        } else if (action instanceof final DriveAction driveAction) {
+            out.writeByte(ACTION_DRIVE);
+            writePosition(out, driveAction.targetTile().getPosition());
+        } else if (action instanceof EndTurn) {
+            out.writeByte(ACTION_END_TURN);
+        } else if (action instanceof final PlayPathCard playPathCard) {
+            out.writeByte(ACTION_PLAY_PATH_CARD);
+            writePathCard(out, PathCardKey.of(playPathCard.pathCard()));
+            writeTrailColor(out, playPathCard.pathColor());
+        } else if (action instanceof final SelectPosition selectPosition) {
+            out.writeByte(ACTION_SELECT_POSITION);
+            writePosition(out, selectPosition.position());
+        } else if (action instanceof final SelectTileToRemove selectTileToRemove) {
+            out.writeByte(ACTION_SELECT_TILE_TO_REMOVE);
+            writePosition(out, selectTileToRemove.tilePosition());
+            writeTrailColor(out, selectTileToRemove.color());
+        } else if (action instanceof StartDrive) {
+            out.writeByte(ACTION_START_DRIVE);
+        } else if (action instanceof final UseAmulet useAmulet) {
+            out.writeByte(ACTION_USE_AMULET).writeByte(useAmulet.amuletAction().ordinal());
+        } else {
+            throw new IllegalArgumentException("Unknown action: " + action);
+        }
+    }
+
+    /**
+     * Reads an action written by {@link #writeAction(BinaryWriter, PlayerAction)}.
+     * <p>
+     * Tiles are resolved on the given grid. A {@link PlayPathCard} refers to a card
+     * of the player, which is resolved from the given candidate cards.
+     *
+     * @param in    the reader to read from
+     * @param grid  the grid to resolve tiles on
+     * @param cards the cards a {@link PlayPathCard} may refer to
+     * @return the read action
+     * @throws IllegalActionException   if the action refers to a tile or card that
+     *                                  does not exist
+     * @throws IllegalArgumentException if the encoding is malformed
+     */
+    public static PlayerAction readAction(final BinaryReader in, final HexGrid grid,
+            final Collection<PathCard> cards) throws IllegalActionException {
+        final int opcode = in.readByte();
+        return switch (opcode) {
+            case ACTION_ACCEPT_CURSE -> new AcceptCurse();
+            case ACTION_ACCEPT_TREASURE -> new AcceptTreasure(in.readBoolean());
+            case ACTION_COLLECT_AMULET -> new CollectAmulet();
+            case ACTION_COLLECT_TREASURE -> new CollectTreasure(readTrailColor(in));
+            case ACTION_CONFIRM_TREASURE_CARDS -> new ConfirmTreasureCards();
+            case ACTION_DRAW_TREASURE_CARDS -> new DrawTreasureCards();
+            case ACTION_DRIVE -> {
+                final TilePosition position = readPosition(in);
+                final Tile tile = grid.getTileAt(position);
+                if (tile == null) {
+                    throw new IllegalActionException("No tile at " + position);
+                }
+                yield new DriveAction(tile);
+            }
+            case ACTION_END_TURN -> new EndTurn();
+            case ACTION_PLAY_PATH_CARD -> {
+                final PathCardKey key = readPathCard(in);
+                final Color color = readTrailColor(in);
+                final PathCard card = cards.stream()
+                        .filter(key::matches)
+                        .findFirst()
+                        .orElseThrow(() -> new IllegalActionException("Unknown path card: " + key));
+                yield new PlayPathCard(card, color);
+            }
+            case ACTION_SELECT_POSITION -> new SelectPosition(readPosition(in));
+            case ACTION_SELECT_TILE_TO_REMOVE -> {
+                final TilePosition position = readPosition(in);
+                yield new SelectTileToRemove(position, readTrailColor(in));
+            }
+            case ACTION_START_DRIVE -> new StartDrive();
+            case ACTION_USE_AMULET -> {
+                final int ordinal = in.readByte();
+                if (ordinal >= AmuletAction.values().length) {
+                    throw new IllegalArgumentException("Invalid amulet action: " + ordinal);
+                }
+                yield new UseAmulet(AmuletAction.values()[ordinal]);
+            }
+            default -> throw new IllegalArgumentException("Invalid action opcode: " + opcode);
+        };
+    }
+
+    // Player state
+
+    /**
+     * Writes the given player state. Tiles are written as their positions and
+     * cards as their keys.
+     *
+     * @param out   the writer to write to
+     * @param state the state to write
+     */
+    public static void writePlayerState(final BinaryWriter out, final PlayerState state) {
+        writePlayerState(out, RemotePlayerState.of(state));
+    }
+
+    /**
+     * Writes the given remote player state.
+     *
+     * @param out   the writer to write to
+     * @param state the state to write
+     */
+    public static void writePlayerState(final BinaryWriter out, final RemotePlayerState state) {
+        out.writeByte(state.playerObjective().ordinal());
+        writeTreasureCards(out, state.drawnTreasureCards());
+        writePositions(out, state.drivableTiles());
+        writeTreasureCard(out, state.offeredCard());
+        writeValidPathCards(out, state.validPathCards());
+        out.writeByte(trailMask(state.collectableTreasures()));
+    }
+
+    /**
+     * Reads a player state written by
+     * {@link #writePlayerState(BinaryWriter, PlayerState)}.
+     *
+     * @param in the reader to read from
+     * @return the read state
+     * @throws IllegalArgumentException if the encoding is malformed
+     */
+    public static RemotePlayerState readPlayerState(final BinaryReader in) {
+        final PlayerObjective objective = readObjective(in);
+        final List<TreasureCard> drawnTreasureCards = readTreasureCards(in);
+        final Set<TilePosition> drivableTiles = readPositions(in);
+        final TreasureCard offeredCard = readTreasureCard(in);
+        final Map<Color, List<PathCardKey>> validPathCards = readValidPathCards(in);
+        return new RemotePlayerState(objective, drawnTreasureCards, drivableTiles, offeredCard, validPathCards,
+                trailsFromMask(in.readByte()));
+    }
+
+    /**
+     * Writes the changes between two player states. Drivable tiles are written as
+     * the positions that were removed and added, all other components are only
+     * written if they changed. A leading flag byte marks the written components.
+     *
+     * @param out  the writer to write to
+     * @param from the state known to the reader
+     * @param to   the new state
+     */
+    public static void writePlayerStateDelta(final BinaryWriter out, final RemotePlayerState from,
+            final RemotePlayerState to) {
+        int flags = 0;
+        if (from.playerObjective() != to.playerObjective()) {
+            flags |= DELTA_OBJECTIVE;
+        }
+        if (!from.drawnTreasureCards().equals(to.drawnTreasureCards())) {
+            flags |= DELTA_DRAWN_CARDS;
+        }
+        if (!from.drivableTiles().equals(to.drivableTiles())) {
+            flags |= DELTA_DRIVABLE_TILES;
+        }
+        if (!Objects.equals(from.offeredCard(), to.offeredCard())) {
+            flags |= DELTA_OFFERED_CARD;
+        }
+        if (!from.validPathCards().equals(to.validPathCards())) {
+            flags |= DELTA_VALID_PATH_CARDS;
+        }
+        if (!from.collectableTreasures().equals(to.collectableTreasures())) {
+            flags |= DELTA_COLLECTABLE_TREASURES;
+        }
+        out.writeByte(flags);
+        if ((flags & DELTA_OBJECTIVE) != 0) {
+            out.writeByte(to.playerObjective().ordinal());
+        }
+        if ((flags & DELTA_DRAWN_CARDS) != 0) {
+            writeTreasureCards(out, to.drawnTreasureCards());
+        }
+        if ((flags & DELTA_DRIVABLE_TILES) != 0) {
+            writePositions(out, from.drivableTiles().stream()
+                    .filter(position -> !to.drivableTiles().contains(position)).toList());
+            writePositions(out, to.drivableTiles().stream()
+                    .filter(position -> !from.drivableTiles().contains(position)).toList());
+        }
+        if ((flags & DELTA_OFFERED_CARD) != 0) {
+            writeTreasureCard(out, to.offeredCard());
+        }
+        if ((flags & DELTA_VALID_PATH_CARDS) != 0) {
+            writeValidPathCards(out, to.validPathCards());
+        }
+        if ((flags & DELTA_COLLECTABLE_TREASURES) != 0) {
+            out.writeByte(trailMask(to.collectableTreasures()));
+        }
+    }
+
+    /**
+     * Reads a delta written by
+     * {@link #writePlayerStateDelta(BinaryWriter, RemotePlayerState, RemotePlayerState)}
+     * and applies it to the given state.
+     *
+     * @param in   the reader to read from
+     * @param from the state the delta is based on
+     * @return the new state
+     * @throws IllegalArgumentException if the encoding is malformed
+     */
+    public static RemotePlayerState readPlayerStateDelta(final BinaryReader in, final RemotePlayerState from) {
+        final int flags = in.readByte();
+        final PlayerObjective objective = (flags & DELTA_OBJECTIVE) != 0 ? readObjective(in)
+                : from.playerObjective();
+        final List<TreasureCard> drawnTreasureCards = (flags & DELTA_DRAWN_CARDS) != 0 ? readTreasureCards(in)
+                : from.drawnTreasureCards();
+        Set<TilePosition> drivableTiles = from.drivableTiles();
+        if ((flags & DELTA_DRIVABLE_TILES) != 0) {
+            drivableTiles = new HashSet<>(drivableTiles);
+            drivableTiles.removeAll(readPositions(in));
+            drivableTiles.addAll(readPositions(in));
+        }
+        final TreasureCard offeredCard = (flags & DELTA_OFFERED_CARD) != 0 ? readTreasureCard(in)
+                : from.offeredCard();
+        final Map<Color, List<PathCardKey>> validPathCards = (flags & DELTA_VALID_PATH_CARDS) != 0
+                ? readValidPathCards(in)
+                : from.validPathCards();
+        final Set<Color> collectableTreasures = (flags & DELTA_COLLECTABLE_TREASURES) != 0
+                ? trailsFromMask(in.readByte())
+                : from.collectableTreasures();
+        return new RemotePlayerState(objective, drawnTreasureCards, drivableTiles, offeredCard, validPathCards,
+                collectableTreasures);
+    }
+
+    private static PlayerObjective readObjective(final BinaryReader in) {
+        final int objective = in.readByte();
+        if (objective >= PlayerObjective.values().length) {
+            throw new IllegalArgumentException("Invalid objective: " + objective);
+        }
+        return PlayerObjective.values()[objective];
+    }
+
+    private static void writeTreasureCards(final BinaryWriter out, final List<TreasureCard> cards) {
+        out.writeVarInt(cards.size());
+        cards.forEach(card -> writeTreasureCard(out, card));
+    }
+
+    private static List<TreasureCard> readTreasureCards(final BinaryReader in) {
+        final int count = in.readVarInt();
+        final List<TreasureCard> cards = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            cards.add(readTreasureCard(in));
+        }
+        return cards;
+    }
+
+    /**
+     * Writes the given positions preceded by their count.
+     *
+     * @param out       the writer to write to
+     * @param positions the positions to write
+     */
+    public static void writePositions(final BinaryWriter out, final Collection<TilePosition> positions) {
+        out.writeVarInt(positions.size());
+        positions.forEach(position -> writePosition(out, position));
+    }
+
+    /**
+     * Reads positions written by
+     * {@link #writePositions(BinaryWriter, Collection)}.
+     *
+     * @param in the reader to read from
+     * @return the read positions
+     */
+    public static Set<TilePosition> readPositions(final BinaryReader in) {
+        final int count = in.readVarInt();
+        final Set<TilePosition> positions = new HashSet<>();
+        for (int i = 0; i < count; i++) {
+            positions.add(readPosition(in));
+        }
+        return positions;
+    }
+
+    private static void writeValidPathCards(final BinaryWriter out, final Map<Color, List<PathCardKey>> cards) {
+        out.writeVarInt(cards.size());
+        cards.forEach((color, keys) -> {
+            writeTrailColor(out, color);
+            out.writeVarInt(keys.size());
+            keys.forEach(key -> writePathCard(out, key));
+        });
+    }
+
+    private static Map<Color, List<PathCardKey>> readValidPathCards(final BinaryReader in) {
+        final int colorCount = in.readVarInt();
+        final Map<Color, List<PathCardKey>> validPathCards = new HashMap<>();
+        for (int i = 0; i < colorCount; i++) {
+            final Color color = readTrailColor(in);
+            final int cardCount = in.readVarInt();
+            final List<PathCardKey> cards = new ArrayList<>();
+            for (int j = 0; j < cardCount; j++) {
+                cards.add(readPathCard(in));
+            }
+            validPathCards.put(color, cards);
+        }
+        return validPathCards;
+    }
+
+    /**
+     * Returns a bit mask with one bit per treasure trail in the given set.
+     *
+     * @param colors the treasure trail colors
+     * @return the bit mask of the given treasure trails
+     */
+    public static int trailMask(final Collection<Color> colors) {
+        int mask = 0;
+        for (final Color color : colors) {
+            final int index = Config.TREASURE_TRAIL_COLORS.indexOf(color);
+            if (index >= 0) {
+                mask |= 1 << index;
+            }
+        }
+        return mask;
+    }
+
+    /**
+     * Returns the treasure trail colors contained in the given bit mask.
+     *
+     * @param mask the bit mask as returned by {@link #trailMask(Collection)}
+     * @return the treasure trail colors in the bit mask
+     */
+    public static Set<Color> trailsFromMask(final int mask) {
+        final Set<Color> colors = new HashSet<>();
+        for (int i = 0; i < Config.TREASURE_TRAIL_COLORS.size(); i++) {
+            if ((mask & (1 << i)) != 0) {
+                colors.add(Config.TREASURE_TRAIL_COLORS.get(i));
+            }
+        }
+        return colors;
+    }
+}
@@ -0,0 +1,368 @@
+package hProjekt.controller.io;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+import hProjekt.model.grid.RasterHexGrid;
+import hProjekt.model.grid.Structure;
+import hProjekt.model.grid.Tile;
+import hProjekt.model.grid.TilePosition;
+
+/**
+ * Encodes maps in version 2 of the {@code .tobago} format.
+ * <p>
+ * A file consists of
+ * <ol>
+ * <li>a header of {@value #HEADER_BYTES} bytes: the magic number
+ * {@code TBGO}, the version byte, three reserved bytes, the smallest {@code q}
+ * and {@code r}, the width and height of the bounding box, the number of tiles
+ * and structures, all as big endian ints, and the content hash as a long,</li>
+ * <li>the tile raster of {@link RasterHexGrid}: four bits per position of the
+ * bounding box, ordered by {@code q} and then {@code r}, and</li>
+ * <li>the structure table: for every structure, in raster order, the distance
+ * to the cell of the previous structure as a variable length integer and the
+ * ordinal of its type as a byte.</li>
+ * </ol>
+ * <p>
+ * A file is read front to back from a {@link ByteBuffer}, and the grid is
+ * built straight from the raster. The content hash, see
+ * {@link #hashTile(long, int, int, int, int)}, is checked before the grid is
+ * built, so a damaged file is rejected instead of producing a different map.
+ * <p>
+ * Files of the first version were serialized {@code SerializableHexGrid}s.
+ * They start with the magic number of Java serialization, see
+ * {@link #isLegacy(ByteBuffer)}, and are imported by the
+ * {@link hProjekt.controller.MapSaveController}.
+ */
+public final class MapCodec {
+
+    /**
+     * The magic number every file starts with, {@code TBGO} in ASCII.
+     */
+    public static final int MAGIC = 0x5442474F;
+
+    /**
+     * The version of the format written by this codec.
+     */
+    public static final int VERSION = 2;
+
+    /**
+     * The size of the header in bytes.
+     */
+    public static final int HEADER_BYTES = 40;
+
+    /**
+     * The first two bytes of a Java serialization stream.
+     */
+    private static final int LEGACY_MAGIC = 0xACED;
+
+    private MapCodec() {
+    }
+
+    /**
+     * The header of a map file.
+     *
+     * @param minQ        the smallest {@code q} of the raster
+     * @param minR        the smallest {@code r} of the raster
+     * @param width       the number of {@code q} values of the raster
+     * @param height      the number of {@code r} values of the raster
+     * @param tiles       the number of tiles
+     * @param structures  the number of structures
+     * @param contentHash the hash of the tiles and structures
+     */
+    public record Header(int minQ, int minR, int width, int height, int tiles, int structures, long contentHash) {
+    }
+
+    /**
+     * Returns whether the buffer holds a map of the legacy format, without
+     * moving its position.
+     *
+     * @param buffer the contents of a map file
+     * @return {@code true} if it is a serialized {@code SerializableHexGrid}
+     */
+    public static boolean isLegacy(final ByteBuffer buffer) {
+        return buffer.remaining() >= 2 && (buffer.getShort(buffer.position()) & 0xFFFF) == LEGACY_MAGIC;
+    }
+
+    /**
+     * Encodes a map.
+     *
+     * @param tiles      the type of every tile
+     * @param structures the type of every structure
+     * @return the contents of the map file
+     */
+    public static byte[] write(final Map<TilePosition, Tile.Type> tiles,
+            final Map<TilePosition, Structure.Type> structures) {
+        int minQ = 0;
+        int minR = 0;
+        int maxQ = -1;
+        int maxR = -1;
+        for (final TilePosition position : tiles.keySet()) {
+            if (maxQ < minQ) {
+                minQ = maxQ = position.q();
+                minR = maxR = position.r();
+            }
+            minQ = Math.min(minQ, position.q());
+            minR = Math.min(minR, position.r());
+            maxQ = Math.max(maxQ, position.q());
+            maxR = Math.max(maxR, position.r());
+        }
+        final int width = maxQ - minQ + 1;
+        final int height = maxR - minR + 1;
+        final byte[] raster = new byte[RasterHexGrid.cellBytes(width, height)];
+        final List<TilePosition> positions = new ArrayList<>(tiles.keySet());
+        positions.sort(Comparator.naturalOrder());
+        long hash = positions.size();
+        final List<TilePosition> structurePositions = new ArrayList<>();
+        for (final TilePosition position : positions) {
+            final int cell = (position.q() - minQ) * height + position.r() - minR;
+            final int value = tiles.get(position).ordinal() + 1;
+            raster[cell >>> 1] |= (byte) ((cell & 1) == 0 ? value << 4 : value);
+            final Structure.Type structure = structures.get(position);
+            if (structure != null) {
+                structurePositions.add(position);
+            }
+            hash = hashTile(hash, position.q(), position.r(), value - 1,
+                    structure == null ? -1 : structure.ordinal());
+        }
+
+        final BinaryWriter out = new BinaryWriter(HEADER_BYTES + raster.length + 4 * structurePositions.size());
+        out.writeInt(MAGIC).writeByte(VERSION).writeByte(0).writeByte(0).writeByte(0)
+                .writeInt(minQ).writeInt(minR).writeInt(width).writeInt(height)
+                .writeInt(positions.size()).writeInt(structurePositions.size()).writeLong(hash);
+        out.writeBytes(raster, 0, raster.length);
+        int previous = 0;
+        for (final TilePosition position : structurePositions) {
+            final int cell = (position.q() - minQ) * height + position.r() - minR;
+            out.writeVarInt(cell - previous).writeByte(structures.get(position).ordinal());
+            previous = cell;
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Reads the header of a map file and moves the buffer past it.
+     *
+     * @param buffer the contents of the map file
+     * @return the header
+     * @throws IllegalArgumentException if the buffer doesn't start with a header
+     *                                  of this version
+     */
+    public static Header readHeader(final ByteBuffer buffer) {
+        if (buffer.remaining() < HEADER_BYTES || buffer.getInt() != MAGIC) {
+            throw new IllegalArgumentException("Not a map file");
+        }
+        final int version = buffer.get() & 0xFF;
+        if (version != VERSION) {
+            throw new IllegalArgumentException("Unsupported map file version " + version);
+        }
+        buffer.position(buffer.position() + 3);
+        final Header header = new Header(buffer.getInt(), buffer.getInt(), buffer.getInt(), buffer.getInt(),
+                buffer.getInt(), buffer.getInt(), buffer.getLong());
+        if (header.width() < 0 || header.height() < 0 || header.tiles() < 0 || header.structures() < 0
+                || (long) header.width() * header.height() > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Malformed map file header");
+        }
+        return header;
+    }
+
+    /**
+     * Reads a map file from the current position of the buffer and builds its
+     * grid. The file is decoded straight from the buffer, only the tile raster
+     * is copied for the grid to keep, so the grid never holds on to the buffer.
+     *
+     * @param buffer the contents of the map file
+     * @return the grid
+     * @throws IllegalArgumentException if the buffer doesn't hold a valid map
+     *                                  of this version
+     */
+    public static RasterHexGrid read(final ByteBuffer buffer) {
+        try {
+            final Header header = readHeader(buffer);
+            final int rasterStart = buffer.position();
+            final int cells = header.width() * header.height();
+            buffer.position(rasterStart + RasterHexGrid.cellBytes(header.width(), header.height()));
+
+            final BinaryReader in = new BinaryReader(buffer);
+            final int[] structureCells = new int[header.structures()];
+            final Structure.Type[] structureTypes = new Structure.Type[header.structures()];
+            final Structure.Type[] types = Structure.Type.values();
+            int cell = 0;
+            for (int i = 0; i < structureCells.length; i++) {
+                cell += in.readVarInt();
+                structureCells[i] = cell;
+                final int type = in.readByte();
+                if (cell >= cells || type >= types.length || i > 0 && structureCells[i - 1] >= cell) {
+                    throw new IllegalArgumentException("Malformed structure table");
+                }
+                structureTypes[i] = types[type];
+            }
+
+            final long hash = contentHash(buffer, rasterStart, header, structureCells, structureTypes);
+            if (hash != header.contentHash()) {
+                throw new IllegalArgumentException("Map file is damaged, content hash mismatch");
+            }
+            final ByteBuffer raster = ByteBuffer.allocate(RasterHexGrid.cellBytes(header.width(), header.height()))
+                    .put(0, buffer, rasterStart, RasterHexGrid.cellBytes(header.width(), header.height()));
+            return new RasterHexGrid(header.minQ(), header.minR(), header.width(), header.height(), raster,
+                    structureCells, structureTypes, hash);
+        } catch (final BufferUnderflowException | IllegalStateException | IndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Truncated map file", e);
+        }
+    }
+
+    /**
+     * Counts the tiles of every type in the raster at the current position of
+     * the buffer and moves the buffer past it, without building a grid.
+     *
+     * @param buffer the contents of the map file, after the header
+     * @param header the header of the map
+     * @return the number of tiles of every {@link Tile.Type}, by ordinal
+     * @throws IllegalArgumentException if the raster is truncated or holds an
+     *                                  unknown tile type
+     */
+    public static int[] readTileHistogram(final ByteBuffer buffer, final Header header) {
+        final int bytes = RasterHexGrid.cellBytes(header.width(), header.height());
+        if (buffer.remaining() < bytes) {
+            throw new IllegalArgumentException("Truncated map file");
+        }
+        final int[] counts = new int[16];
+        for (int i = 0; i < bytes; i++) {
+            final int bits = buffer.get();
+            counts[(bits >>> 4) & 0xF]++;
+            counts[bits & 0xF]++;
+        }
+        final int[] histogram = new int[Tile.Type.values().length];
+        for (int value = 1; value < counts.length; value++) {
+            if (counts[value] > 0 && value > histogram.length) {
+                throw new IllegalArgumentException("Unknown tile type " + (value - 1));
+            }
+            if (value <= histogram.length) {
+                histogram[value - 1] = counts[value];
+            }
+        }
+        return histogram;
+    }
+
+    /**
+     * Counts the structures of every type in the structure table at the current
+     * position of the buffer and moves the buffer past it.
+     *
+     * @param buffer the contents of the map file, after the raster
+     * @param header the header of the map
+     * @return the number of structures of every {@link Structure.Type}, by
+     *         ordinal
+     * @throws IllegalArgumentException if the table is truncated or holds an
+     *                                  unknown structure type
+     */
+    public static int[] readStructureHistogram(final ByteBuffer buffer, final Header header) {
+        final BinaryReader in = new BinaryReader(buffer);
+        final int[] histogram = new int[Structure.Type.values().length];
+        try {
+            for (int i = 0; i < header.structures(); i++) {
+                in.readVarInt();
+                final int type = in.readByte();
+                if (type >= histogram.length) {
+                    throw new IllegalArgumentException("Unknown structure type " + type);
+                }
+                histogram[type]++;
+            }
+        } catch (final BufferUnderflowException | IllegalStateException e) {
+            throw new IllegalArgumentException("Truncated map file", e);
+        }
+        return histogram;
+    }
+
+    /**
+     * Reads the cells of the structures in the structure table at the current
+     * position of the buffer and moves the buffer past it.
+     *
+     * @param buffer the contents of the map file, after the raster
+     * @param header the header of the map
+     * @return the raster cells holding a structure, ascending
+     * @throws IllegalArgumentException if the table is truncated
+     */
+    public static int[] readStructureCells(final ByteBuffer buffer, final Header header) {
+        final BinaryReader in = new BinaryReader(buffer);
+        final int[] cells = new int[header.structures()];
+        try {
+            int cell = 0;
+            for (int i = 0; i < cells.length; i++) {
+                cell += in.readVarInt();
+                in.readByte();
+                cells[i] = cell;
+            }
+        } catch (final BufferUnderflowException | IllegalStateException e) {
+            throw new IllegalArgumentException("Truncated map file", e);
+        }
+        return cells;
+    }
+
+    /**
+     * Adds a tile to a content hash. The hash of a map starts with the number of
+     * its tiles, and the tiles are added in the natural order of their
+     * positions.
+     *
+     * @param hash      the hash so far
+     * @param q         the {@code q} of the tile
+     * @param r         the {@code r} of the tile
+     * @param type      the ordinal of the tile type
+     * @param structure the ordinal of the structure type on the tile or
+     *                  {@code -1} if there is none
+     * @return the new hash
+     */
+    public static long hashTile(final long hash, final int q, final int r, final int type, final int structure) {
+        final long value = ((long) q << 40) ^ ((long) r << 16) ^ ((long) type << 4) ^ (structure + 1);
+        long z = hash * 31 + value;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * Computes the content hash of a raster and its structure table.
+     *
+     * @param buffer         the buffer holding the raster
+     * @param rasterStart    the index of the raster in the buffer
+     * @param header         the header of the map
+     * @param structureCells the cells holding a structure, ascending
+     * @param structureTypes the type of every structure
+     * @return the content hash
+     * @throws IllegalArgumentException if the raster holds an unknown tile type
+     *                                  or a structure lies outside of the tiles
+     */
+    private static long contentHash(final ByteBuffer buffer, final int rasterStart, final Header header,
+            final int[] structureCells, final Structure.Type[] structureTypes) {
+        final int height = header.height();
+        final int cells = header.width() * height;
+        final int typeCount = Tile.Type.values().length;
+        long hash = header.tiles();
+        int tiles = 0;
+        int next = 0;
+        for (int cell = 0; cell < cells; cell++) {
+            final int bits = buffer.get(rasterStart + (cell >>> 1));
+            final int value = (cell & 1) == 0 ? (bits >>> 4) & 0xF : bits & 0xF;
+            final boolean structure = next < structureCells.length && structureCells[next] == cell;
+            if (value == 0) {
+                if (structure) {
+                    throw new IllegalArgumentException("Structure without a tile");
+                }
+                continue;
+            }
+            if (value > typeCount) {
+                throw new IllegalArgumentException("Unknown tile type " + (value - 1));
+            }
+            hash = hashTile(hash, header.minQ() + cell / height, header.minR() + cell % height, value - 1,
+                    structure ? structureTypes[next++].ordinal() : -1);
+            tiles++;
+        }
+        if (tiles != header.tiles()) {
+            throw new IllegalArgumentException("Map file is damaged, tile count mismatch");
+        }
+        return hash;
+    }
+}
@@ -0,0 +1,58 @@
+package hProjekt.controller.io;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.jetbrains.annotations.Nullable;
+
+import hProjekt.controller.PlayerObjective;
+import hProjekt.model.PlayerState;
+import hProjekt.model.cards.PathCardKey;
+import hProjekt.model.cards.TreasureCard;
+import hProjekt.model.grid.TilePosition;
+import javafx.scene.paint.Color;
+
+/**
+ * A decoded {@link PlayerState} as seen by a client that has no access to the
+ * live game objects. Tiles are replaced by their positions and path cards by
+ * their keys.
+ *
+ * @param playerObjective      The {@link PlayerObjective} assigned to the
+ *                             player.
+ * @param drawnTreasureCards   The list of {@link TreasureCard}s currently drawn
+ *                             by the player.
+ * @param drivableTiles        The positions the player can currently drive to.
+ * @param offeredCard          The {@link TreasureCard} currently offered to the
+ *                             player.
+ * @param validPathCards       The keys of the path cards that can be played for
+ *                             each treasure trail.
+ * @param collectableTreasures The treasure trails the player can collect.
+ */
+public record RemotePlayerState(
+        PlayerObjective playerObjective,
+        List<TreasureCard> drawnTreasureCards,
+        Set<TilePosition> drivableTiles,
+        @Nullable TreasureCard offeredCard,
+        Map<Color, List<PathCardKey>> validPathCards,
+        Set<Color> collectableTreasures) {
+
+    /**
+     * Creates the remote view of the given player state.
+     *
+     * @param state the player state
+     * @return the remote view of the given player state
+     */
+    public static RemotePlayerState of(final PlayerState state) {
+        return new RemotePlayerState(
+                state.playerObjective(),
+                List.copyOf(state.drawnTreasureCards()),
+                state.drivableTiles().stream().map(tile -> tile.getPosition()).collect(Collectors.toUnmodifiableSet()),
+                state.offeredCard(),
+                state.validPathCards().entrySet().stream().collect(Collectors.toUnmodifiableMap(
+                        Map.Entry::getKey,
+                        entry -> entry.getValue().stream().map(PathCardKey::of).toList())),
+                Set.copyOf(state.collectableTreasures()));
+    }
+}
@@ -0,0 +1,202 @@
+package hProjekt.controller.io;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.jetbrains.annotations.Nullable;
+
+import hProjekt.Config;
+import hProjekt.controller.PlayerObjective;
+import hProjekt.controller.TurnCheckpoint;
+import hProjekt.model.cards.PathCardKey;
+import hProjekt.model.cards.TreasureCard;
+import hProjekt.model.grid.TilePosition;
+import hProjekt.model.snapshot.PersistentGameState;
+import hProjekt.model.snapshot.PersistentMap;
+import hProjekt.model.snapshot.PersistentPlayer;
+import hProjekt.model.snapshot.PersistentStack;
+import javafx.scene.paint.Color;
+
+/**
+ * Encodes and decodes saved games.
+ * <p>
+ * A saved game holds a {@link TurnCheckpoint} and everything needed to resume
+ * it: the AI controller of every player and the map it is played on. The map
+ * itself isn't part of the file since only its amulets and statues change
+ * during a game. It is referenced by the content hash of its file (see
+ * {@link MapCodec}) and its name.
+ * <p>
+ * A file starts with the magic bytes {@code TBGS} and a version byte, followed
+ * by the content hash of the map, the name of the map, the round, the index of
+ * the active player and their objective. Then come the players in turn order
+ * with their id, name, color, AI controller, position, amulets, hand and gold
+ * cards, the treasure trails, the tiles with amulets, the directions of the
+ * statues and the cards left in the treasure deck from bottom to top. All
+ * values use the encodings of {@link GameCodec}, so a typical game takes a
+ * few hundred bytes.
+ */
+public class SaveGameCodec {
+    private static final byte[] MAGIC = "TBGS".getBytes(StandardCharsets.US_ASCII);
+    private static final int VERSION = 1;
+
+    /**
+     * A saved game.
+     *
+     * @param mapHash    the content hash of the map file
+     * @param mapName    the name of the map or {@code null} if it is unknown
+     * @param ais        the AI controller of every AI player by player id
+     * @param checkpoint the turn to resume at
+     */
+    public record SaveGame(long mapHash, @Nullable String mapName, Map<Integer, Config.AvailableAiControllers> ais,
+            TurnCheckpoint checkpoint) {
+    }
+
+    /**
+     * Encodes a saved game.
+     *
+     * @param game the saved game
+     * @return the encoded game
+     */
+    public static byte[] write(final SaveGame game) {
+        final BinaryWriter out = new BinaryWriter(512);
+        out.writeBytes(MAGIC, 0, MAGIC.length).writeByte(VERSION);
+        out.writeLong(game.mapHash());
+        out.writeBoolean(game.mapName() != null);
+        if (game.mapName() != null) {
+            out.writeString(game.mapName());
+        }
+        final TurnCheckpoint checkpoint = game.checkpoint();
+        out.writeVarInt(checkpoint.round()).writeVarInt(checkpoint.playerIndex())
+                .writeByte(checkpoint.objective().ordinal());
+
+        final PersistentGameState state = checkpoint.state();
+        out.writeVarInt(state.players().size());
+        for (final PersistentPlayer player : state.players()) {
+            out.writeVarInt(player.id());
+            out.writeString(player.name());
+            GameCodec.writeColor(out, player.color());
+            final Config.AvailableAiControllers ai = game.ais().get(player.id());
+            out.writeVarInt(ai == null ? 0 : ai.ordinal() + 1);
+            out.writeBoolean(player.position() != null);
+            if (player.position() != null) {
+                GameCodec.writePosition(out, player.position());
+            }
+            out.writeVarInt(player.amulets());
+            writeCards(out, player.handList());
+            final List<Integer> goldCards = player.goldCards().toList();
+            out.writeVarInt(goldCards.size());
+            goldCards.forEach(out::writeVarInt);
+        }
+        out.writeVarInt(state.trails().size());
+        state.trails().forEach(trail -> writeCards(out, trail.toList()));
+        GameCodec.writePositions(out, state.amuletTiles().toMap().keySet());
+        SnapshotCodec.writeDirections(out, state.statueDirections().toMap());
+        out.writeVarInt(state.deckDepth());
+        for (final TreasureCard card : state.deck().subList(0, state.deckDepth())) {
+            GameCodec.writeTreasureCard(out, card);
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Decodes a saved game written by {@link #write(SaveGame)}.
+     *
+     * @param bytes the encoded game
+     * @return the saved game
+     * @throws IllegalArgumentException if the bytes aren't a saved game of a
+     *                                  supported version
+     */
+    public static SaveGame read(final byte[] bytes) {
+        final BinaryReader in = new BinaryReader(bytes);
+        if (in.remaining() < MAGIC.length + 1 || !Arrays.equals(in.readBytes(MAGIC.length), MAGIC)) {
+            throw new IllegalArgumentException("Not a saved game");
+        }
+        final int version = in.readByte();
+        if (version != VERSION) {
+            throw new IllegalArgumentException("Unsupported saved game version: " + version);
+        }
+        final long mapHash = in.readLong();
+        final String mapName = in.readBoolean() ? in.readString() : null;
+        final int round = in.readVarInt();
+        final int playerIndex = in.readVarInt();
+        final int objective = in.readByte();
+        if (objective >= PlayerObjective.values().length) {
+            throw new IllegalArgumentException("Invalid objective: " + objective);
+        }
+
+        final int playerCount = in.readVarInt();
+        final List<PersistentPlayer> players = new ArrayList<>();
+        final Map<Integer, Config.AvailableAiControllers> ais = new HashMap<>();
+        for (int i = 0; i < playerCount; i++) {
+            final int id = in.readVarInt();
+            final String name = in.readString();
+            final Color color = GameCodec.readColor(in);
+            final int ai = in.readVarInt();
+            if (ai > Config.AvailableAiControllers.values().length) {
+                throw new IllegalArgumentException("Invalid AI controller: " + ai);
+            }
+            if (ai > 0) {
+                ais.put(id, Config.AvailableAiControllers.values()[ai - 1]);
+            }
+            final TilePosition position = in.readBoolean() ? GameCodec.readPosition(in) : null;
+            final int amulets = in.readVarInt();
+            PersistentMap<PathCardKey, Integer> hand = PersistentMap.empty();
+            for (final PathCardKey key : readCards(in)) {
+                hand = hand.put(key, hand.getOrDefault(key, 0) + 1);
+            }
+            final int goldCount = in.readVarInt();
+            final List<Integer> goldCards = new ArrayList<>();
+            for (int j = 0; j < goldCount; j++) {
+                goldCards.add(in.readVarInt());
+            }
+            players.add(new PersistentPlayer(id, name, color, position, amulets, hand,
+                    PersistentStack.copyOf(goldCards)));
+        }
+        final int trailCount = in.readVarInt();
+        if (trailCount != Config.TREASURE_TRAIL_COLORS.size()) {
+            throw new IllegalArgumentException("Invalid number of treasure trails: " + trailCount);
+        }
+        final List<PersistentStack<PathCardKey>> trails = new ArrayList<>();
+        for (int i = 0; i < trailCount; i++) {
+            trails.add(PersistentStack.copyOf(readCards(in)));
+        }
+        PersistentMap<TilePosition, Boolean> amuletTiles = PersistentMap.empty();
+        for (final TilePosition position : GameCodec.readPositions(in)) {
+            amuletTiles = amuletTiles.put(position, true);
+        }
+        final PersistentMap<TilePosition, TilePosition.EdgeDirection> statueDirections = PersistentMap
+                .copyOf(SnapshotCodec.readDirections(in));
+        final int deckSize = in.readVarInt();
+        final List<TreasureCard> deck = new ArrayList<>();
+        for (int i = 0; i < deckSize; i++) {
+            final TreasureCard card = GameCodec.readTreasureCard(in);
+            if (card == null) {
+                throw new IllegalArgumentException("Missing treasure card in the deck");
+            }
+            deck.add(card);
+        }
+
+        final PersistentGameState state = new PersistentGameState(List.copyOf(deck), deckSize, List.copyOf(players),
+                List.copyOf(trails), amuletTiles, statueDirections);
+        return new SaveGame(mapHash, mapName, Map.copyOf(ais),
+                new TurnCheckpoint(round, playerIndex, PlayerObjective.values()[objective], state));
+    }
+
+    private static void writeCards(final BinaryWriter out, final List<PathCardKey> cards) {
+        out.writeVarInt(cards.size());
+        cards.forEach(card -> GameCodec.writePathCard(out, card));
+    }
+
+    private static List<PathCardKey> readCards(final BinaryReader in) {
+        final int count = in.readVarInt();
+        final List<PathCardKey> cards = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            cards.add(GameCodec.readPathCard(in));
+        }
+        return cards;
+    }
+}
@@ -0,0 +1,225 @@
+package hProjekt.controller.io;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.jetbrains.annotations.Nullable;
+
+import hProjekt.model.cards.PathCardKey;
+import hProjekt.model.grid.TilePosition;
+import hProjekt.model.snapshot.GameSnapshot;
+import hProjekt.model.snapshot.GameSnapshotDelta;
+import hProjekt.model.snapshot.PlayerSnapshot;
+
+/**
+ * Encodes and decodes {@link GameSnapshot}s and {@link GameSnapshotDelta}s.
+ *
+ * @see GameCodec
+ */
+public class SnapshotCodec {
+
+    /**
+     * Writes the given snapshot.
+     *
+     * @param out      the writer to write to
+     * @param snapshot the snapshot to write
+     */
+    public static void writeSnapshot(final BinaryWriter out, final GameSnapshot snapshot) {
+        out.writeVarInt(snapshot.players().size());
+        for (final PlayerSnapshot player : snapshot.players()) {
+            out.writeVarInt(player.id());
+            writeNullablePosition(out, player.position());
+            out.writeVarInt(player.amulets());
+            out.writeVarInt(player.handSize());
+            writeCards(out, player.hand());
+            writeValues(out, player.goldCards());
+        }
+        out.writeVarInt(snapshot.trails().size());
+        snapshot.trails().forEach(trail -> writeCards(out, trail));
+        GameCodec.writePositions(out, snapshot.amuletTiles());
+        writeDirections(out, snapshot.statueDirections());
+        out.writeVarInt(snapshot.deckSize());
+    }
+
+    /**
+     * Reads a snapshot written by
+     * {@link #writeSnapshot(BinaryWriter, GameSnapshot)}.
+     *
+     * @param in the reader to read from
+     * @return the read snapshot
+     */
+    public static GameSnapshot readSnapshot(final BinaryReader in) {
+        final int playerCount = in.readVarInt();
+        final List<PlayerSnapshot> players = new ArrayList<>();
+        for (int i = 0; i < playerCount; i++) {
+            final int id = in.readVarInt();
+            final TilePosition position = readNullablePosition(in);
+            final int amulets = in.readVarInt();
+            final int handSize = in.readVarInt();
+            final List<PathCardKey> hand = readCards(in);
+            players.add(new PlayerSnapshot(id, position, amulets, handSize, hand, readValues(in)));
+        }
+        final int trailCount = in.readVarInt();
+        final List<List<PathCardKey>> trails = new ArrayList<>();
+        for (int i = 0; i < trailCount; i++) {
+            trails.add(readCards(in));
+        }
+        final Set<TilePosition> amuletTiles = GameCodec.readPositions(in);
+        final Map<TilePosition, TilePosition.EdgeDirection> statueDirections = readDirections(in);
+        return new GameSnapshot(List.copyOf(players), List.copyOf(trails), Set.copyOf(amuletTiles),
+                Map.copyOf(statueDirections), in.readVarInt());
+    }
+
+    /**
+     * Writes the given delta.
+     *
+     * @param out   the writer to write to
+     * @param delta the delta to write
+     */
+    public static void writeDelta(final BinaryWriter out, final GameSnapshotDelta delta) {
+        out.writeVarInt(delta.players().size());
+        for (final GameSnapshotDelta.PlayerDelta player : delta.players()) {
+            out.writeVarInt(player.index());
+            writeNullablePosition(out, player.position());
+            out.writeVarInt(player.amulets());
+            out.writeVarInt(player.handSize());
+            writeCards(out, player.removedCards());
+            writeCards(out, player.addedCards());
+            out.writeVarInt(player.keptGoldCards());
+            writeValues(out, player.addedGoldCards());
+        }
+        out.writeVarInt(delta.trails().size());
+        for (final GameSnapshotDelta.TrailDelta trail : delta.trails()) {
+            out.writeVarInt(trail.index());
+            out.writeVarInt(trail.keptCards());
+            writeCards(out, trail.appendedCards());
+        }
+        GameCodec.writePositions(out, delta.toggledAmulets());
+        writeDirections(out, delta.turnedStatues());
+        out.writeVarInt(delta.deckSize());
+    }
+
+    /**
+     * Reads a delta written by
+     * {@link #writeDelta(BinaryWriter, GameSnapshotDelta)}.
+     *
+     * @param in the reader to read from
+     * @return the read delta
+     */
+    public static GameSnapshotDelta readDelta(final BinaryReader in) {
+        final int playerCount = in.readVarInt();
+        final List<GameSnapshotDelta.PlayerDelta> players = new ArrayList<>();
+        for (int i = 0; i < playerCount; i++) {
+            final int index = in.readVarInt();
+            final TilePosition position = readNullablePosition(in);
+            final int amulets = in.readVarInt();
+            final int handSize = in.readVarInt();
+            final List<PathCardKey> removedCards = readCards(in);
+            final List<PathCardKey> addedCards = readCards(in);
+            final int keptGoldCards = in.readVarInt();
+            players.add(new GameSnapshotDelta.PlayerDelta(index, position, amulets, handSize, removedCards,
+                    addedCards, keptGoldCards, readValues(in)));
+        }
+        final int trailCount = in.readVarInt();
+        final List<GameSnapshotDelta.TrailDelta> trails = new ArrayList<>();
+        for (int i = 0; i < trailCount; i++) {
+            final int index = in.readVarInt();
+            final int keptCards = in.readVarInt();
+            trails.add(new GameSnapshotDelta.TrailDelta(index, keptCards, readCards(in)));
+        }
+        final Set<TilePosition> toggledAmulets = GameCodec.readPositions(in);
+        final Map<TilePosition, TilePosition.EdgeDirection> turnedStatues = readDirections(in);
+        return new GameSnapshotDelta(players, trails, toggledAmulets, turnedStatues, in.readVarInt());
+    }
+
+    /**
+     * Writes a position that may be {@code null}.
+     *
+     * @param out      the writer to write to
+     * @param position the position to write, can be null
+     */
+    private static void writeNullablePosition(final BinaryWriter out, @Nullable final TilePosition position) {
+        out.writeBoolean(position != null);
+        if (position != null) {
+            GameCodec.writePosition(out, position);
+        }
+    }
+
+    /**
+     * Reads a position written by
+     * {@link #writeNullablePosition(BinaryWriter, TilePosition)}.
+     *
+     * @param in the reader to read from
+     * @return the read position, can be null
+     */
+    private static @Nullable TilePosition readNullablePosition(final BinaryReader in) {
+        return in.readBoolean() ? GameCodec.readPosition(in) : null;
+    }
+
+    private static void writeCards(final BinaryWriter out, final List<PathCardKey> cards) {
+        out.writeVarInt(cards.size());
+        cards.forEach(card -> GameCodec.writePathCard(out, card));
+    }
+
+    private static List<PathCardKey> readCards(final BinaryReader in) {
+        final int count = in.readVarInt();
+        final List<PathCardKey> cards = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            cards.add(GameCodec.readPathCard(in));
+        }
+        return List.copyOf(cards);
+    }
+
+    private static void writeValues(final BinaryWriter out, final List<Integer> values) {
+        out.writeVarInt(values.size());
+        values.forEach(out::writeVarInt);
+    }
+
+    private static List<Integer> readValues(final BinaryReader in) {
+        final int count = in.readVarInt();
+        final List<Integer> values = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            values.add(in.readVarInt());
+        }
+        return List.copyOf(values);
+    }
+
+    /**
+     * Writes the given statue directions.
+     *
+     * @param out        the writer to write to
+     * @param directions the direction of each statue by its position
+     */
+    public static void writeDirections(final BinaryWriter out,
+            final Map<TilePosition, TilePosition.EdgeDirection> directions) {
+        out.writeVarInt(directions.size());
+        directions.forEach((position, direction) -> {
+            GameCodec.writePosition(out, position);
+            out.writeByte(direction.ordinal());
+        });
+    }
+
+    /**
+     * Reads statue directions written by
+     * {@link #writeDirections(BinaryWriter, Map)}.
+     *
+     * @param in the reader to read from
+     * @return the direction of each statue by its position
+     */
+    public static Map<TilePosition, TilePosition.EdgeDirection> readDirections(final BinaryReader in) {
+        final int count = in.readVarInt();
+        final Map<TilePosition, TilePosition.EdgeDirection> directions = new HashMap<>();
+        for (int i = 0; i < count; i++) {
+            final TilePosition position = GameCodec.readPosition(in);
+            final int ordinal = in.readByte();
+            if (ordinal >= TilePosition.EdgeDirection.SIZE) {
+                throw new IllegalArgumentException("Invalid direction: " + ordinal);
+            }
+            directions.put(position, TilePosition.EdgeDirection.values()[ordinal]);
+        }
+        return directions;
+    }
+}
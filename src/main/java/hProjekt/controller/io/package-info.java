@@ -0,0 +1,5 @@
+/**
+ * Contains the compact binary encodings of game data that are shared by the
+ * network protocol and all binary file formats.
+ */
+package hProjekt.controller.io;
@@ -0,0 +1,89 @@
+package hProjekt.controller.network;
+
+import java.nio.ByteBuffer;
+
+import hProjekt.controller.io.BinaryWriter;
+
+/**
+ * The types of frames exchanged between a {@link GameServer} and its clients.
+ * <p>
+ * Every frame starts with a four byte big endian length of the rest of the
+ * frame, followed by a single byte containing the ordinal of its type and the
+ * type specific payload.
+ */
+public enum FrameType {
+    /**
+     * Sent by a client to bind the connection to a player of a game. The payload
+     * contains the game id and the player id as variable length integers.
+     */
+    HELLO,
+    /**
+     * Sent by a client to trigger an action. The payload contains the encoded
+     * action.
+     */
+    ACTION,
+    /**
+     * Sent by the server when a client binds to a player and periodically
+     * afterwards. The payload contains the encoded player state.
+     */
+    PLAYER_STATE,
+    /**
+     * Sent by the server if a frame could not be processed. The payload contains
+     * the error message.
+     */
+    ERROR,
+    /**
+     * Sent by the server whenever the state of the bound player changes between
+     * two {@link #PLAYER_STATE} frames. The payload contains the changes to the
+     * previously sent state.
+     */
+    PLAYER_STATE_DELTA,
+    /**
+     * Sent by the server to spectators when they join and periodically
+     * afterwards. The payload contains the sequence number and the encoded
+     * snapshot of the game.
+     */
+    GAME_KEYFRAME,
+    /**
+     * Sent by the server to spectators whenever the game changes. The payload
+     * contains the sequence number and the changes to the snapshot with the
+     * previous sequence number.
+     */
+    GAME_DELTA;
+
+    /**
+     * The number of bytes preceding the payload of a frame.
+     */
+    public static final int HEADER_SIZE = 5;
+
+    /**
+     * The maximum size of a frame in bytes, excluding the length prefix.
+     */
+    public static final int MAX_FRAME_SIZE = 1 << 20;
+
+    /**
+     * Returns the frame type with the given ordinal.
+     *
+     * @param ordinal the ordinal of the frame type
+     * @return the frame type with the given ordinal
+     * @throws IllegalArgumentException if the ordinal is out of range
+     */
+    public static FrameType fromOrdinal(final int ordinal) {
+        if (ordinal < 0 || ordinal >= values().length) {
+            throw new IllegalArgumentException("Invalid frame type: " + ordinal);
+        }
+        return values()[ordinal];
+    }
+
+    /**
+     * Creates a complete frame of this type with the given payload.
+     *
+     * @param payload the payload of the frame
+     * @return a new {@link ByteBuffer} containing the frame, ready to be written
+     */
+    public ByteBuffer frame(final BinaryWriter payload) {
+        final ByteBuffer frame = ByteBuffer.allocate(HEADER_SIZE + payload.size());
+        frame.putInt(1 + payload.size()).put((byte) ordinal()).put(payload.toByteArray());
+        return frame.flip();
+    }
+}
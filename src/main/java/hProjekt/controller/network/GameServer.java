@@ -0,0 +1,590 @@
+package hProjekt.controller.network;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalInt;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.jetbrains.annotations.Nullable;
+
+import hProjekt.Config;
+import hProjekt.controller.GameController;
+import hProjekt.controller.GameEventListener;
+import hProjekt.controller.PlayerController;
+import hProjekt.controller.actions.IllegalActionException;
+import hProjekt.controller.actions.PlayerAction;
+import hProjekt.controller.io.BinaryReader;
+import hProjekt.controller.io.BinaryWriter;
+import hProjekt.controller.io.GameCodec;
+import hProjekt.controller.io.RemotePlayerState;
+import hProjekt.model.PlayerState;
+import hProjekt.model.cards.PathCard;
+import javafx.util.Subscription;
+
+/**
+ * A non-blocking TCP front end for remote players.
+ * <p>
+ * A single selector thread accepts connections, decodes incoming
+ * {@link FrameType#ACTION} frames and routes the actions into the
+ * {@link PlayerController} the connection is bound to via
+ * {@link PlayerController#triggerAction(PlayerAction)}. Every change of the
+ * bound player's {@link PlayerState} is pushed back as a
+ * {@link FrameType#PLAYER_STATE_DELTA} frame containing only what changed
+ * since the previous frame, with a complete {@link FrameType#PLAYER_STATE}
+ * frame on binding and every {@link StateDeltaPublisher#KEYFRAME_INTERVAL}
+ * updates.
+ * <p>
+ * Connections can only bind to the players of a game listed in its
+ * {@link GameController#getRemotePlayerIds() remote player ids}, all other
+ * players are played locally. Bound connections also receive the state of the
+ * whole game from the game's {@link StateDeltaPublisher}, showing the hand of
+ * their own player only. Connections that bind to the player id
+ * {@link #SPECTATOR_ID} become spectators and only receive the state of the
+ * whole game, without any hands.
+ * <p>
+ * Outgoing frames are queued per connection and written by the selector thread,
+ * so the game loop thread never blocks on a slow client. Clients that fall too
+ * far behind are disconnected.
+ * <p>
+ * As a {@link GameEventListener}, the server registers every game it is added
+ * to under a new id when the game starts and removes it when the game ends.
+ * The {@link #SHARED shared server} serves the games of this application whose
+ * setup asks for it on {@link Config#GAME_SERVER_ADDRESS} and
+ * {@link Config#GAME_SERVER_PORT}.
+ *
+ * @see FrameType
+ * @see LoopbackClient
+ */
+public class GameServer implements GameEventListener {
+    /**
+     * The maximum number of bytes queued for a single connection before it is
+     * considered too slow and closed.
+     */
+    private static final int MAX_PENDING_BYTES = 4 << 20;
+
+    private static final int READ_BUFFER_SIZE = 4096;
+
+    /**
+     * The player id spectators bind to. Player ids start at {@code 1}.
+     */
+    public static final int SPECTATOR_ID = 0;
+
+    /**
+     * The server of the games served by this application. It is started when
+     * the first served game starts.
+     */
+    public static final GameServer SHARED = new GameServer(
+            new InetSocketAddress(Config.GAME_SERVER_ADDRESS, Config.GAME_SERVER_PORT));
+
+    private final Map<Integer, GameController> games = new ConcurrentHashMap<>();
+    private final Map<Integer, StateDeltaPublisher> publishers = new ConcurrentHashMap<>();
+    private final Queue<Connection> pendingWrites = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger connectionCount = new AtomicInteger();
+    private final AtomicInteger nextGameId = new AtomicInteger(1);
+    private final @Nullable InetSocketAddress listenAddress;
+
+    private Selector selector;
+    private ServerSocketChannel serverChannel;
+    private Thread selectorThread;
+    private volatile boolean running = false;
+
+    /**
+     * Creates a new server that has to be {@link #start(InetSocketAddress)
+     * started} before games are registered as listeners.
+     */
+    public GameServer() {
+        this(null);
+    }
+
+    /**
+     * Creates a new server that starts on the given address when the first game
+     * it listens to starts.
+     *
+     * @param listenAddress the address to start on or {@code null} to only serve
+     *                      games after {@link #start(InetSocketAddress)}
+     */
+    public GameServer(final @Nullable InetSocketAddress listenAddress) {
+        this.listenAddress = listenAddress;
+    }
+
+    /**
+     * Registers the started game under the next free id. The server is started
+     * first if it isn't running yet. If it can't be started, the game is played
+     * without it.
+     *
+     * @param gameController the controller of the started game
+     */
+    @Override
+    public void onGameStart(final GameController gameController) {
+        if (!running) {
+            if (listenAddress == null) {
+                return;
+            }
+            try {
+                synchronized (this) {
+                    if (!running) {
+                        start(listenAddress);
+                    }
+                }
+            } catch (final IOException e) {
+                System.out.println("Couldn't start game server: " + e.getMessage());
+                return;
+            }
+        }
+        final int gameId = nextGameId.getAndIncrement();
+        registerGame(gameId, gameController);
+        try {
+            System.out.println("Serving game " + gameId + " on " + getLocalAddress());
+        } catch (final IOException e) {
+            System.out.println("Serving game " + gameId);
+        }
+    }
+
+    /**
+     * Removes the ended game.
+     *
+     * @param gameController the controller of the ended game
+     */
+    @Override
+    public void onGameEnd(final GameController gameController) {
+        getGameId(gameController).ifPresent(this::unregisterGame);
+    }
+
+    /**
+     * Returns the id the given game is registered under.
+     *
+     * @param gameController the controller of the game
+     * @return the id of the game or an empty optional if it isn't registered
+     */
+    public OptionalInt getGameId(final GameController gameController) {
+        return games.entrySet().stream()
+                .filter(entry -> entry.getValue() == gameController)
+                .mapToInt(Map.Entry::getKey)
+                .findFirst();
+    }
+
+    /**
+     * Registers a game so that clients can bind to its players.
+     *
+     * @param gameId         the id clients use to refer to the game
+     * @param gameController the controller of the game
+     */
+    public void registerGame(final int gameId, final GameController gameController) {
+        games.put(gameId, gameController);
+        final StateDeltaPublisher previous = publishers.put(gameId, new StateDeltaPublisher(gameController));
+        if (previous != null) {
+            previous.close();
+        }
+    }
+
+    /**
+     * Removes a game. Connected clients stay connected but cannot send actions
+     * or receive updates of the game anymore.
+     *
+     * @param gameId the id of the game to remove
+     */
+    public void unregisterGame(final int gameId) {
+        games.remove(gameId);
+        final StateDeltaPublisher publisher = publishers.remove(gameId);
+        if (publisher != null) {
+            publisher.close();
+        }
+    }
+
+    /**
+     * Returns the number of currently open client connections.
+     *
+     * @return the number of currently open client connections
+     */
+    public int getConnectionCount() {
+        return connectionCount.get();
+    }
+
+    /**
+     * Binds the server to the given address and starts the selector thread.
+     *
+     * @param address the address to bind to, use port {@code 0} for an ephemeral
+     *                port
+     * @throws IOException           if the server socket cannot be opened
+     * @throws IllegalStateException if the server is already running
+     */
+    public synchronized void start(final InetSocketAddress address) throws IOException {
+        if (running) {
+            throw new IllegalStateException("Server is already running");
+        }
+        selector = Selector.open();
+        serverChannel = ServerSocketChannel.open();
+        serverChannel.configureBlocking(false);
+        serverChannel.bind(address, 1024);
+        serverChannel.register(selector, SelectionKey.OP_ACCEPT);
+        running = true;
+
+        selectorThread = new Thread(this::runSelectorLoop);
+        selectorThread.setName("GameServerSelectorThread");
+        selectorThread.setDaemon(true);
+        selectorThread.start();
+    }
+
+    /**
+     * Returns the address the server is bound to.
+     *
+     * @return the address the server is bound to
+     * @throws IOException if the address cannot be determined
+     */
+    public SocketAddress getLocalAddress() throws IOException {
+        return serverChannel.getLocalAddress();
+    }
+
+    /**
+     * Stops the selector thread and closes all connections.
+     */
+    public synchronized void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        selector.wakeup();
+        try {
+            selectorThread.join();
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * The main loop of the selector thread.
+     */
+    private void runSelectorLoop() {
+        try {
+            while (running) {
+                selector.select();
+                Connection connection;
+                while ((connection = pendingWrites.poll()) != null) {
+                    final SelectionKey key = connection.channel.keyFor(selector);
+                    if (key != null && key.isValid()) {
+                        key.interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+                    }
+                }
+                final Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    final SelectionKey key = keys.next();
+                    keys.remove();
+                    handleKey(key);
+                }
+            }
+        } catch (final IOException e) {
+            System.out.println("Game server stopped unexpectedly: " + e.getMessage());
+            e.printStackTrace();
+        } finally {
+            closeAll();
+        }
+    }
+
+    /**
+     * Handles a selected key. Errors on a single connection only close that
+     * connection.
+     *
+     * @param key the selected key
+     */
+    private void handleKey(final SelectionKey key) {
+        if (key.attachment() == null) {
+            if (key.isValid() && key.isAcceptable()) {
+                accept();
+            }
+            return;
+        }
+        final Connection connection = (Connection) key.attachment();
+        try {
+            if (key.isValid() && key.isReadable()) {
+                connection.read();
+            }
+            if (key.isValid() && key.isWritable()) {
+                connection.write(key);
+            }
+        } catch (final IOException e) {
+            connection.close();
+        }
+    }
+
+    /**
+     * Accepts all pending connections.
+     */
+    private void accept() {
+        try {
+            SocketChannel channel;
+            while ((channel = serverChannel.accept()) != null) {
+                channel.configureBlocking(false);
+                channel.socket().setTcpNoDelay(true);
+                final Connection connection = new Connection(channel);
+                channel.register(selector, SelectionKey.OP_READ, connection);
+                connectionCount.incrementAndGet();
+            }
+        } catch (final IOException e) {
+            System.out.println("Couldn't accept connection: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Closes the server socket and all client connections.
+     */
+    private void closeAll() {
+        for (final SelectionKey key : selector.keys()) {
+            if (key.attachment() instanceof final Connection connection) {
+                connection.close();
+            }
+        }
+        try {
+            serverChannel.close();
+            selector.close();
+        } catch (final IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * A single client connection and the player it is bound to.
+     */
+    private class Connection {
+        private final SocketChannel channel;
+        private ByteBuffer readBuffer = ByteBuffer.allocate(READ_BUFFER_SIZE);
+        private final Queue<ByteBuffer> outbound = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger pendingBytes = new AtomicInteger();
+        private final AtomicBoolean writeScheduled = new AtomicBoolean(false);
+        private final AtomicBoolean closed = new AtomicBoolean(false);
+
+        private int gameId;
+        private GameController gameController;
+        private PlayerController playerController;
+        private volatile PlayerState latestState;
+        private RemotePlayerState lastSentState;
+        private int sentStates = 0;
+        private Subscription subscription;
+
+        /**
+         * Creates a new unbound connection.
+         *
+         * @param channel the channel of the connection
+         */
+        Connection(final SocketChannel channel) {
+            this.channel = channel;
+        }
+
+        /**
+         * Reads from the channel and handles all complete frames.
+         *
+         * @throws IOException if reading fails or the client closed the connection
+         */
+        void read() throws IOException {
+            if (channel.read(readBuffer) < 0) {
+                throw new IOException("Connection closed by client");
+            }
+            readBuffer.flip();
+            while (readBuffer.remaining() >= Integer.BYTES) {
+                final int length = readBuffer.getInt(readBuffer.position());
+                if (length < 1 || length > FrameType.MAX_FRAME_SIZE) {
+                    throw new IOException("Invalid frame length: " + length);
+                }
+                if (readBuffer.remaining() < Integer.BYTES + length) {
+                    if (readBuffer.capacity() < Integer.BYTES + length) {
+                        readBuffer = ByteBuffer.allocate(Integer.BYTES + length).put(readBuffer).flip();
+                    }
+                    break;
+                }
+                readBuffer.getInt();
+                final int type = readBuffer.get() & 0xFF;
+                final ByteBuffer payload = readBuffer.slice(readBuffer.position(), length - 1);
+                readBuffer.position(readBuffer.position() + length - 1);
+                handleFrame(type, new BinaryReader(payload));
+            }
+            readBuffer.compact();
+        }
+
+        /**
+         * Handles a single frame sent by the client.
+         *
+         * @param type    the ordinal of the frame type
+         * @param payload the payload of the frame
+         */
+        private void handleFrame(final int type, final BinaryReader payload) {
+            try {
+                switch (FrameType.fromOrdinal(type)) {
+                    case HELLO -> bind(payload.readVarInt(), payload.readVarInt());
+                    case ACTION -> triggerAction(payload);
+                    default -> sendError("Unexpected frame type " + FrameType.fromOrdinal(type));
+                }
+            } catch (final IllegalActionException | IllegalArgumentException | IllegalStateException
+                    | BufferUnderflowException e) {
+                sendError(e.getMessage());
+            }
+        }
+
+        /**
+         * Binds this connection to the given player and starts pushing its state
+         * and the state of the whole game as the player sees it. Binding to
+         * {@link #SPECTATOR_ID} only subscribes to the state of the whole game as
+         * spectators see it.
+         *
+         * @param gameId   the id of the game
+         * @param playerId the id of the player
+         * @throws IllegalActionException if the connection is already bound, the
+         *                                game or player does not exist or the
+         *                                player isn't played remotely
+         */
+        private void bind(final int gameId, final int playerId) throws IllegalActionException {
+            if (subscription != null) {
+                throw new IllegalActionException("Connection is already bound to a player");
+            }
+            final GameController game = games.get(gameId);
+            final StateDeltaPublisher publisher = publishers.get(gameId);
+            if (game == null || publisher == null) {
+                throw new IllegalActionException("Unknown game " + gameId);
+            }
+            this.gameId = gameId;
+            if (playerId == SPECTATOR_ID) {
+                subscription = publisher.subscribe(SPECTATOR_ID, this::send);
+                return;
+            }
+            final PlayerController boundController = game.getPlayerControllers().values().stream()
+                    .filter(pc -> pc.getPlayer().getID() == playerId)
+                    .findFirst()
+                    .orElseThrow(() -> new IllegalActionException("Unknown player " + playerId));
+            if (!game.getRemotePlayerIds().contains(playerId)) {
+                throw new IllegalActionException("Player " + playerId + " isn't played remotely");
+            }
+            gameController = game;
+            playerController = boundController;
+            subscription = playerController.getPlayerStateProperty().subscribe(this::sendState)
+                    .and(publisher.subscribe(playerId, this::send));
+        }
+
+        /**
+         * Decodes an action and routes it into the bound player controller.
+         *
+         * @param payload the encoded action
+         * @throws IllegalActionException if the connection is not bound or the
+         *                                action refers to unknown tiles or cards
+         */
+        private void triggerAction(final BinaryReader payload) throws IllegalActionException {
+            if (playerController == null || games.get(gameId) != gameController) {
+                throw new IllegalActionException("Connection is not bound to a running game");
+            }
+            final PlayerState state = latestState;
+            final List<PathCard> playableCards = state == null ? List.of()
+                    : state.validPathCards().values().stream().flatMap(List::stream).toList();
+            playerController.triggerAction(
+                    GameCodec.readAction(payload, gameController.getState().getGrid(), playableCards));
+        }
+
+        /**
+         * Pushes the given player state to the client. Only the changes since the
+         * last sent state are pushed, except for the first and every
+         * {@link StateDeltaPublisher#KEYFRAME_INTERVAL}th state. Called on the game
+         * loop thread.
+         *
+         * @param state the new player state
+         */
+        private void sendState(final PlayerState state) {
+            latestState = state;
+            final RemotePlayerState remoteState = RemotePlayerState.of(state);
+            final BinaryWriter payload = new BinaryWriter();
+            if (lastSentState == null || sentStates % StateDeltaPublisher.KEYFRAME_INTERVAL == 0) {
+                GameCodec.writePlayerState(payload, remoteState);
+                send(FrameType.PLAYER_STATE.frame(payload));
+            } else if (!remoteState.equals(lastSentState)) {
+                GameCodec.writePlayerStateDelta(payload, lastSentState, remoteState);
+                send(FrameType.PLAYER_STATE_DELTA.frame(payload));
+            } else {
+                return;
+            }
+            lastSentState = remoteState;
+            sentStates++;
+        }
+
+        /**
+         * Sends an error message to the client.
+         *
+         * @param message the error message
+         */
+        private void sendError(final String message) {
+            send(FrameType.ERROR.frame(new BinaryWriter().writeString(String.valueOf(message))));
+        }
+
+        /**
+         * Queues the given frame and schedules it to be written by the selector
+         * thread. May be called from any thread.
+         *
+         * @param frame the frame to send
+         */
+        void send(final ByteBuffer frame) {
+            if (closed.get()) {
+                return;
+            }
+            if (pendingBytes.addAndGet(frame.remaining()) > MAX_PENDING_BYTES) {
+                System.out.println("Closing connection of slow client " + channel);
+                close();
+                return;
+            }
+            outbound.add(frame);
+            if (writeScheduled.compareAndSet(false, true)) {
+                pendingWrites.add(this);
+                selector.wakeup();
+            }
+        }
+
+        /**
+         * Writes as many queued frames as the channel accepts.
+         *
+         * @param key the selection key of this connection
+         * @throws IOException if writing fails
+         */
+        void write(final SelectionKey key) throws IOException {
+            ByteBuffer frame;
+            while ((frame = outbound.peek()) != null) {
+                final int written = channel.write(frame);
+                pendingBytes.addAndGet(-written);
+                if (frame.hasRemaining()) {
+                    return;
+                }
+                outbound.poll();
+            }
+            key.interestOps(SelectionKey.OP_READ);
+            writeScheduled.set(false);
+            if (!outbound.isEmpty() && writeScheduled.compareAndSet(false, true)) {
+                key.interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+            }
+        }
+
+        /**
+         * Closes the connection and stops pushing state updates.
+         */
+        void close() {
+            if (!closed.compareAndSet(false, true)) {
+                return;
+            }
+            if (subscription != null) {
+                subscription.unsubscribe();
+            }
+            outbound.clear();
+            connectionCount.decrementAndGet();
+            try {
+                channel.close();
+            } catch (final IOException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+}
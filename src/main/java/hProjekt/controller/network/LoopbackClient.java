@@ -0,0 +1,222 @@
+package hProjekt.controller.network;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+
+import hProjekt.controller.actions.PlayerAction;
+import hProjekt.controller.io.BinaryReader;
+import hProjekt.controller.io.BinaryWriter;
+import hProjekt.controller.io.GameCodec;
+import hProjekt.controller.io.RemotePlayerState;
+import hProjekt.controller.io.SnapshotCodec;
+import hProjekt.model.snapshot.GameSnapshot;
+
+/**
+ * A minimal blocking client for a {@link GameServer}.
+ * <p>
+ * It stands in for a real remote client in tests and for load generation: it
+ * binds to a player, sends actions and receives the pushed player states, or
+ * spectates a game and mirrors its {@link GameSnapshot}. Instances are not
+ * thread-safe.
+ */
+public class LoopbackClient implements AutoCloseable {
+    private final SocketChannel channel;
+    private final ByteBuffer header = ByteBuffer.allocate(Integer.BYTES);
+    private RemotePlayerState latestState;
+    private GameSnapshot spectatedGame;
+    private int sequence = -1;
+    private String lastError;
+
+    /**
+     * Creates a new client connected to the given address.
+     *
+     * @param address the address of the server
+     * @throws IOException if the connection cannot be established
+     */
+    public LoopbackClient(final SocketAddress address) throws IOException {
+        channel = SocketChannel.open(address);
+        channel.socket().setTcpNoDelay(true);
+    }
+
+    /**
+     * Creates a new client connected to a server listening on the loopback
+     * interface.
+     *
+     * @param port the port of the server
+     * @throws IOException if the connection cannot be established
+     */
+    public LoopbackClient(final int port) throws IOException {
+        this(new InetSocketAddress(InetAddress.getLoopbackAddress(), port));
+    }
+
+    /**
+     * Binds the connection to the given player of the given game.
+     *
+     * @param gameId   the id of the game
+     * @param playerId the id of the player
+     * @throws IOException if sending fails
+     */
+    public void hello(final int gameId, final int playerId) throws IOException {
+        send(FrameType.HELLO, new BinaryWriter().writeVarInt(gameId).writeVarInt(playerId));
+    }
+
+    /**
+     * Binds the connection to the given game as a spectator.
+     *
+     * @param gameId the id of the game
+     * @throws IOException if sending fails
+     */
+    public void spectate(final int gameId) throws IOException {
+        hello(gameId, GameServer.SPECTATOR_ID);
+    }
+
+    /**
+     * Sends the given action to the server.
+     *
+     * @param action the action to send
+     * @throws IOException if sending fails
+     */
+    public void send(final PlayerAction action) throws IOException {
+        final BinaryWriter payload = new BinaryWriter();
+        GameCodec.writeAction(payload, action);
+        send(FrameType.ACTION, payload);
+    }
+
+    /**
+     * Sends a frame of the given type with the given payload.
+     *
+     * @param type    the type of the frame
+     * @param payload the payload of the frame
+     * @throws IOException if sending fails
+     */
+    public void send(final FrameType type, final BinaryWriter payload) throws IOException {
+        final ByteBuffer frame = type.frame(payload);
+        while (frame.hasRemaining()) {
+            channel.write(frame);
+        }
+    }
+
+    /**
+     * Blocks until the next frame arrives and handles it.
+     *
+     * @return the type of the received frame
+     * @throws IOException if receiving fails or the server closed the connection
+     */
+    public FrameType receive() throws IOException {
+        header.clear();
+        readFully(header);
+        final int length = header.flip().getInt();
+        if (length < 1 || length > FrameType.MAX_FRAME_SIZE) {
+            throw new IOException("Invalid frame length: " + length);
+        }
+        final ByteBuffer frame = ByteBuffer.allocate(length);
+        readFully(frame);
+        frame.flip();
+        final FrameType type = FrameType.fromOrdinal(frame.get() & 0xFF);
+        final BinaryReader payload = new BinaryReader(frame);
+        switch (type) {
+            case PLAYER_STATE -> latestState = GameCodec.readPlayerState(payload);
+            case PLAYER_STATE_DELTA -> {
+                if (latestState == null) {
+                    throw new IOException("Received player state delta before player state");
+                }
+                latestState = GameCodec.readPlayerStateDelta(payload, latestState);
+            }
+            case GAME_KEYFRAME -> {
+                sequence = payload.readVarInt();
+                spectatedGame = SnapshotCodec.readSnapshot(payload);
+            }
+            case GAME_DELTA -> {
+                final int next = payload.readVarInt();
+                if (spectatedGame != null && next == sequence + 1) {
+                    spectatedGame = SnapshotCodec.readDelta(payload).apply(spectatedGame);
+                    sequence = next;
+                } else {
+                    // A delta was missed, wait for the next keyframe
+                    spectatedGame = null;
+                }
+            }
+            case ERROR -> lastError = payload.readString();
+            default -> {
+                // Other frames carry no state for this client
+            }
+        }
+        return type;
+    }
+
+    /**
+     * Blocks until the next player state arrives.
+     *
+     * @return the received player state
+     * @throws IOException if receiving fails or the server closed the connection
+     */
+    public RemotePlayerState awaitState() throws IOException {
+        FrameType type;
+        do {
+            type = receive();
+        } while (type != FrameType.PLAYER_STATE && type != FrameType.PLAYER_STATE_DELTA);
+        return latestState;
+    }
+
+    /**
+     * Fills the given buffer from the channel.
+     *
+     * @param buffer the buffer to fill
+     * @throws IOException if reading fails or the server closed the connection
+     */
+    private void readFully(final ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer) < 0) {
+                throw new EOFException("Connection closed by server");
+            }
+        }
+    }
+
+    /**
+     * Returns the last player state received from the server.
+     *
+     * @return the last received player state or {@code null} if none was received
+     */
+    public RemotePlayerState getLatestState() {
+        return latestState;
+    }
+
+    /**
+     * Returns the mirrored state of the game as the client sees it: with the
+     * hand of the bound player only or, for spectators, without any hands.
+     *
+     * @return the mirrored state of the game or {@code null} if the client is
+     *         not bound yet or waits for a keyframe
+     */
+    public GameSnapshot getSpectatedGame() {
+        return spectatedGame;
+    }
+
+    /**
+     * Returns the sequence number of the last applied keyframe or delta.
+     *
+     * @return the sequence number of the mirrored game state
+     */
+    public int getSequence() {
+        return sequence;
+    }
+
+    /**
+     * Returns the last error message received from the server.
+     *
+     * @return the last error message or {@code null} if none was received
+     */
+    public String getLastError() {
+        return lastError;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
@@ -0,0 +1,182 @@
+package hProjekt.controller.network;
+
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+import hProjekt.controller.GameController;
+import hProjekt.controller.PlayerController;
+import hProjekt.controller.io.BinaryWriter;
+import hProjekt.controller.io.SnapshotCodec;
+import hProjekt.model.snapshot.GameSnapshot;
+import hProjekt.model.snapshot.GameSnapshotDelta;
+import javafx.util.Subscription;
+
+/**
+ * Broadcasts the state of a single game to spectators and remote players.
+ * <p>
+ * Whenever the active player's state changes, a new {@link GameSnapshot} is
+ * captured. Every subscriber {@link GameSnapshot#viewedBy(int) views} it as a
+ * player or as a spectator: players see their own hand, but only the number of
+ * cards in the hands of the other players, and spectators only see the number
+ * of cards in all hands. Only the difference of each view to its previous
+ * version is sent as a {@link FrameType#GAME_DELTA} frame. New subscribers
+ * and, every {@link #KEYFRAME_INTERVAL} updates, all subscribers receive a
+ * complete {@link FrameType#GAME_KEYFRAME} instead, so that clients that missed
+ * a delta can resynchronize. Every frame carries a sequence number that
+ * increases by one per update.
+ */
+public class StateDeltaPublisher {
+    /**
+     * The number of updates after which a keyframe is sent instead of a delta.
+     */
+    public static final int KEYFRAME_INTERVAL = 32;
+
+    private final GameController gameController;
+    private final Map<Integer, View> views = new HashMap<>();
+    private final Subscription activePlayerSubscription;
+    private Subscription playerStateSubscription = Subscription.EMPTY;
+
+    private GameSnapshot snapshot;
+    private int sequence = 0;
+
+    /**
+     * Creates a new publisher for the given game and starts listening to its
+     * state changes.
+     *
+     * @param gameController the controller of the game to publish
+     */
+    public StateDeltaPublisher(final GameController gameController) {
+        this.gameController = gameController;
+        this.snapshot = GameSnapshot.capture(gameController.getState());
+        this.activePlayerSubscription = gameController.activePlayerControllerProperty()
+                .subscribe(this::onActivePlayerControllerChanged);
+    }
+
+    /**
+     * Follows the state of the new active player controller.
+     *
+     * @param playerController the new active player controller, can be null
+     */
+    private synchronized void onActivePlayerControllerChanged(final PlayerController playerController) {
+        playerStateSubscription.unsubscribe();
+        playerStateSubscription = playerController == null ? Subscription.EMPTY
+                : playerController.getPlayerStateProperty().subscribe(state -> publish());
+    }
+
+    /**
+     * Captures the current state of the game and sends the changes of every
+     * view to its subscribers. Does nothing if the game did not change.
+     */
+    public synchronized void publish() {
+        final GameSnapshot next = GameSnapshot.capture(gameController.getState());
+        if (next.equals(snapshot)) {
+            return;
+        }
+        snapshot = next;
+        sequence++;
+        views.values().forEach(View::update);
+    }
+
+    /**
+     * Adds a subscriber that views the game as the given player. It immediately
+     * receives a keyframe of the current state and all following updates. The
+     * given consumer is called while the publisher is locked and must not
+     * block.
+     *
+     * @param playerId   the id of the player whose hand the subscriber may see
+     *                   or {@link GameServer#SPECTATOR_ID} to see no hands
+     * @param subscriber the consumer of the frames
+     * @return a subscription to remove the subscriber
+     */
+    public synchronized Subscription subscribe(final int playerId, final Consumer<ByteBuffer> subscriber) {
+        final View view = views.computeIfAbsent(playerId, View::new);
+        subscriber.accept(view.getKeyframe().duplicate());
+        view.subscribers.add(subscriber);
+        return () -> view.subscribers.remove(subscriber);
+    }
+
+    /**
+     * Returns the number of current subscribers.
+     *
+     * @return the number of current subscribers
+     */
+    public synchronized int getSubscriberCount() {
+        return views.values().stream().mapToInt(view -> view.subscribers.size()).sum();
+    }
+
+    /**
+     * Stops listening to the game. Existing subscribers stay subscribed but
+     * won't receive any further frames.
+     */
+    public synchronized void close() {
+        activePlayerSubscription.unsubscribe();
+        playerStateSubscription.unsubscribe();
+    }
+
+    /**
+     * The game as seen by a single player or by the spectators, and the
+     * subscribers that see it.
+     */
+    private class View {
+        private final int playerId;
+        private final List<Consumer<ByteBuffer>> subscribers = new CopyOnWriteArrayList<>();
+        private GameSnapshot viewed;
+        private ByteBuffer keyframe;
+
+        /**
+         * Creates a view of the current snapshot.
+         *
+         * @param playerId the id of the viewing player
+         */
+        View(final int playerId) {
+            this.playerId = playerId;
+            this.viewed = snapshot.viewedBy(playerId);
+        }
+
+        /**
+         * Views the current snapshot and sends its changes to the subscribers.
+         * A delta is sent even if this view didn't change, so that the
+         * sequence numbers stay consecutive.
+         */
+        void update() {
+            final GameSnapshot next = snapshot.viewedBy(playerId);
+            final GameSnapshotDelta delta = GameSnapshotDelta.between(viewed, next);
+            viewed = next;
+            keyframe = null;
+            if (sequence % KEYFRAME_INTERVAL == 0) {
+                broadcast(getKeyframe());
+                return;
+            }
+            final BinaryWriter payload = new BinaryWriter().writeVarInt(sequence);
+            SnapshotCodec.writeDelta(payload, delta);
+            broadcast(FrameType.GAME_DELTA.frame(payload));
+        }
+
+        /**
+         * Returns the keyframe of this view, encoding it only once per update.
+         *
+         * @return the keyframe of this view
+         */
+        ByteBuffer getKeyframe() {
+            if (keyframe == null) {
+                final BinaryWriter payload = new BinaryWriter().writeVarInt(sequence);
+                SnapshotCodec.writeSnapshot(payload, viewed);
+                keyframe = FrameType.GAME_KEYFRAME.frame(payload);
+            }
+            return keyframe;
+        }
+
+        /**
+         * Sends the given frame to all subscribers of this view.
+         *
+         * @param frame the frame to send
+         */
+        private void broadcast(final ByteBuffer frame) {
+            subscribers.forEach(subscriber -> subscriber.accept(frame.duplicate()));
+        }
+    }
+}
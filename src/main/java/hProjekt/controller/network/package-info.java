@@ -0,0 +1,5 @@
+/**
+ * Contains the non-blocking TCP front end that lets remote clients play and
+ * watch games.
+ */
+package hProjekt.controller.network;
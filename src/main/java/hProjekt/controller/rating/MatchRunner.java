@@ -0,0 +1,176 @@
+package hProjekt.controller.rating;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+import hProjekt.Config;
+import hProjekt.controller.GameController;
+import hProjekt.controller.GameEventListener;
+import hProjekt.controller.MapSaveController;
+import hProjekt.controller.PlayerController;
+import hProjekt.model.GameState;
+import hProjekt.model.PlayerImpl;
+import hProjekt.model.grid.HexGrid;
+
+/**
+ * Plays rated games between AI controllers, one after another.
+ * <p>
+ * The competitors of every game are chosen by
+ * {@link RatingService#nextMatch} of the rating service of the runner, by
+ * default the {@link RatingService#SHARED shared service}, and every game is
+ * played headlessly by a regular {@link GameController} on the calling thread.
+ * The service listens to the game and rates it as it ends, so the next match
+ * up already sees the new ratings.
+ * <p>
+ * AI players can get stuck, for example when no card in any hand fits a trail
+ * and driving doesn't help. A game that takes more than {@link #MAX_ACTIONS}
+ * actions is stopped and, since its treasure deck isn't empty, not rated.
+ */
+public class MatchRunner {
+
+    /**
+     * The number of actions after which a game is stopped.
+     */
+    public static final int MAX_ACTIONS = 5_000;
+
+    private final String mapName;
+    private final List<String> pool;
+    private final int seats;
+    private final SplittableRandom random;
+    private final RatingService ratings;
+
+    /**
+     * Creates a new runner that reports to the {@link RatingService#SHARED
+     * shared rating service}.
+     *
+     * @param mapName the name of the saved map the games are played on
+     * @param pool    the names of the {@link Config.AvailableAiControllers} to
+     *                choose from
+     * @param seats   the number of players of every game
+     * @param seed    the seed of the match ups and games
+     * @throws IllegalArgumentException if a name is not an AI controller or the
+     *                                  number of seats is not allowed
+     */
+    public MatchRunner(final String mapName, final List<String> pool, final int seats, final long seed) {
+        this(mapName, pool, seats, seed, RatingService.SHARED);
+    }
+
+    /**
+     * Creates a new runner.
+     *
+     * @param mapName the name of the saved map the games are played on
+     * @param pool    the names of the {@link Config.AvailableAiControllers} to
+     *                choose from
+     * @param seats   the number of players of every game
+     * @param seed    the seed of the match ups and games
+     * @param ratings the service that chooses the match ups and rates the games
+     * @throws IllegalArgumentException if a name is not an AI controller or the
+     *                                  number of seats is not allowed
+     */
+    public MatchRunner(final String mapName, final List<String> pool, final int seats, final long seed,
+            final RatingService ratings) {
+        if (seats < Config.MIN_PLAYERS || seats > Config.MAX_PLAYERS) {
+            throw new IllegalArgumentException("Unsupported number of players: " + seats);
+        }
+        pool.forEach(Config.AvailableAiControllers::valueOf);
+        this.mapName = mapName;
+        this.pool = List.copyOf(pool);
+        this.seats = seats;
+        this.random = new SplittableRandom(seed);
+        this.ratings = ratings;
+    }
+
+    /**
+     * Chooses the competitors of the next game and plays it.
+     *
+     * @return the competitor of every seat
+     * @throws IllegalStateException if the map doesn't exist
+     */
+    public List<String> playNext() {
+        final List<String> match = ratings.nextMatch(pool, seats, random);
+        final GameController gameController = newGame(match, random.nextLong());
+        gameController.addGameEventListener(ratings);
+        gameController.addGameEventListener(new GameEventListener() {
+            private int actions;
+
+            @Override
+            public void beforeAction(final PlayerController playerController) {
+                if (++actions > MAX_ACTIONS) {
+                    throw new MatchStoppedException();
+                }
+            }
+        });
+        try {
+            gameController.startGame();
+        } catch (final MatchStoppedException e) {
+            System.out.println("Stopped the game of " + String.join(" vs ", match) + " after " + MAX_ACTIONS
+                    + " actions");
+        }
+        return match;
+    }
+
+    /**
+     * Sets up a game on the map of this runner.
+     *
+     * @param match the competitor of every seat
+     * @param seed  the seed of the game
+     * @return the controller of the new game
+     * @throws IllegalStateException if the map doesn't exist
+     */
+    public GameController newGame(final List<String> match, final long seed) {
+        final HexGrid grid = MapSaveController.loadMap(mapName);
+        if (grid == null) {
+            throw new IllegalStateException("Unknown map " + mapName);
+        }
+        final GameState state = new GameState(grid, new ArrayList<>());
+        for (int seat = 0; seat < match.size(); seat++) {
+            state.addPlayer(new PlayerImpl.Builder(seat + 1)
+                    .name(match.get(seat))
+                    .ai(Config.AvailableAiControllers.valueOf(match.get(seat)))
+                    .build(grid));
+        }
+        return new GameController(state, seed);
+    }
+
+    /**
+     * Thrown to leave the game loop of a game that takes too long.
+     */
+    private static class MatchStoppedException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        MatchStoppedException() {
+            super(null, null, false, false);
+        }
+    }
+
+    /**
+     * Plays rated games and prints the ranking after every game.
+     * <p>
+     * Arguments: the number of games, the number of players, the name of the map
+     * and the AI controllers to rate, all of them if none are given.
+     *
+     * @param args the arguments
+     */
+    public static void main(final String[] args) {
+        final int games = args.length > 0 ? Integer.parseInt(args[0]) : 10;
+        final int seats = args.length > 1 ? Integer.parseInt(args[1]) : Config.MIN_PLAYERS;
+        final String map = args.length > 2 ? args[2] : "default";
+        final List<String> pool = args.length > 3 ? List.of(args).subList(3, args.length)
+                : Arrays.stream(Config.AvailableAiControllers.values()).map(Enum::name).toList();
+        final MatchRunner runner = new MatchRunner(map, pool, seats, System.nanoTime());
+        for (int game = 1; game <= games; game++) {
+            try {
+                System.out.println("Game " + game + ": " + String.join(" vs ", runner.playNext()));
+            } catch (final RuntimeException e) {
+                System.out.println("Game " + game + " failed: " + e.getMessage());
+                e.printStackTrace();
+            }
+            for (final Map.Entry<String, Rating> entry : RatingService.SHARED.getRanking().entrySet()) {
+                System.out.println("  " + entry.getKey() + " " + entry.getValue());
+            }
+        }
+    }
+}
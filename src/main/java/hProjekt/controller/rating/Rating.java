@@ -0,0 +1,57 @@
+package hProjekt.controller.rating;
+
+/**
+ * The estimated skill of a competitor: a normal distribution with mean
+ * {@code mu} and standard deviation {@code sigma}, and the number of games it
+ * is based on.
+ *
+ * @param mu    the mean skill
+ * @param sigma the uncertainty of the skill
+ * @param games the number of rated games
+ */
+public record Rating(double mu, double sigma, int games) {
+
+    /**
+     * The rating of a competitor without any games.
+     */
+    public static final Rating INITIAL = new Rating(TrueSkill.INITIAL_MU, TrueSkill.INITIAL_SIGMA, 0);
+
+    /**
+     * The factor of {@code sigma} that spans a 95% confidence interval.
+     */
+    public static final double Z_95 = 1.959964;
+
+    /**
+     * Returns the skill the competitor has with high certainty, the mean minus
+     * three standard deviations. Competitors are ranked by it, so a lucky
+     * competitor with few games doesn't lead the ranking.
+     *
+     * @return the conservative skill
+     */
+    public double conservative() {
+        return mu - 3 * sigma;
+    }
+
+    /**
+     * Returns the lower bound of the 95% confidence interval of the skill.
+     *
+     * @return the lower bound
+     */
+    public double lower() {
+        return mu - Z_95 * sigma;
+    }
+
+    /**
+     * Returns the upper bound of the 95% confidence interval of the skill.
+     *
+     * @return the upper bound
+     */
+    public double upper() {
+        return mu + Z_95 * sigma;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%.1f [%.1f, %.1f] after %d games", mu, lower(), upper(), games);
+    }
+}
@@ -0,0 +1,296 @@
+package hProjekt.controller.rating;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+import org.jetbrains.annotations.Nullable;
+
+import hProjekt.Config;
+import hProjekt.controller.GameController;
+import hProjekt.controller.GameEventListener;
+import hProjekt.model.Player;
+
+/**
+ * Keeps the ratings of competitors up to date while games are played.
+ * <p>
+ * A competitor is an AI controller in one configuration, named after its
+ * {@link Config.AvailableAiControllers} entry, so for example the difficulty
+ * tiers of the MCTS controller are rated separately. Only AI controllers are
+ * rated, human players are left out of the ratings. Every game that ends with
+ * an empty treasure deck and has at least two AI players is
+ * {@link #report reported} as it ends, and the finishing order of its AI
+ * players by {@link Player#getTotalGoldCardValue()} updates the ratings with
+ * {@link TrueSkill}. Other result streams, like tuning runs, report their games
+ * the same way.
+ * <p>
+ * {@link #nextMatch} schedules games adaptively: it seats the competitor whose
+ * rating is the least certain and fills the other seats with the competitors
+ * closest to it, so games are spent where they change the ranking. The
+ * {@link MatchRunner} plays the proposed games one after another.
+ * <p>
+ * The {@link #SHARED shared service} is read from
+ * {@link Config#AI_RATINGS_PATH} on first use and written back after every
+ * game. Every line of the file holds mu, sigma and the number of games
+ * separated by tabs, followed by a tab and the name of the competitor up to the
+ * end of the line, so names may contain any character. Backslashes and line
+ * breaks in names are escaped. All methods are thread safe.
+ */
+public class RatingService implements GameEventListener {
+
+    /**
+     * The service every game with AI players reports to.
+     */
+    public static final RatingService SHARED = new RatingService(Config.AI_RATINGS_PATH);
+
+    private static final String HEADER = "# mu\tsigma\tgames\tcompetitor";
+
+    private final @Nullable Path path;
+    private final Map<String, Rating> ratings = new HashMap<>();
+    private boolean loaded;
+
+    /**
+     * Creates a new service.
+     *
+     * @param path the file the ratings are kept in or {@code null} to only keep
+     *             them in memory
+     */
+    public RatingService(final @Nullable Path path) {
+        this.path = path;
+    }
+
+    /**
+     * Returns the name under which a player is rated, or for a human player
+     * the name other result streams like the {@code ResultArchiveWriter} list
+     * them under.
+     *
+     * @param player the player
+     * @return the name of the AI configuration or of the human player
+     */
+    public static String competitor(final Player player) {
+        return player.isAi() ? player.getAiController().name() : "Human " + player.getName();
+    }
+
+    @Override
+    public void onGameEnd(final GameController gameController) {
+        if (!gameController.getState().getTreasureDeck().isEmpty()) {
+            // the game was stopped or failed
+            return;
+        }
+        final List<Player> players = gameController.getState().getPlayers().stream().filter(Player::isAi).toList();
+        final List<String> competitors = new ArrayList<>();
+        final int[] scores = new int[players.size()];
+        for (int i = 0; i < scores.length; i++) {
+            competitors.add(competitor(players.get(i)));
+            scores[i] = players.get(i).getTotalGoldCardValue();
+        }
+        report(competitors, scores);
+    }
+
+    /**
+     * Rates a finished game and stores the new ratings.
+     *
+     * @param competitors the competitor in every seat, may repeat
+     * @param scores      the gold of every seat
+     */
+    public void report(final List<String> competitors, final int[] scores) {
+        if (competitors.size() != scores.length) {
+            throw new IllegalArgumentException("Every seat needs a score");
+        }
+        synchronized (this) {
+            ensureLoaded();
+            final List<String> distinct = competitors.stream().distinct().toList();
+            if (distinct.size() < 2) {
+                return;
+            }
+            final Rating[] before = distinct.stream().map(this::ratingOf).toArray(Rating[]::new);
+            final int[] seats = competitors.stream().mapToInt(distinct::indexOf).toArray();
+            final Rating[] after = TrueSkill.update(before, seats, scores);
+            for (int i = 0; i < after.length; i++) {
+                ratings.put(distinct.get(i), after[i]);
+            }
+            save();
+        }
+    }
+
+    /**
+     * Returns the rating of a competitor.
+     *
+     * @param competitor the name of the competitor
+     * @return the rating, {@link Rating#INITIAL} if it didn't play yet
+     */
+    public synchronized Rating getRating(final String competitor) {
+        ensureLoaded();
+        return ratingOf(competitor);
+    }
+
+    /**
+     * Returns all ratings, ranked by their {@link Rating#conservative()
+     * conservative skill}.
+     *
+     * @return the ratings from the best to the worst competitor
+     */
+    public synchronized Map<String, Rating> getRanking() {
+        ensureLoaded();
+        final Map<String, Rating> ranking = new LinkedHashMap<>();
+        ratings.entrySet().stream()
+                .sorted(Comparator.comparingDouble((Map.Entry<String, Rating> entry) -> -entry.getValue()
+                        .conservative()).thenComparing(Map.Entry::getKey))
+                .forEach(entry -> ranking.put(entry.getKey(), entry.getValue()));
+        return ranking;
+    }
+
+    /**
+     * Chooses the competitors of the next game. The competitor with the highest
+     * uncertainty takes the first seat, every other seat goes to the competitor
+     * that keeps the game most balanced, with ties broken at random. A
+     * competitor takes a second seat only if there are fewer competitors than
+     * seats.
+     *
+     * @param pool   the competitors to choose from
+     * @param seats  the number of players of the game
+     * @param random the source of randomness
+     * @return the competitor of every seat
+     */
+    public synchronized List<String> nextMatch(final List<String> pool, final int seats,
+            final SplittableRandom random) {
+        if (pool.isEmpty()) {
+            throw new IllegalArgumentException("No competitors to choose from");
+        }
+        ensureLoaded();
+        final List<String> candidates = new ArrayList<>(pool);
+        final List<String> match = new ArrayList<>();
+        String first = candidates.get(random.nextInt(candidates.size()));
+        for (final String candidate : candidates) {
+            if (ratingOf(candidate).sigma() > ratingOf(first).sigma()) {
+                first = candidate;
+            }
+        }
+        match.add(first);
+        candidates.remove(first);
+        while (match.size() < seats) {
+            if (candidates.isEmpty()) {
+                candidates.addAll(pool);
+            }
+            String best = null;
+            double bestQuality = Double.NEGATIVE_INFINITY;
+            for (final String candidate : candidates) {
+                double quality = 0;
+                for (final String seated : match) {
+                    quality += TrueSkill.matchQuality(ratingOf(seated), ratingOf(candidate));
+                }
+                // tiny noise decides between equally balanced candidates
+                quality += random.nextDouble() * 1e-9;
+                if (quality > bestQuality) {
+                    best = candidate;
+                    bestQuality = quality;
+                }
+            }
+            match.add(best);
+            candidates.remove(best);
+        }
+        return match;
+    }
+
+    /**
+     * Returns the rating of a competitor without loading the ratings.
+     *
+     * @param competitor the name of the competitor
+     * @return the rating
+     */
+    private Rating ratingOf(final String competitor) {
+        return ratings.getOrDefault(competitor, Rating.INITIAL);
+    }
+
+    /**
+     * Reads the stored ratings if that wasn't done yet.
+     */
+    private void ensureLoaded() {
+        if (loaded || path == null) {
+            return;
+        }
+        loaded = true;
+        try {
+            for (final String line : Files.readAllLines(path)) {
+                if (line.isBlank() || line.startsWith("#")) {
+                    continue;
+                }
+                final String[] parts = line.split("\t", 4);
+                if (parts.length < 4) {
+                    continue;
+                }
+                ratings.put(unescape(parts[3]), new Rating(Double.parseDouble(parts[0]),
+                        Double.parseDouble(parts[1]), Integer.parseInt(parts[2])));
+            }
+        } catch (final NoSuchFileException e) {
+            // nothing rated yet
+        } catch (final IOException | NumberFormatException e) {
+            System.out.println("Couldn't load the AI ratings: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Writes the ratings to the file of this service.
+     */
+    private void save() {
+        if (path == null) {
+            return;
+        }
+        try {
+            if (path.getParent() != null) {
+                Files.createDirectories(path.getParent());
+            }
+            try (BufferedWriter writer = Files.newBufferedWriter(path)) {
+                writer.write(HEADER);
+                writer.newLine();
+                for (final Map.Entry<String, Rating> entry : getRanking().entrySet()) {
+                    final Rating rating = entry.getValue();
+                    writer.write(rating.mu() + "\t" + rating.sigma() + "\t" + rating.games() + "\t"
+                            + escape(entry.getKey()));
+                    writer.newLine();
+                }
+            }
+        } catch (final IOException e) {
+            System.out.println("Couldn't save the AI ratings: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Escapes backslashes and line breaks in the name of a competitor.
+     *
+     * @param name the name
+     * @return the escaped name
+     */
+    private static String escape(final String name) {
+        return name.replace("\\", "\\\\").replace("\n", "\\n").replace("\r", "\\r");
+    }
+
+    /**
+     * Reverses {@link #escape(String)}.
+     *
+     * @param escaped the escaped name
+     * @return the name
+     */
+    private static String unescape(final String escaped) {
+        final StringBuilder name = new StringBuilder(escaped.length());
+        for (int i = 0; i < escaped.length(); i++) {
+            final char c = escaped.charAt(i);
+            if (c != '\\' || i + 1 == escaped.length()) {
+                name.append(c);
+                continue;
+            }
+            final char next = escaped.charAt(++i);
+            name.append(next == 'n' ? '\n' : next == 'r' ? '\r' : next);
+        }
+        return name.toString();
+    }
+}
@@ -0,0 +1,245 @@
+package hProjekt.controller.rating;
+
+/**
+ * The rating updates of a Bayesian skill model in the style of TrueSkill.
+ * <p>
+ * A game is a free for all: every seat is compared to every other seat, the
+ * one with more gold wins and equal gold is a draw. The update is the
+ * Thurstone-Mosteller full pairing of Weng and Lin, which approximates the
+ * factor graph of TrueSkill in closed form, so a game is rated in a single
+ * pass without iterating messages. Before every game the uncertainty of the
+ * competitors grows by {@link #TAU}, so ratings keep following controllers
+ * that are tuned between games.
+ */
+public final class TrueSkill {
+
+    /**
+     * The mean skill of a new competitor.
+     */
+    public static final double INITIAL_MU = 25;
+
+    /**
+     * The uncertainty of a new competitor.
+     */
+    public static final double INITIAL_SIGMA = INITIAL_MU / 3;
+
+    /**
+     * The spread of the performance in a single game around the skill.
+     */
+    public static final double BETA = INITIAL_SIGMA / 2;
+
+    /**
+     * The growth of the uncertainty before every game.
+     */
+    public static final double TAU = INITIAL_SIGMA / 100;
+
+    /**
+     * The difference in performance below which a game is a draw, set for a
+     * draw probability of 5% between equal competitors.
+     */
+    public static final double DRAW_MARGIN = 0.06270678 * Math.sqrt(2) * BETA;
+
+    /**
+     * The smallest factor by which a game may shrink the variance of a rating.
+     */
+    private static final double KAPPA = 1e-4;
+    private static final double EPSILON = 1e-10;
+
+    private TrueSkill() {
+    }
+
+    /**
+     * Rates a finished game. A competitor may take several seats, their pairs
+     * aren't compared and the updates of all its seats are added up.
+     *
+     * @param ratings     the ratings of the competitors before the game
+     * @param competitors the index of the competitor in every seat
+     * @param scores      the gold of every seat
+     * @return the ratings of the competitors after the game, in the same order
+     */
+    public static Rating[] update(final Rating[] ratings, final int[] competitors, final int[] scores) {
+        final double[] mu = new double[ratings.length];
+        final double[] variance = new double[ratings.length];
+        for (int i = 0; i < ratings.length; i++) {
+            mu[i] = ratings[i].mu();
+            variance[i] = ratings[i].sigma() * ratings[i].sigma() + TAU * TAU;
+        }
+        final double[] omega = new double[ratings.length];
+        final double[] delta = new double[ratings.length];
+        final boolean[] played = new boolean[ratings.length];
+        for (int i = 0; i < competitors.length; i++) {
+            final int a = competitors[i];
+            played[a] = true;
+            for (int q = 0; q < competitors.length; q++) {
+                final int b = competitors[q];
+                if (a == b) {
+                    continue;
+                }
+                final double c = Math.sqrt(variance[a] + variance[b] + 2 * BETA * BETA);
+                final double margin = DRAW_MARGIN / c;
+                final double lead = (mu[a] - mu[b]) / c;
+                final double gamma = Math.sqrt(variance[a]) / c;
+                if (scores[i] > scores[q]) {
+                    omega[a] += variance[a] / c * v(lead, margin);
+                    delta[a] += gamma * variance[a] / (c * c) * w(lead, margin);
+                } else if (scores[i] < scores[q]) {
+                    omega[a] -= variance[a] / c * v(-lead, margin);
+                    delta[a] += gamma * variance[a] / (c * c) * w(-lead, margin);
+                } else {
+                    omega[a] += variance[a] / c * vDraw(lead, margin);
+                    delta[a] += gamma * variance[a] / (c * c) * wDraw(lead, margin);
+                }
+            }
+        }
+        final Rating[] updated = new Rating[ratings.length];
+        for (int i = 0; i < ratings.length; i++) {
+            updated[i] = !played[i] ? ratings[i]
+                    : new Rating(mu[i] + omega[i], Math.sqrt(variance[i] * Math.max(1 - delta[i], KAPPA)),
+                            ratings[i].games() + 1);
+        }
+        return updated;
+    }
+
+    /**
+     * Returns how balanced a game between the given competitors would be, the
+     * probability of a draw relative to the highest possible one, averaged over
+     * all pairs.
+     *
+     * @param ratings the ratings of the competitors
+     * @return the quality in {@code (0, 1]}, {@code 1} for less than two
+     *         competitors
+     */
+    public static double matchQuality(final Rating... ratings) {
+        double sum = 0;
+        int pairs = 0;
+        for (int i = 0; i < ratings.length; i++) {
+            for (int j = i + 1; j < ratings.length; j++) {
+                sum += matchQuality(ratings[i], ratings[j]);
+                pairs++;
+            }
+        }
+        return pairs == 0 ? 1 : sum / pairs;
+    }
+
+    /**
+     * Returns how balanced a game between two competitors would be.
+     *
+     * @param a the rating of the first competitor
+     * @param b the rating of the second competitor
+     * @return the quality in {@code (0, 1]}
+     */
+    public static double matchQuality(final Rating a, final Rating b) {
+        final double spread = 2 * BETA * BETA + a.sigma() * a.sigma() + b.sigma() * b.sigma();
+        final double difference = a.mu() - b.mu();
+        return Math.sqrt(2 * BETA * BETA / spread) * Math.exp(-difference * difference / (2 * spread));
+    }
+
+    /**
+     * Returns the probability that the first competitor beats the second.
+     *
+     * @param a the rating of the first competitor
+     * @param b the rating of the second competitor
+     * @return the probability of a win, draws excluded
+     */
+    public static double winProbability(final Rating a, final Rating b) {
+        final double c = Math.sqrt(a.sigma() * a.sigma() + b.sigma() * b.sigma() + 2 * BETA * BETA);
+        return cdf((a.mu() - b.mu() - DRAW_MARGIN) / c);
+    }
+
+    /**
+     * The mean shift of a win by the normalized lead {@code x}.
+     *
+     * @param x the lead in performance
+     * @param t the draw margin
+     * @return the shift
+     */
+    private static double v(final double x, final double t) {
+        final double denominator = cdf(x - t);
+        return denominator < EPSILON ? t - x : pdf(x - t) / denominator;
+    }
+
+    /**
+     * The variance reduction of a win by the normalized lead {@code x}.
+     *
+     * @param x the lead in performance
+     * @param t the draw margin
+     * @return the reduction
+     */
+    private static double w(final double x, final double t) {
+        if (cdf(x - t) < EPSILON) {
+            return x < t ? 1 : 0;
+        }
+        final double v = v(x, t);
+        return v * (v + x - t);
+    }
+
+    /**
+     * The mean shift of a draw with the normalized lead {@code x}.
+     *
+     * @param x the lead in performance
+     * @param t the draw margin
+     * @return the shift
+     */
+    private static double vDraw(final double x, final double t) {
+        final double abs = Math.abs(x);
+        final double denominator = cdf(t - abs) - cdf(-t - abs);
+        if (denominator < EPSILON) {
+            return x < 0 ? -x - t : -x + t;
+        }
+        final double numerator = pdf(-t - abs) - pdf(t - abs);
+        return (x < 0 ? -numerator : numerator) / denominator;
+    }
+
+    /**
+     * The variance reduction of a draw with the normalized lead {@code x}.
+     *
+     * @param x the lead in performance
+     * @param t the draw margin
+     * @return the reduction
+     */
+    private static double wDraw(final double x, final double t) {
+        final double abs = Math.abs(x);
+        final double denominator = cdf(t - abs) - cdf(-t - abs);
+        if (denominator < EPSILON) {
+            return 1;
+        }
+        final double v = vDraw(x, t);
+        return ((t - abs) * pdf(t - abs) + (t + abs) * pdf(-t - abs)) / denominator + v * v;
+    }
+
+    /**
+     * The density of the standard normal distribution.
+     *
+     * @param x the value
+     * @return the density
+     */
+    private static double pdf(final double x) {
+        return Math.exp(-x * x / 2) / Math.sqrt(2 * Math.PI);
+    }
+
+    /**
+     * The cumulative distribution of the standard normal distribution.
+     *
+     * @param x the value
+     * @return the probability of a value up to {@code x}
+     */
+    static double cdf(final double x) {
+        return erfc(-x / Math.sqrt(2)) / 2;
+    }
+
+    /**
+     * The complementary error function, with a fractional error below
+     * {@code 1.2e-7} (Numerical Recipes, 6.2).
+     *
+     * @param x the value
+     * @return the complementary error function of {@code x}
+     */
+    private static double erfc(final double x) {
+        final double z = Math.abs(x);
+        final double t = 1 / (1 + z / 2);
+        final double r = t * Math.exp(-z * z - 1.26551223 + t * (1.00002368 + t * (0.37409196 + t * (0.09678418
+                + t * (-0.18628806 + t * (0.27886807 + t * (-1.13520398 + t * (1.48851587
+                        + t * (-0.82215223 + t * 0.17087277)))))))));
+        return x >= 0 ? r : 2 - r;
+    }
+}
@@ -0,0 +1,7 @@
+/**
+ * Contains the skill ratings of AI controllers. Finished games are reported to
+ * the rating service as they end, which keeps a TrueSkill style rating with a
+ * confidence interval per controller and proposes the next match up, which the
+ * match runner plays.
+ */
+package hProjekt.controller.rating;
@@ -0,0 +1,323 @@
+package hProjekt.controller.replay;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.jetbrains.annotations.Nullable;
+
+import hProjekt.controller.actions.IllegalActionException;
+import hProjekt.controller.actions.PlayerAction;
+import hProjekt.controller.io.BinaryReader;
+import hProjekt.controller.io.BinaryWriter;
+import hProjekt.controller.io.GameCodec;
+import hProjekt.controller.io.SnapshotCodec;
+import hProjekt.model.GameState;
+import hProjekt.model.Player;
+import hProjekt.model.cards.PathCard;
+import hProjekt.model.cards.TreasureCard;
+import hProjekt.model.grid.HexGrid;
+import hProjekt.model.grid.TilePosition;
+import hProjekt.model.snapshot.GameSnapshot;
+import javafx.scene.paint.Color;
+
+/**
+ * The log of all actions executed in a game, together with everything needed to
+ * set the game up again.
+ * <p>
+ * A log file starts with a magic number, a version byte and the encoded
+ * {@link Header}, followed by one entry per executed action. Every entry
+ * consists of the id of the acting player, the length of the encoded action
+ * and the action itself as written by
+ * {@link GameCodec#writeAction(BinaryWriter, PlayerAction)}. Entries can be
+ * appended to a file while the game is running; an incomplete entry at the end
+ * of a file is ignored when reading it.
+ *
+ * @see GameLogRecorder
+ * @see GameReplay
+ */
+public class GameLog {
+    /**
+     * The first four bytes of every log file.
+     */
+    public static final int MAGIC = 0x544C4F47;
+
+    /**
+     * The current version of the file format.
+     */
+    public static final int VERSION = 1;
+
+    /**
+     * The file extension of log files.
+     */
+    public static final String FILE_EXTENSION = ".tlog";
+
+    /**
+     * A player taking part in the logged game.
+     *
+     * @param id           the id of the player
+     * @param name         the name of the player
+     * @param color        the color of the player
+     * @param aiController the name of the player's AI controller or {@code null}
+     *                     if the player is human
+     */
+    public record PlayerInfo(int id, String name, Color color, @Nullable String aiController) {}
+
+    /**
+     * Everything needed to set up the logged game again.
+     *
+     * @param seed             the seed of the game, see
+     *                         {@link hProjekt.controller.GameController#getSeed()}
+     * @param mapId            the name of the saved map the game was played on
+     * @param players          the players in turn order
+     * @param treasureDeck     the treasure deck from bottom to top
+     * @param amuletTiles      the positions of the tiles that had an amulet
+     * @param statueDirections the direction each statue was facing
+     */
+    public record Header(long seed, String mapId, List<PlayerInfo> players, List<TreasureCard> treasureDeck,
+            Set<TilePosition> amuletTiles, Map<TilePosition, TilePosition.EdgeDirection> statueDirections) {
+
+        /**
+         * Captures the header of a game that is about to start.
+         *
+         * @param seed  the seed the game is played with
+         * @param mapId the name of the saved map the game is played on
+         * @param state the state of the game
+         * @return the header of the game
+         */
+        public static Header capture(final long seed, final String mapId, final GameState state) {
+            final GameSnapshot snapshot = GameSnapshot.capture(state);
+            return new Header(seed, mapId,
+                    state.getPlayers().stream()
+                            .map(player -> new PlayerInfo(player.getID(), player.getName(), player.getColor(),
+                                    player.isAi() ? player.getAiController().name() : null))
+                            .toList(),
+                    List.copyOf(state.getTreasureDeck()), snapshot.amuletTiles(), snapshot.statueDirections());
+        }
+    }
+
+    private final Header header;
+    private final List<Integer> playerIds = new ArrayList<>();
+    private final List<byte[]> actions = new ArrayList<>();
+
+    /**
+     * Creates a new empty log.
+     *
+     * @param header the header of the logged game
+     */
+    public GameLog(final Header header) {
+        this.header = header;
+    }
+
+    /**
+     * Returns the header of the logged game.
+     *
+     * @return the header of the logged game
+     */
+    public Header getHeader() {
+        return header;
+    }
+
+    /**
+     * Returns the number of logged actions.
+     *
+     * @return the number of logged actions
+     */
+    public int size() {
+        return actions.size();
+    }
+
+    /**
+     * Appends an executed action.
+     *
+     * @param player the player that executed the action
+     * @param action the executed action
+     */
+    public void append(final Player player, final PlayerAction action) {
+        final BinaryWriter out = new BinaryWriter();
+        GameCodec.writeAction(out, action);
+        append(player.getID(), out.toByteArray());
+    }
+
+    /**
+     * Appends an already encoded action.
+     *
+     * @param playerId the id of the player that executed the action
+     * @param action   the encoded action
+     */
+    private void append(final int playerId, final byte[] action) {
+        playerIds.add(playerId);
+        actions.add(action);
+    }
+
+    /**
+     * Removes all actions from the given index on.
+     *
+     * @param size the number of actions to keep
+     */
+    public void truncate(final int size) {
+        playerIds.subList(size, playerIds.size()).clear();
+        actions.subList(size, actions.size()).clear();
+    }
+
+    /**
+     * Returns the id of the player that executed the action at the given index.
+     *
+     * @param index the index of the action
+     * @return the id of the acting player
+     */
+    public int getPlayerId(final int index) {
+        return playerIds.get(index);
+    }
+
+    /**
+     * Decodes the action at the given index.
+     *
+     * @param index the index of the action
+     * @param grid  the grid to resolve tiles on
+     * @param cards the path cards the action may refer to
+     * @return the decoded action
+     * @throws IllegalActionException if the action refers to unknown tiles or
+     *                                cards
+     */
+    public PlayerAction getAction(final int index, final HexGrid grid, final Collection<PathCard> cards)
+            throws IllegalActionException {
+        return GameCodec.readAction(new BinaryReader(actions.get(index)), grid, cards);
+    }
+
+    /**
+     * Writes the magic number, the version and the header.
+     *
+     * @param out the stream to write to
+     * @throws IOException if writing fails
+     */
+    public void writeHeader(final OutputStream out) throws IOException {
+        final BinaryWriter writer = new BinaryWriter();
+        writer.writeInt(MAGIC).writeByte(VERSION);
+        writer.writeLong(header.seed()).writeString(header.mapId());
+        writer.writeVarInt(header.players().size());
+        for (final PlayerInfo player : header.players()) {
+            writer.writeVarInt(player.id()).writeString(player.name());
+            GameCodec.writeColor(writer, player.color());
+            writer.writeString(player.aiController() == null ? "" : player.aiController());
+        }
+        writer.writeVarInt(header.treasureDeck().size());
+        header.treasureDeck().forEach(card -> GameCodec.writeTreasureCard(writer, card));
+        GameCodec.writePositions(writer, header.amuletTiles());
+        SnapshotCodec.writeDirections(writer, header.statueDirections());
+        writer.writeTo(out);
+    }
+
+    /**
+     * Writes the entry of the action at the given index.
+     *
+     * @param out   the stream to write to
+     * @param index the index of the action
+     * @throws IOException if writing fails
+     */
+    public void writeEntry(final OutputStream out, final int index) throws IOException {
+        final byte[] action = actions.get(index);
+        final BinaryWriter writer = new BinaryWriter(action.length + 10);
+        writer.writeVarInt(playerIds.get(index)).writeVarInt(action.length).writeBytes(action, 0, action.length);
+        writer.writeTo(out);
+    }
+
+    /**
+     * Writes the complete log.
+     *
+     * @param out the stream to write to
+     * @throws IOException if writing fails
+     */
+    public void writeTo(final OutputStream out) throws IOException {
+        writeHeader(out);
+        for (int i = 0; i < size(); i++) {
+            writeEntry(out, i);
+        }
+    }
+
+    /**
+     * Reads a complete log.
+     *
+     * @param in the stream to read from
+     * @return the read log
+     * @throws IOException if reading fails or the stream does not contain a log
+     */
+    public static GameLog read(final InputStream in) throws IOException {
+        final BinaryReader reader = new BinaryReader(ByteBuffer.wrap(in.readAllBytes()));
+        final GameLog log;
+        try {
+            if (reader.readInt() != MAGIC) {
+                throw new IOException("Not a game log");
+            }
+            final int version = reader.readByte();
+            if (version != VERSION) {
+                throw new IOException("Unsupported game log version " + version);
+            }
+            log = new GameLog(readHeader(reader));
+        } catch (final BufferUnderflowException | IllegalArgumentException e) {
+            throw new IOException("Corrupt game log header", e);
+        }
+        while (reader.hasRemaining()) {
+            final int start = reader.buffer().position();
+            try {
+                final int playerId = reader.readVarInt();
+                log.append(playerId, reader.readBytes(reader.readVarInt()));
+            } catch (final BufferUnderflowException | IllegalArgumentException e) {
+                System.out.printf("Ignoring incomplete game log entry at byte %d%n", start);
+                break;
+            }
+        }
+        return log;
+    }
+
+    /**
+     * Reads a complete log from the given file.
+     *
+     * @param path the path of the file
+     * @return the read log
+     * @throws IOException if reading fails or the file does not contain a log
+     */
+    public static GameLog read(final Path path) throws IOException {
+        try (InputStream in = Files.newInputStream(path)) {
+            return read(in);
+        }
+    }
+
+    /**
+     * Reads the header written by {@link #writeHeader(OutputStream)} after the
+     * magic number and version.
+     *
+     * @param reader the reader to read from
+     * @return the read header
+     */
+    private static Header readHeader(final BinaryReader reader) {
+        final long seed = reader.readLong();
+        final String mapId = reader.readString();
+        final int playerCount = reader.readVarInt();
+        final List<PlayerInfo> players = new ArrayList<>();
+        for (int i = 0; i < playerCount; i++) {
+            final int id = reader.readVarInt();
+            final String name = reader.readString();
+            final Color color = GameCodec.readColor(reader);
+            final String aiController = reader.readString();
+            players.add(new PlayerInfo(id, name, color, aiController.isEmpty() ? null : aiController));
+        }
+        final int deckSize = reader.readVarInt();
+        final List<TreasureCard> treasureDeck = new ArrayList<>();
+        for (int i = 0; i < deckSize; i++) {
+            treasureDeck.add(GameCodec.readTreasureCard(reader));
+        }
+        final Set<TilePosition> amuletTiles = GameCodec.readPositions(reader);
+        return new Header(seed, mapId, List.copyOf(players), List.copyOf(treasureDeck), Set.copyOf(amuletTiles),
+                Map.copyOf(SnapshotCodec.readDirections(reader)));
+    }
+}
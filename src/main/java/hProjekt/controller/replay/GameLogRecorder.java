@@ -0,0 +1,166 @@
+package hProjekt.controller.replay;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+import org.jetbrains.annotations.Nullable;
+
+import hProjekt.controller.GameController;
+import hProjekt.controller.GameEventListener;
+import hProjekt.controller.PlayerController;
+import hProjekt.controller.actions.PlayerAction;
+
+/**
+ * Records a game into a {@link GameLog}.
+ * <p>
+ * When the game starts, the recorder captures the {@link GameLog.Header} with
+ * the seed of the game's {@link GameController#getRandom() random number
+ * generator}.
+ * Every action is then appended to the log when it starts, so actions that
+ * wait for further actions while they are executed, like
+ * {@link hProjekt.controller.actions.StartDrive}, are logged before them and
+ * the log can be replayed in order. Rejected actions are removed again. If a
+ * stream was given, the actions are written and flushed as soon as the
+ * outermost action is executed, so the log survives a crash of the game.
+ * Recording errors are printed and stop the recording, but never the game.
+ */
+public class GameLogRecorder implements GameEventListener {
+    private static final DateTimeFormatter FILE_NAME_FORMAT = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+    private final String mapId;
+    private @Nullable OutputStream out;
+    private final Deque<Integer> running = new ArrayDeque<>();
+    private GameLog log;
+    private int written;
+
+    /**
+     * Creates a new recorder.
+     *
+     * @param mapId the name of the saved map the game is played on
+     * @param out   the stream to write the log to or {@code null} to only keep it
+     *              in memory
+     */
+    public GameLogRecorder(final String mapId, final @Nullable OutputStream out) {
+        this.mapId = mapId;
+        this.out = out;
+    }
+
+    /**
+     * Creates a recorder that writes to a new file in the given directory.
+     *
+     * @param directory the directory to create the file in
+     * @param mapId     the name of the saved map the game is played on
+     * @return the new recorder or {@code null} if the file couldn't be created
+     */
+    public static @Nullable GameLogRecorder createIn(final Path directory, final String mapId) {
+        final String fileName = LocalDateTime.now().format(FILE_NAME_FORMAT) + "-"
+                + mapId.replaceAll("[^A-Za-z0-9_-]", "_") + GameLog.FILE_EXTENSION;
+        try {
+            Files.createDirectories(directory);
+            return new GameLogRecorder(mapId,
+                    new BufferedOutputStream(Files.newOutputStream(directory.resolve(fileName))));
+        } catch (final IOException e) {
+            System.out.println("Couldn't create game log: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Returns the recorded log.
+     *
+     * @return the recorded log or {@code null} if the game hasn't started yet
+     */
+    public GameLog getLog() {
+        return log;
+    }
+
+    @Override
+    public void onGameStart(final GameController gameController) {
+        log = new GameLog(GameLog.Header.capture(gameController.getSeed(), mapId, gameController.getState()));
+        running.clear();
+        written = 0;
+        if (out != null) {
+            try {
+                log.writeHeader(out);
+                out.flush();
+            } catch (final IOException e) {
+                stopWriting(e);
+            }
+        }
+    }
+
+    @Override
+    public void onActionStart(final PlayerController playerController, final PlayerAction action) {
+        running.push(log.size());
+        log.append(playerController.getPlayer(), action);
+    }
+
+    @Override
+    public void onActionRejected(final PlayerController playerController, final PlayerAction action) {
+        log.truncate(running.pop());
+    }
+
+    @Override
+    public void afterAction(final PlayerController playerController, final PlayerAction action) {
+        running.pop();
+        if (running.isEmpty()) {
+            writeEntries();
+        }
+    }
+
+    @Override
+    public void onGameEnd(final GameController gameController) {
+        // actions that were running when the game was stopped were still executed in part
+        writeEntries();
+        closeStream();
+    }
+
+    /**
+     * Writes the actions that weren't written yet to the stream, if any.
+     */
+    private void writeEntries() {
+        if (out == null) {
+            return;
+        }
+        try {
+            for (; written < log.size(); written++) {
+                log.writeEntry(out, written);
+            }
+            out.flush();
+        } catch (final IOException e) {
+            stopWriting(e);
+        }
+    }
+
+    /**
+     * Closes the stream the log is written to, if any.
+     */
+    private void closeStream() {
+        if (out != null) {
+            try {
+                out.close();
+            } catch (final IOException e) {
+                e.printStackTrace();
+            }
+            out = null;
+        }
+    }
+
+    /**
+     * Stops writing the log after an error. The log is still kept in memory.
+     *
+     * @param e the error that occurred
+     */
+    private void stopWriting(final IOException e) {
+        System.out.println("Couldn't write game log: " + e.getMessage());
+        e.printStackTrace();
+        closeStream();
+    }
+}
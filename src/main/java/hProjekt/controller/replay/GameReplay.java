@@ -0,0 +1,285 @@
+package hProjekt.controller.replay;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Function;
+
+import org.jetbrains.annotations.Nullable;
+
+import hProjekt.controller.GameController;
+import hProjekt.controller.GameEventListener;
+import hProjekt.controller.MapSaveController;
+import hProjekt.controller.PlayerController;
+import hProjekt.controller.actions.IllegalActionException;
+import hProjekt.controller.actions.PlayerAction;
+import hProjekt.model.GameState;
+import hProjekt.model.PlayerImpl;
+import hProjekt.model.cards.PathCard;
+import hProjekt.model.grid.HexGrid;
+import hProjekt.model.grid.Statue;
+import hProjekt.model.snapshot.GameSnapshot;
+import hProjekt.model.snapshot.GameSnapshotDelta;
+
+/**
+ * Rebuilds the state of a logged game by executing its {@link GameLog}
+ * headlessly.
+ * <p>
+ * The game is set up from the {@link GameLog.Header} and run by a regular
+ * {@link GameController} on the calling thread. Instead of waiting for input,
+ * every player controller is fed the next logged action as soon as it waits for
+ * one, so no thread ever blocks. All players are replayed as humans, their AI
+ * controllers are not created.
+ * <p>
+ * The state after {@code k} actions is the state of the game when the action
+ * at index {@code k} is taken, or when the next action is awaited after the
+ * last one. Since actions like {@link hProjekt.controller.actions.StartDrive}
+ * wait for further actions while they are executed, this is the state right
+ * before the action at index {@code k} is executed and not necessarily right
+ * after the action at index {@code k - 1} finished.
+ * <p>
+ * For fast seeking, the first call to {@link #seek(int)} replays the whole log
+ * once and keeps a {@link GameSnapshot} every {@link #KEYFRAME_INTERVAL}
+ * actions plus the {@link GameSnapshotDelta} of every action. Any later seek
+ * binary searches the nearest preceding keyframe and applies at most
+ * {@link #KEYFRAME_INTERVAL} deltas.
+ * <p>
+ * The replayed game draws from its own random number generator, seeded with
+ * the logged seed, so it gets the same path cards as the logged game and
+ * replays can run next to live games.
+ */
+public class GameReplay {
+    /**
+     * The number of actions between two keyframes.
+     */
+    public static final int KEYFRAME_INTERVAL = 64;
+
+    private final GameLog log;
+    private final Function<String, HexGrid> mapLoader;
+
+    private final List<Integer> keyframeIndices = new ArrayList<>();
+    private final List<GameSnapshot> keyframes = new ArrayList<>();
+    private final List<GameSnapshotDelta> deltas = new ArrayList<>();
+    private boolean indexed = false;
+
+    /**
+     * Creates a new replay that loads maps via {@link MapSaveController}.
+     *
+     * @param log the log to replay
+     */
+    public GameReplay(final GameLog log) {
+        this(log, MapSaveController::loadMap);
+    }
+
+    /**
+     * Creates a new replay.
+     *
+     * @param log       the log to replay
+     * @param mapLoader loads a fresh grid for a map name, returns {@code null} if
+     *                  the map doesn't exist
+     */
+    public GameReplay(final GameLog log, final Function<String, HexGrid> mapLoader) {
+        this.log = log;
+        this.mapLoader = mapLoader;
+    }
+
+    /**
+     * Returns the replayed log.
+     *
+     * @return the replayed log
+     */
+    public GameLog getLog() {
+        return log;
+    }
+
+    /**
+     * Executes the first {@code actionCount} actions of the log in a new game and
+     * returns its controller. The game loop is left waiting for the next action,
+     * so the controller cannot be continued.
+     *
+     * @param actionCount the number of actions to execute
+     * @return the controller of the replayed game
+     * @throws IndexOutOfBoundsException if the log has less actions
+     * @throws IllegalStateException     if the map doesn't exist or the game
+     *                                   diverges from the log
+     */
+    public GameController replayTo(final int actionCount) {
+        if (actionCount < 0 || actionCount > log.size()) {
+            throw new IndexOutOfBoundsException(actionCount);
+        }
+        return run(new Feeder(actionCount, false));
+    }
+
+    /**
+     * Returns the snapshot of the game after the first {@code actionCount}
+     * actions of the log.
+     *
+     * @param actionCount the number of executed actions
+     * @return the snapshot of the game after the given number of actions
+     * @throws IndexOutOfBoundsException if the log has less actions
+     * @throws IllegalStateException     if the map doesn't exist or the game
+     *                                   diverges from the log
+     */
+    public GameSnapshot seek(final int actionCount) {
+        if (actionCount < 0 || actionCount > log.size()) {
+            throw new IndexOutOfBoundsException(actionCount);
+        }
+        if (!indexed) {
+            keyframeIndices.clear();
+            keyframes.clear();
+            deltas.clear();
+            run(new Feeder(log.size(), true));
+            indexed = true;
+        }
+        final int search = Collections.binarySearch(keyframeIndices, actionCount);
+        final int keyframe = search >= 0 ? search : -search - 2;
+        GameSnapshot snapshot = keyframes.get(keyframe);
+        for (int i = keyframeIndices.get(keyframe); i < actionCount; i++) {
+            snapshot = deltas.get(i).apply(snapshot);
+        }
+        return snapshot;
+    }
+
+    /**
+     * Sets up a new game from the header of the log and runs it until the given
+     * feeder stops it.
+     *
+     * @param feeder the feeder providing the logged actions
+     * @return the controller of the replayed game
+     */
+    private GameController run(final Feeder feeder) {
+        final GameLog.Header header = log.getHeader();
+        final HexGrid grid = mapLoader.apply(header.mapId());
+        if (grid == null) {
+            throw new IllegalStateException("Unknown map " + header.mapId());
+        }
+        grid.getTiles().values().forEach(tile -> tile.setHasAmulet(header.amuletTiles().contains(tile.getPosition())));
+        header.statueDirections().forEach((position, direction) -> {
+            if (grid.getStructures().get(position) instanceof final Statue statue) {
+                statue.setDirection(direction);
+            }
+        });
+
+        final GameState state = new GameState(grid, new ArrayList<>());
+        header.players().forEach(player -> state.addPlayer(new PlayerImpl.Builder(player.id())
+                .name(player.name())
+                .color(player.color())
+                .build(grid)));
+        state.getTreasureDeck().clear();
+        state.getTreasureDeck().addAll(header.treasureDeck());
+
+        final GameController gameController = new GameController(state, header.seed());
+        gameController.addGameEventListener(feeder);
+        try {
+            gameController.startGame();
+        } catch (final ReplayStoppedException e) {
+            // The requested number of actions was executed
+        }
+        return gameController;
+    }
+
+    /**
+     * Thrown by the {@link Feeder} to leave the game loop once all requested
+     * actions were executed.
+     */
+    private static class ReplayStoppedException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        ReplayStoppedException() {
+            super(null, null, false, false);
+        }
+    }
+
+    /**
+     * Feeds the logged actions into the waiting player controllers and
+     * optionally records keyframes and deltas.
+     */
+    private class Feeder implements GameEventListener {
+        private final int actionCount;
+        private final boolean index;
+        private int executed = 0;
+        private int triggered = -1;
+        private int recorded = 0;
+        private @Nullable GameController gameController;
+        private @Nullable GameSnapshot previous;
+
+        /**
+         * Creates a new feeder.
+         *
+         * @param actionCount the number of actions to execute
+         * @param index       whether to record keyframes and deltas
+         */
+        Feeder(final int actionCount, final boolean index) {
+            this.actionCount = actionCount;
+            this.index = index;
+        }
+
+        @Override
+        public void onGameStart(final GameController gameController) {
+            this.gameController = gameController;
+        }
+
+        @Override
+        public void onGameEnd(final GameController gameController) {
+            if (executed == actionCount) {
+                record();
+            }
+        }
+
+        @Override
+        public void beforeAction(final PlayerController playerController) {
+            if (executed == actionCount) {
+                record();
+                throw new ReplayStoppedException();
+            }
+            if (triggered == executed) {
+                throw new IllegalStateException("Logged action " + executed + " was rejected");
+            }
+            if (log.getPlayerId(executed) != playerController.getPlayer().getID()) {
+                throw new IllegalStateException(String.format("Logged action %d belongs to player %d, not %d",
+                        executed, log.getPlayerId(executed), playerController.getPlayer().getID()));
+            }
+            final List<PathCard> playableCards = playerController.getPlayerState().validPathCards().values().stream()
+                    .flatMap(List::stream)
+                    .toList();
+            try {
+                playerController.triggerAction(
+                        log.getAction(executed, gameController.getState().getGrid(), playableCards));
+            } catch (final IllegalActionException e) {
+                throw new IllegalStateException("Logged action " + executed + " cannot be decoded", e);
+            }
+            triggered = executed;
+        }
+
+        @Override
+        public void onActionStart(final PlayerController playerController, final PlayerAction action) {
+            record();
+            executed++;
+        }
+
+        @Override
+        public void onActionRejected(final PlayerController playerController, final PlayerAction action) {
+            throw new IllegalStateException("Logged action " + (executed - 1) + " was rejected");
+        }
+
+        /**
+         * Records the snapshot of the game after the executed actions, if
+         * indexing and not recorded yet.
+         */
+        private void record() {
+            if (!index || recorded > executed) {
+                return;
+            }
+            final GameSnapshot next = GameSnapshot.capture(gameController.getState());
+            if (previous != null) {
+                deltas.add(GameSnapshotDelta.between(previous, next));
+            }
+            if (executed % KEYFRAME_INTERVAL == 0) {
+                keyframeIndices.add(executed);
+                keyframes.add(next);
+            }
+            previous = next;
+            recorded = executed + 1;
+        }
+    }
+}
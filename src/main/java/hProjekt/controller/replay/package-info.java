@@ -0,0 +1,4 @@
+/**
+ * Contains the action log of played games and the engine that replays them.
+ */
+package hProjekt.controller.replay;
@@ -0,0 +1,84 @@
+package hProjekt.model.cards;
+
+import java.util.Comparator;
+import java.util.Objects;
+
+import org.jetbrains.annotations.Nullable;
+
+import hProjekt.model.Player;
+import hProjekt.model.grid.TilePosition;
+import hProjekt.model.grid.Types;
+
+/**
+ * A value representation of a {@link PathCard}.
+ * <p>
+ * A {@link PathCard} holds a filter function and a reference to its owner, so
+ * it can neither be compared by value nor be sent over the wire. This record
+ * captures everything needed to identify the card and to construct an
+ * equivalent one again.
+ *
+ * @param ownerId     the id of the {@link Player} that owns the card, or
+ *                    {@code 0} if the card has no owner
+ * @param type        the {@link CardType} of the card, {@code null} for a
+ *                    {@link RemoveTileCard}
+ * @param filterType  the type the card filters for, can be null (null is the
+ *                    ocean)
+ * @param removedTile the position removed by a {@link RemoveTileCard},
+ *                    {@code null} for all other cards
+ */
+public record PathCardKey(int ownerId, @Nullable CardType type, @Nullable Types filterType,
+        @Nullable TilePosition removedTile) {
+
+    /**
+     * A total order on keys that ignores the owner. Used to bring unordered
+     * collections of cards, like a player's hand, into a canonical order.
+     */
+    public static final Comparator<PathCardKey> ORDER = Comparator
+            .comparing(PathCardKey::removedTile, Comparator.nullsFirst(Comparator.naturalOrder()))
+            .thenComparing(PathCardKey::type, Comparator.nullsFirst(Comparator.naturalOrder()))
+            .thenComparing(key -> key.filterType() == null ? "" : key.filterType().name());
+
+    /**
+     * Creates the key of the given card.
+     *
+     * @param card the card to create the key for
+     * @return the key of the given card
+     */
+    public static PathCardKey of(final PathCard card) {
+        final int ownerId = card.getPlayer() == null ? 0 : card.getPlayer().getID();
+        if (card instanceof final RemoveTileCard removeTileCard) {
+            return new PathCardKey(ownerId, null, null, removeTileCard.getTilePosition());
+        }
+        return new PathCardKey(ownerId, card.getType(), card.getFilterType(), null);
+    }
+
+    /**
+     * Checks whether the given card is described by this key. The owner is not
+     * taken into account.
+     *
+     * @param card the card to check
+     * @return {@code true} if the card has the same type, filter type and removed
+     *         tile as this key, {@code false} otherwise
+     */
+    public boolean matches(final PathCard card) {
+        if (card instanceof final RemoveTileCard removeTileCard) {
+            return removedTile != null && removedTile.equals(removeTileCard.getTilePosition());
+        }
+        return removedTile == null && type == card.getType() && Objects.equals(filterType, card.getFilterType());
+    }
+
+    /**
+     * Constructs a new card described by this key.
+     *
+     * @param owner the {@link Player} owning the new card, ignored for
+     *              {@link RemoveTileCard}s
+     * @return a new {@link PathCard} equivalent to the card this key was created
+     *         from
+     */
+    public PathCard toCard(@Nullable final Player owner) {
+        if (removedTile != null) {
+            return new RemoveTileCard(removedTile);
+        }
+        return Objects.requireNonNull(type, "type").cardConstructor.apply(owner, filterType);
+    }
+}
@@ -8,6 +8,7 @@ import hProjekt.model.grid.TilePosition;
  * trail.
  */
 public class RemoveTileCard extends PathCard {
+    private final TilePosition tilePosition;
 
     /**
      * Constructs a {@code RemoveTileCard} that is used to filter and target
@@ -18,5 +19,15 @@ public class RemoveTileCard extends PathCard {
      */
     public RemoveTileCard(final TilePosition tilePosition) {
         super(null, (tile -> !tile.getPosition().equals(tilePosition)), null);
+        this.tilePosition = tilePosition;
+    }
+
+    /**
+     * Returns the position of the tile this card removes from the treasure trail.
+     *
+     * @return the {@link TilePosition} of the removed tile
+     */
+    public TilePosition getTilePosition() {
+        return tilePosition;
     }
 }
@@ -0,0 +1,238 @@
+package hProjekt.model.cards;
+
+import hProjekt.Config;
+
+/**
+ * Exact odds of drawing {@link CurseCard}s and collecting {@link GoldCard}s
+ * from the treasure deck.
+ * <p>
+ * The deck holds {@link Config#TOP_PILE_GOLD_CARDS} gold cards on top of
+ * {@link Config#LOWER_PILE_GOLD_CARDS} gold cards shuffled together with
+ * {@link Config#TOTAL_CURSE_CARDS} curses. Drawn curses are revealed, so the
+ * chance that a collection hits a curse only depends on the depth of the deck,
+ * the number of curses left in it and the number of cards drawn. The curses
+ * left are spread evenly over the rest of the lower pile, so the number of
+ * curses among the drawn cards is hypergeometric over the part of it the drawn
+ * cards cover. These distributions are computed once for every number of
+ * curses left, depth and number of drawn cards when the class is loaded, so
+ * all queries are table lookups. The drawn cards are shuffled and handed out
+ * until the first curse, which gives the number of gold cards collected.
+ */
+public final class TreasureOdds {
+
+    /**
+     * The number of cards in a full treasure deck.
+     */
+    public static final int DECK_SIZE = Config.TOP_PILE_GOLD_CARDS + Config.LOWER_PILE_GOLD_CARDS
+            + Config.TOTAL_CURSE_CARDS;
+
+    /**
+     * The expected value of a single gold card.
+     */
+    public static final double MEAN_GOLD_VALUE = (Config.MAX_GOLD_CARD_VALUE + 1) / 2.0;
+
+    private static final int CURSES = Config.TOTAL_CURSE_CARDS;
+    private static final double[][] BINOMIALS = binomials(DECK_SIZE);
+
+    /**
+     * The probability of drawing exactly {@code k} curses, indexed by
+     * {@link #index(int, int, int)} plus {@code k}.
+     */
+    private static final float[] CURSE_DISTRIBUTION = new float[(CURSES + 1) * (DECK_SIZE + 1) * (DECK_SIZE + 1)
+            * (CURSES + 1)];
+
+    /**
+     * The expected number of gold cards handed out before the first curse,
+     * indexed by {@link #index(int, int, int)} divided by {@code CURSES + 1}.
+     */
+    private static final float[] EXPECTED_GOLD_CARDS = new float[(CURSES + 1) * (DECK_SIZE + 1) * (DECK_SIZE + 1)];
+
+    static {
+        final int lowerPile = Config.LOWER_PILE_GOLD_CARDS + CURSES;
+        for (int cursesLeft = 0; cursesLeft <= CURSES; cursesLeft++) {
+            for (int depth = 0; depth <= DECK_SIZE; depth++) {
+                final int rest = lowerPile - Math.max(0, depth - Config.TOP_PILE_GOLD_CARDS);
+                final int left = Math.min(cursesLeft, rest);
+                for (int drawn = 0; depth + drawn <= DECK_SIZE; drawn++) {
+                    final int covered = Math.max(0, depth + drawn - Math.max(depth, Config.TOP_PILE_GOLD_CARDS));
+                    final int index = index(depth, cursesLeft, drawn);
+                    double expected = 0;
+                    for (int k = 0; k <= CURSES; k++) {
+                        final double probability = binomial(left, k) * binomial(rest - left, covered - k)
+                                / binomial(rest, covered);
+                        CURSE_DISTRIBUTION[index + k] = (float) probability;
+                        if (k <= drawn) {
+                            expected += probability * (drawn - k) / (k + 1);
+                        }
+                    }
+                    EXPECTED_GOLD_CARDS[index / (CURSES + 1)] = (float) expected;
+                }
+            }
+        }
+    }
+
+    private TreasureOdds() {
+    }
+
+    /**
+     * Returns the probability that exactly the given number of curses is among
+     * the drawn cards.
+     *
+     * @param depth      the number of cards already drawn from the deck
+     * @param cursesLeft the number of curses left in the deck
+     * @param drawn      the number of cards drawn for the collection, including
+     *                   the extra card from the deck
+     * @param curses     the number of curses
+     * @return the probability
+     */
+    public static double curseProbability(final int depth, final int cursesLeft, final int drawn, final int curses) {
+        if (curses < 0 || curses > CURSES) {
+            return 0;
+        }
+        return CURSE_DISTRIBUTION[index(depth, cursesLeft, drawn) + curses];
+    }
+
+    /**
+     * Returns the probability that at least one curse is among the drawn cards.
+     *
+     * @param depth      the number of cards already drawn from the deck
+     * @param cursesLeft the number of curses left in the deck
+     * @param drawn      the number of cards drawn for the collection
+     * @return the probability
+     */
+    public static double curseRisk(final int depth, final int cursesLeft, final int drawn) {
+        return 1 - CURSE_DISTRIBUTION[index(depth, cursesLeft, drawn)];
+    }
+
+    /**
+     * Returns the probability that a curse is among the cards that are still to
+     * be handed out after the given number of gold cards was handed out.
+     *
+     * @param depth      the number of cards drawn from the deck before the
+     *                   collection
+     * @param cursesLeft the number of curses left in the deck before the
+     *                   collection
+     * @param drawn      the number of cards drawn for the collection
+     * @param dealt      the number of gold cards already handed out
+     * @return the probability
+     */
+    public static double remainingCurseRisk(final int depth, final int cursesLeft, final int drawn,
+            final int dealt) {
+        final int index = index(depth, cursesLeft, drawn);
+        final int n = Math.min(drawn, DECK_SIZE - Math.max(0, Math.min(depth, DECK_SIZE)));
+        final int left = n - Math.max(0, dealt);
+        if (left <= 0) {
+            return 0;
+        }
+        double clean = 0;
+        double total = 0;
+        for (int k = 0; k <= CURSES && k <= left; k++) {
+            // the first dealt cards were all gold
+            final double weight = CURSE_DISTRIBUTION[index + k] * binomial(left, k) / binomial(n, k);
+            total += weight;
+            if (k == 0) {
+                clean = weight;
+            }
+        }
+        return total == 0 ? 0 : 1 - clean / total;
+    }
+
+    /**
+     * Returns the probability that exactly the given number of gold cards is
+     * handed out before the first curse or the end of the drawn cards.
+     *
+     * @param depth      the number of cards already drawn from the deck
+     * @param cursesLeft the number of curses left in the deck
+     * @param drawn      the number of cards drawn for the collection
+     * @param cards      the number of gold cards
+     * @return the probability
+     */
+    public static double goldCardsProbability(final int depth, final int cursesLeft, final int drawn,
+            final int cards) {
+        final int index = index(depth, cursesLeft, drawn);
+        final int n = Math.min(drawn, DECK_SIZE - Math.max(0, Math.min(depth, DECK_SIZE)));
+        if (cards < 0 || cards > n) {
+            return 0;
+        }
+        double probability = cards == n ? CURSE_DISTRIBUTION[index] : 0;
+        for (int k = 1; k <= CURSES && k <= n; k++) {
+            // the first curse lies right after the gold cards
+            probability += CURSE_DISTRIBUTION[index + k] * binomial(n - cards - 1, k - 1) / binomial(n, k);
+        }
+        return probability;
+    }
+
+    /**
+     * Returns the expected number of gold cards handed out before the first
+     * curse.
+     *
+     * @param depth      the number of cards already drawn from the deck
+     * @param cursesLeft the number of curses left in the deck
+     * @param drawn      the number of cards drawn for the collection
+     * @return the expected number of gold cards
+     */
+    public static double expectedGoldCards(final int depth, final int cursesLeft, final int drawn) {
+        return EXPECTED_GOLD_CARDS[index(depth, cursesLeft, drawn) / (CURSES + 1)];
+    }
+
+    /**
+     * Returns the expected amount of gold handed out before the first curse.
+     *
+     * @param depth      the number of cards already drawn from the deck
+     * @param cursesLeft the number of curses left in the deck
+     * @param drawn      the number of cards drawn for the collection
+     * @return the expected amount of gold
+     */
+    public static double expectedGold(final int depth, final int cursesLeft, final int drawn) {
+        return expectedGoldCards(depth, cursesLeft, drawn) * MEAN_GOLD_VALUE;
+    }
+
+    /**
+     * Returns the index of the curse distribution for a depth, number of curses
+     * left and number of drawn cards, all clamped to the deck.
+     *
+     * @param depth      the number of cards already drawn from the deck
+     * @param cursesLeft the number of curses left in the deck
+     * @param drawn      the number of cards drawn
+     * @return the index of the probability of drawing no curse
+     */
+    private static int index(final int depth, final int cursesLeft, final int drawn) {
+        final int c = Math.max(0, Math.min(cursesLeft, CURSES));
+        final int d = Math.max(0, Math.min(depth, DECK_SIZE));
+        final int n = Math.max(0, Math.min(drawn, DECK_SIZE - d));
+        return ((c * (DECK_SIZE + 1) + d) * (DECK_SIZE + 1) + n) * (CURSES + 1);
+    }
+
+    /**
+     * Returns a binomial coefficient, {@code 0} outside of the triangle.
+     *
+     * @param n the size of the set
+     * @param k the size of the subset
+     * @return the number of subsets
+     */
+    private static double binomial(final int n, final int k) {
+        if (n < 0 || k < 0 || k > n) {
+            return 0;
+        }
+        return BINOMIALS[n][k];
+    }
+
+    /**
+     * Computes Pascal's triangle.
+     *
+     * @param size the largest set size
+     * @return the binomial coefficients
+     */
+    private static double[][] binomials(final int size) {
+        final double[][] binomials = new double[size + 1][];
+        for (int n = 0; n <= size; n++) {
+            binomials[n] = new double[n + 1];
+            binomials[n][0] = 1;
+            binomials[n][n] = 1;
+            for (int k = 1; k < n; k++) {
+                binomials[n][k] = binomials[n - 1][k - 1] + binomials[n - 1][k];
+            }
+        }
+        return binomials;
+    }
+}
@@ -0,0 +1,152 @@
+package hProjekt.model.grid;
+
+import java.nio.ByteBuffer;
+
+import org.jetbrains.annotations.Nullable;
+
+import hProjekt.controller.GameSetup;
+
+/**
+ * A {@link HexGrid} built from a raster of tile types, as stored in map files.
+ * <p>
+ * The raster covers the bounding box of the map in axial coordinates. It is
+ * ordered by {@code q} and then by {@code r}, the natural order of
+ * {@link TilePosition}s, and holds one cell of four bits per position, the
+ * high nibble of a byte first. An empty cell is {@code 0}, a tile is the
+ * ordinal of its {@link Tile.Type} plus one. The tiles and structures are
+ * added straight from the raster, without maps of types in between, and the
+ * raster is kept, so the type of a tile can be looked up without the tile.
+ * The raster isn't copied, the grid serves {@link #getTileType(TilePosition)}
+ * straight from the given buffer.
+ */
+public class RasterHexGrid extends HexGridImpl {
+
+    private final int minQ;
+    private final int minR;
+    private final int width;
+    private final int height;
+    private final ByteBuffer cells;
+    private final long contentHash;
+    private @Nullable GameSetup gameSetup;
+
+    /**
+     * Creates a new grid from a raster.
+     *
+     * @param minQ           the smallest {@code q} of the raster
+     * @param minR           the smallest {@code r} of the raster
+     * @param width          the number of {@code q} values of the raster
+     * @param height         the number of {@code r} values of the raster
+     * @param cells          the cells of the raster from the current position
+     *                       on, not copied
+     * @param structureCells the cells holding a structure, ascending
+     * @param structureTypes the type of every structure
+     * @param contentHash    the hash of the tiles and structures
+     */
+    public RasterHexGrid(final int minQ, final int minR, final int width, final int height, final ByteBuffer cells,
+            final int[] structureCells, final Structure.Type[] structureTypes, final long contentHash) {
+        this.minQ = minQ;
+        this.minR = minR;
+        this.width = width;
+        this.height = height;
+        this.cells = cells.slice(cells.position(), cellBytes(width, height)).asReadOnlyBuffer();
+        this.contentHash = contentHash;
+
+        final Tile.Type[] types = Tile.Type.values();
+        for (int cell = 0; cell < width * height; cell++) {
+            final int value = cell(cell);
+            if (value != 0) {
+                addTile(position(cell), types[value - 1]);
+            }
+        }
+        for (int i = 0; i < structureCells.length; i++) {
+            final TilePosition position = position(structureCells[i]);
+            structures.put(position, switch (structureTypes[i]) {
+                case STATUE -> new Statue(position, this, TilePosition.EdgeDirection.values()[random
+                        .nextInt(TilePosition.EdgeDirection.values().length)]);
+                default -> new StructureImpl(position, this, structureTypes[i]);
+            });
+        }
+
+        initEdges();
+        initAreas();
+    }
+
+    /**
+     * Returns the number of bytes of a raster with the given size.
+     *
+     * @param width  the number of {@code q} values of the raster
+     * @param height the number of {@code r} values of the raster
+     * @return the number of bytes
+     */
+    public static int cellBytes(final int width, final int height) {
+        return (int) (((long) width * height + 1) / 2);
+    }
+
+    /**
+     * Returns the type of the tile at the given position, read from the raster.
+     *
+     * @param position the position
+     * @return the type or {@code null} if there is no tile
+     */
+    public @Nullable Tile.Type getTileType(final TilePosition position) {
+        final int q = position.q() - minQ;
+        final int r = position.r() - minR;
+        if (q < 0 || q >= width || r < 0 || r >= height) {
+            return null;
+        }
+        final int value = cell(q * height + r);
+        return value == 0 ? null : Tile.Type.values()[value - 1];
+    }
+
+    /**
+     * Returns the hash of the tiles and structures this grid was built from.
+     *
+     * @return the content hash
+     */
+    public long getContentHash() {
+        return contentHash;
+    }
+
+    /**
+     * Lets the grid carry the setup of the game it is played in to the game's
+     * controller, see {@link GameSetup#attachTo(HexGrid)}.
+     *
+     * @param gameSetup the setup
+     */
+    public synchronized void setGameSetup(final @Nullable GameSetup gameSetup) {
+        this.gameSetup = gameSetup;
+    }
+
+    /**
+     * Returns the setup the grid carries and removes it from the grid.
+     *
+     * @return the setup or {@code null} if the grid carries none
+     */
+    public synchronized @Nullable GameSetup takeGameSetup() {
+        final GameSetup taken = gameSetup;
+        gameSetup = null;
+        return taken;
+    }
+
+    /**
+     * Returns the value of a cell of the raster.
+     *
+     * @param cell the index of the cell
+     * @return {@code 0} for no tile, the ordinal of the tile type plus one
+     *         otherwise
+     */
+    private int cell(final int cell) {
+        final int bits = cells.get(cell >>> 1);
+        return (cell & 1) == 0 ? (bits >>> 4) & 0xF : bits & 0xF;
+    }
+
+    /**
+     * Returns the position of a cell of the raster.
+     *
+     * @param cell the index of the cell
+     * @return the position
+     */
+    private TilePosition position(final int cell) {
+        return new TilePosition(minQ + cell / height, minR + cell % height);
+    }
+}
@@ -41,6 +41,16 @@ public class Statue extends StructureImpl {
         return direction;
     }
 
+    /**
+     * Faces the statue in the given direction, as when a saved state is
+     * restored.
+     *
+     * @param direction the direction the statue faces
+     */
+    public void setDirection(final TilePosition.EdgeDirection direction) {
+        this.direction = direction;
+    }
+
     /**
      * Rotates the statue clockwise by changing its direction to the previous one in
      * the enumeration.
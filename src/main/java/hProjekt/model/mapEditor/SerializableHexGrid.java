@@ -9,9 +9,11 @@ import hProjekt.model.grid.Tile;
 import hProjekt.model.grid.TilePosition;
 
 /**
- * A serializable representation of a {@link HexGrid}.
+ * A serializable representation of a {@link HexGrid}, the map file format of
+ * older versions.
  * <p>
- * This class is used to persist the state of a hex map to a file. Instead of
+ * This class is only read to import legacy map files, see
+ * {@link hProjekt.controller.MapSaveController}. Instead of
  * storing complete {@link Tile} or {@link Structure} objects, this object
  * stores mappings of positions to their corresponding enumeration types.
  *
@@ -0,0 +1,77 @@
+package hProjekt.model.snapshot;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import hProjekt.Config;
+import hProjekt.model.GameState;
+import hProjekt.model.cards.PathCardKey;
+import hProjekt.model.grid.HexGrid;
+import hProjekt.model.grid.Statue;
+import hProjekt.model.grid.Tile;
+import hProjekt.model.grid.TilePosition;
+
+/**
+ * An immutable snapshot of everything a spectator can observe in a
+ * {@link GameState}.
+ * <p>
+ * The static map is not part of the snapshot, only the parts of the game that
+ * change while playing. The order of the treasure deck is hidden information,
+ * so only its depth is captured. A captured snapshot contains the hands of all
+ * players; what a single player or a spectator may see of them is
+ * {@link #viewedBy(int)}.
+ *
+ * @param players          the snapshots of all players in the order of
+ *                         {@link GameState#getPlayers()}
+ * @param trails           the keys of the cards on each treasure trail, indexed
+ *                         like {@link Config#TREASURE_TRAIL_COLORS}
+ * @param amuletTiles      the positions of all tiles that have an amulet
+ * @param statueDirections the direction each statue is facing
+ * @param deckSize         the number of cards left in the treasure deck
+ *
+ * @see GameSnapshotDelta
+ */
+public record GameSnapshot(List<PlayerSnapshot> players, List<List<PathCardKey>> trails,
+        Set<TilePosition> amuletTiles, Map<TilePosition, TilePosition.EdgeDirection> statueDirections,
+        int deckSize) {
+
+    /**
+     * Captures the current state of the given game.
+     *
+     * @param state the game state to capture
+     * @return a snapshot of the current state
+     */
+    public static GameSnapshot capture(final GameState state) {
+        final HexGrid grid = state.getGrid();
+        return new GameSnapshot(
+                state.getPlayers().stream().map(PlayerSnapshot::capture).toList(),
+                Config.TREASURE_TRAIL_COLORS.stream()
+                        .map(color -> state.getTreasureTrails().get(color).stream().map(PathCardKey::of).toList())
+                        .toList(),
+                grid.getTiles().values().stream()
+                        .filter(Tile::hasAmulet)
+                        .map(Tile::getPosition)
+                        .collect(Collectors.toUnmodifiableSet()),
+                grid.getStructures().values().stream()
+                        .filter(Statue.class::isInstance)
+                        .map(Statue.class::cast)
+                        .collect(Collectors.toUnmodifiableMap(Statue::getPosition, Statue::getDirection)),
+                state.getTreasureDeck().size());
+    }
+
+    /**
+     * Returns this snapshot as seen by the given player, who only sees their own
+     * hand and the hand sizes of the other players.
+     *
+     * @param playerId the id of the viewing player or an id no player has, like
+     *                 the one of spectators, to hide all hands
+     * @return this snapshot with the hands of all other players hidden
+     */
+    public GameSnapshot viewedBy(final int playerId) {
+        return new GameSnapshot(
+                players.stream().map(player -> player.id() == playerId ? player : player.withoutHand()).toList(),
+                trails, amuletTiles, statueDirections, deckSize);
+    }
+}
@@ -0,0 +1,205 @@
+package hProjekt.model.snapshot;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+import org.jetbrains.annotations.Nullable;
+
+import hProjekt.model.cards.PathCardKey;
+import hProjekt.model.grid.TilePosition;
+
+/**
+ * The difference between two consecutive {@link GameSnapshot}s.
+ * <p>
+ * Only the parts that changed are contained: players that moved, collected or
+ * lost something, treasure trails that got cards appended or were cleared,
+ * amulets that appeared or were collected and statues that turned.
+ * {@link #apply(GameSnapshot)} turns the older snapshot into the newer one.
+ *
+ * @param players         the changes of all players that changed
+ * @param trails          the changes of all treasure trails that changed
+ * @param toggledAmulets  the positions of all tiles whose amulet flag changed
+ * @param turnedStatues   the new directions of all statues that turned
+ * @param deckSize        the number of cards left in the treasure deck
+ */
+public record GameSnapshotDelta(List<PlayerDelta> players, List<TrailDelta> trails,
+        Set<TilePosition> toggledAmulets, Map<TilePosition, TilePosition.EdgeDirection> turnedStatues,
+        int deckSize) {
+
+    /**
+     * The change of a single player.
+     *
+     * @param index          the index of the player in
+     *                       {@link GameSnapshot#players()}
+     * @param position       the new position of the player or {@code null} if it
+     *                       did not change
+     * @param amulets        the new number of amulets
+     * @param handSize       the new number of cards in the player's hand
+     * @param removedCards   the cards that left the player's hand
+     * @param addedCards     the cards that entered the player's hand
+     * @param keptGoldCards  the number of gold cards at the front of the list that
+     *                       did not change
+     * @param addedGoldCards the gold card values following the kept ones
+     */
+    public record PlayerDelta(int index, @Nullable TilePosition position, int amulets, int handSize,
+            List<PathCardKey> removedCards, List<PathCardKey> addedCards, int keptGoldCards,
+            List<Integer> addedGoldCards) {}
+
+    /**
+     * The change of a single treasure trail. Appending cards keeps the whole
+     * trail, clearing it keeps nothing.
+     *
+     * @param index         the index of the trail in {@link GameSnapshot#trails()}
+     * @param keptCards     the number of cards at the front of the trail that did
+     *                      not change
+     * @param appendedCards the cards following the kept ones
+     */
+    public record TrailDelta(int index, int keptCards, List<PathCardKey> appendedCards) {}
+
+    /**
+     * Computes the delta between the two given snapshots.
+     *
+     * @param from the older snapshot
+     * @param to   the newer snapshot
+     * @return the delta that turns {@code from} into {@code to}
+     * @throws IllegalArgumentException if the snapshots do not contain the same
+     *                                  players
+     */
+    public static GameSnapshotDelta between(final GameSnapshot from, final GameSnapshot to) {
+        if (from.players().size() != to.players().size()) {
+            throw new IllegalArgumentException("Snapshots contain different players");
+        }
+        final List<PlayerDelta> players = new ArrayList<>();
+        for (int i = 0; i < to.players().size(); i++) {
+            final PlayerSnapshot oldPlayer = from.players().get(i);
+            final PlayerSnapshot newPlayer = to.players().get(i);
+            if (oldPlayer.equals(newPlayer)) {
+                continue;
+            }
+            final int keptGoldCards = commonPrefix(oldPlayer.goldCards(), newPlayer.goldCards());
+            players.add(new PlayerDelta(i,
+                    Objects.equals(oldPlayer.position(), newPlayer.position()) ? null : newPlayer.position(),
+                    newPlayer.amulets(),
+                    newPlayer.handSize(),
+                    difference(oldPlayer.hand(), newPlayer.hand()),
+                    difference(newPlayer.hand(), oldPlayer.hand()),
+                    keptGoldCards,
+                    newPlayer.goldCards().subList(keptGoldCards, newPlayer.goldCards().size())));
+        }
+
+        final List<TrailDelta> trails = new ArrayList<>();
+        for (int i = 0; i < to.trails().size(); i++) {
+            final List<PathCardKey> oldTrail = from.trails().get(i);
+            final List<PathCardKey> newTrail = to.trails().get(i);
+            final int keptCards = commonPrefix(oldTrail, newTrail);
+            if (keptCards != oldTrail.size() || keptCards != newTrail.size()) {
+                trails.add(new TrailDelta(i, keptCards, newTrail.subList(keptCards, newTrail.size())));
+            }
+        }
+
+        final Set<TilePosition> toggledAmulets = new HashSet<>(from.amuletTiles());
+        toggledAmulets.removeAll(to.amuletTiles());
+        to.amuletTiles().stream().filter(position -> !from.amuletTiles().contains(position))
+                .forEach(toggledAmulets::add);
+
+        final Map<TilePosition, TilePosition.EdgeDirection> turnedStatues = new HashMap<>();
+        to.statueDirections().forEach((position, direction) -> {
+            if (from.statueDirections().get(position) != direction) {
+                turnedStatues.put(position, direction);
+            }
+        });
+
+        return new GameSnapshotDelta(players, trails, toggledAmulets, turnedStatues, to.deckSize());
+    }
+
+    /**
+     * Applies this delta to the given snapshot.
+     *
+     * @param snapshot the snapshot this delta was computed from
+     * @return the snapshot this delta was computed to
+     */
+    public GameSnapshot apply(final GameSnapshot snapshot) {
+        final List<PlayerSnapshot> newPlayers = new ArrayList<>(snapshot.players());
+        for (final PlayerDelta delta : players) {
+            final PlayerSnapshot player = newPlayers.get(delta.index());
+            final List<PathCardKey> hand = new ArrayList<>(player.hand());
+            delta.removedCards().forEach(hand::remove);
+            hand.addAll(delta.addedCards());
+            hand.sort(PathCardKey.ORDER);
+            final List<Integer> goldCards = new ArrayList<>(player.goldCards().subList(0, delta.keptGoldCards()));
+            goldCards.addAll(delta.addedGoldCards());
+            newPlayers.set(delta.index(), new PlayerSnapshot(player.id(),
+                    delta.position() == null ? player.position() : delta.position(), delta.amulets(),
+                    delta.handSize(), List.copyOf(hand), List.copyOf(goldCards)));
+        }
+
+        final List<List<PathCardKey>> newTrails = new ArrayList<>(snapshot.trails());
+        for (final TrailDelta delta : trails) {
+            final List<PathCardKey> trail = new ArrayList<>(newTrails.get(delta.index()).subList(0,
+                    delta.keptCards()));
+            trail.addAll(delta.appendedCards());
+            newTrails.set(delta.index(), List.copyOf(trail));
+        }
+
+        final Set<TilePosition> amuletTiles = new HashSet<>(snapshot.amuletTiles());
+        for (final TilePosition position : toggledAmulets) {
+            if (!amuletTiles.remove(position)) {
+                amuletTiles.add(position);
+            }
+        }
+
+        final Map<TilePosition, TilePosition.EdgeDirection> statueDirections = new HashMap<>(
+                snapshot.statueDirections());
+        statueDirections.putAll(turnedStatues);
+
+        return new GameSnapshot(List.copyOf(newPlayers), List.copyOf(newTrails), Set.copyOf(amuletTiles),
+                Map.copyOf(statueDirections), deckSize);
+    }
+
+    /**
+     * Returns whether this delta changes nothing but possibly the deck size.
+     *
+     * @param snapshot the snapshot this delta was computed from
+     * @return {@code true} if applying this delta yields an equal snapshot
+     */
+    public boolean isEmpty(final GameSnapshot snapshot) {
+        return players.isEmpty() && trails.isEmpty() && toggledAmulets.isEmpty() && turnedStatues.isEmpty()
+                && deckSize == snapshot.deckSize();
+    }
+
+    /**
+     * Returns the length of the common prefix of the given lists.
+     *
+     * @param a   the first list
+     * @param b   the second list
+     * @param <T> the type of the elements
+     * @return the number of leading elements both lists share
+     */
+    private static <T> int commonPrefix(final List<T> a, final List<T> b) {
+        int i = 0;
+        while (i < a.size() && i < b.size() && a.get(i).equals(b.get(i))) {
+            i++;
+        }
+        return i;
+    }
+
+    /**
+     * Returns the multiset difference {@code a - b}.
+     *
+     * @param a   the list to remove elements from
+     * @param b   the elements to remove
+     * @param <T> the type of the elements
+     * @return all elements of {@code a} that are not matched by an element of
+     *         {@code b}
+     */
+    private static <T> List<T> difference(final List<T> a, final List<T> b) {
+        final List<T> result = new ArrayList<>(a);
+        b.forEach(result::remove);
+        return result;
+    }
+}
@@ -0,0 +1,527 @@
+package hProjekt.model.snapshot;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import hProjekt.Config;
+import hProjekt.controller.actions.AcceptCurse;
+import hProjekt.controller.actions.AcceptTreasure;
+import hProjekt.controller.actions.CollectAmulet;
+import hProjekt.controller.actions.CollectTreasure;
+import hProjekt.controller.actions.ConfirmTreasureCards;
+import hProjekt.controller.actions.DriveAction;
+import hProjekt.controller.actions.EndTurn;
+import hProjekt.controller.actions.IllegalActionException;
+import hProjekt.controller.actions.PlayPathCard;
+import hProjekt.controller.actions.PlayerAction;
+import hProjekt.controller.actions.SelectPosition;
+import hProjekt.controller.actions.SelectTileToRemove;
+import hProjekt.controller.actions.StartDrive;
+import hProjekt.controller.actions.UseAmulet;
+import hProjekt.model.GameState;
+import hProjekt.model.Player;
+import hProjekt.model.PlayerImpl;
+import hProjekt.model.cards.GoldCard;
+import hProjekt.model.cards.PathCard;
+import hProjekt.model.cards.PathCardKey;
+import hProjekt.model.cards.RemoveTileCard;
+import hProjekt.model.cards.TreasureCard;
+import hProjekt.model.grid.HexGrid;
+import hProjekt.model.grid.Statue;
+import hProjekt.model.grid.Structure;
+import hProjekt.model.grid.Tile;
+import hProjekt.model.grid.TilePosition;
+import javafx.scene.paint.Color;
+
+/**
+ * An immutable state of a whole game that shares its structure with the states
+ * it was derived from.
+ * <p>
+ * Forking a state is free: since it is never modified, a fork is just another
+ * reference to it. Every {@code with...} method returns a new state that only
+ * copies what is on the path to the change (the player list, a single trail,
+ * or a path in the trie of amulet tiles) and shares everything else. The deck
+ * is stored as the full, shared card list and the number of cards left in it.
+ * {@link #apply(int, PlayerAction)} derives the state after a player's action
+ * the same way.
+ * <p>
+ * {@link #materialize(HexGrid)} turns a state back into a live
+ * {@link GameState} for the {@code hProjekt.controller.GameController}.
+ *
+ * @param deck             all cards of the treasure deck from bottom to top,
+ *                         including the ones already drawn
+ * @param deckDepth        the number of cards left in the treasure deck
+ * @param players          the players in turn order
+ * @param trails           the keys of the cards on each treasure trail, indexed
+ *                         like {@link Config#TREASURE_TRAIL_COLORS}
+ * @param amuletTiles      the positions of all tiles that have an amulet, each
+ *                         mapped to {@code true}
+ * @param statueDirections the direction each statue is facing
+ * @param zobristHash      the {@link Zobrist} hash of the state, maintained in
+ *                         constant time by the {@code with...} methods except
+ *                         {@link #withTrailCleared(Color)}, which is linear in
+ *                         the length of the trail
+ */
+public record PersistentGameState(List<TreasureCard> deck, int deckDepth, List<PersistentPlayer> players,
+        List<PersistentStack<PathCardKey>> trails, PersistentMap<TilePosition, Boolean> amuletTiles,
+        PersistentMap<TilePosition, TilePosition.EdgeDirection> statueDirections, long zobristHash) {
+
+    /**
+     * Creates a new state and computes its hash from scratch.
+     *
+     * @param deck             all cards of the treasure deck from bottom to top
+     * @param deckDepth        the number of cards left in the treasure deck
+     * @param players          the players in turn order
+     * @param trails           the keys of the cards on each treasure trail
+     * @param amuletTiles      the positions of all tiles that have an amulet
+     * @param statueDirections the direction each statue is facing
+     */
+    public PersistentGameState(final List<TreasureCard> deck, final int deckDepth,
+            final List<PersistentPlayer> players, final List<PersistentStack<PathCardKey>> trails,
+            final PersistentMap<TilePosition, Boolean> amuletTiles,
+            final PersistentMap<TilePosition, TilePosition.EdgeDirection> statueDirections) {
+        this(deck, deckDepth, players, trails, amuletTiles, statueDirections,
+                Zobrist.hash(deckDepth, players, trails, amuletTiles, statueDirections));
+    }
+
+    /**
+     * Captures the current state of the given game.
+     *
+     * @param state the game state to capture
+     * @return the persistent state of the game
+     */
+    public static PersistentGameState capture(final GameState state) {
+        final HexGrid grid = state.getGrid();
+        PersistentMap<TilePosition, Boolean> amuletTiles = PersistentMap.empty();
+        for (final Tile tile : grid.getTiles().values()) {
+            if (tile.hasAmulet()) {
+                amuletTiles = amuletTiles.put(tile.getPosition(), true);
+            }
+        }
+        PersistentMap<TilePosition, TilePosition.EdgeDirection> statueDirections = PersistentMap.empty();
+        for (final Structure structure : grid.getStructures().values()) {
+            if (structure instanceof final Statue statue) {
+                statueDirections = statueDirections.put(statue.getPosition(), statue.getDirection());
+            }
+        }
+        final List<TreasureCard> deck = List.copyOf(state.getTreasureDeck());
+        return new PersistentGameState(deck, deck.size(),
+                state.getPlayers().stream().map(PersistentPlayer::capture).toList(),
+                Config.TREASURE_TRAIL_COLORS.stream()
+                        .map(color -> PersistentStack.copyOf(
+                                state.getTreasureTrails().get(color).stream().map(PathCardKey::of).toList()))
+                        .toList(),
+                amuletTiles, statueDirections);
+    }
+
+    /**
+     * Returns the index of the player with the given id.
+     *
+     * @param id the id of the player
+     * @return the index of the player in {@link #players()} or {@code -1}
+     */
+    public int playerIndex(final int id) {
+        for (int i = 0; i < players.size(); i++) {
+            if (players.get(i).id() == id) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Returns this state with the player at the given index replaced.
+     *
+     * @param index  the index of the player
+     * @param player the new state of the player
+     * @return the changed state
+     */
+    public PersistentGameState withPlayer(final int index, final PersistentPlayer player) {
+        if (players.get(index).equals(player)) {
+            return this;
+        }
+        final PersistentPlayer[] newPlayers = players.toArray(PersistentPlayer[]::new);
+        newPlayers[index] = player;
+        return new PersistentGameState(deck, deckDepth, List.of(newPlayers), trails, amuletTiles, statueDirections,
+                zobristHash ^ players.get(index).zobristHash() ^ player.zobristHash());
+    }
+
+    /**
+     * Returns the keys of the cards on the given treasure trail in the order
+     * they were played.
+     *
+     * @param color the color of the treasure trail
+     * @return the keys of the cards on the trail
+     */
+    public List<PathCardKey> trail(final Color color) {
+        return trails.get(trailIndex(color)).toList();
+    }
+
+    /**
+     * Returns this state with a card appended to the given treasure trail.
+     *
+     * @param color the color of the treasure trail
+     * @param card  the key of the card to append
+     * @return the changed state
+     */
+    public PersistentGameState withTrailCard(final Color color, final PathCardKey card) {
+        final int index = trailIndex(color);
+        final PersistentStack<PathCardKey> trail = trails.get(index);
+        return withTrail(index, trail.push(card), Zobrist.trailCard(index, trail.size(), card));
+    }
+
+    /**
+     * Returns this state with the given treasure trail cleared.
+     *
+     * @param color the color of the treasure trail
+     * @return the changed state
+     */
+    public PersistentGameState withTrailCleared(final Color color) {
+        final int index = trailIndex(color);
+        return withTrail(index, PersistentStack.empty(), Zobrist.trail(index, trails.get(index)));
+    }
+
+    /**
+     * Returns whether the tile at the given position has an amulet.
+     *
+     * @param position the position of the tile
+     * @return whether the tile has an amulet
+     */
+    public boolean hasAmulet(final TilePosition position) {
+        return amuletTiles.containsKey(position);
+    }
+
+    /**
+     * Returns this state with the amulet flag of the given tile set.
+     *
+     * @param position  the position of the tile
+     * @param hasAmulet whether the tile has an amulet
+     * @return the changed state
+     */
+    public PersistentGameState withAmulet(final TilePosition position, final boolean hasAmulet) {
+        final PersistentMap<TilePosition, Boolean> newAmuletTiles = hasAmulet ? amuletTiles.put(position, true)
+                : amuletTiles.remove(position);
+        if (newAmuletTiles == amuletTiles) {
+            return this;
+        }
+        return new PersistentGameState(deck, deckDepth, players, trails, newAmuletTiles, statueDirections,
+                zobristHash ^ Zobrist.amuletTile(position));
+    }
+
+    /**
+     * Returns this state with the given statue facing the given direction.
+     *
+     * @param position  the position of the statue
+     * @param direction the new direction
+     * @return the changed state
+     */
+    public PersistentGameState withStatueDirection(final TilePosition position,
+            final TilePosition.EdgeDirection direction) {
+        final TilePosition.EdgeDirection oldDirection = statueDirections.get(position);
+        final PersistentMap<TilePosition, TilePosition.EdgeDirection> newStatueDirections = statueDirections
+                .put(position, direction);
+        if (newStatueDirections == statueDirections) {
+            return this;
+        }
+        long newHash = zobristHash ^ Zobrist.statue(position, direction);
+        if (oldDirection != null) {
+            newHash ^= Zobrist.statue(position, oldDirection);
+        }
+        return new PersistentGameState(deck, deckDepth, players, trails, amuletTiles, newStatueDirections, newHash);
+    }
+
+    /**
+     * Returns the top card of the treasure deck.
+     *
+     * @return the top card of the treasure deck
+     * @throws IllegalStateException if the deck is empty
+     */
+    public TreasureCard peekTreasureCard() {
+        if (deckDepth == 0) {
+            throw new IllegalStateException("The treasure deck is empty");
+        }
+        return deck.get(deckDepth - 1);
+    }
+
+    /**
+     * Returns this state with the top card of the treasure deck drawn.
+     *
+     * @return the changed state
+     * @throws IllegalStateException if the deck is empty
+     */
+    public PersistentGameState withTreasureCardDrawn() {
+        if (deckDepth == 0) {
+            throw new IllegalStateException("The treasure deck is empty");
+        }
+        return withDeckDepth(deckDepth - 1);
+    }
+
+    /**
+     * Applies the given delta, copying only the changed parts.
+     *
+     * @param delta the delta to apply, computed against a snapshot of this state
+     * @return the changed state
+     * @throws IllegalArgumentException if the delta doesn't fit this state
+     */
+    public PersistentGameState apply(final GameSnapshotDelta delta) {
+        if (delta.deckSize() > deck.size()) {
+            throw new IllegalArgumentException("The deck can't grow to " + delta.deckSize() + " cards");
+        }
+        PersistentGameState state = this;
+        for (final GameSnapshotDelta.PlayerDelta change : delta.players()) {
+            PersistentPlayer player = state.players.get(change.index());
+            if (change.position() != null) {
+                player = player.withPosition(change.position());
+            }
+            player = player.withAmulets(change.amulets());
+            for (final PathCardKey card : change.removedCards()) {
+                player = player.withoutCard(card);
+            }
+            for (final PathCardKey card : change.addedCards()) {
+                player = player.withCard(card);
+            }
+            while (player.goldCards().size() > change.keptGoldCards()) {
+                player = player.withoutLastGoldCard();
+            }
+            for (final int value : change.addedGoldCards()) {
+                player = player.withGoldCard(value);
+            }
+            state = state.withPlayer(change.index(), player);
+        }
+        for (final GameSnapshotDelta.TrailDelta change : delta.trails()) {
+            final PersistentStack<PathCardKey> oldTrail = state.trails.get(change.index());
+            PersistentStack<PathCardKey> trail = oldTrail;
+            while (trail.size() > change.keptCards()) {
+                trail = trail.pop();
+            }
+            for (final PathCardKey card : change.appendedCards()) {
+                trail = trail.push(card);
+            }
+            state = state.withTrail(change.index(), trail,
+                    Zobrist.trail(change.index(), oldTrail) ^ Zobrist.trail(change.index(), trail));
+        }
+        for (final TilePosition position : delta.toggledAmulets()) {
+            state = state.withAmulet(position, !state.hasAmulet(position));
+        }
+        for (final Map.Entry<TilePosition, TilePosition.EdgeDirection> entry : delta.turnedStatues().entrySet()) {
+            state = state.withStatueDirection(entry.getKey(), entry.getValue());
+        }
+        return state.withDeckDepth(delta.deckSize());
+    }
+
+    /**
+     * Applies the effect the given action of a player has on the game, copying
+     * only the changed parts. The effect is the one of the matching
+     * {@code hProjekt.controller.PlayerController} method:
+     * <ul>
+     * <li>{@link SelectPosition} and {@link DriveAction} move the player.</li>
+     * <li>{@link PlayPathCard} moves the card from the hand to the trail. The
+     * card the player draws afterwards is random, it has to be added with
+     * {@link #withPlayer(int, PersistentPlayer)}.</li>
+     * <li>{@link SelectTileToRemove} appends a {@link RemoveTileCard} to the
+     * trail.</li>
+     * <li>{@link CollectAmulet} moves the amulet of the player's tile to the
+     * player.</li>
+     * <li>{@link UseAmulet} uses up an amulet. The path cards redrawn by
+     * {@link hProjekt.controller.AmuletAction#REDRAW_PATH_CARDS} are random and
+     * have to be added like the card drawn after playing one.</li>
+     * <li>{@link AcceptCurse} uses up an amulet or, without one, the most
+     * valuable gold card.</li>
+     * <li>Declining a treasure, {@link StartDrive}, {@link CollectTreasure},
+     * {@link ConfirmTreasureCards} and {@link EndTurn} only steer the turn and
+     * change nothing. The treasure collection started by {@link CollectTreasure}
+     * changes the game by the actions that follow it.</li>
+     * </ul>
+     * Checks that need the map or the turn, like whether a tile can be driven
+     * to or a card narrows its trail, are left to the live game.
+     *
+     * @param playerId the id of the acting player
+     * @param action   the action
+     * @return the changed state
+     * @throws IllegalActionException   if the player doesn't exist or doesn't
+     *                                  own the played card, amulet or tile
+     *                                  amulet the action needs
+     * @throws IllegalArgumentException if the effect of the action depends on
+     *                                  the turn, like the offered gold card an
+     *                                  accepted treasure adds or the number of
+     *                                  treasure cards to draw
+     */
+    public PersistentGameState apply(final int playerId, final PlayerAction action) throws IllegalActionException {
+        final int index = playerIndex(playerId);
+        if (index < 0) {
+            throw new IllegalActionException("Unknown player " + playerId);
+        }
+        final PersistentPlayer player = players.get(index);
+        if (action instanceof final SelectPosition selectPosition) {
+            return withPlayer(index, player.withPosition(selectPosition.position()));
+        } else if (action instanceof final DriveAction drive) {
+            return withPlayer(index, player.withPosition(drive.targetTile().getPosition()));
+        } else if (action instanceof final PlayPathCard play) {
+            final PathCardKey card = PathCardKey.of(play.pathCard());
+            final PersistentPlayer played = player.withoutCard(card);
+            if (played == player) {
+                throw new IllegalActionException("The player does not own this card");
+            }
+            return withPlayer(index, played).withTrailCard(play.pathColor(), card);
+        } else if (action instanceof final SelectTileToRemove remove) {
+            return withTrailCard(remove.color(), PathCardKey.of(new RemoveTileCard(remove.tilePosition())));
+        } else if (action instanceof CollectAmulet) {
+            if (player.position() == null || !hasAmulet(player.position())) {
+                throw new IllegalActionException("There is no amulet on the player's tile");
+            }
+            return withPlayer(index, player.withAmulets(player.amulets() + 1)).withAmulet(player.position(), false);
+        } else if (action instanceof UseAmulet) {
+            if (player.amulets() == 0) {
+                throw new IllegalActionException("The player has no amulets");
+            }
+            return withPlayer(index, player.withAmulets(player.amulets() - 1));
+        } else if (action instanceof AcceptCurse) {
+            return withPlayer(index, player.amulets() > 0 ? player.withAmulets(player.amulets() - 1)
+                    : player.withoutMostValuableGoldCard());
+        } else if (action instanceof final AcceptTreasure acceptTreasure && !acceptTreasure.accept()
+                || action instanceof StartDrive || action instanceof CollectTreasure
+                || action instanceof ConfirmTreasureCards || action instanceof EndTurn) {
+            return this;
+        }
+        throw new IllegalArgumentException("The effect of " + action + " depends on the turn");
+    }
+
+    /**
+     * Converts this state into a {@link GameSnapshot}.
+     *
+     * @return the snapshot of this state
+     */
+    public GameSnapshot toSnapshot() {
+        final Set<TilePosition> amulets = amuletTiles.toMap().keySet().stream()
+                .collect(Collectors.toUnmodifiableSet());
+        return new GameSnapshot(players.stream().map(PersistentPlayer::toSnapshot).toList(),
+                trails.stream().map(trail -> List.copyOf(trail.toList())).toList(), amulets,
+                Map.copyOf(statueDirections.toMap()), deckDepth);
+    }
+
+    /**
+     * Creates a live game state from this state. All players are created as
+     * human players.
+     *
+     * @param grid a freshly loaded grid of the map this state was captured on,
+     *             its amulets and statues are overwritten
+     * @return a new live game state
+     */
+    public GameState materialize(final HexGrid grid) {
+        return materialize(grid, Map.of());
+    }
+
+    /**
+     * Creates a live game state from this state.
+     *
+     * @param grid a freshly loaded grid of the map this state was captured on,
+     *             its amulets and statues are overwritten
+     * @param ais  the AI controller of every AI player by player id, all other
+     *             players are created as human players
+     * @return a new live game state
+     */
+    public GameState materialize(final HexGrid grid, final Map<Integer, Config.AvailableAiControllers> ais) {
+        final GameState state = new GameState(grid, new ArrayList<>());
+        restore(state, ais);
+        return state;
+    }
+
+    /**
+     * Restores this state into a live game state that has no players yet, like
+     * the state the setup menu fills.
+     *
+     * @param state the live state, whose grid is a freshly loaded grid of the
+     *              map this state was captured on, its amulets and statues are
+     *              overwritten
+     * @param ais   the AI controller of every AI player by player id, all other
+     *              players are created as human players
+     * @throws IllegalStateException if the live state has players already
+     */
+    public void restore(final GameState state, final Map<Integer, Config.AvailableAiControllers> ais) {
+        if (!state.getPlayers().isEmpty()) {
+            throw new IllegalStateException("The game has players already");
+        }
+        final HexGrid grid = state.getGrid();
+        final Map<Integer, Player> playersById = new HashMap<>();
+        for (final PersistentPlayer snapshot : players) {
+            final Player player = new PlayerImpl.Builder(snapshot.id())
+                    .name(snapshot.name())
+                    .color(snapshot.color())
+                    .ai(ais.get(snapshot.id()))
+                    .build(grid);
+            player.setPosition(snapshot.position());
+            player.addAmulets(snapshot.amulets());
+            snapshot.handList().forEach(key -> player.getPathCards().add(key.toCard(player)));
+            snapshot.goldCards().toList().forEach(value -> player.getGoldCards().add(new GoldCard(value)));
+            state.addPlayer(player);
+            playersById.put(player.getID(), player);
+        }
+        for (int i = 0; i < trails.size(); i++) {
+            final List<PathCard> trail = state.getTreasureTrails()
+                    .get(Config.TREASURE_TRAIL_COLORS.get(i));
+            trails.get(i).toList().forEach(key -> trail.add(key.toCard(playersById.get(key.ownerId()))));
+        }
+        grid.getTiles().values().forEach(tile -> tile.setHasAmulet(hasAmulet(tile.getPosition())));
+        statueDirections.forEach((position, direction) -> {
+            if (grid.getStructures().get(position) instanceof final Statue statue) {
+                statue.setDirection(direction);
+            }
+        });
+        state.getTreasureDeck().clear();
+        state.getTreasureDeck().addAll(deck.subList(0, deckDepth));
+    }
+
+    /**
+     * Returns this state with the trail at the given index replaced.
+     *
+     * @param index      the index of the trail
+     * @param trail      the new trail
+     * @param hashChange the XOR of the keys of the removed and added cards
+     * @return the changed state
+     */
+    private PersistentGameState withTrail(final int index, final PersistentStack<PathCardKey> trail,
+            final long hashChange) {
+        if (trails.get(index) == trail) {
+            return this;
+        }
+        @SuppressWarnings("unchecked")
+        final PersistentStack<PathCardKey>[] newTrails = trails.toArray(PersistentStack[]::new);
+        newTrails[index] = trail;
+        return new PersistentGameState(deck, deckDepth, players, List.of(newTrails), amuletTiles, statueDirections,
+                zobristHash ^ hashChange);
+    }
+
+    /**
+     * Returns this state with the given number of cards left in the treasure
+     * deck.
+     *
+     * @param depth the new number of cards left
+     * @return the changed state
+     */
+    private PersistentGameState withDeckDepth(final int depth) {
+        if (depth == deckDepth) {
+            return this;
+        }
+        return new PersistentGameState(deck, depth, players, trails, amuletTiles, statueDirections,
+                zobristHash ^ Zobrist.deckDepth(deckDepth) ^ Zobrist.deckDepth(depth));
+    }
+
+    /**
+     * Returns the index of the given treasure trail color.
+     *
+     * @param color the color of the treasure trail
+     * @return the index of the color
+     * @throws IllegalArgumentException if the color is not a treasure trail color
+     */
+    private static int trailIndex(final Color color) {
+        final int index = Config.TREASURE_TRAIL_COLORS.indexOf(color);
+        if (index < 0) {
+            throw new IllegalArgumentException("Not a treasure trail color: " + color);
+        }
+        return index;
+    }
+}
@@ -0,0 +1,435 @@
+package hProjekt.model.snapshot;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.BiConsumer;
+
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * An immutable hash map with structural sharing, implemented as a hash array
+ * mapped trie.
+ * <p>
+ * {@link #put(Object, Object)} and {@link #remove(Object)} return a new map
+ * and only copy the nodes on the path to the changed entry, all other nodes are
+ * shared with the original map. Both take {@code O(log32 n)} time and space.
+ * Keys and values must not be {@code null}.
+ *
+ * @param <K> the type of the keys
+ * @param <V> the type of the values
+ */
+public final class PersistentMap<K, V> {
+    private static final int BITS = 5;
+    private static final int MASK = (1 << BITS) - 1;
+
+    private static final PersistentMap<?, ?> EMPTY = new PersistentMap<>(null, 0);
+
+    private final @Nullable Node root;
+    private final int size;
+
+    private PersistentMap(final @Nullable Node root, final int size) {
+        this.root = root;
+        this.size = size;
+    }
+
+    /**
+     * Returns the empty map.
+     *
+     * @param <K> the type of the keys
+     * @param <V> the type of the values
+     * @return the empty map
+     */
+    @SuppressWarnings("unchecked")
+    public static <K, V> PersistentMap<K, V> empty() {
+        return (PersistentMap<K, V>) EMPTY;
+    }
+
+    /**
+     * Returns a map containing all entries of the given map.
+     *
+     * @param map the entries to copy
+     * @param <K> the type of the keys
+     * @param <V> the type of the values
+     * @return a map containing all entries of the given map
+     */
+    public static <K, V> PersistentMap<K, V> copyOf(final Map<? extends K, ? extends V> map) {
+        PersistentMap<K, V> result = empty();
+        for (final Map.Entry<? extends K, ? extends V> entry : map.entrySet()) {
+            result = result.put(entry.getKey(), entry.getValue());
+        }
+        return result;
+    }
+
+    /**
+     * Returns the number of entries.
+     *
+     * @return the number of entries
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns whether the map has no entries.
+     *
+     * @return whether the map has no entries
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Returns the value mapped to the given key.
+     *
+     * @param key the key to look up
+     * @return the mapped value or {@code null} if there is none
+     */
+    @SuppressWarnings("unchecked")
+    public @Nullable V get(final Object key) {
+        return root == null ? null : (V) root.get(0, hash(key), key);
+    }
+
+    /**
+     * Returns the value mapped to the given key or the given default value.
+     *
+     * @param key          the key to look up
+     * @param defaultValue the value to return if there is no mapping
+     * @return the mapped value or {@code defaultValue} if there is none
+     */
+    public V getOrDefault(final Object key, final V defaultValue) {
+        final V value = get(key);
+        return value == null ? defaultValue : value;
+    }
+
+    /**
+     * Returns whether the given key is mapped to a value.
+     *
+     * @param key the key to look up
+     * @return whether the key is mapped to a value
+     */
+    public boolean containsKey(final Object key) {
+        return get(key) != null;
+    }
+
+    /**
+     * Returns a map that additionally maps the given key to the given value.
+     *
+     * @param key   the key
+     * @param value the value
+     * @return the new map or this map if the key is already mapped to the value
+     */
+    public PersistentMap<K, V> put(final K key, final V value) {
+        Objects.requireNonNull(key);
+        Objects.requireNonNull(value);
+        final boolean[] added = new boolean[1];
+        final Node newRoot = (root == null ? BitmapNode.EMPTY : root).put(0, hash(key), key, value, added);
+        if (newRoot == root) {
+            return this;
+        }
+        return new PersistentMap<>(newRoot, added[0] ? size + 1 : size);
+    }
+
+    /**
+     * Returns a map without the mapping of the given key.
+     *
+     * @param key the key
+     * @return the new map or this map if the key isn't mapped
+     */
+    public PersistentMap<K, V> remove(final Object key) {
+        if (root == null) {
+            return this;
+        }
+        final Node newRoot = root.remove(0, hash(key), key);
+        if (newRoot == root) {
+            return this;
+        }
+        return new PersistentMap<>(newRoot, size - 1);
+    }
+
+    /**
+     * Performs the given action for every entry in unspecified order.
+     *
+     * @param action the action to perform
+     */
+    @SuppressWarnings("unchecked")
+    public void forEach(final BiConsumer<? super K, ? super V> action) {
+        if (root != null) {
+            root.forEach((BiConsumer<Object, Object>) action);
+        }
+    }
+
+    /**
+     * Returns a mutable copy of this map.
+     *
+     * @return a mutable copy of this map
+     */
+    public Map<K, V> toMap() {
+        final Map<K, V> map = new HashMap<>();
+        forEach(map::put);
+        return map;
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof final PersistentMap<?, ?> other) || other.size != size) {
+            return false;
+        }
+        final boolean[] equal = {true};
+        forEach((key, value) -> equal[0] &= value.equals(other.get(key)));
+        return equal[0];
+    }
+
+    @Override
+    public int hashCode() {
+        final int[] hash = {0};
+        forEach((key, value) -> hash[0] += key.hashCode() ^ value.hashCode());
+        return hash[0];
+    }
+
+    @Override
+    public String toString() {
+        return toMap().toString();
+    }
+
+    /**
+     * Spreads the bits of the hash code of the given key.
+     *
+     * @param key the key
+     * @return the hash of the key
+     */
+    private static int hash(final Object key) {
+        final int h = key.hashCode();
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * Returns the bit of the given hash at the given level.
+     *
+     * @param hash  the hash
+     * @param shift the shift of the level
+     * @return the bit of the hash at the level
+     */
+    private static int bit(final int hash, final int shift) {
+        return 1 << ((hash >>> shift) & MASK);
+    }
+
+    /**
+     * A node of the trie.
+     */
+    private abstract static class Node {
+        abstract @Nullable Object get(int shift, int hash, Object key);
+
+        abstract Node put(int shift, int hash, Object key, Object value, boolean[] added);
+
+        abstract @Nullable Node remove(int shift, int hash, Object key);
+
+        abstract void forEach(BiConsumer<Object, Object> action);
+    }
+
+    /**
+     * A node with up to 32 children, one for every value of the hash bits of its
+     * level. Every child is stored as two slots, either a key and its value or
+     * {@code null} and a sub node.
+     */
+    private static final class BitmapNode extends Node {
+        static final BitmapNode EMPTY = new BitmapNode(0, new Object[0]);
+
+        private final int bitmap;
+        private final Object[] slots;
+
+        BitmapNode(final int bitmap, final Object[] slots) {
+            this.bitmap = bitmap;
+            this.slots = slots;
+        }
+
+        private int index(final int bit) {
+            return Integer.bitCount(bitmap & (bit - 1));
+        }
+
+        @Override
+        @Nullable
+        Object get(final int shift, final int hash, final Object key) {
+            final int bit = bit(hash, shift);
+            if ((bitmap & bit) == 0) {
+                return null;
+            }
+            final int index = index(bit);
+            final Object slotKey = slots[2 * index];
+            final Object slotValue = slots[2 * index + 1];
+            if (slotKey == null) {
+                return ((Node) slotValue).get(shift + BITS, hash, key);
+            }
+            return key.equals(slotKey) ? slotValue : null;
+        }
+
+        @Override
+        Node put(final int shift, final int hash, final Object key, final Object value, final boolean[] added) {
+            final int bit = bit(hash, shift);
+            final int index = index(bit);
+            if ((bitmap & bit) == 0) {
+                added[0] = true;
+                final Object[] newSlots = new Object[slots.length + 2];
+                System.arraycopy(slots, 0, newSlots, 0, 2 * index);
+                newSlots[2 * index] = key;
+                newSlots[2 * index + 1] = value;
+                System.arraycopy(slots, 2 * index, newSlots, 2 * index + 2, slots.length - 2 * index);
+                return new BitmapNode(bitmap | bit, newSlots);
+            }
+            final Object slotKey = slots[2 * index];
+            final Object slotValue = slots[2 * index + 1];
+            if (slotKey == null) {
+                final Node child = ((Node) slotValue).put(shift + BITS, hash, key, value, added);
+                return child == slotValue ? this : with(2 * index + 1, child);
+            }
+            if (key.equals(slotKey)) {
+                return value.equals(slotValue) ? this : with(2 * index + 1, value);
+            }
+            added[0] = true;
+            final Node child = createNode(shift + BITS, slotKey, slotValue, hash, key, value);
+            final Object[] newSlots = slots.clone();
+            newSlots[2 * index] = null;
+            newSlots[2 * index + 1] = child;
+            return new BitmapNode(bitmap, newSlots);
+        }
+
+        @Override
+        @Nullable
+        Node remove(final int shift, final int hash, final Object key) {
+            final int bit = bit(hash, shift);
+            if ((bitmap & bit) == 0) {
+                return this;
+            }
+            final int index = index(bit);
+            final Object slotKey = slots[2 * index];
+            final Object slotValue = slots[2 * index + 1];
+            if (slotKey == null) {
+                final Node child = ((Node) slotValue).remove(shift + BITS, hash, key);
+                if (child == slotValue) {
+                    return this;
+                }
+                if (child != null) {
+                    return with(2 * index + 1, child);
+                }
+            } else if (!key.equals(slotKey)) {
+                return this;
+            }
+            if (bitmap == bit) {
+                return null;
+            }
+            final Object[] newSlots = new Object[slots.length - 2];
+            System.arraycopy(slots, 0, newSlots, 0, 2 * index);
+            System.arraycopy(slots, 2 * index + 2, newSlots, 2 * index, newSlots.length - 2 * index);
+            return new BitmapNode(bitmap & ~bit, newSlots);
+        }
+
+        @Override
+        void forEach(final BiConsumer<Object, Object> action) {
+            for (int i = 0; i < slots.length; i += 2) {
+                if (slots[i] == null) {
+                    ((Node) slots[i + 1]).forEach(action);
+                } else {
+                    action.accept(slots[i], slots[i + 1]);
+                }
+            }
+        }
+
+        private BitmapNode with(final int slot, final Object object) {
+            final Object[] newSlots = slots.clone();
+            newSlots[slot] = object;
+            return new BitmapNode(bitmap, newSlots);
+        }
+
+        /**
+         * Creates a node containing two entries whose hashes are equal up to the
+         * given level.
+         */
+        private static Node createNode(final int shift, final Object key1, final Object value1, final int hash2,
+                final Object key2, final Object value2) {
+            final int hash1 = hash(key1);
+            if (hash1 == hash2) {
+                return new CollisionNode(hash1, new Object[] {key1, value1, key2, value2});
+            }
+            final boolean[] added = new boolean[1];
+            return EMPTY.put(shift, hash1, key1, value1, added).put(shift, hash2, key2, value2, added);
+        }
+    }
+
+    /**
+     * A node containing entries whose keys have the same hash.
+     */
+    private static final class CollisionNode extends Node {
+        private final int hash;
+        private final Object[] entries;
+
+        CollisionNode(final int hash, final Object[] entries) {
+            this.hash = hash;
+            this.entries = entries;
+        }
+
+        private int find(final Object key) {
+            for (int i = 0; i < entries.length; i += 2) {
+                if (key.equals(entries[i])) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        @Override
+        @Nullable
+        Object get(final int shift, final int hash, final Object key) {
+            final int i = find(key);
+            return i < 0 ? null : entries[i + 1];
+        }
+
+        @Override
+        Node put(final int shift, final int hash, final Object key, final Object value, final boolean[] added) {
+            if (hash != this.hash) {
+                return new BitmapNode(bit(this.hash, shift), new Object[] {null, this})
+                        .put(shift, hash, key, value, added);
+            }
+            final int i = find(key);
+            if (i >= 0) {
+                if (value.equals(entries[i + 1])) {
+                    return this;
+                }
+                final Object[] newEntries = entries.clone();
+                newEntries[i + 1] = value;
+                return new CollisionNode(hash, newEntries);
+            }
+            added[0] = true;
+            final Object[] newEntries = Arrays.copyOf(entries, entries.length + 2);
+            newEntries[entries.length] = key;
+            newEntries[entries.length + 1] = value;
+            return new CollisionNode(hash, newEntries);
+        }
+
+        @Override
+        @Nullable
+        Node remove(final int shift, final int hash, final Object key) {
+            final int i = find(key);
+            if (i < 0) {
+                return this;
+            }
+            if (entries.length == 2) {
+                return null;
+            }
+            final Object[] newEntries = new Object[entries.length - 2];
+            System.arraycopy(entries, 0, newEntries, 0, i);
+            System.arraycopy(entries, i + 2, newEntries, i, newEntries.length - i);
+            return new CollisionNode(hash, newEntries);
+        }
+
+        @Override
+        void forEach(final BiConsumer<Object, Object> action) {
+            for (int i = 0; i < entries.length; i += 2) {
+                action.accept(entries[i], entries[i + 1]);
+            }
+        }
+    }
+}
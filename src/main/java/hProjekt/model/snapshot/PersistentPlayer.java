@@ -0,0 +1,196 @@
+package hProjekt.model.snapshot;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.jetbrains.annotations.Nullable;
+
+import hProjekt.model.Player;
+import hProjekt.model.cards.GoldCard;
+import hProjekt.model.cards.PathCardKey;
+import hProjekt.model.grid.TilePosition;
+import javafx.scene.paint.Color;
+
+/**
+ * The immutable state of a single {@link Player} inside a
+ * {@link PersistentGameState}.
+ *
+ * @param id          the id of the player
+ * @param name        the name of the player
+ * @param color       the color of the player
+ * @param position    the position of the player, {@code null} if no starting
+ *                    position was selected yet
+ * @param amulets     the number of amulets the player owns
+ * @param hand        the number of path cards in the player's hand per key
+ * @param goldCards   the values of the player's gold cards, the last collected
+ *                    on top
+ * @param zobristHash the {@link Zobrist} hash of the player, maintained by the
+ *                    {@code with...} methods
+ */
+public record PersistentPlayer(int id, String name, Color color, @Nullable TilePosition position, int amulets,
+        PersistentMap<PathCardKey, Integer> hand, PersistentStack<Integer> goldCards, long zobristHash) {
+
+    /**
+     * Creates a new player state and computes its hash from scratch.
+     *
+     * @param id        the id of the player
+     * @param name      the name of the player
+     * @param color     the color of the player
+     * @param position  the position of the player, can be {@code null}
+     * @param amulets   the number of amulets the player owns
+     * @param hand      the number of path cards in the player's hand per key
+     * @param goldCards the values of the player's gold cards
+     */
+    public PersistentPlayer(final int id, final String name, final Color color,
+            final @Nullable TilePosition position, final int amulets, final PersistentMap<PathCardKey, Integer> hand,
+            final PersistentStack<Integer> goldCards) {
+        this(id, name, color, position, amulets, hand, goldCards,
+                Zobrist.hash(id, position, amulets, hand, goldCards));
+    }
+
+    /**
+     * Captures the current state of the given player.
+     *
+     * @param player the player to capture
+     * @return the state of the player
+     */
+    public static PersistentPlayer capture(final Player player) {
+        PersistentMap<PathCardKey, Integer> hand = PersistentMap.empty();
+        for (final PathCardKey key : player.getPathCards().stream().map(PathCardKey::of).toList()) {
+            hand = hand.put(key, hand.getOrDefault(key, 0) + 1);
+        }
+        return new PersistentPlayer(player.getID(), player.getName(), player.getColor(), player.getPosition(),
+                player.getAmulets(), hand,
+                PersistentStack.copyOf(player.getGoldCards().stream().map(GoldCard::value).toList()));
+    }
+
+    /**
+     * Returns this player at the given position.
+     *
+     * @param newPosition the new position
+     * @return the changed player
+     */
+    public PersistentPlayer withPosition(final TilePosition newPosition) {
+        long newHash = zobristHash ^ Zobrist.position(id, newPosition);
+        if (position != null) {
+            newHash ^= Zobrist.position(id, position);
+        }
+        return new PersistentPlayer(id, name, color, newPosition, amulets, hand, goldCards, newHash);
+    }
+
+    /**
+     * Returns this player with the given number of amulets.
+     *
+     * @param newAmulets the new number of amulets
+     * @return the changed player
+     */
+    public PersistentPlayer withAmulets(final int newAmulets) {
+        return new PersistentPlayer(id, name, color, position, newAmulets, hand, goldCards,
+                zobristHash ^ Zobrist.amulets(id, amulets) ^ Zobrist.amulets(id, newAmulets));
+    }
+
+    /**
+     * Returns this player with the given card added to the hand.
+     *
+     * @param card the key of the card to add
+     * @return the changed player
+     */
+    public PersistentPlayer withCard(final PathCardKey card) {
+        final int count = hand.getOrDefault(card, 0) + 1;
+        return new PersistentPlayer(id, name, color, position, amulets, hand.put(card, count), goldCards,
+                zobristHash ^ Zobrist.handCard(id, card, count));
+    }
+
+    /**
+     * Returns this player with one card of the given key removed from the hand.
+     *
+     * @param card the key of the card to remove
+     * @return the changed player or this player if it doesn't hold such a card
+     */
+    public PersistentPlayer withoutCard(final PathCardKey card) {
+        final int count = hand.getOrDefault(card, 0);
+        if (count == 0) {
+            return this;
+        }
+        return new PersistentPlayer(id, name, color, position, amulets,
+                count == 1 ? hand.remove(card) : hand.put(card, count - 1), goldCards,
+                zobristHash ^ Zobrist.handCard(id, card, count));
+    }
+
+    /**
+     * Returns this player with an additional gold card.
+     *
+     * @param value the value of the gold card
+     * @return the changed player
+     */
+    public PersistentPlayer withGoldCard(final int value) {
+        return new PersistentPlayer(id, name, color, position, amulets, hand, goldCards.push(value),
+                zobristHash ^ Zobrist.goldCard(id, goldCards.size(), value));
+    }
+
+    /**
+     * Returns this player with the last collected gold card removed.
+     *
+     * @return the changed player or this player if it has no gold cards
+     */
+    public PersistentPlayer withoutLastGoldCard() {
+        if (goldCards.isEmpty()) {
+            return this;
+        }
+        return new PersistentPlayer(id, name, color, position, amulets, hand, goldCards.pop(),
+                zobristHash ^ Zobrist.goldCard(id, goldCards.size() - 1, goldCards.peek()));
+    }
+
+    /**
+     * Returns this player with the most valuable gold card removed, the first
+     * collected one if several have the same value.
+     *
+     * @return the changed player or this player if it has no gold cards
+     */
+    public PersistentPlayer withoutMostValuableGoldCard() {
+        final List<Integer> values = goldCards.toList();
+        int best = -1;
+        for (int i = 0; i < values.size(); i++) {
+            if (best < 0 || values.get(i) > values.get(best)) {
+                best = i;
+            }
+        }
+        if (best < 0) {
+            return this;
+        }
+        PersistentPlayer player = this;
+        for (int i = values.size(); i > best; i--) {
+            player = player.withoutLastGoldCard();
+        }
+        for (int i = best + 1; i < values.size(); i++) {
+            player = player.withGoldCard(values.get(i));
+        }
+        return player;
+    }
+
+    /**
+     * Returns the keys of the path cards in the hand in
+     * {@link PathCardKey#ORDER canonical order}, repeated by their count.
+     *
+     * @return the keys of the path cards in the hand
+     */
+    public List<PathCardKey> handList() {
+        final List<PathCardKey> cards = new ArrayList<>();
+        hand.forEach((key, count) -> {
+            for (int i = 0; i < count; i++) {
+                cards.add(key);
+            }
+        });
+        cards.sort(PathCardKey.ORDER);
+        return cards;
+    }
+
+    /**
+     * Converts this player into a {@link PlayerSnapshot}.
+     *
+     * @return the snapshot of this player
+     */
+    public PlayerSnapshot toSnapshot() {
+        return new PlayerSnapshot(id, position, amulets, List.copyOf(handList()), List.copyOf(goldCards.toList()));
+    }
+}
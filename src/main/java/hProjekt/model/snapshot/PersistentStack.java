@@ -0,0 +1,155 @@
+package hProjekt.model.snapshot;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * An immutable stack with structural sharing. {@link #push(Object)} and
+ * {@link #pop()} take constant time and share all other elements with the
+ * original stack.
+ *
+ * @param <T> the type of the elements
+ */
+public final class PersistentStack<T> {
+    private static final PersistentStack<?> EMPTY = new PersistentStack<>(null, null, 0);
+
+    private final @Nullable T head;
+    private final @Nullable PersistentStack<T> tail;
+    private final int size;
+
+    private PersistentStack(final @Nullable T head, final @Nullable PersistentStack<T> tail, final int size) {
+        this.head = head;
+        this.tail = tail;
+        this.size = size;
+    }
+
+    /**
+     * Returns the empty stack.
+     *
+     * @param <T> the type of the elements
+     * @return the empty stack
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> PersistentStack<T> empty() {
+        return (PersistentStack<T>) EMPTY;
+    }
+
+    /**
+     * Returns a stack containing the given elements, the last element on top.
+     *
+     * @param elements the elements from bottom to top
+     * @param <T>      the type of the elements
+     * @return a stack containing the given elements
+     */
+    public static <T> PersistentStack<T> copyOf(final Iterable<? extends T> elements) {
+        PersistentStack<T> stack = empty();
+        for (final T element : elements) {
+            stack = stack.push(element);
+        }
+        return stack;
+    }
+
+    /**
+     * Returns the number of elements.
+     *
+     * @return the number of elements
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns whether the stack has no elements.
+     *
+     * @return whether the stack has no elements
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Returns a stack with the given element on top of this stack.
+     *
+     * @param element the element to push
+     * @return the new stack
+     */
+    public PersistentStack<T> push(final T element) {
+        return new PersistentStack<>(Objects.requireNonNull(element), this, size + 1);
+    }
+
+    /**
+     * Returns the top element.
+     *
+     * @return the top element
+     * @throws NoSuchElementException if the stack is empty
+     */
+    public T peek() {
+        if (isEmpty()) {
+            throw new NoSuchElementException();
+        }
+        return head;
+    }
+
+    /**
+     * Returns the stack below the top element.
+     *
+     * @return the stack without its top element
+     * @throws NoSuchElementException if the stack is empty
+     */
+    public PersistentStack<T> pop() {
+        if (isEmpty()) {
+            throw new NoSuchElementException();
+        }
+        return tail;
+    }
+
+    /**
+     * Returns the elements from bottom to top.
+     *
+     * @return a new list of the elements from bottom to top
+     */
+    public List<T> toList() {
+        final List<T> list = new ArrayList<>(size);
+        for (PersistentStack<T> stack = this; !stack.isEmpty(); stack = stack.tail) {
+            list.add(stack.head);
+        }
+        Collections.reverse(list);
+        return list;
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+        if (!(o instanceof final PersistentStack<?> other) || other.size != size) {
+            return false;
+        }
+        PersistentStack<?> a = this;
+        PersistentStack<?> b = other;
+        while (a != b) {
+            if (!a.head.equals(b.head)) {
+                return false;
+            }
+            a = a.tail;
+            b = b.tail;
+        }
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        int hash = 1;
+        for (PersistentStack<T> stack = this; !stack.isEmpty(); stack = stack.tail) {
+            hash = 31 * hash + stack.head.hashCode();
+        }
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        return toList().toString();
+    }
+}
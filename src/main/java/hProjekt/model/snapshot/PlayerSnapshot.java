@@ -0,0 +1,69 @@
+package hProjekt.model.snapshot;
+
+import java.util.List;
+
+import org.jetbrains.annotations.Nullable;
+
+import hProjekt.model.Player;
+import hProjekt.model.cards.GoldCard;
+import hProjekt.model.cards.PathCardKey;
+import hProjekt.model.grid.TilePosition;
+
+/**
+ * An immutable snapshot of the state of a single {@link Player}.
+ * <p>
+ * The cards in a player's hand are hidden from the other players, so a
+ * snapshot can {@link #withoutHand() hide the hand} and only keep its size.
+ *
+ * @param id        the id of the player
+ * @param position  the position of the player, {@code null} if no starting
+ *                  position was selected yet
+ * @param amulets   the number of amulets the player owns
+ * @param handSize  the number of path cards in the player's hand
+ * @param hand      the keys of the path cards in the player's hand in
+ *                  {@link PathCardKey#ORDER canonical order}, empty if the hand
+ *                  is hidden
+ * @param goldCards the values of the player's gold cards in the order they were
+ *                  collected
+ */
+public record PlayerSnapshot(int id, @Nullable TilePosition position, int amulets, int handSize,
+        List<PathCardKey> hand, List<Integer> goldCards) {
+
+    /**
+     * Creates a snapshot that shows the given hand.
+     *
+     * @param id        the id of the player
+     * @param position  the position of the player, can be null
+     * @param amulets   the number of amulets the player owns
+     * @param hand      the keys of the path cards in the player's hand in
+     *                  {@link PathCardKey#ORDER canonical order}
+     * @param goldCards the values of the player's gold cards in the order they
+     *                  were collected
+     */
+    public PlayerSnapshot(final int id, final @Nullable TilePosition position, final int amulets,
+            final List<PathCardKey> hand, final List<Integer> goldCards) {
+        this(id, position, amulets, hand.size(), hand, goldCards);
+    }
+
+    /**
+     * Captures the current state of the given player.
+     *
+     * @param player the player to capture
+     * @return a snapshot of the player's current state
+     */
+    public static PlayerSnapshot capture(final Player player) {
+        return new PlayerSnapshot(player.getID(), player.getPosition(), player.getAmulets(),
+                player.getPathCards().stream().map(PathCardKey::of).sorted(PathCardKey.ORDER).toList(),
+                player.getGoldCards().stream().map(GoldCard::value).toList());
+    }
+
+    /**
+     * Returns this snapshot as seen by the other players, who only know how many
+     * cards the player holds.
+     *
+     * @return this snapshot with the hand hidden
+     */
+    public PlayerSnapshot withoutHand() {
+        return new PlayerSnapshot(id, position, amulets, handSize, List.of(), goldCards);
+    }
+}
@@ -0,0 +1,274 @@
+package hProjekt.model.snapshot;
+
+import java.util.List;
+
+import org.jetbrains.annotations.Nullable;
+
+import hProjekt.model.cards.PathCardKey;
+import hProjekt.model.grid.Structure;
+import hProjekt.model.grid.Tile;
+import hProjekt.model.grid.TilePosition;
+import hProjekt.model.grid.Types;
+
+/**
+ * Zobrist keys for the features of a {@link PersistentGameState}.
+ * <p>
+ * The hash of a state is the XOR of the keys of all its features, so a change
+ * to a single feature is applied by XOR-ing out the key of the old value and
+ * XOR-ing in the key of the new one. Since neither the board nor the number of
+ * cards is bounded, the keys are not stored in tables but derived from the
+ * feature with a fixed SplitMix64 mixer. This makes them identical across runs
+ * and processes, so hashes can be stored and compared between games.
+ * <p>
+ * Player features are keyed by the player id instead of the index in the turn
+ * order, so a {@link PersistentPlayer} can maintain its own share of the hash.
+ */
+public final class Zobrist {
+
+    private static final long SEED = 0x5A6F62726973744CL;
+
+    private static final int PLAYER_POSITION = 1;
+    private static final int PLAYER_AMULETS = 2;
+    private static final int HAND_CARD = 3;
+    private static final int GOLD_CARD = 4;
+    private static final int TRAIL_CARD = 5;
+    private static final int AMULET_TILE = 6;
+    private static final int STATUE_DIRECTION = 7;
+    private static final int DECK_DEPTH = 8;
+
+    private Zobrist() {
+    }
+
+    /**
+     * Returns the key of a player standing on the given position.
+     *
+     * @param playerId the id of the player
+     * @param position the position of the player
+     * @return the key of the feature
+     */
+    public static long position(final int playerId, final TilePosition position) {
+        return key(PLAYER_POSITION, playerId, position(position), 0);
+    }
+
+    /**
+     * Returns the key of a player owning the given number of amulets.
+     *
+     * @param playerId the id of the player
+     * @param amulets  the number of amulets
+     * @return the key of the feature
+     */
+    public static long amulets(final int playerId, final int amulets) {
+        return key(PLAYER_AMULETS, playerId, amulets, 0);
+    }
+
+    /**
+     * Returns the key of the {@code copy}-th card of the given kind in the hand of
+     * a player. A hand holding {@code n} equal cards contributes the keys of the
+     * copies {@code 1} to {@code n}, so adding or removing one card changes a
+     * single key.
+     *
+     * @param playerId the id of the player
+     * @param card     the key of the card, the owner is ignored
+     * @param copy     the number of the copy, starting at {@code 1}
+     * @return the key of the feature
+     */
+    public static long handCard(final int playerId, final PathCardKey card, final int copy) {
+        return key(HAND_CARD, playerId, card(card), copy);
+    }
+
+    /**
+     * Returns the key of a gold card at the given index of the gold cards of a
+     * player.
+     *
+     * @param playerId the id of the player
+     * @param index    the index of the gold card, the first collected at
+     *                 {@code 0}
+     * @param value    the value of the gold card
+     * @return the key of the feature
+     */
+    public static long goldCard(final int playerId, final int index, final int value) {
+        return key(GOLD_CARD, playerId, index, value);
+    }
+
+    /**
+     * Returns the key of a card at the given index of a treasure trail.
+     *
+     * @param trail the index of the treasure trail
+     * @param index the index of the card, the first played at {@code 0}
+     * @param card  the key of the card
+     * @return the key of the feature
+     */
+    public static long trailCard(final int trail, final int index, final PathCardKey card) {
+        return key(TRAIL_CARD, ((long) trail << 32) | index, card(card), card.ownerId());
+    }
+
+    /**
+     * Returns the key of an amulet lying on the tile at the given position.
+     *
+     * @param position the position of the tile
+     * @return the key of the feature
+     */
+    public static long amuletTile(final TilePosition position) {
+        return key(AMULET_TILE, position(position), 0, 0);
+    }
+
+    /**
+     * Returns the key of the statue at the given position facing the given
+     * direction.
+     *
+     * @param position  the position of the statue
+     * @param direction the direction the statue is facing
+     * @return the key of the feature
+     */
+    public static long statue(final TilePosition position, final TilePosition.EdgeDirection direction) {
+        return key(STATUE_DIRECTION, position(position), direction.ordinal(), 0);
+    }
+
+    /**
+     * Returns the key of a treasure deck with the given number of cards left.
+     *
+     * @param depth the number of cards left in the deck
+     * @return the key of the feature
+     */
+    public static long deckDepth(final int depth) {
+        return key(DECK_DEPTH, depth, 0, 0);
+    }
+
+    /**
+     * Returns the key of all cards on a treasure trail.
+     *
+     * @param trail the index of the treasure trail
+     * @param cards the cards on the trail, the first played on the bottom
+     * @return the XOR of the keys of all cards
+     */
+    public static long trail(final int trail, final PersistentStack<PathCardKey> cards) {
+        long hash = 0;
+        int index = 0;
+        for (final PathCardKey card : cards.toList()) {
+            hash ^= trailCard(trail, index++, card);
+        }
+        return hash;
+    }
+
+    /**
+     * Computes the hash of a player from scratch.
+     *
+     * @param id        the id of the player
+     * @param position  the position of the player, can be {@code null}
+     * @param amulets   the number of amulets of the player
+     * @param hand      the number of path cards in the hand per key
+     * @param goldCards the values of the gold cards of the player
+     * @return the XOR of the keys of all features of the player
+     */
+    public static long hash(final int id, final @Nullable TilePosition position, final int amulets,
+            final PersistentMap<PathCardKey, Integer> hand, final PersistentStack<Integer> goldCards) {
+        final long[] hash = {amulets(id, amulets)};
+        if (position != null) {
+            hash[0] ^= position(id, position);
+        }
+        hand.forEach((card, count) -> {
+            for (int copy = 1; copy <= count; copy++) {
+                hash[0] ^= handCard(id, card, copy);
+            }
+        });
+        int index = 0;
+        for (final int value : goldCards.toList()) {
+            hash[0] ^= goldCard(id, index++, value);
+        }
+        return hash[0];
+    }
+
+    /**
+     * Computes the hash of a game state from scratch. The hashes of the players
+     * are taken from the players.
+     *
+     * @param deckDepth        the number of cards left in the treasure deck
+     * @param players          the players
+     * @param trails           the treasure trails
+     * @param amuletTiles      the positions of all tiles with an amulet
+     * @param statueDirections the direction of each statue
+     * @return the XOR of the keys of all features of the state
+     */
+    public static long hash(final int deckDepth, final List<PersistentPlayer> players,
+            final List<PersistentStack<PathCardKey>> trails,
+            final PersistentMap<TilePosition, Boolean> amuletTiles,
+            final PersistentMap<TilePosition, TilePosition.EdgeDirection> statueDirections) {
+        final long[] hash = {deckDepth(deckDepth)};
+        players.forEach(player -> hash[0] ^= player.zobristHash());
+        for (int i = 0; i < trails.size(); i++) {
+            hash[0] ^= trail(i, trails.get(i));
+        }
+        amuletTiles.forEach((position, hasAmulet) -> hash[0] ^= amuletTile(position));
+        statueDirections.forEach((position, direction) -> hash[0] ^= statue(position, direction));
+        return hash[0];
+    }
+
+    /**
+     * Packs a position into a single long.
+     *
+     * @param position the position to pack
+     * @return the packed position
+     */
+    private static long position(final TilePosition position) {
+        return ((long) position.q() << 32) | (position.r() & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Packs the owner independent part of a card key into a single long.
+     *
+     * @param card the key to pack
+     * @return the packed key
+     */
+    private static long card(final PathCardKey card) {
+        if (card.removedTile() != null) {
+            return Long.MIN_VALUE ^ position(card.removedTile());
+        }
+        final long type = card.type() == null ? 0 : card.type().ordinal() + 1;
+        return (type << 8) | filter(card.filterType());
+    }
+
+    /**
+     * Returns a number identifying the given filter type.
+     *
+     * @param filterType the filter type, {@code null} for the ocean
+     * @return a number that is distinct for every filter type
+     */
+    private static long filter(final Types filterType) {
+        if (filterType instanceof final Tile.Type tileType) {
+            return tileType.ordinal() + 1;
+        }
+        if (filterType instanceof final Structure.Type structureType) {
+            return 0x80 | structureType.ordinal();
+        }
+        return 0;
+    }
+
+    /**
+     * Derives the key of a feature.
+     *
+     * @param feature the kind of the feature
+     * @param a       the first component of the feature
+     * @param b       the second component of the feature
+     * @param c       the third component of the feature
+     * @return the key of the feature
+     */
+    private static long key(final int feature, final long a, final long b, final long c) {
+        long hash = mix(SEED + feature);
+        hash = mix(hash ^ a);
+        hash = mix(hash ^ b);
+        return mix(hash ^ c);
+    }
+
+    /**
+     * The SplitMix64 finalizer, a bijection on longs with good avalanche.
+     *
+     * @param value the value to mix
+     * @return the mixed value
+     */
+    private static long mix(final long value) {
+        long z = value + 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,6 @@
+/**
+ * Contains immutable snapshots of the game state, the deltas between them, the
+ * persistent data structures that let snapshots share their structure and the
+ * Zobrist keys used to hash them.
+ */
+package hProjekt.model.snapshot;
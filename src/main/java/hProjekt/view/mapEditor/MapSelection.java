@@ -3,24 +3,27 @@ package hProjekt.view.mapEditor;
 import java.util.List;
 import java.util.function.Supplier;
 
+import hProjekt.controller.MapThumbnails;
 import hProjekt.view.utils.ErrorBox;
+import hProjekt.view.utils.LoadingBox;
+import hProjekt.view.utils.MapThumbnailCell;
 import javafx.beans.property.BooleanProperty;
 import javafx.beans.property.StringProperty;
+import javafx.concurrent.Worker;
 import javafx.geometry.HPos;
 import javafx.geometry.Insets;
 import javafx.geometry.Orientation;
 import javafx.geometry.Pos;
 import javafx.scene.control.Button;
 import javafx.scene.control.Label;
-import javafx.scene.control.ScrollPane;
+import javafx.scene.control.ListView;
 import javafx.scene.control.Separator;
 import javafx.scene.control.ToggleButton;
-import javafx.scene.control.ToggleGroup;
 import javafx.scene.layout.BorderPane;
 import javafx.scene.layout.ColumnConstraints;
 import javafx.scene.layout.GridPane;
+import javafx.scene.layout.Priority;
 import javafx.scene.layout.VBox;
-import javafx.util.Pair;
 
 /**
  * A JavaFX component representing a selection screen for loading existing maps
@@ -28,7 +31,7 @@ import javafx.util.Pair;
  * <p>
  * This class extends {@link BorderPane} and serves as a view within the Map
  * Editor module.
- * It displays a scrollable list ({@link ToggleGroup}) of available saved maps
+ * It displays a scrollable list ({@link ListView}) of available saved maps
  * and an option to create a new map.
  * Users can select a map or the creation option, and navigate back to the main
  * menu or proceed with the selection.
@@ -40,10 +43,13 @@ import javafx.util.Pair;
  * <ul>
  * <li>A top bar containing a "Back" button, a title label, and a "Load/Create
  * Map" action button.</li>
- * <li>A central scrollable area displaying buttons for each saved map and a
- * "Create New Map" button.</li>
+ * <li>A central list displaying each saved map with its thumbnail and a
+ * "Create New Map" button. The list only creates cells for the visible maps,
+ * so only their thumbnails are rendered.</li>
  * <li>An {@link ErrorBox} for displaying validation errors during the loading
  * process.</li>
+ * <li>A {@link LoadingBox} showing the progress of loading the map, which can
+ * be cancelled.</li>
  * </ul>
  *
  * <p>
@@ -52,11 +58,12 @@ import javafx.util.Pair;
  * </p>
  *
  * @see BorderPane
- * @see ToggleButton
- * @see ToggleGroup
+ * @see ListView
+ * @see MapThumbnailCell
  */
 public class MapSelection extends BorderPane {
     private final ErrorBox errorBox = new ErrorBox();
+    private final LoadingBox loadingBox = new LoadingBox();
 
     /**
      * Constructs a new {@code MapSelection} view.
@@ -73,9 +80,9 @@ public class MapSelection extends BorderPane {
      *                           create a new map.
      * @param loadMainMenuAction A {@link Runnable} to execute when the user wants
      *                           to return to the main menu.
-     * @param loadAction         A {@link Supplier} that attempts to load the
-     *                           selected map or create a new one, returning an
-     *                           error message if unsuccessful.
+     * @param loadAction         A {@link Supplier} that starts loading the
+     *                           selected map or creating a new one, returning an
+     *                           error message if the selection is invalid.
      */
     public MapSelection(final List<String> savedMaps, final StringProperty selectedMap, final BooleanProperty createMap,
             final Runnable loadMainMenuAction, final Supplier<String> loadAction) {
@@ -85,7 +92,10 @@ public class MapSelection extends BorderPane {
         final GridPane topBar = new GridPane();
         final Button backButton = new Button("Back to Main Menu");
         backButton.getStyleClass().add("button-back");
-        backButton.setOnAction(event -> loadMainMenuAction.run());
+        backButton.setOnAction(event -> {
+            loadingBox.cancel();
+            loadMainMenuAction.run();
+        });
 
         final Button loadMapButton = new Button("Load/Create Map");
         loadMapButton.getStyleClass().add("start-game-button");
@@ -96,6 +106,7 @@ public class MapSelection extends BorderPane {
                 errorBox.setError(error);
             }
         });
+        loadMapButton.disableProperty().bind(loadingBox.visibleProperty());
 
         final Label title = new Label("Load or Create Map");
         title.getStyleClass().add("text-title");
@@ -122,45 +133,54 @@ public class MapSelection extends BorderPane {
         mainContent.setSpacing(10);
         mainContent.setPadding(new Insets(20));
 
-        final ToggleGroup mapToggleGroup = new ToggleGroup();
-        mapToggleGroup.selectedToggleProperty().subscribe(newToggle -> {
-            if (newToggle == null) {
-                selectedMap.set("");
-                createMap.set(false);
-                return;
-            }
-            final Pair<String, Boolean> mapData = (Pair<String, Boolean>) newToggle.getUserData();
-            selectedMap.set(mapData.getKey());
-            createMap.set(mapData.getValue());
-        });
+        final ListView<String> mapList = new ListView<>();
+        mapList.getItems().setAll(savedMaps);
+        mapList.setCellFactory(list -> new MapThumbnailCell(""));
+        mapList.setFixedCellSize(MapThumbnails.HEIGHT + 12);
+        mapList.setMaxWidth(400);
+        VBox.setVgrow(mapList, Priority.ALWAYS);
 
-        for (final String mapName : savedMaps) {
-            final ToggleButton mapButton = new ToggleButton(mapName);
-            mapButton.setToggleGroup(mapToggleGroup);
-            mapButton.setMinWidth(200);
-            mapButton.setMaxWidth(200);
-            mapButton.setUserData(new Pair<>(mapName, false));
-
-            mainContent.getChildren().add(mapButton);
-        }
         final ToggleButton createMapButton = new ToggleButton("Create New Map");
-        createMapButton.setToggleGroup(mapToggleGroup);
         createMapButton.setMinWidth(200);
         createMapButton.setMaxWidth(200);
-        createMapButton.setUserData(new Pair<>("", true));
+
+        mapList.getSelectionModel().selectedItemProperty().subscribe(mapName -> {
+            if (mapName != null) {
+                createMapButton.setSelected(false);
+            }
+            selectedMap.set(mapName == null ? "" : mapName);
+            createMap.set(createMapButton.isSelected());
+        });
+        createMapButton.selectedProperty().subscribe(selected -> {
+            if (selected) {
+                mapList.getSelectionModel().clearSelection();
+            }
+            createMap.set(selected);
+        });
 
         final Separator separator = new Separator(Orientation.HORIZONTAL);
         separator.setPadding(new Insets(10, 0, 10, 0));
         separator.setVisible(false);
 
-        mainContent.getChildren().addAll(separator, createMapButton, errorBox);
-
-        final ScrollPane centerPane = new ScrollPane(mainContent);
-        centerPane.setFitToWidth(true);
-        centerPane.setHbarPolicy(ScrollPane.ScrollBarPolicy.NEVER);
-        centerPane.setStyle("-fx-background-color: transparent; -fx-background: transparent;");
+        mainContent.getChildren().addAll(mapList, separator, createMapButton, errorBox, loadingBox);
 
         setTop(topBar);
-        setCenter(centerPane);
+        setCenter(mainContent);
+    }
+
+    /**
+     * Shows the progress of loading the selected map until it is done. If
+     * loading fails, the error is shown instead.
+     *
+     * @param worker         the worker loading the map
+     * @param failureMessage the error to show if loading fails
+     */
+    public void showLoading(final Worker<?> worker, final String failureMessage) {
+        loadingBox.show(worker);
+        worker.stateProperty().subscribe(state -> {
+            if (state == Worker.State.FAILED) {
+                errorBox.setError(failureMessage);
+            }
+        });
     }
 }
@@ -1,13 +1,18 @@
 package hProjekt.view.menus;
 
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+import org.jetbrains.annotations.Nullable;
 
 import hProjekt.controller.LeaderboardController;
-import hProjekt.controller.LeaderboardEntry;
 import hProjekt.model.Player;
 import hProjekt.view.utils.Confetti;
+import javafx.application.Platform;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
 import javafx.scene.control.Button;
@@ -29,6 +34,7 @@ import javafx.util.Builder;
 public class EndScreenBuilder implements Builder<Region> {
     private final Runnable loadMainMenuAction;
     private final List<Player> players;
+    private final @Nullable Supplier<CompletableFuture<Path>> saveGameAction;
     private final int CREDITS_PER_STAR = 40; // Determines how many credits are required for a star
 
     /**
@@ -38,8 +44,23 @@ public class EndScreenBuilder implements Builder<Region> {
      * @param players            the list of players to display
      */
     public EndScreenBuilder(final Runnable loadMainMenuAction, final List<Player> players) {
+        this(loadMainMenuAction, players, null);
+    }
+
+    /**
+     * Constructor for the EndScreenBuilder of a game that can be saved.
+     *
+     * @param loadMainMenuAction the action to load the main menu
+     * @param players            the list of players to display
+     * @param saveGameAction     the action to save the game, returning the
+     *                           future of the written file, or {@code null} if
+     *                           the game can't be saved
+     */
+    public EndScreenBuilder(final Runnable loadMainMenuAction, final List<Player> players,
+            final @Nullable Supplier<CompletableFuture<Path>> saveGameAction) {
         this.loadMainMenuAction = loadMainMenuAction;
         this.players = players;
+        this.saveGameAction = saveGameAction;
     }
 
     @Override
@@ -49,10 +70,7 @@ public class EndScreenBuilder implements Builder<Region> {
         final List<Player> sortedPlayers = new ArrayList<>(players);
         sortedPlayers.sort(Comparator.comparingInt(Player::getTotalGoldCardValue).reversed());
 
-        final int currentHighscore = LeaderboardController.loadLeaderboardData().stream()
-                .min((score1, score2) -> Integer.compare(score2.getScore(), score1.getScore()))
-                .map(LeaderboardEntry::getScore)
-                .orElse(0);
+        final int currentHighscore = LeaderboardController.getHighscore();
 
         // Root container for the entire screen
         final StackPane rootContainer = new StackPane();
@@ -175,23 +193,58 @@ public class EndScreenBuilder implements Builder<Region> {
         }
 
         // Back to Main Menu Button
-        final Button backToMenuButton = new Button("Back to Main Menu");
-        backToMenuButton.setFont(new Font("Arial", 18));
+        final Button backToMenuButton = createButton("Back to Main Menu");
         backToMenuButton.setOnAction(event -> loadMainMenuAction.run());
-        backToMenuButton.setStyle(
-                "-fx-background-color: #2a2a3b; -fx-text-fill: #ffffff; -fx-font-size: 16px; -fx-font-family: Arial, sans-serif; -fx-padding: 10px 20px; -fx-background-radius: 12px; -fx-border-radius: 12px; -fx-border-color: transparent; -fx-cursor: hand;");
-        backToMenuButton.setOnMouseEntered(event -> backToMenuButton.setStyle(
-                "-fx-background-color: #3a3a4f;-fx-text-fill: #ffffff;-fx-font-size: 16px;-fx-font-family: Arial, sans-serif;-fx-padding: 10px 20px;-fx-background-radius: 12px;-fx-border-radius: 12px;-fx-border-color: transparent;-fx-cursor: hand;"));
-        backToMenuButton.setOnMouseExited(event -> backToMenuButton.setStyle(
-                "-fx-background-color: #2a2a3b;-fx-text-fill: #ffffff;-fx-font-size: 16px;-fx-font-family: Arial, sans-serif;-fx-padding: 10px 20px;-fx-background-radius: 12px;-fx-border-radius: 12px;-fx-border-color: transparent;-fx-cursor: hand;"));
 
-        StackPane.setAlignment(backToMenuButton, Pos.BOTTOM_CENTER);
-        StackPane.setMargin(backToMenuButton, new Insets(20));
-        rootContainer.getChildren().addAll(leaderboard, backToMenuButton);
+        final HBox buttons = new HBox(20, backToMenuButton);
+        buttons.setAlignment(Pos.CENTER);
+        buttons.setMaxHeight(Region.USE_PREF_SIZE);
+        buttons.setPickOnBounds(false);
+
+        // Save Game Button, only for games that were stopped before they ended
+        if (saveGameAction != null) {
+            final Button saveGameButton = createButton("Save Game");
+            saveGameButton.setOnAction(event -> {
+                saveGameButton.setDisable(true);
+                saveGameButton.setText("Saving...");
+                saveGameAction.get().whenComplete((path, error) -> Platform.runLater(() -> {
+                    if (error == null) {
+                        saveGameButton.setText("Game Saved");
+                    } else {
+                        System.out.println("Couldn't save the game: " + error.getMessage());
+                        saveGameButton.setText("Save Failed, Try Again");
+                        saveGameButton.setDisable(false);
+                    }
+                }));
+            });
+            buttons.getChildren().add(saveGameButton);
+        }
+
+        StackPane.setAlignment(buttons, Pos.BOTTOM_CENTER);
+        StackPane.setMargin(buttons, new Insets(20));
+        rootContainer.getChildren().addAll(leaderboard, buttons);
 
         return rootContainer;
     }
 
+    /**
+     * Creates a button in the style of the end screen.
+     *
+     * @param text the text of the button
+     * @return the button
+     */
+    private Button createButton(final String text) {
+        final Button button = new Button(text);
+        button.setFont(new Font("Arial", 18));
+        button.setStyle(
+                "-fx-background-color: #2a2a3b; -fx-text-fill: #ffffff; -fx-font-size: 16px; -fx-font-family: Arial, sans-serif; -fx-padding: 10px 20px; -fx-background-radius: 12px; -fx-border-radius: 12px; -fx-border-color: transparent; -fx-cursor: hand;");
+        button.setOnMouseEntered(event -> button.setStyle(
+                "-fx-background-color: #3a3a4f;-fx-text-fill: #ffffff;-fx-font-size: 16px;-fx-font-family: Arial, sans-serif;-fx-padding: 10px 20px;-fx-background-radius: 12px;-fx-border-radius: 12px;-fx-border-color: transparent;-fx-cursor: hand;"));
+        button.setOnMouseExited(event -> button.setStyle(
+                "-fx-background-color: #2a2a3b;-fx-text-fill: #ffffff;-fx-font-size: 16px;-fx-font-family: Arial, sans-serif;-fx-padding: 10px 20px;-fx-background-radius: 12px;-fx-border-radius: 12px;-fx-border-color: transparent;-fx-cursor: hand;"));
+        return button;
+    }
+
     /**
      * Creates a Pane with confetti particles in the background.
      *
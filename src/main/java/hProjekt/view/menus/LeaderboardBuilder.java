@@ -1,17 +1,28 @@
 package hProjekt.view.menus;
 
+import java.time.LocalDate;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
-import hProjekt.controller.LeaderboardController;
+import org.jetbrains.annotations.Nullable;
+
+import hProjekt.controller.LeaderboardColumns;
 import hProjekt.controller.LeaderboardEntry;
-import javafx.collections.FXCollections;
-import javafx.collections.ObservableList;
+import hProjekt.controller.LeaderboardStore;
+import javafx.application.Platform;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
 import javafx.scene.control.Button;
+import javafx.scene.control.ComboBox;
+import javafx.scene.control.DatePicker;
+import javafx.scene.control.Label;
 import javafx.scene.control.TableColumn;
 import javafx.scene.control.TableView;
+import javafx.scene.control.TextField;
 import javafx.scene.layout.BorderPane;
+import javafx.scene.layout.HBox;
 import javafx.scene.layout.Region;
 import javafx.scene.layout.VBox;
 import javafx.scene.paint.Color;
@@ -22,12 +33,31 @@ import javafx.util.Builder;
  * Builder for the Leaderboard view.
  * It creates the UI for displaying leaderboard entries and provides
  * functionality for returning to the main menu.
+ * <p>
+ * The table doesn't hold all entries: sorting and filtering run as a query on
+ * the {@link LeaderboardColumns} of the {@link LeaderboardStore} on a
+ * background thread, and the table shows the resulting {@link LeaderboardRows},
+ * which create entries only for the rows that are scrolled into view.
  */
 public class LeaderboardBuilder implements Builder<Region> {
 
+    private static final ExecutorService QUERY_EXECUTOR = Executors.newSingleThreadExecutor(runnable -> {
+        final Thread thread = new Thread(runnable, "LeaderboardQuery");
+        thread.setDaemon(true);
+        return thread;
+    });
+
     private final Runnable loadMainMenuAction;
     // This is ugly I know but i don't care cause it works
     private final TableColumn<LeaderboardEntry, Integer> scoreColumn = new TableColumn<>("Score");
+    private final TextField playerFilter = new TextField();
+    private final ComboBox<String> aiFilter = new ComboBox<>();
+    private final DatePicker fromFilter = new DatePicker();
+    private final DatePicker toFilter = new DatePicker();
+    private int queries;
+    private @Nullable LeaderboardColumns.Filter queriedFilter;
+    private @Nullable LeaderboardColumns.SortKey queriedSortKey;
+    private boolean queriedDescending;
 
     /**
      * Constructor for the LeaderboardBuilder.
@@ -60,18 +90,34 @@ public class LeaderboardBuilder implements Builder<Region> {
         // TableView for displaying leaderboard data
         final TableView<LeaderboardEntry> tableView = new TableView<>();
         tableView.getStyleClass().add("leaderboard-table");
+        tableView.setPlaceholder(new Label("Loading..."));
+        tableView.setFixedCellSize(30);
         setupTableColumns(tableView);
-        final ObservableList<LeaderboardEntry> entries = FXCollections
-                .observableArrayList(LeaderboardController.loadLeaderboardData());
-        tableView.setItems(entries);
+        // sorting is a query of the store, the rows are never sorted in the table
+        tableView.setSortPolicy(table -> {
+            query(tableView);
+            return true;
+        });
+
+        // Filters for the rows
+        playerFilter.setPromptText("Player");
+        aiFilter.getItems().addAll("All Players", "Humans", "CPU AIs");
+        aiFilter.setValue("All Players");
+        fromFilter.setPromptText("From");
+        toFilter.setPromptText("To");
+        playerFilter.textProperty().subscribe(text -> query(tableView));
+        aiFilter.valueProperty().subscribe(value -> query(tableView));
+        fromFilter.valueProperty().subscribe(date -> query(tableView));
+        toFilter.valueProperty().subscribe(date -> query(tableView));
+        final HBox filterBar = new HBox(10, playerFilter, aiFilter, fromFilter, toFilter);
+        filterBar.setAlignment(Pos.CENTER);
         tableView.getSortOrder().setAll(List.of(scoreColumn));
-        tableView.sort();
 
         // VBox to center content (title and table)
         final VBox contentContainer = new VBox(20);
         contentContainer.setAlignment(Pos.CENTER);
         contentContainer.setPadding(new Insets(20));
-        contentContainer.getChildren().addAll(title, tableView);
+        contentContainer.getChildren().addAll(title, filterBar, tableView);
 
         // Back button for returning to the main menu
         final Button backButton = new Button("Back to Main Menu");
@@ -89,6 +135,45 @@ public class LeaderboardBuilder implements Builder<Region> {
         return root;
     }
 
+    /**
+     * Runs the query of the current sort order and filters in the background
+     * and shows its rows. Nothing happens if the same query was the last one,
+     * and the rows of a query are dropped if a newer one was started meanwhile.
+     *
+     * @param tableView the table
+     */
+    private void query(final TableView<LeaderboardEntry> tableView) {
+        final TableColumn<LeaderboardEntry, ?> sortColumn = tableView.getSortOrder().isEmpty() ? scoreColumn
+                : tableView.getSortOrder().get(0);
+        final LeaderboardColumns.SortKey sortKey = (LeaderboardColumns.SortKey) sortColumn.getUserData();
+        final boolean descending = sortColumn.getSortType() == TableColumn.SortType.DESCENDING;
+        final LocalDate from = fromFilter.getValue();
+        final LocalDate to = toFilter.getValue();
+        final LeaderboardColumns.Filter filter = new LeaderboardColumns.Filter(
+                playerFilter.getText() == null || playerFilter.getText().isBlank() ? null : playerFilter.getText(),
+                switch (aiFilter.getValue()) {
+                    case "Humans" -> false;
+                    case "CPU AIs" -> true;
+                    default -> null;
+                },
+                from == null ? Long.MIN_VALUE : LeaderboardColumns.toSeconds(from.atStartOfDay()),
+                to == null ? Long.MAX_VALUE : LeaderboardColumns.toSeconds(to.plusDays(1).atStartOfDay()));
+        if (filter.equals(queriedFilter) && sortKey == queriedSortKey && descending == queriedDescending) {
+            return;
+        }
+        queriedFilter = filter;
+        queriedSortKey = sortKey;
+        queriedDescending = descending;
+        final int query = ++queries;
+        CompletableFuture.supplyAsync(() -> new LeaderboardRows(LeaderboardStore.SHARED.getColumns(), filter,
+                sortKey, descending), QUERY_EXECUTOR).thenAccept(rows -> Platform.runLater(() -> {
+                    if (query == queries) {
+                        tableView.setPlaceholder(new Label("No results"));
+                        tableView.setItems(rows);
+                    }
+                }));
+    }
+
     /**
      * Configures the columns for the leaderboard table.
      *
@@ -98,18 +183,22 @@ public class LeaderboardBuilder implements Builder<Region> {
         final TableColumn<LeaderboardEntry, String> playerColumn = new TableColumn<>("Player Name");
         playerColumn.setCellValueFactory(cellData -> cellData.getValue().playerNameProperty());
         playerColumn.setPrefWidth(0.3); // 30% width
+        playerColumn.setUserData(LeaderboardColumns.SortKey.PLAYER);
 
         final TableColumn<LeaderboardEntry, Boolean> aiColumn = new TableColumn<>("CPU AI");
         aiColumn.setCellValueFactory(cellData -> cellData.getValue().aiProperty());
         aiColumn.setPrefWidth(0.2); // 20% width
+        aiColumn.setUserData(LeaderboardColumns.SortKey.AI);
 
         final TableColumn<LeaderboardEntry, String> timestampColumn = new TableColumn<>("Timestamp");
         timestampColumn.setCellValueFactory(cellData -> cellData.getValue().timestampProperty());
         timestampColumn.setPrefWidth(0.3); // 30% width
+        timestampColumn.setUserData(LeaderboardColumns.SortKey.TIMESTAMP);
 
         scoreColumn.setCellValueFactory(cellData -> cellData.getValue().scoreProperty().asObject());
         scoreColumn.setPrefWidth(0.2); // 20% width
         scoreColumn.setSortType(TableColumn.SortType.DESCENDING);
+        scoreColumn.setUserData(LeaderboardColumns.SortKey.SCORE);
 
         // Distribute columns across the full width of the table
         tableView.setColumnResizePolicy(TableView.CONSTRAINED_RESIZE_POLICY_FLEX_LAST_COLUMN);
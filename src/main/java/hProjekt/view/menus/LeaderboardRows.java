@@ -0,0 +1,91 @@
+package hProjekt.view.menus;
+
+import java.util.Arrays;
+
+import hProjekt.controller.LeaderboardColumns;
+import hProjekt.controller.LeaderboardEntry;
+import javafx.collections.ObservableListBase;
+
+/**
+ * The rows of the leaderboard table for one query, loaded page by page.
+ * <p>
+ * The list only knows the order of the rows. A {@link LeaderboardEntry} is
+ * created when the table asks for a row, for the whole page around it, and at
+ * most {@value #PAGES} pages are kept. When another page is needed, it replaces
+ * the page used least recently. The entries of the dropped page are never
+ * filled with other rows, since the selection of the table may still hold
+ * them. The table only asks for the rows it shows, so scrolling through a
+ * million results keeps a few hundred entries.
+ * <p>
+ * The list never changes; a new sort order or filter gets a new list.
+ */
+public class LeaderboardRows extends ObservableListBase<LeaderboardEntry> {
+    private static final int PAGE_SIZE = 64;
+    private static final int PAGES = 4;
+
+    private final LeaderboardColumns columns;
+    private final int[] rows;
+    private final int[] pageNumbers = new int[PAGES];
+    private final long[] pageUses = new long[PAGES];
+    private final LeaderboardEntry[][] pages = new LeaderboardEntry[PAGES][PAGE_SIZE];
+    private long uses;
+
+    /**
+     * Creates the rows of a query. The query is run right away, so this should
+     * be called off the JavaFX application thread.
+     *
+     * @param columns    the results
+     * @param filter     the filter of the results
+     * @param sortKey    the column to sort by
+     * @param descending whether to sort from the largest to the smallest key
+     */
+    public LeaderboardRows(final LeaderboardColumns columns, final LeaderboardColumns.Filter filter,
+            final LeaderboardColumns.SortKey sortKey, final boolean descending) {
+        this.columns = columns;
+        this.rows = columns.query(filter, sortKey, descending);
+        Arrays.fill(pageNumbers, -1);
+    }
+
+    @Override
+    public LeaderboardEntry get(final int index) {
+        if (index < 0 || index >= rows.length) {
+            throw new IndexOutOfBoundsException(index);
+        }
+        final int pageNumber = index / PAGE_SIZE;
+        int slot = 0;
+        for (int i = 0; i < PAGES; i++) {
+            if (pageNumbers[i] == pageNumber) {
+                slot = i;
+                break;
+            }
+            if (pageUses[i] < pageUses[slot]) {
+                slot = i;
+            }
+        }
+        if (pageNumbers[slot] != pageNumber) {
+            fill(slot, pageNumber);
+        }
+        pageUses[slot] = ++uses;
+        return pages[slot][index % PAGE_SIZE];
+    }
+
+    @Override
+    public int size() {
+        return rows.length;
+    }
+
+    /**
+     * Loads a page into a slot, with new entries.
+     *
+     * @param slot       the slot
+     * @param pageNumber the page
+     */
+    private void fill(final int slot, final int pageNumber) {
+        pageNumbers[slot] = pageNumber;
+        final LeaderboardEntry[] page = pages[slot];
+        final int start = pageNumber * PAGE_SIZE;
+        for (int i = 0; i < PAGE_SIZE && start + i < rows.length; i++) {
+            page[i] = columns.result(rows[start + i]).toEntry();
+        }
+    }
+}
@@ -8,8 +8,11 @@ import java.util.function.Supplier;
 import hProjekt.Config;
 import hProjekt.model.PlayerImpl;
 import hProjekt.view.utils.ErrorBox;
+import hProjekt.view.utils.LoadingBox;
+import hProjekt.view.utils.MapThumbnailCell;
 import javafx.beans.property.SimpleObjectProperty;
 import javafx.collections.ObservableList;
+import javafx.concurrent.Worker;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
 import javafx.scene.control.Alert;
@@ -40,25 +43,36 @@ public class SetupGameBuilder implements Builder<Region> {
     private final Supplier<Boolean> startGameHandler;
     private final SimpleObjectProperty<String> selectedMap;
     private final ErrorBox errorBox = new ErrorBox();
+    private final LoadingBox loadingBox = new LoadingBox();
     private final List<String> availableMaps;
+    private final List<String> savedGames;
+    private final Predicate<String> resumeGameHandler;
 
     /**
      * Constructor for the SetupGameBuilder.
      *
      * @param loadMainMenuAction the action to load the main menu
      * @param players            the list of player builders
-     * @param startGameHandler   the handler to start the game
+     * @param startGameHandler   the handler to start the game, returning whether
+     *                           the game is loading
      * @param selectedMap        the property for the selected map
      * @param availableMaps      the list of available maps
+     * @param savedGames         the names of the saved games
+     * @param resumeGameHandler  the handler to resume the saved game with the
+     *                           given name, returning whether the game is
+     *                           loading
      */
     public SetupGameBuilder(final Runnable loadMainMenuAction,
             final ObservableList<PlayerImpl.Builder> players, final Supplier<Boolean> startGameHandler,
-            final SimpleObjectProperty<String> selectedMap, final List<String> availableMaps) {
+            final SimpleObjectProperty<String> selectedMap, final List<String> availableMaps,
+            final List<String> savedGames, final Predicate<String> resumeGameHandler) {
         this.loadMainMenuAction = loadMainMenuAction;
         this.players = players;
         this.startGameHandler = startGameHandler;
         this.selectedMap = selectedMap;
         this.availableMaps = availableMaps;
+        this.savedGames = savedGames;
+        this.resumeGameHandler = resumeGameHandler;
     }
 
     @Override
@@ -69,7 +83,10 @@ public class SetupGameBuilder implements Builder<Region> {
 
         final Button backButton = new Button("Back to Main Menu");
         backButton.getStyleClass().add("button-back");
-        backButton.setOnAction(event -> loadMainMenuAction.run());
+        backButton.setOnAction(event -> {
+            loadingBox.cancel();
+            loadMainMenuAction.run();
+        });
 
         final Button startGameButton = new Button("Start Game");
         startGameButton.getStyleClass().add("start-game-button");
@@ -79,6 +96,7 @@ public class SetupGameBuilder implements Builder<Region> {
                 errorBox.setError("Cannot start game");
             }
         });
+        startGameButton.disableProperty().bind(loadingBox.visibleProperty());
 
         final StackPane topBar = new StackPane();
         topBar.setPadding(new Insets(10));
@@ -121,7 +139,7 @@ public class SetupGameBuilder implements Builder<Region> {
 
         final ComboBox<String> mapSelector = new ComboBox<>();
         mapSelector.getItems().addAll(availableMaps);
-        mapSelector.setMaxWidth(200);
+        mapSelector.setMaxWidth(300);
         mapSelector.setConverter(new StringConverter<>() {
             @Override
             public String toString(final String mapName) {
@@ -133,12 +151,16 @@ public class SetupGameBuilder implements Builder<Region> {
                 throw new UnsupportedOperationException("Unused method");
             }
         });
+        mapSelector.setCellFactory(list -> new MapThumbnailCell("Select a map"));
         mapSelector.setValue(null);
         mapSelector.valueProperty().bindBidirectional(selectedMap);
 
         mapSelectionContainer.getChildren().addAll(mapLabel, mapSelector);
 
-        mainContent.getChildren().addAll(titleLabel, errorBox, playerContainer, addPlayerButton, mapSelectionContainer);
+        mainContent.getChildren().addAll(titleLabel, errorBox, loadingBox, playerContainer, addPlayerButton, mapSelectionContainer);
+        if (!savedGames.isEmpty()) {
+            mainContent.getChildren().add(createResumeInputs());
+        }
 
         final ScrollPane centerPane = new ScrollPane(mainContent);
         centerPane.setFitToWidth(true);
@@ -151,6 +173,54 @@ public class SetupGameBuilder implements Builder<Region> {
         return root;
     }
 
+    /**
+     * Shows the progress of loading the game until it is done. If loading fails,
+     * the error is shown instead.
+     *
+     * @param worker         the worker loading the game
+     * @param failureMessage the error to show if loading fails
+     */
+    public void showLoading(final Worker<?> worker, final String failureMessage) {
+        loadingBox.show(worker);
+        worker.stateProperty().subscribe(state -> {
+            if (state == Worker.State.FAILED) {
+                errorBox.setError(failureMessage);
+            }
+        });
+    }
+
+    /**
+     * Creates the inputs to resume a saved game instead of starting a new one.
+     * The players and the map of a resumed game are the ones it was saved with.
+     *
+     * @return the inputs
+     */
+    private Region createResumeInputs() {
+        final HBox resumeContainer = new HBox(10);
+        resumeContainer.setAlignment(Pos.CENTER);
+        resumeContainer.setPadding(new Insets(10, 20, 10, 20));
+
+        final Label resumeLabel = new Label("Or resume a saved game:");
+        resumeLabel.setTextFill(Color.WHITE);
+
+        final ComboBox<String> saveSelector = new ComboBox<>();
+        saveSelector.getItems().addAll(savedGames);
+        saveSelector.setMaxWidth(300);
+        saveSelector.setValue(savedGames.get(savedGames.size() - 1));
+
+        final Button resumeButton = new Button("Resume Game");
+        resumeButton.setOnAction(event -> {
+            errorBox.clearError();
+            if (saveSelector.getValue() == null || !resumeGameHandler.test(saveSelector.getValue())) {
+                errorBox.setError("Cannot resume game");
+            }
+        });
+        resumeButton.disableProperty().bind(loadingBox.visibleProperty());
+
+        resumeContainer.getChildren().addAll(resumeLabel, saveSelector, resumeButton);
+        return resumeContainer;
+    }
+
     private void updatePlayerInputs(final VBox playerContainer) {
         playerContainer.getChildren().clear();
         for (final PlayerImpl.Builder playerBuilder : players) {
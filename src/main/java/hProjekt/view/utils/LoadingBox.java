@@ -0,0 +1,83 @@
+package hProjekt.view.utils;
+
+import org.jetbrains.annotations.Nullable;
+
+import javafx.concurrent.Worker;
+import javafx.geometry.Pos;
+import javafx.scene.control.Button;
+import javafx.scene.control.Label;
+import javafx.scene.control.ProgressBar;
+import javafx.scene.layout.HBox;
+import javafx.scene.layout.Priority;
+import javafx.scene.paint.Color;
+
+/**
+ * A box that shows the progress of a background {@link Worker}.
+ * It contains a progress bar, the message of the worker and a cancel button,
+ * and hides itself when the worker is done.
+ */
+public class LoadingBox extends HBox {
+    private final ProgressBar progressBar = new ProgressBar();
+    private final Label messageLabel = new Label();
+    private @Nullable Worker<?> worker;
+
+    /**
+     * Creates a new LoadingBox.
+     */
+    public LoadingBox() {
+        getStylesheets().add("css/main.css");
+        getStyleClass().add("box");
+        setSpacing(10);
+        setVisible(false);
+        managedProperty().bind(visibleProperty());
+        setMaxWidth(400);
+        setAlignment(Pos.CENTER);
+
+        final Button cancelButton = new Button("Cancel");
+        cancelButton.setOnAction(e -> cancel());
+
+        progressBar.setPrefWidth(120);
+        messageLabel.setTextFill(Color.WHITE);
+        messageLabel.setMaxWidth(Double.MAX_VALUE);
+        HBox.setHgrow(messageLabel, Priority.ALWAYS);
+
+        getChildren().addAll(progressBar, messageLabel, cancelButton);
+    }
+
+    /**
+     * Shows the progress of a worker until it is done. A worker shown before is
+     * cancelled.
+     *
+     * @param worker the worker
+     */
+    public void show(final Worker<?> worker) {
+        cancel();
+        this.worker = worker;
+        progressBar.progressProperty().bind(worker.progressProperty());
+        messageLabel.textProperty().bind(worker.messageProperty());
+        setVisible(true);
+        worker.stateProperty().subscribe(state -> {
+            if (this.worker == worker && (state == Worker.State.SUCCEEDED || state == Worker.State.FAILED
+                    || state == Worker.State.CANCELLED)) {
+                hide();
+            }
+        });
+    }
+
+    /**
+     * Cancels the shown worker and hides the box.
+     */
+    public void cancel() {
+        if (worker != null) {
+            worker.cancel();
+            hide();
+        }
+    }
+
+    private void hide() {
+        worker = null;
+        progressBar.progressProperty().unbind();
+        messageLabel.textProperty().unbind();
+        setVisible(false);
+    }
+}
@@ -0,0 +1,74 @@
+package hProjekt.view.utils;
+
+import hProjekt.controller.MapCatalog;
+import hProjekt.controller.MapThumbnails;
+import javafx.application.Platform;
+import javafx.scene.control.ListCell;
+import javafx.scene.image.Image;
+import javafx.scene.image.ImageView;
+import javafx.scene.image.PixelFormat;
+import javafx.scene.image.WritableImage;
+
+/**
+ * A list cell showing a saved map with its thumbnail and number of tiles.
+ * <p>
+ * The thumbnail is requested from {@link MapThumbnails#SHARED} when the cell
+ * gets its map, so only the maps of visible cells are rendered. Until the
+ * thumbnail is ready the cell shows the name only. A cell that was reused for
+ * another map in the meantime ignores the late thumbnail.
+ */
+public class MapThumbnailCell extends ListCell<String> {
+    private final ImageView thumbnailView = new ImageView();
+    private final String placeholder;
+
+    /**
+     * Creates a new cell.
+     *
+     * @param placeholder the text shown when the cell has no map
+     */
+    public MapThumbnailCell(final String placeholder) {
+        this.placeholder = placeholder;
+        thumbnailView.setFitWidth(MapThumbnails.WIDTH);
+        thumbnailView.setFitHeight(MapThumbnails.HEIGHT);
+        thumbnailView.setPreserveRatio(true);
+        setGraphicTextGap(10);
+    }
+
+    @Override
+    protected void updateItem(final String mapName, final boolean empty) {
+        super.updateItem(mapName, empty);
+        if (empty || mapName == null) {
+            setText(placeholder);
+            setGraphic(null);
+            return;
+        }
+        final MapCatalog.Entry entry = MapCatalog.SHARED.getEntry(mapName);
+        setText(entry == null ? mapName : mapName + "\n" + entry.tiles() + " tiles");
+        setGraphic(thumbnailView);
+
+        final MapThumbnails.Thumbnail ready = MapThumbnails.SHARED.getIfReady(mapName);
+        if (ready != null) {
+            thumbnailView.setImage(toImage(ready));
+            return;
+        }
+        thumbnailView.setImage(null);
+        MapThumbnails.SHARED.request(mapName).thenAccept(thumbnail -> Platform.runLater(() -> {
+            if (thumbnail != null && mapName.equals(getItem())) {
+                thumbnailView.setImage(toImage(thumbnail));
+            }
+        }));
+    }
+
+    /**
+     * Copies a thumbnail into an image.
+     *
+     * @param thumbnail the thumbnail
+     * @return the image
+     */
+    private static Image toImage(final MapThumbnails.Thumbnail thumbnail) {
+        final WritableImage image = new WritableImage(thumbnail.width(), thumbnail.height());
+        image.getPixelWriter().setPixels(0, 0, thumbnail.width(), thumbnail.height(),
+                PixelFormat.getIntArgbInstance(), thumbnail.pixels(), 0, thumbnail.width());
+        return image;
+    }
+}
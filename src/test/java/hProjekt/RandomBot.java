@@ -0,0 +1,128 @@
+package hProjekt;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import hProjekt.controller.GameController;
+import hProjekt.controller.GameEventListener;
+import hProjekt.controller.PlayerController;
+import hProjekt.controller.PlayerObjective;
+import hProjekt.controller.actions.AcceptCurse;
+import hProjekt.controller.actions.AcceptTreasure;
+import hProjekt.controller.actions.ConfirmTreasureCards;
+import hProjekt.controller.actions.DrawTreasureCards;
+import hProjekt.controller.actions.DriveAction;
+import hProjekt.controller.actions.EndTurn;
+import hProjekt.controller.actions.PlayPathCard;
+import hProjekt.controller.actions.PlayerAction;
+import hProjekt.controller.actions.SelectPosition;
+import hProjekt.controller.actions.SelectTileToRemove;
+import hProjekt.controller.actions.StartDrive;
+import hProjekt.model.PlayerState;
+import hProjekt.model.cards.PathCard;
+import hProjekt.model.cards.PathCardKey;
+import hProjekt.model.grid.Tile;
+import hProjekt.model.grid.TilePosition;
+import javafx.scene.paint.Color;
+
+/**
+ * Plays all players of a game with random actions, right when they wait for
+ * one, so the whole game runs on the thread that started it.
+ * <p>
+ * After the given number of actions, the bot stops the game by throwing a
+ * {@link Stop}. Treasures are never collected.
+ */
+public class RandomBot implements GameEventListener {
+    private final Random random;
+    private final int actionLimit;
+    private int actions = 0;
+
+    /**
+     * Thrown to leave the game loop once the action limit is reached.
+     */
+    public static class Stop extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        Stop() {
+            super("Action limit reached", null, false, false);
+        }
+    }
+
+    /**
+     * Creates a new bot.
+     *
+     * @param seed        the seed of the bot's decisions
+     * @param actionLimit the number of actions to trigger before the game is
+     *                    stopped
+     */
+    public RandomBot(final long seed, final int actionLimit) {
+        this.random = new Random(seed);
+        this.actionLimit = actionLimit;
+    }
+
+    /**
+     * Adds a new bot to the game and runs the game on the calling thread until
+     * the bot stops it.
+     *
+     * @param gameController the game to play
+     * @param seed           the seed of the bot's decisions
+     * @param actionLimit    the number of actions to trigger
+     */
+    public static void play(final GameController gameController, final long seed, final int actionLimit) {
+        gameController.addGameEventListener(new RandomBot(seed, actionLimit));
+        try {
+            gameController.startGame();
+        } catch (final Stop e) {
+            // the action limit was reached
+        }
+    }
+
+    @Override
+    public void beforeAction(final PlayerController playerController) {
+        if (actions++ >= actionLimit) {
+            throw new Stop();
+        }
+        playerController.triggerAction(choose(playerController));
+    }
+
+    private PlayerAction choose(final PlayerController playerController) {
+        final PlayerState state = playerController.getPlayerState();
+        final List<TilePosition> positions = TestGames.positions(playerController.getPlayer().getHexGrid());
+        return switch (state.playerObjective()) {
+            case SELECT_POSITION -> new SelectPosition(positions.get(random.nextInt(positions.size())));
+            case REGULAR_TURN, PLAY_PATH_CARD -> {
+                final List<Map.Entry<Color, List<PathCard>>> trails = state.validPathCards().entrySet().stream()
+                        .filter(entry -> !entry.getValue().isEmpty())
+                        .sorted(Comparator.comparing(entry -> Config.TREASURE_TRAIL_COLORS.indexOf(entry.getKey())))
+                        .toList();
+                if (!trails.isEmpty()
+                        && (state.playerObjective() == PlayerObjective.PLAY_PATH_CARD
+                                || random.nextInt(10) < 6)) {
+                    final Map.Entry<Color, List<PathCard>> trail = trails.get(random.nextInt(trails.size()));
+                    final List<PathCard> cards = new ArrayList<>(trail.getValue());
+                    cards.sort(Comparator.comparing(PathCardKey::of, PathCardKey.ORDER));
+                    yield new PlayPathCard(cards.get(random.nextInt(cards.size())), trail.getKey());
+                }
+                yield new StartDrive();
+            }
+            case DRIVE, EXTRA_DRIVE -> {
+                final List<Tile> tiles = state.drivableTiles().stream()
+                        .sorted(Comparator.comparing(Tile::getPosition))
+                        .toList();
+                yield !tiles.isEmpty() && random.nextInt(10) < 7
+                        ? new DriveAction(tiles.get(random.nextInt(tiles.size())))
+                        : new EndTurn();
+            }
+            case SELECT_TILE_TO_REMOVE -> new SelectTileToRemove(positions.get(random.nextInt(positions.size())),
+                    Config.TREASURE_TRAIL_COLORS.get(random.nextInt(Config.TREASURE_TRAIL_COLORS.size())));
+            case DRAW_TREASURE_CARDS -> new DrawTreasureCards();
+            case CONFIRM_TREASURE_CARDS -> new ConfirmTreasureCards();
+            case ACCEPT_TREASURE -> new AcceptTreasure(true);
+            case ACCEPT_CURSE -> new AcceptCurse();
+            case IDLE -> throw new IllegalStateException("Idle player waits for an action");
+        };
+    }
+}
@@ -0,0 +1,105 @@
+package hProjekt;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import org.jetbrains.annotations.Nullable;
+
+import hProjekt.controller.GameController;
+import hProjekt.controller.MapSaveController;
+import hProjekt.model.GameState;
+import hProjekt.model.PlayerImpl;
+import hProjekt.model.grid.HexGrid;
+import hProjekt.model.grid.TilePosition;
+
+/**
+ * Sets up games on the default map for tests.
+ * <p>
+ * The map is loaded relative to the working directory of the test task, like
+ * in the application.
+ */
+public final class TestGames {
+    /**
+     * The map the games are played on.
+     */
+    public static final String MAP_NAME = "default";
+
+    private TestGames() {
+    }
+
+    /**
+     * Creates a new game state on the default map with human players that have
+     * the ids {@code 1} to {@code playerCount}.
+     *
+     * @param playerCount the number of players
+     * @return the new game state
+     */
+    public static GameState newState(final int playerCount) {
+        return newState(playerCount, null);
+    }
+
+    /**
+     * Creates a new game state on the default map with players that have the
+     * ids {@code 1} to {@code playerCount}.
+     *
+     * @param playerCount the number of players
+     * @param ai          the AI controller of all players or {@code null} for
+     *                    human players
+     * @return the new game state
+     */
+    public static GameState newState(final int playerCount, final @Nullable Config.AvailableAiControllers ai) {
+        final HexGrid grid = MapSaveController.loadMap(MAP_NAME);
+        if (grid == null) {
+            throw new IllegalStateException("Map " + MAP_NAME + " doesn't exist");
+        }
+        final GameState state = new GameState(grid, new ArrayList<>());
+        for (int id = 1; id <= playerCount; id++) {
+            state.addPlayer(new PlayerImpl.Builder(id).name("Player " + id).ai(ai).build(grid));
+        }
+        return state;
+    }
+
+    /**
+     * Creates a new game on the default map with human players.
+     *
+     * @param seed        the seed of the game
+     * @param playerCount the number of players
+     * @return the controller of the new game
+     */
+    public static GameController newGame(final long seed, final int playerCount) {
+        return new GameController(newState(playerCount), seed);
+    }
+
+    /**
+     * Returns the positions of all tiles of the given grid in their natural order.
+     *
+     * @param grid the grid
+     * @return the sorted tile positions
+     */
+    public static List<TilePosition> positions(final HexGrid grid) {
+        return grid.getTiles().keySet().stream().sorted(Comparator.naturalOrder()).toList();
+    }
+
+    /**
+     * Runs the game loop of the given game on a new daemon thread. The thread
+     * ends quietly when it is interrupted.
+     *
+     * @param gameController the game to run
+     * @return the thread running the game
+     */
+    public static Thread startInBackground(final GameController gameController) {
+        final Thread thread = new Thread(() -> {
+            try {
+                gameController.startGame();
+            } catch (final RuntimeException e) {
+                if (!(e.getCause() instanceof InterruptedException)) {
+                    throw e;
+                }
+            }
+        }, "TestGameLoopThread");
+        thread.setDaemon(true);
+        thread.start();
+        return thread;
+    }
+}
@@ -0,0 +1,76 @@
+package hProjekt.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Opens, appends to and reopens leaderboard logs.
+ */
+public class LeaderboardStoreTest {
+
+    @Test
+    public void testCutOffLineIsRemovedAndAppendsFollowTheLog(@TempDir final Path directory) throws IOException {
+        final Path log = directory.resolve("leaderboard.csv");
+        final String complete = LeaderboardStore.HEADER + "\n" + "Ada,false,2025-01-31 18:00:00,12\n"
+                + "Bot,true,2025-01-31 18:05:00,30\n";
+        Files.writeString(log, complete + "Ada,false,2025-01");
+
+        final LeaderboardStore store = new LeaderboardStore(log);
+        assertEquals(2, store.size());
+        assertEquals(complete, Files.readString(log));
+
+        store.append("Cy", 20, false);
+        store.flush();
+        final List<String> lines = Files.readAllLines(log);
+        assertEquals(4, lines.size());
+        assertTrue(lines.get(3).startsWith("Cy,false,"), lines.get(3));
+        assertTrue(lines.get(3).endsWith(",20"), lines.get(3));
+        assertEquals(3, new LeaderboardStore(log).size());
+    }
+
+    @Test
+    public void testMissingLogIsCreated(@TempDir final Path directory) throws IOException {
+        final Path log = directory.resolve("scores").resolve("leaderboard.csv");
+        final LeaderboardStore store = new LeaderboardStore(log);
+        assertEquals(0, store.getHighscore());
+        store.append("Ada", 7, false);
+        store.flush();
+        assertEquals(List.of(LeaderboardStore.HEADER), Files.readAllLines(log).subList(0, 1));
+        assertEquals(1, new LeaderboardStore(log).size());
+    }
+
+    @Test
+    public void testIndexes(@TempDir final Path directory) throws IOException {
+        final Path log = directory.resolve("leaderboard.csv");
+        final StringBuilder text = new StringBuilder(LeaderboardStore.HEADER).append('\n');
+        for (int i = 0; i < LeaderboardStore.TOP_K * 3; i++) {
+            text.append(i % 2 == 0 ? "Ada" : "Bot").append(',').append(i % 2 == 1).append(",2025-01-31 18:00:00,")
+                    .append(i).append('\n');
+        }
+        Files.writeString(log, text);
+
+        final LeaderboardStore store = new LeaderboardStore(log);
+        assertEquals(LeaderboardStore.TOP_K * 3 - 1, store.getHighscore());
+        final List<LeaderboardStore.Result> top = store.getTopResults(3);
+        assertEquals(List.of(299, 298, 297), top.stream().map(LeaderboardStore.Result::score).toList());
+        assertTrue(top.get(0).ai());
+        assertFalse(top.get(1).ai());
+
+        final LeaderboardStore.PlayerStats ada = store.getPlayerStats("Ada");
+        assertEquals(LeaderboardStore.TOP_K * 3 / 2, ada.games());
+        assertEquals(298, ada.bestScore());
+        assertEquals(149.0, ada.averageScore());
+        assertNull(store.getPlayerStats("Cy"));
+        assertEquals(List.of(10, 11), store.read(10, 2).stream().map(LeaderboardStore.Result::score).toList());
+    }
+}
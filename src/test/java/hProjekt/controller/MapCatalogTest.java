@@ -0,0 +1,112 @@
+package hProjekt.controller;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import hProjekt.TestGames;
+import hProjekt.model.grid.Tile;
+
+/**
+ * Indexes copies of the default map in a temporary maps directory.
+ */
+public class MapCatalogTest {
+
+    @Test
+    public void testIndexesMapsWithoutLoadingThem(@TempDir final Path directory) throws IOException {
+        copyDefaultMap(directory, "first");
+        final MapCatalog catalog = new MapCatalog(directory);
+        assertEquals(List.of("first"), catalog.getNames());
+        final MapCatalog.Entry entry = catalog.getEntry("first");
+        assertNotNull(entry);
+        assertEquals(TestGames.newState(2).getGrid().getTiles().size(), entry.tiles());
+        int tiles = 0;
+        for (final Tile.Type type : Tile.Type.values()) {
+            tiles += entry.tileCount(type);
+        }
+        assertEquals(entry.tiles(), tiles);
+        assertTrue(Files.exists(directory.resolve(MapCatalog.INDEX_FILE)));
+
+        catalog.close();
+
+        final MapCatalog reopened = new MapCatalog(directory);
+        assertEquals(entry.contentHash(), reopened.getEntry("first").contentHash());
+        reopened.close();
+    }
+
+    @Test
+    public void testStartIsRetriedAfterFailure(@TempDir final Path directory) throws IOException {
+        final Path blocker = directory.resolve("blocker");
+        Files.writeString(blocker, "not a directory");
+        final MapCatalog catalog = new MapCatalog(blocker.resolve("maps"));
+        assertEquals(List.of(), catalog.getNames());
+
+        Files.delete(blocker);
+        Files.createDirectories(blocker.resolve("maps"));
+        copyDefaultMap(blocker.resolve("maps"), "late");
+        assertEquals(List.of("late"), catalog.getNames());
+        catalog.close();
+    }
+
+    @Test
+    public void testListenersRunOnWatcherThread(@TempDir final Path directory)
+            throws IOException, InterruptedException {
+        final MapCatalog catalog = new MapCatalog(directory);
+        assertEquals(List.of(), catalog.getNames());
+        final CountDownLatch changed = new CountDownLatch(1);
+        final String[] thread = new String[1];
+        catalog.addListener(() -> {
+            thread[0] = Thread.currentThread().getName();
+            changed.countDown();
+        });
+        copyDefaultMap(directory, "watched");
+        assertTrue(changed.await(30, TimeUnit.SECONDS), "The new map wasn't noticed");
+        assertEquals("MapCatalogWatcher", thread[0]);
+        assertNotEquals(Thread.currentThread().getName(), thread[0]);
+        assertEquals(List.of("watched"), catalog.getNames());
+        catalog.close();
+    }
+
+    @Test
+    public void testThumbnailOffsetsAreWrittenTogether(@TempDir final Path directory) throws IOException {
+        copyDefaultMap(directory, "first");
+        copyDefaultMap(directory, "second");
+        final MapCatalog catalog = new MapCatalog(directory);
+        assertEquals(List.of("first", "second"), catalog.getNames());
+        final Path index = directory.resolve(MapCatalog.INDEX_FILE);
+        final byte[] written = Files.readAllBytes(index);
+        catalog.setThumbnailOffset("first", 0);
+        catalog.setThumbnailOffset("second", 4096);
+        assertArrayEquals(written, Files.readAllBytes(index));
+        catalog.close();
+
+        final MapCatalog reopened = new MapCatalog(directory);
+        assertEquals(0, reopened.getEntry("first").thumbnailOffset());
+        assertEquals(4096, reopened.getEntry("second").thumbnailOffset());
+        reopened.close();
+    }
+
+    /**
+     * Copies the default map into a directory.
+     *
+     * @param directory the directory
+     * @param name      the name of the copy
+     * @throws IOException if the map can't be copied
+     */
+    private static void copyDefaultMap(final Path directory, final String name) throws IOException {
+        Files.copy(MapSaveController.getMapFile(TestGames.MAP_NAME, MapSaveController.MAP_FILE_EXTENSION),
+                directory.resolve(name + MapSaveController.MAP_FILE_EXTENSION));
+    }
+}
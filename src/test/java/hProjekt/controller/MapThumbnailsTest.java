@@ -0,0 +1,54 @@
+package hProjekt.controller;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import hProjekt.TestGames;
+
+/**
+ * Renders and caches the thumbnail of a copy of the default map.
+ */
+public class MapThumbnailsTest {
+
+    @Test
+    public void testThumbnailIsRenderedOnceAndCached(@TempDir final Path directory)
+            throws IOException, InterruptedException, ExecutionException, TimeoutException {
+        Files.copy(MapSaveController.getMapFile(TestGames.MAP_NAME, MapSaveController.MAP_FILE_EXTENSION),
+                directory.resolve("copy" + MapSaveController.MAP_FILE_EXTENSION));
+        final Path cacheFile = directory.resolve(MapThumbnails.CACHE_FILE);
+        final MapCatalog catalog = new MapCatalog(directory);
+        try {
+            final MapThumbnails thumbnails = new MapThumbnails(cacheFile, catalog);
+            assertNull(thumbnails.getIfReady("copy"));
+            final MapThumbnails.Thumbnail thumbnail = thumbnails.request("copy").get(30, TimeUnit.SECONDS);
+            assertNotNull(thumbnail);
+            assertEquals(MapThumbnails.WIDTH * MapThumbnails.HEIGHT, thumbnail.pixels().length);
+            assertTrue(Arrays.stream(thumbnail.pixels()).anyMatch(pixel -> pixel != 0), "Nothing was drawn");
+            assertSame(thumbnail, thumbnails.getIfReady("copy"));
+            assertEquals(0, catalog.getEntry("copy").thumbnailOffset());
+            final long cacheSize = Files.size(cacheFile);
+
+            final MapThumbnails reopened = new MapThumbnails(cacheFile, catalog);
+            assertArrayEquals(thumbnail.pixels(), reopened.request("copy").get(30, TimeUnit.SECONDS).pixels());
+            assertEquals(cacheSize, Files.size(cacheFile));
+            assertNull(reopened.request("missing").get(30, TimeUnit.SECONDS));
+        } finally {
+            catalog.close();
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package hProjekt.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import hProjekt.Config;
+import hProjekt.RandomBot;
+import hProjekt.TestGames;
+import hProjekt.controller.io.SaveGameCodec;
+import hProjekt.model.GameState;
+import hProjekt.model.grid.HexGridImpl;
+import hProjekt.model.snapshot.GameSnapshot;
+
+/**
+ * Captures checkpoints and resumes saved games in the state the setup menu
+ * fills.
+ */
+public class SaveGameControllerTest {
+
+    /**
+     * Thrown to leave the game loop at the first action.
+     */
+    private static class Stop extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+    }
+
+    /**
+     * Starts the given game and stops it when the first player waits for an
+     * action.
+     *
+     * @param gameController the game
+     */
+    private static void playUntilFirstAction(final GameController gameController) {
+        gameController.addGameEventListener(new GameEventListener() {
+            @Override
+            public void beforeAction(final PlayerController playerController) {
+                throw new Stop();
+            }
+        });
+        assertThrows(Stop.class, gameController::startGame);
+    }
+
+    @Test
+    public void testOnlyGamesThatCanBeSavedCaptureCheckpoints() {
+        final Config.AvailableAiControllers ai = Config.AvailableAiControllers.values()[0];
+        final GameController aiGame = new GameController(TestGames.newState(2, ai), 1);
+        playUntilFirstAction(aiGame);
+        assertNull(aiGame.getCheckpoint());
+
+        final GameController enabledAiGame = new GameController(TestGames.newState(2, ai), 1);
+        enabledAiGame.enableCheckpoints();
+        playUntilFirstAction(enabledAiGame);
+        assertNotNull(enabledAiGame.getCheckpoint());
+        assertEquals(PlayerObjective.SELECT_POSITION, enabledAiGame.getCheckpoint().objective());
+
+        final GameController humanGame = TestGames.newGame(1, 2);
+        playUntilFirstAction(humanGame);
+        assertNotNull(humanGame.getCheckpoint());
+    }
+
+    @Test
+    public void testResumeGameRestoresTheSetupState() {
+        final GameController played = TestGames.newGame(3, 3);
+        RandomBot.play(played, 5, 80);
+        final TurnCheckpoint checkpoint = played.getCheckpoint();
+        assertNotNull(checkpoint);
+        final SaveGameCodec.SaveGame save = SaveGameCodec.read(SaveGameCodec.write(new SaveGameCodec.SaveGame(0,
+                TestGames.MAP_NAME, Map.of(), checkpoint)));
+
+        final GameState setupState = new GameState(new HexGridImpl(), new ArrayList<>());
+        final GameController resumed = new GameController(setupState, 9);
+        final GameSetup setup = new GameSetup(TestGames.MAP_NAME, null, false, null);
+        assertThrows(IllegalArgumentException.class,
+                () -> SaveGameController.resumeGame(save, setup, new HexGridImpl(), setupState));
+        SaveGameController.resumeGame(save, setup, TestGames.newState(0).getGrid(), setupState);
+        assertEquals(checkpoint.state().toSnapshot(), GameSnapshot.capture(setupState));
+        assertNull(resumed.getMapName());
+        assertThrows(IllegalStateException.class,
+                () -> SaveGameController.resumeGame(save, setup, TestGames.newState(0).getGrid(), setupState));
+
+        final boolean[] checked = new boolean[1];
+        resumed.addGameEventListener(new GameEventListener() {
+            @Override
+            public void beforeAction(final PlayerController playerController) {
+                if (!checked[0]) {
+                    checked[0] = true;
+                    assertSame(resumed.getPlayerControllers().values().stream().toList()
+                            .get(checkpoint.playerIndex()), playerController);
+                    assertEquals(checkpoint.state().toSnapshot(), GameSnapshot.capture(setupState));
+                    assertEquals(checkpoint.round(), resumed.getCheckpoint().round());
+                    assertEquals(checkpoint.playerIndex(), resumed.getCheckpoint().playerIndex());
+                    assertEquals(TestGames.MAP_NAME, resumed.getMapName());
+                }
+            }
+        });
+        RandomBot.play(resumed, 5, 20);
+        assertTrue(checked[0]);
+    }
+}
@@ -0,0 +1,76 @@
+package hProjekt.controller.ai;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import hProjekt.TestGames;
+import hProjekt.controller.GameController;
+import hProjekt.controller.PlayerObjective;
+
+/**
+ * Tests the deadlines and the per game latency histograms of the
+ * {@link AiScheduler}.
+ */
+public class AiSchedulerTest {
+    private final AiScheduler scheduler = new AiScheduler(1);
+
+    @Test
+    public void testDecisionIsCommittedAtDeadline() throws Exception {
+        final GameController game = TestGames.newGame(1, 2);
+        final CompletableFuture<String> committed = new CompletableFuture<>();
+        final long start = System.nanoTime();
+        scheduler.submit(game, PlayerObjective.ACCEPT_CURSE, "fallback", decision -> {
+            decision.offer("best");
+            while (!decision.shouldStop()) {
+                Thread.onSpinWait();
+            }
+        }, committed::complete);
+        assertEquals("best", committed.get(5, TimeUnit.SECONDS));
+        assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(
+                AiScheduler.deadlineMillis(PlayerObjective.ACCEPT_CURSE)));
+    }
+
+    @Test
+    public void testLatenciesAreKeptPerGame() throws Exception {
+        final GameController first = TestGames.newGame(1, 2);
+        final GameController second = TestGames.newGame(2, 2);
+        scheduler.onGameStart(first);
+        scheduler.onGameStart(second);
+        final CompletableFuture<Integer> committed = new CompletableFuture<>();
+        scheduler.submit(first, PlayerObjective.DRIVE, 0, decision -> {
+        }, committed::complete);
+        committed.get(5, TimeUnit.SECONDS);
+
+        assertEquals(1, scheduler.getLatencies(first).get(PlayerObjective.DRIVE).count());
+        assertEquals(0, scheduler.getLatencies(second).count());
+
+        final AiScheduler.Latencies before = scheduler.getLatencies(second);
+        scheduler.onGameEnd(second);
+        assertNotSame(before, scheduler.getLatencies(second));
+    }
+
+    @Test
+    public void testExportAppendsEveryGame(@TempDir final Path directory) throws IOException {
+        final Path path = directory.resolve("latency.csv");
+        final AiScheduler.Latencies latencies = scheduler.getLatencies(TestGames.newGame(1, 2));
+        latencies.get(PlayerObjective.REGULAR_TURN).record(3_000_000);
+        latencies.ponders().record(1_000_000);
+        AiScheduler.exportLatencies(path, 11, latencies);
+        AiScheduler.exportLatencies(path, 12, latencies);
+
+        assertEquals(List.of("game,objective,upper_bound_micros,count",
+                "11,REGULAR_TURN,4096,1", "11,PONDER,1024,1",
+                "12,REGULAR_TURN,4096,1", "12,PONDER,1024,1"), Files.readAllLines(path));
+    }
+}
@@ -0,0 +1,89 @@
+package hProjekt.controller.ai;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import java.util.SplittableRandom;
+
+import org.junit.jupiter.api.Test;
+
+import hProjekt.TestGames;
+
+/**
+ * Plays batches of simulated games on the default map and compares the
+ * kernels of their bulk loops. The tests of the Vector API kernel only run if
+ * the JVM was started with {@code --add-modules jdk.incubator.vector}.
+ */
+public class BatchSimulationTest {
+    private static final int MAX_TURNS = 512;
+
+    @Test
+    public void testGamesDependOnlyOnSeedAndIndex() {
+        final SimulationBoard board = SimulationBoard.of(TestGames.newState(2).getGrid());
+        final BatchSimulation large = new BatchSimulation(board, 64, 3, 42);
+        final BatchSimulation small = new BatchSimulation(board, 8, 3, 42);
+        large.run(MAX_TURNS);
+        small.run(MAX_TURNS);
+        for (int g = 0; g < small.games(); g++) {
+            assertEquals(small.isOver(g), large.isOver(g));
+            assertEquals(small.turns(g), large.turns(g));
+            for (int p = 0; p < small.players(); p++) {
+                assertEquals(small.gold(g, p), large.gold(g, p));
+                assertEquals(small.reward(g, p), large.reward(g, p));
+            }
+        }
+    }
+
+    @Test
+    public void testFinishedGamesHaveWinners() {
+        final SimulationBoard board = SimulationBoard.of(TestGames.newState(2).getGrid());
+        final BatchSimulation batch = new BatchSimulation(board, 32, 2, 7);
+        final int finished = batch.run(MAX_TURNS);
+        assertTrue(finished > 0, "No game finished");
+        for (int g = 0; g < batch.games(); g++) {
+            assertTrue(batch.turns(g) <= MAX_TURNS);
+            if (batch.isOver(g)) {
+                assertEquals(1, batch.reward(g, 0) + batch.reward(g, 1), 1e-9);
+            }
+        }
+    }
+
+    @Test
+    public void testVectorKernelMatchesScalarKernel() {
+        assumeTrue(BitsetKernel.VECTOR != null, "The Vector API isn't available");
+        final SplittableRandom random = new SplittableRandom(3);
+        final long[] words = random.longs(259).toArray();
+        final long[] masks = random.longs(259).toArray();
+        final long[] scalarCounts = random.longs(259, 0, 1000).toArray();
+        final long[] vectorCounts = scalarCounts.clone();
+        final long[] scalarWords = words.clone();
+        final long[] vectorWords = words.clone();
+
+        BitsetKernel.SCALAR.count(words, 1, scalarCounts, 2, 257);
+        BitsetKernel.VECTOR.count(words, 1, vectorCounts, 2, 257);
+        assertArrayEquals(scalarCounts, vectorCounts);
+        BitsetKernel.SCALAR.countAnd(words, 2, masks, 0, scalarCounts, 1, 256);
+        BitsetKernel.VECTOR.countAnd(words, 2, masks, 0, vectorCounts, 1, 256);
+        assertArrayEquals(scalarCounts, vectorCounts);
+        BitsetKernel.SCALAR.and(scalarWords, 0, masks, 3, 255);
+        BitsetKernel.VECTOR.and(vectorWords, 0, masks, 3, 255);
+        assertArrayEquals(scalarWords, vectorWords);
+    }
+
+    @Test
+    public void testKernelsPlayTheSameGames() {
+        assumeTrue(BitsetKernel.VECTOR != null, "The Vector API isn't available");
+        final SimulationBoard board = SimulationBoard.of(TestGames.newState(2).getGrid());
+        final BatchSimulation scalar = new BatchSimulation(board, 300, 3, 11, BitsetKernel.SCALAR);
+        final BatchSimulation vector = new BatchSimulation(board, 300, 3, 11, BitsetKernel.VECTOR);
+        assertEquals(scalar.run(MAX_TURNS), vector.run(MAX_TURNS));
+        for (int g = 0; g < scalar.games(); g++) {
+            assertEquals(scalar.turns(g), vector.turns(g));
+            for (int p = 0; p < scalar.players(); p++) {
+                assertEquals(scalar.gold(g, p), vector.gold(g, p));
+            }
+        }
+    }
+}
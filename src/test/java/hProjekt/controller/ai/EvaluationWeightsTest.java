@@ -0,0 +1,61 @@
+package hProjekt.controller.ai;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import hProjekt.Config;
+
+/**
+ * Tests where the {@link EvaluationWeights} are loaded from.
+ */
+public class EvaluationWeightsTest {
+
+    private static EvaluationWeights shipped() throws IOException {
+        try (InputStream in = EvaluationWeights.class.getResourceAsStream(Config.AI_WEIGHTS_RESOURCE)) {
+            assertNotNull(in, "The weights aren't on the classpath");
+            return EvaluationWeights.load(in);
+        }
+    }
+
+    private static void assertSameWeights(final EvaluationWeights expected, final EvaluationWeights actual) {
+        assertEquals(expected.getBias(), actual.getBias());
+        assertArrayEquals(expected.getWeights(), actual.getWeights());
+    }
+
+    @Test
+    public void testShippedWeightsAreFoundOnClasspath(@TempDir final Path directory) throws IOException {
+        final EvaluationWeights weights = EvaluationWeights.loadOrFallback(directory.resolve("missing.txt"),
+                Config.AI_WEIGHTS_RESOURCE);
+        assertSameWeights(shipped(), weights);
+    }
+
+    @Test
+    public void testFileOverridesShippedWeights(@TempDir final Path directory) throws IOException {
+        final double[] values = new double[PositionFeatures.COUNT];
+        values[0] = 1.5;
+        final EvaluationWeights trained = new EvaluationWeights(-0.25, values);
+        final Path path = directory.resolve("weights.txt");
+        trained.save(path);
+        assertSameWeights(trained, EvaluationWeights.loadOrFallback(path, Config.AI_WEIGHTS_RESOURCE));
+    }
+
+    @Test
+    public void testFallbackWeighsGoldLeadOnly(@TempDir final Path directory) {
+        final EvaluationWeights weights = EvaluationWeights.loadOrFallback(directory.resolve("missing.txt"),
+                "/ai/missing.txt");
+        assertEquals(0, weights.getBias());
+        int nonZero = 0;
+        for (final double weight : weights.getWeights()) {
+            nonZero += weight == 0 ? 0 : 1;
+        }
+        assertEquals(1, nonZero);
+    }
+}
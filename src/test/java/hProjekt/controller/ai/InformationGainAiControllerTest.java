@@ -0,0 +1,86 @@
+package hProjekt.controller.ai;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import hProjekt.Config;
+import hProjekt.RandomBot;
+import hProjekt.TestGames;
+import hProjekt.controller.GameController;
+import hProjekt.controller.GameEventListener;
+import hProjekt.controller.PlayerController;
+import hProjekt.controller.actions.PlayerAction;
+import hProjekt.model.GameState;
+import hProjekt.model.cards.PathCard;
+import hProjekt.model.grid.Tile;
+
+/**
+ * Checks the candidate counting the {@link InformationGainAiController} scores
+ * its cards with and lets it play a real game.
+ */
+public class InformationGainAiControllerTest {
+
+    @Test
+    public void testObservedTrailsCountLiveCandidates() {
+        final GameController gameController = TestGames.newGame(31, 3);
+        RandomBot.play(gameController, 37, 120);
+        final GameState state = gameController.getState();
+        final SimulationBoard board = SimulationBoard.of(state.getGrid());
+        final Simulation observation = Simulation.observe(board, state, state.getPlayers().get(0));
+
+        int played = 0;
+        for (int t = 0; t < Config.TREASURE_TRAIL_COLORS.size(); t++) {
+            final List<PathCard> trail = state.getTreasureTrails().get(Config.TREASURE_TRAIL_COLORS.get(t));
+            Set<Tile> candidates = new HashSet<>(state.getGrid().getTiles().values());
+            for (final PathCard card : trail) {
+                candidates = card.filter(candidates);
+            }
+            assertEquals(candidates.size(), SimulationBoard.count(observation.trail(t)), "Trail " + t);
+            played += trail.size();
+        }
+        assertTrue(played > 0, "No card was played");
+    }
+
+    @Test
+    public void testEveryCardKindMatchesItsTiles() {
+        final GameState state = TestGames.newState(2);
+        final SimulationBoard board = SimulationBoard.of(state.getGrid());
+        for (int kind = 0; kind < SimulationBoard.CARD_KINDS; kind++) {
+            final PathCard card = board.cardKey(kind).toCard(null);
+            final long[] tiles = board.cardTiles(kind);
+            for (final Tile tile : state.getGrid().getTiles().values()) {
+                assertEquals(card.getTileFilterFunction().test(tile),
+                        SimulationBoard.contains(tiles, board.index(tile.getPosition())),
+                        board.cardKey(kind) + " on " + tile.getPosition());
+            }
+        }
+    }
+
+    @Test
+    public void testInformationGainPlayersPlayGame() throws InterruptedException {
+        final GameController gameController = new GameController(
+                TestGames.newState(3, Config.AvailableAiControllers.INFORMATION_GAIN), 9);
+        final CountDownLatch actions = new CountDownLatch(30);
+        gameController.addGameEventListener(new GameEventListener() {
+            @Override
+            public void afterAction(final PlayerController playerController, final PlayerAction action) {
+                actions.countDown();
+            }
+        });
+        final Thread gameThread = TestGames.startInBackground(gameController);
+        try {
+            assertTrue(actions.await(30, TimeUnit.SECONDS), "The AI players got stuck");
+        } finally {
+            gameThread.interrupt();
+            gameThread.join(10_000);
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package hProjekt.controller.ai;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import hProjekt.Config;
+import hProjekt.TestGames;
+import hProjekt.controller.GameController;
+import hProjekt.controller.GameEventListener;
+import hProjekt.controller.PlayerController;
+import hProjekt.controller.actions.PlayerAction;
+
+/**
+ * Tests that {@link MacroMoveAiController}s ponder their next turn while the
+ * other players act.
+ */
+public class MacroMoveAiControllerTest {
+
+    @Test
+    public void testPlayersPonderWhileOthersAct() throws InterruptedException {
+        assertTrue(Config.AI_PONDERING);
+        final GameController gameController = new GameController(
+                TestGames.newState(3, Config.AvailableAiControllers.INFORMATION_GAIN), 12);
+        final CountDownLatch actions = new CountDownLatch(40);
+        final long[] ponders = new long[1];
+        gameController.addGameEventListener(new GameEventListener() {
+            @Override
+            public void afterAction(final PlayerController playerController, final PlayerAction action) {
+                ponders[0] = AiScheduler.SHARED.getLatencies(gameController).ponders().count();
+                actions.countDown();
+            }
+        });
+        final Thread gameThread = TestGames.startInBackground(gameController);
+        try {
+            assertTrue(actions.await(30, TimeUnit.SECONDS), "The AI players got stuck");
+        } finally {
+            gameThread.interrupt();
+            gameThread.join(10_000);
+        }
+        assertTrue(ponders[0] > 0, "No ponder decision was committed");
+    }
+}
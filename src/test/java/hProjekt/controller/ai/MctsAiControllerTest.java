@@ -0,0 +1,142 @@
+package hProjekt.controller.ai;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import hProjekt.Config;
+import hProjekt.TestGames;
+import hProjekt.controller.GameController;
+import hProjekt.controller.GameEventListener;
+import hProjekt.controller.PlayerController;
+import hProjekt.controller.actions.PlayerAction;
+
+/**
+ * Tests the {@link Simulation} the searching AI controllers run on and lets
+ * MCTS controllers play a real game.
+ */
+public class MctsAiControllerTest {
+
+    private static Simulation newSimulation(final long seed) {
+        return Simulation.newGame(SimulationBoard.of(TestGames.newState(3).getGrid()), 3,
+                new SplittableRandom(seed));
+    }
+
+    @Test
+    public void testRolloutFinishesGame() {
+        final Simulation simulation = newSimulation(1);
+        simulation.rollout(Integer.MAX_VALUE, new SplittableRandom(2));
+        assertTrue(simulation.isOver());
+        assertEquals(0, simulation.deckDepth());
+        double rewards = 0;
+        for (int p = 0; p < simulation.players(); p++) {
+            rewards += simulation.reward(p);
+        }
+        assertEquals(1, rewards, 1e-9);
+    }
+
+    @Test
+    public void testCopyIsIndependent() {
+        final Simulation simulation = newSimulation(3);
+        final Simulation copy = Simulation.copyOf(simulation);
+        final int deckDepth = simulation.deckDepth();
+        final int gold = simulation.gold(0);
+        copy.rollout(20, new SplittableRandom(4));
+        assertEquals(0, simulation.turn());
+        assertEquals(deckDepth, simulation.deckDepth());
+        assertEquals(gold, simulation.gold(0));
+        simulation.rollout(20, new SplittableRandom(4));
+        assertEquals(copy.turn(), simulation.turn());
+        assertEquals(copy.deckDepth(), simulation.deckDepth());
+    }
+
+    @Test
+    public void testLegalMovesCanBeApplied() {
+        final Simulation simulation = newSimulation(5);
+        final SplittableRandom random = new SplittableRandom(6);
+        final int[] moves = new int[4 * (Config.MAX_CARDS_IN_HAND_WITH_TWO_PLAYERS + 1)];
+        for (int i = 0; i < 200 && !simulation.isOver(); i++) {
+            final int count = simulation.legalMoves(moves, false);
+            assertTrue(count > 0);
+            final int move = moves[random.nextInt(count)];
+            if (!Simulation.isDrive(move) && !Simulation.isPass(move)) {
+                assertTrue(simulation.canPlay(simulation.handCard(simulation.turn(), Simulation.slot(move)),
+                        Simulation.trailOf(move)));
+            }
+            final int player = simulation.turn();
+            simulation.apply(move, random);
+            assertEquals((player + 1) % simulation.players(), simulation.turn());
+        }
+    }
+
+    @Test
+    public void testSearchTreeGrowsBelowRootMoves() {
+        final Simulation observation = newSimulation(7);
+        final SplittableRandom random = new SplittableRandom(8);
+        final int[] moves = new int[4 * (Config.MAX_CARDS_IN_HAND_WITH_TWO_PLAYERS + 1)];
+        final int moveCount = observation.legalMoves(moves, false);
+        final int[] rootMoves = Arrays.copyOf(moves, moveCount);
+        final MctsAiController.Tree tree = new MctsAiController.Tree(observation.me(), moveCount);
+        final Simulation simulation = Simulation.copyOf(observation);
+        final int iterations = 100 * moveCount;
+        for (int i = 0; i < iterations; i++) {
+            simulation.copyFrom(observation);
+            simulation.determinize(random);
+            simulation.apply(rootMoves[i % moveCount], random);
+            tree.rootMove(i % moveCount).iterate(simulation, moves, tree, random);
+        }
+
+        int depth = 0;
+        for (int i = 0; i < moveCount; i++) {
+            final MctsAiController.Node node = tree.rootMove(i);
+            assertEquals(100, node.visits());
+            depth = Math.max(depth, assertConsistent(node));
+        }
+        assertTrue(depth >= 2, "Depth " + depth);
+        assertTrue(tree.size() > moveCount);
+    }
+
+    /**
+     * Checks that no node of the given subtree was visited less often than its
+     * children together, as every iteration passes at most one child.
+     *
+     * @param node the root of the subtree
+     * @return the depth of the subtree
+     */
+    private static int assertConsistent(final MctsAiController.Node node) {
+        int childVisits = 0;
+        int depth = 0;
+        for (final MctsAiController.Node child : node.children()) {
+            childVisits += child.visits();
+            depth = Math.max(depth, assertConsistent(child) + 1);
+        }
+        assertTrue(childVisits <= node.visits());
+        return depth;
+    }
+
+    @Test
+    public void testMctsPlayersPlayGame() throws InterruptedException {
+        final GameController gameController = new GameController(
+                TestGames.newState(2, Config.AvailableAiControllers.EASY), 8);
+        final CountDownLatch actions = new CountDownLatch(20);
+        gameController.addGameEventListener(new GameEventListener() {
+            @Override
+            public void afterAction(final PlayerController playerController, final PlayerAction action) {
+                actions.countDown();
+            }
+        });
+        final Thread gameThread = TestGames.startInBackground(gameController);
+        try {
+            assertTrue(actions.await(30, TimeUnit.SECONDS), "The AI players got stuck");
+        } finally {
+            gameThread.interrupt();
+            gameThread.join(10_000);
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package hProjekt.controller.ai;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Shares the workers of a {@link SearchPool} among searches and checks the
+ * {@link SearchBudget} tiers.
+ */
+public class SearchPoolTest {
+
+    @Test
+    public void testQuotaSharesWorkersAmongOpenSearches() {
+        final SearchPool pool = new SearchPool(4);
+        assertEquals(4, pool.quota(8));
+        final List<SearchPool.Search> searches = new ArrayList<>();
+        searches.add(pool.open());
+        searches.add(pool.open());
+        assertEquals(2, pool.getOpenSearches());
+        assertEquals(2, pool.quota(8));
+        assertEquals(1, pool.quota(1));
+        for (int i = 0; i < 3; i++) {
+            searches.add(pool.open());
+        }
+        assertEquals(1, pool.quota(8));
+        searches.forEach(SearchPool.Search::close);
+        assertEquals(0, pool.getOpenSearches());
+    }
+
+    @Test
+    public void testRunUsesGrantedWorkers() {
+        final SearchPool pool = new SearchPool(3);
+        try (SearchPool.Search search = pool.open()) {
+            final List<Integer> results = search.run(5, System.nanoTime() + TimeUnit.SECONDS.toNanos(5),
+                    index -> () -> index);
+            assertEquals(List.of(0, 1, 2), results);
+        }
+    }
+
+    @Test
+    public void testRunGivesUpAtDeadlineWhileWorkersAreBusy() throws InterruptedException {
+        final SearchPool pool = new SearchPool(1);
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final Thread busy = new Thread(() -> {
+            try (SearchPool.Search search = pool.open()) {
+                search.run(1, System.nanoTime() + TimeUnit.SECONDS.toNanos(5), index -> () -> {
+                    started.countDown();
+                    release.await();
+                    return index;
+                });
+            }
+        });
+        busy.start();
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        try (SearchPool.Search search = pool.open()) {
+            assertEquals(List.of(), search.run(1, System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(50),
+                    index -> () -> index));
+            release.countDown();
+            assertEquals(List.of(0), search.run(1, System.nanoTime() + TimeUnit.SECONDS.toNanos(5),
+                    index -> () -> index));
+        }
+        busy.join(5_000);
+    }
+
+    @Test
+    public void testClosedSearchCannotRun() {
+        final SearchPool pool = new SearchPool(1);
+        final SearchPool.Search search = pool.open();
+        search.close();
+        search.close();
+        assertEquals(0, pool.getOpenSearches());
+        assertThrows(IllegalStateException.class, () -> search.run(1, System.nanoTime(), index -> () -> index));
+    }
+
+    @Test
+    public void testBudgetTiersGrowAndRejectNonPositiveLimits() {
+        assertTrue(SearchBudget.EASY.maxIterations() < SearchBudget.MEDIUM.maxIterations());
+        assertTrue(SearchBudget.MEDIUM.maxIterations() < SearchBudget.HARD.maxIterations());
+        assertTrue(SearchBudget.EASY.threads() <= SearchBudget.MEDIUM.threads());
+        assertThrows(IllegalArgumentException.class, () -> new SearchBudget(0, 1, 1));
+        assertThrows(IllegalArgumentException.class, () -> new SearchBudget(1, 1, 0));
+    }
+}
@@ -0,0 +1,69 @@
+package hProjekt.controller.ai;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import hProjekt.TestGames;
+import hProjekt.controller.MapSaveController;
+import hProjekt.model.grid.HexGrid;
+import hProjekt.model.grid.TilePosition;
+
+/**
+ * Ranks the tiles of the default map.
+ */
+public class StartPositionsTest {
+
+    @Test
+    public void testRankingCoversAllTilesByScore() {
+        final HexGrid grid = TestGames.newState(2).getGrid();
+        final StartPositions positions = StartPositions.analyze(grid);
+        final List<TilePosition> ranking = positions.getRanking();
+        assertEquals(grid.getTiles().keySet(), new HashSet<>(ranking));
+        for (int i = 0; i < ranking.size(); i++) {
+            final double score = positions.getScore(ranking.get(i));
+            assertTrue(score >= 0 && score <= 1, "Score " + score);
+            if (i > 0) {
+                assertTrue(positions.getScore(ranking.get(i - 1)) >= score, "Ranking is sorted");
+            }
+        }
+    }
+
+    @Test
+    public void testBestSkipsTakenPositions() {
+        final StartPositions positions = StartPositions.analyze(TestGames.newState(2).getGrid());
+        final List<TilePosition> ranking = positions.getRanking();
+        assertEquals(ranking.get(0), positions.best(List.of()));
+        assertEquals(ranking.get(1), positions.best(List.of(ranking.get(0))));
+        assertEquals(ranking.get(0), positions.best(ranking));
+    }
+
+    @Test
+    public void testSavedRankingLoadsTheSame(@TempDir final Path directory) throws IOException {
+        final HexGrid grid = TestGames.newState(2).getGrid();
+        final StartPositions positions = StartPositions.analyze(grid);
+        final Path path = directory.resolve(TestGames.MAP_NAME + StartPositions.FILE_EXTENSION);
+        positions.save(path);
+        final StartPositions loaded = StartPositions.load(path);
+        assertEquals(positions.getRanking(), loaded.getRanking());
+        for (final TilePosition position : positions.getRanking()) {
+            assertEquals(positions.getScore(position), loaded.getScore(position), 1e-6);
+        }
+    }
+
+    @Test
+    public void testShippedRankingMatchesDefaultMap() throws IOException {
+        final HexGrid grid = TestGames.newState(2).getGrid();
+        final StartPositions shipped = StartPositions.load(
+                MapSaveController.getMapFile(TestGames.MAP_NAME, StartPositions.FILE_EXTENSION));
+        assertEquals(StartPositions.analyze(grid).getRanking(), shipped.getRanking());
+        assertEquals(shipped.getRanking(), StartPositions.of(grid, TestGames.MAP_NAME).getRanking());
+    }
+}
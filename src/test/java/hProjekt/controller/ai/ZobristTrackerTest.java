@@ -0,0 +1,82 @@
+package hProjekt.controller.ai;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import hProjekt.Config;
+import hProjekt.RandomBot;
+import hProjekt.TestGames;
+import hProjekt.controller.GameController;
+import hProjekt.controller.GameEventListener;
+import hProjekt.controller.PlayerController;
+import hProjekt.controller.actions.PlayerAction;
+import hProjekt.model.GameState;
+import hProjekt.model.cards.PathCard;
+import hProjekt.model.grid.Statue;
+import hProjekt.model.grid.TilePosition;
+import hProjekt.model.snapshot.PersistentGameState;
+
+/**
+ * Checks that the incrementally updated mirror of a {@link ZobristTracker}
+ * always equals a fresh capture of the game.
+ */
+public class ZobristTrackerTest {
+
+    @Test
+    public void testMirrorMatchesCaptureAroundEveryAction() {
+        final GameController gameController = TestGames.newGame(13, 3);
+        final ZobristTracker tracker = gameController.getZobristTracker();
+        final int[] checked = new int[1];
+        gameController.addGameEventListener(new GameEventListener() {
+            @Override
+            public void beforeAction(final PlayerController playerController) {
+                final PersistentGameState expected = PersistentGameState.capture(gameController.getState());
+                assertEquals(expected, tracker.getState());
+                assertEquals(expected.zobristHash(), playerController.getStateHash());
+                checked[0]++;
+            }
+
+            @Override
+            public void afterAction(final PlayerController playerController, final PlayerAction action) {
+                // AI controllers ponder on the hash right after the actions of other players
+                assertEquals(PersistentGameState.capture(gameController.getState()), tracker.getState());
+            }
+        });
+        RandomBot.play(gameController, 17, 250);
+        assertTrue(checked[0] > 200);
+    }
+
+    @Test
+    public void testCollectedTrailTurnsStatuesAndSpawnsAmulets() {
+        final GameController gameController = TestGames.newGame(13, 2);
+        RandomBot.play(gameController, 17, 150);
+        final ZobristTracker tracker = gameController.getZobristTracker();
+        final GameState state = gameController.getState();
+        final long before = tracker.getHash();
+
+        final List<PathCard> trail = Config.TREASURE_TRAIL_COLORS.stream()
+                .map(state.getTreasureTrails()::get)
+                .filter(cards -> !cards.isEmpty())
+                .findFirst()
+                .orElseThrow();
+        trail.clear();
+        state.getGrid().getStructures().values().stream()
+                .filter(Statue.class::isInstance)
+                .map(Statue.class::cast)
+                .forEach(statue -> statue.setDirection(statue.getDirection() == TilePosition.EdgeDirection.WEST
+                        ? TilePosition.EdgeDirection.EAST
+                        : TilePosition.EdgeDirection.WEST));
+        TestGames.positions(state.getGrid()).stream()
+                .limit(5)
+                .forEach(position -> state.getGrid().getTileAt(position).setHasAmulet(true));
+        tracker.afterAction(null, null);
+
+        assertEquals(PersistentGameState.capture(state), tracker.getState());
+        assertNotEquals(before, tracker.getHash());
+    }
+}
@@ -0,0 +1,96 @@
+package hProjekt.controller.analytics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import org.junit.jupiter.api.Test;
+
+import hProjekt.Config;
+import hProjekt.TestGames;
+import hProjekt.controller.GameController;
+import hProjekt.controller.GameEventListener;
+import hProjekt.controller.PlayerController;
+import hProjekt.controller.actions.EndTurn;
+import hProjekt.model.Player;
+import hProjekt.model.cards.RemoveTileCard;
+import hProjekt.model.grid.TilePosition;
+
+/**
+ * Exports the events of a game whose treasure trails are changed by hand, and
+ * keeps the writer going when the sink fails or hangs.
+ */
+public class GameEventExporterTest {
+
+    @Test
+    public void testTrailWithRemoveTileCard() {
+        final List<GameEvent> events = Collections.synchronizedList(new ArrayList<>());
+        final GameEventExporter exporter = new GameEventExporter(events::addAll, 16);
+        final GameController gameController = TestGames.newGame(1, 2);
+        final Player player = gameController.getState().getPlayers().get(0);
+        final PlayerController playerController = new PlayerController(gameController, player);
+        final GameEventListener trace = exporter.newGame();
+        trace.onGameStart(gameController);
+
+        final TilePosition position = new TilePosition(1, -1);
+        gameController.getState().getTreasureTrails().get(Config.TREASURE_TRAIL_COLORS.get(1))
+                .add(new RemoveTileCard(position));
+        trace.afterAction(playerController, new EndTurn());
+        gameController.getState().getTreasureTrails().get(Config.TREASURE_TRAIL_COLORS.get(1)).clear();
+        trace.afterAction(playerController, new EndTurn());
+        exporter.flush();
+
+        final List<GameEvent> trailEvents = events.stream()
+                .filter(event -> event.kind() == GameEvent.Kind.TRAIL_CARD
+                        || event.kind() == GameEvent.Kind.TRAIL_CLEARED)
+                .toList();
+        assertEquals(2, trailEvents.size());
+        assertEquals(GameEvent.Kind.TRAIL_CARD, trailEvents.get(0).kind());
+        assertEquals(1, trailEvents.get(0).trail());
+        assertEquals(-1, trailEvents.get(0).player());
+        assertEquals("REMOVE_TILE " + position, trailEvents.get(0).detail());
+        assertEquals(GameEvent.Kind.TRAIL_CLEARED, trailEvents.get(1).kind());
+        assertEquals(2, events.stream().filter(event -> event.kind() == GameEvent.Kind.ACTION).count());
+    }
+
+    @Test
+    public void testWriterSurvivesRuntimeExceptions() {
+        final List<GameEvent> events = Collections.synchronizedList(new ArrayList<>());
+        final GameEventExporter exporter = new GameEventExporter(batch -> {
+            if (batch.stream().anyMatch(event -> event.detail().equals("fail"))) {
+                throw new IllegalStateException("broken sink");
+            }
+            events.addAll(batch);
+        }, 16);
+        exporter.publish(event("fail"));
+        assertTrue(exporter.flush(5_000));
+        exporter.publish(event("ok"));
+        assertTrue(exporter.flush(5_000));
+        assertEquals(List.of("ok"), events.stream().map(GameEvent::detail).toList());
+    }
+
+    @Test
+    public void testFlushGivesUpAfterTimeout() {
+        final CountDownLatch release = new CountDownLatch(1);
+        final GameEventExporter exporter = new GameEventExporter(batch -> {
+            try {
+                release.await();
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }, 16);
+        exporter.publish(event("stuck"));
+        assertFalse(exporter.flush(50));
+        release.countDown();
+        assertTrue(exporter.flush(5_000));
+    }
+
+    private static GameEvent event(final String detail) {
+        return new GameEvent(0, 0, 0, 0, -1, GameEvent.Kind.ACTION, -1, 0, detail);
+    }
+}
@@ -0,0 +1,68 @@
+package hProjekt.controller.analytics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import hProjekt.TestGames;
+import hProjekt.controller.GameController;
+import hProjekt.model.cards.GoldCard;
+
+/**
+ * Archives finished games and reads the archive back.
+ */
+public class ResultArchiveWriterTest {
+
+    private static long fileCount(final Path directory) throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return 0;
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.count();
+        }
+    }
+
+    @Test
+    public void testFinishedGamesAreBufferedUntilClosed(@TempDir final Path directory) throws IOException {
+        final Path archive = directory.resolve("results");
+        final ResultArchiveWriter writer = new ResultArchiveWriter(archive);
+        for (int game = 0; game < 3; game++) {
+            final GameController gameController = TestGames.newGame(game, 2);
+            gameController.setMapName(TestGames.MAP_NAME);
+            gameController.getState().getTreasureDeck().clear();
+            gameController.getState().getPlayers().get(game % 2).getGoldCards().add(new GoldCard(5));
+            writer.onGameEnd(gameController);
+        }
+        final GameController stopped = TestGames.newGame(9, 2);
+        writer.onGameEnd(stopped);
+        assertEquals(0, fileCount(archive));
+
+        writer.close();
+        assertEquals(1, fileCount(archive));
+        final ResultArchive read = ResultArchive.open(archive);
+        assertEquals(3, read.games());
+        assertEquals(6, read.results());
+        assertEquals(new ResultArchive.WinRate(3, 2),
+                read.winRates(ResultArchive.GroupBy.SEAT).get(List.of("1")));
+    }
+
+    @Test
+    public void testFullRowGroupIsWritten(@TempDir final Path directory) throws IOException {
+        final ResultArchiveWriter writer = new ResultArchiveWriter(directory);
+        final int games = ResultArchiveWriter.ROW_GROUP_SIZE / 2;
+        for (int game = 0; game <= games; game++) {
+            writer.append("map", List.of("A", "B"), new int[] {game % 3, 1});
+        }
+        assertEquals(1, fileCount(directory));
+        assertEquals(games, ResultArchive.open(directory).games());
+        writer.close();
+        assertEquals(games + 1, ResultArchive.open(directory).games());
+    }
+}
@@ -0,0 +1,95 @@
+package hProjekt.controller.gui;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+import org.jetbrains.annotations.Nullable;
+import org.junit.jupiter.api.Test;
+
+import hProjekt.TestGames;
+import hProjekt.model.grid.HexGrid;
+
+/**
+ * Runs the stages of {@link MapLoadTask}s on the calling thread. The JavaFX
+ * platform isn't started, so the progress the tasks report is recorded instead
+ * of published.
+ */
+public class MapLoadTaskTest {
+
+    /**
+     * A task that records its progress and messages and can be cancelled
+     * after the load stage.
+     *
+     * @param <T> the type of the result of the build stage
+     */
+    private static class RecordingTask<T> extends MapLoadTask<T> {
+        private final List<String> updates = new ArrayList<>();
+        private final boolean cancelAfterLoad;
+
+        RecordingTask(final @Nullable String mapName, final Function<HexGrid, T> build,
+                final boolean cancelAfterLoad) {
+            super(mapName, "Building...", build);
+            this.cancelAfterLoad = cancelAfterLoad;
+        }
+
+        @Override
+        protected void updateProgress(final long workDone, final long max) {
+            updates.add(workDone + "/" + max);
+        }
+
+        @Override
+        protected void updateMessage(final String message) {
+            updates.add(message);
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return cancelAfterLoad && updates.size() >= 2;
+        }
+    }
+
+    @Test
+    public void testStagesReportTheirProgress() {
+        final RecordingTask<Integer> task = new RecordingTask<>(TestGames.MAP_NAME,
+                grid -> grid.getTiles().size(), false);
+        assertEquals(TestGames.newState(0).getGrid().getTiles().size(), task.call());
+        assertEquals(List.of("0/2", "Loading map " + TestGames.MAP_NAME + "...", "1/2", "Building...", "2/2"),
+                task.updates);
+    }
+
+    @Test
+    public void testWithoutMapBuildsFromAnEmptyGrid() {
+        final RecordingTask<Boolean> task = new RecordingTask<>(null, grid -> grid.getTiles().isEmpty(), false);
+        assertTrue(task.call());
+        assertEquals("Creating map...", task.updates.get(1));
+    }
+
+    @Test
+    public void testMissingMapFails() {
+        final boolean[] built = new boolean[1];
+        final RecordingTask<HexGrid> task = new RecordingTask<>("does not exist", grid -> {
+            built[0] = true;
+            return grid;
+        }, false);
+        assertThrows(IllegalStateException.class, task::call);
+        assertFalse(built[0]);
+    }
+
+    @Test
+    public void testCancelledTaskSkipsTheBuildStage() {
+        final boolean[] built = new boolean[1];
+        final RecordingTask<HexGrid> task = new RecordingTask<>(TestGames.MAP_NAME, grid -> {
+            built[0] = true;
+            return grid;
+        }, true);
+        assertNull(task.call());
+        assertFalse(built[0]);
+    }
+}
@@ -0,0 +1,97 @@
+package hProjekt.controller.io;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import hProjekt.TestGames;
+import hProjekt.controller.AmuletAction;
+import hProjekt.controller.actions.AcceptCurse;
+import hProjekt.controller.actions.AcceptTreasure;
+import hProjekt.controller.actions.CollectAmulet;
+import hProjekt.controller.actions.CollectTreasure;
+import hProjekt.controller.actions.ConfirmTreasureCards;
+import hProjekt.controller.actions.DrawTreasureCards;
+import hProjekt.controller.actions.DriveAction;
+import hProjekt.controller.actions.EndTurn;
+import hProjekt.controller.actions.IllegalActionException;
+import hProjekt.controller.actions.PlayPathCard;
+import hProjekt.controller.actions.PlayerAction;
+import hProjekt.controller.actions.SelectPosition;
+import hProjekt.controller.actions.SelectTileToRemove;
+import hProjekt.controller.actions.StartDrive;
+import hProjekt.controller.actions.UseAmulet;
+import hProjekt.model.GameState;
+import hProjekt.model.Player;
+import hProjekt.model.cards.CardType;
+import hProjekt.model.cards.PathCard;
+import hProjekt.model.grid.HexGridImpl;
+import hProjekt.model.grid.Tile;
+import hProjekt.model.grid.TilePosition;
+import javafx.scene.paint.Color;
+
+/**
+ * Tests the binary encoding of actions.
+ */
+public class GameCodecTest {
+    private final GameState state = TestGames.newState(2);
+
+    private static byte[] encode(final PlayerAction action) {
+        final BinaryWriter out = new BinaryWriter();
+        GameCodec.writeAction(out, action);
+        return out.toByteArray();
+    }
+
+    private PlayerAction roundTrip(final PlayerAction action, final List<PathCard> cards)
+            throws IllegalActionException {
+        final BinaryReader in = new BinaryReader(encode(action));
+        final PlayerAction read = GameCodec.readAction(in, state.getGrid(), cards);
+        assertEquals(0, in.remaining());
+        return read;
+    }
+
+    @Test
+    public void testActionsWithoutCardsRoundTrip() throws IllegalActionException {
+        final TilePosition position = TestGames.positions(state.getGrid()).get(0);
+        final Tile tile = state.getGrid().getTileAt(position);
+        final List<PlayerAction> actions = List.of(new AcceptCurse(), new AcceptTreasure(true),
+                new AcceptTreasure(false), new CollectAmulet(), new CollectTreasure(Color.BROWN),
+                new ConfirmTreasureCards(), new DrawTreasureCards(), new DriveAction(tile), new EndTurn(),
+                new SelectPosition(new TilePosition(-3, 5)), new SelectTileToRemove(position, Color.WHITE),
+                new StartDrive(), new UseAmulet(AmuletAction.REDRAW_PATH_CARDS));
+        for (final PlayerAction action : actions) {
+            final PlayerAction read = roundTrip(action, List.of());
+            assertEquals(action.getClass(), read.getClass());
+            assertArrayEquals(encode(action), encode(read));
+        }
+    }
+
+    @Test
+    public void testPlayPathCardResolvesCard() throws IllegalActionException {
+        final Player player = state.getPlayers().get(0);
+        final PathCard other = CardType.NEXT_TO.cardConstructor.apply(player, Tile.Type.JUNGLE);
+        final PathCard card = CardType.NOT_IN_AREA.cardConstructor.apply(player, Tile.Type.MOUNTAIN);
+        final PlayerAction read = roundTrip(new PlayPathCard(card, Color.BLACK), List.of(other, card));
+        assertSame(card, ((PlayPathCard) read).pathCard());
+        assertEquals(Color.BLACK, ((PlayPathCard) read).pathColor());
+    }
+
+    @Test
+    public void testUnknownReferencesAreRejected() {
+        final Player player = state.getPlayers().get(0);
+        final PathCard card = CardType.CAN_SEE.cardConstructor.apply(player, Tile.Type.JUNGLE);
+        assertThrows(IllegalActionException.class, () -> roundTrip(new PlayPathCard(card, Color.GRAY), List.of()));
+
+        final byte[] drive = encode(new DriveAction(state.getGrid().getTiles().values().iterator().next()));
+        assertThrows(IllegalActionException.class,
+                () -> GameCodec.readAction(new BinaryReader(drive), new HexGridImpl(), List.of()));
+        assertThrows(IllegalArgumentException.class,
+                () -> GameCodec.readAction(new BinaryReader(new byte[] { (byte) 0x7F }), state.getGrid(),
+                        List.of()));
+    }
+}
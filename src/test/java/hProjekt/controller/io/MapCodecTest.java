@@ -0,0 +1,93 @@
+package hProjekt.controller.io;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import hProjekt.model.grid.RasterHexGrid;
+import hProjekt.model.grid.Structure;
+import hProjekt.model.grid.Tile;
+import hProjekt.model.grid.TilePosition;
+
+/**
+ * Writes and reads map files.
+ */
+public class MapCodecTest {
+    private static final Map<TilePosition, Tile.Type> TILES = Map.of(
+            new TilePosition(0, 0), Tile.Type.PLAINS,
+            new TilePosition(1, 0), Tile.Type.JUNGLE,
+            new TilePosition(0, 1), Tile.Type.LAKE,
+            new TilePosition(-1, 1), Tile.Type.MOUNTAIN);
+    private static final Map<TilePosition, Structure.Type> STRUCTURES = Map.of(
+            new TilePosition(1, 0), Structure.Type.HUT);
+
+    @Test
+    public void testReadReturnsWrittenMap() {
+        final RasterHexGrid grid = MapCodec.read(ByteBuffer.wrap(MapCodec.write(TILES, STRUCTURES)));
+        TILES.forEach((position, type) -> assertEquals(type, grid.getTileType(position)));
+        assertNull(grid.getTileType(new TilePosition(5, 5)));
+        assertEquals(Structure.Type.HUT, grid.getStructureAt(new TilePosition(1, 0)).getType());
+        assertEquals(TILES.size(), grid.getTiles().size());
+    }
+
+    @Test
+    public void testGridDoesNotKeepTheBuffer() {
+        final byte[] bytes = MapCodec.write(TILES, STRUCTURES);
+        final RasterHexGrid grid = MapCodec.read(ByteBuffer.wrap(bytes));
+        Arrays.fill(bytes, (byte) 0);
+        TILES.forEach((position, type) -> assertEquals(type, grid.getTileType(position)));
+    }
+
+    @Test
+    public void testGridKeepsTilesWhenMappedFileIsReplaced(@TempDir final Path directory) throws IOException {
+        final Path path = directory.resolve("map.tobago");
+        Files.write(path, MapCodec.write(TILES, STRUCTURES));
+        final RasterHexGrid grid;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            grid = MapCodec.read(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+        final Path temporary = directory.resolve("map.tmp");
+        Files.write(temporary, MapCodec.write(Map.of(new TilePosition(0, 0), Tile.Type.BEACH), Map.of()));
+        Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING);
+        TILES.forEach((position, type) -> assertEquals(type, grid.getTileType(position)));
+    }
+
+    @Test
+    public void testHistogramsMatchGrid() {
+        final ByteBuffer buffer = ByteBuffer.wrap(MapCodec.write(TILES, STRUCTURES));
+        final MapCodec.Header header = MapCodec.readHeader(buffer);
+        assertEquals(TILES.size(), header.tiles());
+        assertEquals(STRUCTURES.size(), header.structures());
+        final int[] tiles = MapCodec.readTileHistogram(buffer, header);
+        for (final Tile.Type type : Tile.Type.values()) {
+            assertEquals(TILES.values().stream().filter(type::equals).count(), tiles[type.ordinal()], type.name());
+        }
+        final int[] structures = MapCodec.readStructureHistogram(buffer, header);
+        assertEquals(1, structures[Structure.Type.HUT.ordinal()]);
+        assertEquals(1, Arrays.stream(structures).sum());
+        assertEquals(MapCodec.read(ByteBuffer.wrap(MapCodec.write(TILES, STRUCTURES))).getContentHash(),
+                header.contentHash());
+    }
+
+    @Test
+    public void testDamagedFileIsRejected() {
+        final byte[] bytes = MapCodec.write(TILES, STRUCTURES);
+        bytes[MapCodec.HEADER_BYTES] ^= 0x11;
+        assertThrows(IllegalArgumentException.class, () -> MapCodec.read(ByteBuffer.wrap(bytes)));
+        assertThrows(IllegalArgumentException.class,
+                () -> MapCodec.read(ByteBuffer.wrap(Arrays.copyOf(bytes, MapCodec.HEADER_BYTES + 1))));
+    }
+}
@@ -0,0 +1,96 @@
+package hProjekt.controller.io;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import hProjekt.RandomBot;
+import hProjekt.TestGames;
+import hProjekt.controller.GameController;
+import hProjekt.controller.GameEventListener;
+import hProjekt.controller.PlayerController;
+import hProjekt.model.snapshot.GameSnapshot;
+import hProjekt.model.snapshot.GameSnapshotDelta;
+import hProjekt.model.snapshot.PlayerSnapshot;
+
+/**
+ * Tests the binary encoding of snapshots and the deltas between them, as sent
+ * to spectators.
+ */
+public class SnapshotCodecTest {
+
+    private static List<GameSnapshot> playGame() {
+        final GameController gameController = TestGames.newGame(21, 4);
+        final List<GameSnapshot> snapshots = new ArrayList<>();
+        gameController.addGameEventListener(new GameEventListener() {
+            @Override
+            public void beforeAction(final PlayerController playerController) {
+                snapshots.add(GameSnapshot.capture(gameController.getState()));
+            }
+        });
+        RandomBot.play(gameController, 23, 200);
+        return snapshots;
+    }
+
+    private static GameSnapshot roundTrip(final GameSnapshot snapshot) {
+        final BinaryWriter out = new BinaryWriter();
+        SnapshotCodec.writeSnapshot(out, snapshot);
+        return SnapshotCodec.readSnapshot(new BinaryReader(out.toByteArray()));
+    }
+
+    private static GameSnapshotDelta roundTrip(final GameSnapshotDelta delta) {
+        final BinaryWriter out = new BinaryWriter();
+        SnapshotCodec.writeDelta(out, delta);
+        final BinaryReader in = new BinaryReader(out.toByteArray());
+        final GameSnapshotDelta read = SnapshotCodec.readDelta(in);
+        assertEquals(0, in.remaining());
+        return read;
+    }
+
+    @Test
+    public void testSnapshotRoundTrip() {
+        for (final GameSnapshot snapshot : playGame()) {
+            assertEquals(snapshot, roundTrip(snapshot));
+        }
+    }
+
+    @Test
+    public void testDecodedDeltasRebuildEverySnapshot() {
+        final List<GameSnapshot> snapshots = playGame();
+        GameSnapshot mirror = roundTrip(snapshots.get(0));
+        for (int i = 1; i < snapshots.size(); i++) {
+            final GameSnapshotDelta delta = GameSnapshotDelta.between(snapshots.get(i - 1), snapshots.get(i));
+            mirror = roundTrip(delta).apply(mirror);
+            assertEquals(snapshots.get(i), mirror, "Snapshot " + i);
+        }
+    }
+
+    @Test
+    public void testDecodedDeltasRebuildEveryView() {
+        final List<GameSnapshot> snapshots = playGame();
+        final List<GameSnapshot> views = snapshots.stream().map(snapshot -> snapshot.viewedBy(2)).toList();
+        GameSnapshot mirror = roundTrip(views.get(0));
+        for (int i = 1; i < views.size(); i++) {
+            mirror = roundTrip(GameSnapshotDelta.between(views.get(i - 1), views.get(i))).apply(mirror);
+            assertEquals(views.get(i), mirror, "View " + i);
+        }
+        final GameSnapshot last = snapshots.get(snapshots.size() - 1);
+        for (int i = 0; i < last.players().size(); i++) {
+            final PlayerSnapshot player = last.players().get(i);
+            assertEquals(player.id() == 2 ? player : player.withoutHand(), mirror.players().get(i));
+            assertEquals(player.hand().size(), mirror.players().get(i).handSize());
+        }
+    }
+
+    @Test
+    public void testDeltaOfUnchangedSnapshotIsEmpty() {
+        final GameSnapshot snapshot = playGame().get(50);
+        final GameSnapshotDelta delta = GameSnapshotDelta.between(snapshot, snapshot);
+        assertTrue(delta.isEmpty(snapshot));
+        assertTrue(roundTrip(delta).isEmpty(snapshot));
+    }
+}
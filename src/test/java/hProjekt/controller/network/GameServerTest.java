@@ -0,0 +1,176 @@
+package hProjekt.controller.network;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import hProjekt.TestGames;
+import hProjekt.controller.GameController;
+import hProjekt.controller.GameEventListener;
+import hProjekt.controller.PlayerController;
+import hProjekt.controller.PlayerObjective;
+import hProjekt.controller.actions.SelectPosition;
+import hProjekt.controller.io.RemotePlayerState;
+import hProjekt.model.grid.TilePosition;
+import hProjekt.model.snapshot.GameSnapshot;
+
+/**
+ * Plays a real game through a {@link GameServer} on the loopback interface.
+ */
+public class GameServerTest {
+    private static final Duration TIMEOUT = Duration.ofSeconds(10);
+
+    private final BlockingQueue<PlayerController> waiting = new LinkedBlockingQueue<>();
+    private GameServer server;
+    private GameController gameController;
+    private Thread gameThread;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        server = new GameServer();
+        server.start(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+        gameController = TestGames.newGame(42, 2);
+        gameController.setRemotePlayerIds(Set.of(1));
+        gameController.addGameEventListener(server);
+        gameController.addGameEventListener(new GameEventListener() {
+            @Override
+            public void beforeAction(final PlayerController playerController) {
+                waiting.add(playerController);
+            }
+        });
+        gameThread = TestGames.startInBackground(gameController);
+    }
+
+    @AfterEach
+    public void tearDown() throws InterruptedException {
+        gameThread.interrupt();
+        gameThread.join(TIMEOUT.toMillis());
+        server.stop();
+    }
+
+    private PlayerController awaitWaitingPlayer() throws InterruptedException {
+        final PlayerController playerController = waiting.poll(TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
+        assertNotNull(playerController, "No player waits for an action");
+        return playerController;
+    }
+
+    @Test
+    public void testRemotePlayerReceivesStateAndPlays() throws Exception {
+        final PlayerController first = awaitWaitingPlayer();
+        assertEquals(1, first.getPlayer().getID());
+        final int gameId = server.getGameId(gameController).orElseThrow();
+        final TilePosition position = TestGames.positions(gameController.getState().getGrid()).get(0);
+
+        try (LoopbackClient client = new LoopbackClient(server.getLocalAddress())) {
+            assertTimeoutPreemptively(TIMEOUT, () -> {
+                client.hello(gameId, first.getPlayer().getID());
+                assertEquals(PlayerObjective.SELECT_POSITION, client.awaitState().playerObjective());
+
+                client.send(new SelectPosition(position));
+                RemotePlayerState state;
+                do {
+                    state = client.awaitState();
+                } while (state.playerObjective() == PlayerObjective.SELECT_POSITION);
+                assertEquals(PlayerObjective.IDLE, state.playerObjective());
+            });
+        }
+
+        assertNotSame(first, awaitWaitingPlayer());
+        assertEquals(position, first.getPlayer().getPosition());
+    }
+
+    @Test
+    public void testUnknownGameIsRejected() throws Exception {
+        awaitWaitingPlayer();
+        try (LoopbackClient client = new LoopbackClient(server.getLocalAddress())) {
+            assertTimeoutPreemptively(TIMEOUT, () -> {
+                client.hello(-1, 1);
+                assertEquals(FrameType.ERROR, client.receive());
+                assertTrue(client.getLastError().contains("Unknown game"), client.getLastError());
+            });
+        }
+    }
+
+    @Test
+    public void testLocalPlayerIsRejected() throws Exception {
+        awaitWaitingPlayer();
+        final int gameId = server.getGameId(gameController).orElseThrow();
+        try (LoopbackClient client = new LoopbackClient(server.getLocalAddress())) {
+            assertTimeoutPreemptively(TIMEOUT, () -> {
+                client.hello(gameId, 2);
+                assertEquals(FrameType.ERROR, client.receive());
+                assertTrue(client.getLastError().contains("isn't played remotely"), client.getLastError());
+            });
+        }
+    }
+
+    @Test
+    public void testSpectatorMirrorsGame() throws Exception {
+        final PlayerController first = awaitWaitingPlayer();
+        final int gameId = server.getGameId(gameController).orElseThrow();
+
+        try (LoopbackClient client = new LoopbackClient(server.getLocalAddress())) {
+            assertTimeoutPreemptively(TIMEOUT, () -> {
+                client.spectate(gameId);
+                assertEquals(FrameType.GAME_KEYFRAME, client.receive());
+                assertEquals(GameSnapshot.capture(gameController.getState()).viewedBy(GameServer.SPECTATOR_ID),
+                        client.getSpectatedGame());
+            });
+
+            first.triggerAction(new SelectPosition(TestGames.positions(gameController.getState().getGrid()).get(1)));
+            awaitWaitingPlayer();
+            final GameSnapshot expected = GameSnapshot.capture(gameController.getState())
+                    .viewedBy(GameServer.SPECTATOR_ID);
+            assertTrue(expected.players().stream().allMatch(player -> player.hand().isEmpty()));
+            assertTimeoutPreemptively(TIMEOUT, () -> {
+                while (!expected.equals(client.getSpectatedGame())) {
+                    client.receive();
+                }
+            });
+            assertTrue(client.getSequence() > 0);
+        }
+    }
+
+    @Test
+    public void testPlayerOnlySeesOwnHand() throws Exception {
+        awaitWaitingPlayer();
+        final int gameId = server.getGameId(gameController).orElseThrow();
+        final GameSnapshot game = GameSnapshot.capture(gameController.getState());
+
+        try (LoopbackClient client = new LoopbackClient(server.getLocalAddress())) {
+            assertTimeoutPreemptively(TIMEOUT, () -> {
+                client.hello(gameId, 1);
+                while (client.getSpectatedGame() == null) {
+                    client.receive();
+                }
+            });
+            assertEquals(game.viewedBy(1), client.getSpectatedGame());
+            assertEquals(game.players().get(0), client.getSpectatedGame().players().get(0));
+            assertEquals(game.players().get(1).withoutHand(), client.getSpectatedGame().players().get(1));
+        }
+    }
+
+    @Test
+    public void testGameIsRemovedWhenItEnds() throws InterruptedException {
+        awaitWaitingPlayer();
+        assertTrue(server.getGameId(gameController).isPresent());
+        gameThread.interrupt();
+        gameThread.join(TIMEOUT.toMillis());
+        assertTrue(server.getGameId(gameController).isEmpty());
+    }
+}
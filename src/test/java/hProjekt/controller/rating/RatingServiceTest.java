@@ -0,0 +1,92 @@
+package hProjekt.controller.rating;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import hProjekt.Config;
+import hProjekt.TestGames;
+import hProjekt.controller.GameController;
+import hProjekt.model.GameState;
+import hProjekt.model.Player;
+import hProjekt.model.PlayerImpl;
+import hProjekt.model.cards.GoldCard;
+
+/**
+ * Rates games of named competitors and sets up rated matches.
+ */
+public class RatingServiceTest {
+
+    @Test
+    public void testNamesSurviveSavedRatings(@TempDir final Path directory) {
+        final Path path = directory.resolve("ratings.txt");
+        final List<String> names = List.of("two  spaces", "tab\tseparated", "line\nbreak", "back\\slash", "EASY");
+        final RatingService service = new RatingService(path);
+        service.report(names, new int[] { 50, 40, 30, 20, 10 });
+
+        final RatingService loaded = new RatingService(path);
+        assertEquals(service.getRanking(), loaded.getRanking());
+        for (final String name : names) {
+            assertEquals(1, loaded.getRating(name).games(), name);
+        }
+    }
+
+    @Test
+    public void testOnlyAiPlayersAreRated(@TempDir final Path directory) throws IOException {
+        final Path path = directory.resolve("ratings.txt");
+        final GameState state = TestGames.newState(1, Config.AvailableAiControllers.EASY);
+        state.addPlayer(new PlayerImpl.Builder(2).ai(Config.AvailableAiControllers.DEFAULT).build(state.getGrid()));
+        state.addPlayer(new PlayerImpl.Builder(3).name("Ada").build(state.getGrid()));
+        state.getPlayers().get(1).getGoldCards().add(new GoldCard(10));
+        state.getPlayers().get(2).getGoldCards().add(new GoldCard(100));
+        final GameController gameController = new GameController(state, 1);
+        gameController.getState().getTreasureDeck().clear();
+        final RatingService service = new RatingService(path);
+        service.onGameEnd(gameController);
+
+        assertEquals(List.of("DEFAULT", "EASY"), List.copyOf(service.getRanking().keySet()));
+        assertEquals(1, service.getRating("EASY").games());
+        assertFalse(Files.readString(path).contains("Ada"));
+    }
+
+    @Test
+    public void testWinnerGainsRating() {
+        final RatingService service = new RatingService(null);
+        service.report(List.of("A", "B"), new int[] { 30, 10 });
+        assertTrue(service.getRating("A").mu() > service.getRating("B").mu());
+        assertTrue(service.getRating("A").sigma() < Rating.INITIAL.sigma());
+        assertEquals(List.of("A", "B"), List.copyOf(service.getRanking().keySet()));
+    }
+
+    @Test
+    public void testNextMatchSeatsLeastCertainFirst() {
+        final RatingService service = new RatingService(null);
+        service.report(List.of("A", "B"), new int[] { 30, 10 });
+        final List<String> match = service.nextMatch(List.of("A", "B", "C"), 2, new SplittableRandom(1));
+        assertEquals(2, match.size());
+        assertEquals("C", match.get(0));
+        assertEquals(4, service.nextMatch(List.of("A", "B"), 4, new SplittableRandom(1)).size());
+    }
+
+    @Test
+    public void testMatchRunnerSeatsAiControllers() {
+        final MatchRunner runner = new MatchRunner("default", List.of("DEFAULT", "EASY"), 2, 3);
+        final GameController gameController = runner.newGame(List.of("EASY", "DEFAULT"), 5);
+        final List<Player> players = gameController.getState().getPlayers();
+        assertEquals(Config.AvailableAiControllers.EASY, players.get(0).getAiController());
+        assertEquals(Config.AvailableAiControllers.DEFAULT, players.get(1).getAiController());
+        assertEquals("EASY", RatingService.competitor(players.get(0)));
+        assertThrows(IllegalArgumentException.class, () -> new MatchRunner("default", List.of("NOPE"), 2, 3));
+        assertThrows(IllegalArgumentException.class, () -> new MatchRunner("default", List.of("EASY"), 1, 3));
+    }
+}
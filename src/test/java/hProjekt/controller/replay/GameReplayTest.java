@@ -0,0 +1,131 @@
+package hProjekt.controller.replay;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import hProjekt.Config;
+import hProjekt.RandomBot;
+import hProjekt.TestGames;
+import hProjekt.controller.GameController;
+import hProjekt.controller.GameEventListener;
+import hProjekt.controller.PlayerController;
+import hProjekt.controller.actions.IllegalActionException;
+import hProjekt.controller.actions.PlayerAction;
+import hProjekt.model.grid.Statue;
+import hProjekt.model.snapshot.GameSnapshot;
+
+/**
+ * Records a game played by a {@link RandomBot} and replays its log.
+ */
+public class GameReplayTest {
+    private static final int ACTIONS = 300;
+
+    private final List<GameSnapshot> live = new ArrayList<>();
+    private GameController gameController;
+    private GameLog log;
+
+    @BeforeEach
+    public void playGame() {
+        gameController = TestGames.newGame(7, 3);
+        final GameLogRecorder recorder = new GameLogRecorder(TestGames.MAP_NAME, null);
+        gameController.addGameEventListener(recorder);
+        final GameSnapshot[] awaiting = new GameSnapshot[1];
+        gameController.addGameEventListener(new GameEventListener() {
+            @Override
+            public void beforeAction(final PlayerController playerController) {
+                awaiting[0] = GameSnapshot.capture(gameController.getState());
+            }
+
+            @Override
+            public void onActionStart(final PlayerController playerController, final PlayerAction action) {
+                live.add(GameSnapshot.capture(gameController.getState()));
+            }
+        });
+        RandomBot.play(gameController, 11, ACTIONS);
+        live.add(awaiting[0]);
+        log = recorder.getLog();
+    }
+
+    @Test
+    public void testLogRecordsSeedAndEveryAction() {
+        assertEquals(gameController.getSeed(), log.getHeader().seed());
+        assertEquals(TestGames.MAP_NAME, log.getHeader().mapId());
+        assertEquals(live.size() - 1, log.size());
+        assertTrue(log.size() > GameReplay.KEYFRAME_INTERVAL * 2, "Only " + log.size() + " actions were played");
+    }
+
+    @Test
+    public void testSeekMatchesLiveGame() {
+        final GameReplay replay = new GameReplay(log);
+        for (final int index : new int[] { log.size(), 0, 1, GameReplay.KEYFRAME_INTERVAL - 1,
+                GameReplay.KEYFRAME_INTERVAL, GameReplay.KEYFRAME_INTERVAL + 1, log.size() / 2 }) {
+            assertEquals(live.get(index), replay.seek(index), "Snapshot after " + index + " actions");
+        }
+    }
+
+    @Test
+    public void testReplayToRunsOnCallingThread() {
+        final int index = log.size() / 3;
+        final GameController replayed = new GameReplay(log).replayTo(index);
+        assertEquals(live.get(index), GameSnapshot.capture(replayed.getState()));
+        assertEquals(log.getHeader().seed(), replayed.getSeed());
+    }
+
+    @Test
+    public void testReplayRestoresStatueDirections() {
+        final GameController replayed = new GameReplay(log).replayTo(0);
+        gameController.getState().getGrid().getStructures().forEach((position, structure) -> {
+            if (structure instanceof final Statue statue) {
+                assertEquals(log.getHeader().statueDirections().get(position),
+                        ((Statue) replayed.getState().getGrid().getStructures().get(position)).getDirection());
+            }
+        });
+    }
+
+    @Test
+    public void testReplayIsIndependentOfGlobalRandom() {
+        Config.RANDOM.setSeed(1);
+        final GameSnapshot first = new GameReplay(log).seek(log.size());
+        final long afterFirst = Config.RANDOM.nextLong();
+        Config.RANDOM.setSeed(2);
+        assertEquals(first, new GameReplay(log).seek(log.size()));
+        assertNotEquals(new Random(log.getHeader().seed()).nextLong(), afterFirst);
+    }
+
+    @Test
+    public void testWrittenLogReplaysTheSame() throws IOException {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        log.writeTo(out);
+        final byte[] bytes = out.toByteArray();
+        final GameLog read = GameLog.read(new ByteArrayInputStream(bytes));
+        assertEquals(log.getHeader(), read.getHeader());
+        assertEquals(log.size(), read.size());
+        assertEquals(live.get(read.size()), new GameReplay(read).seek(read.size()));
+
+        final GameLog truncated = GameLog.read(new ByteArrayInputStream(Arrays.copyOf(bytes, bytes.length - 1)));
+        assertEquals(log.size() - 1, truncated.size());
+    }
+
+    @Test
+    public void testDivergingLogIsRejected() throws IllegalActionException {
+        final GameLog wrongPlayer = new GameLog(log.getHeader());
+        final List<PlayerController> players = List.copyOf(gameController.getPlayerControllers().values());
+        assertNotEquals(log.getPlayerId(0), players.get(1).getPlayer().getID());
+        wrongPlayer.append(players.get(1).getPlayer(), log.getAction(0, gameController.getState().getGrid(),
+                List.of()));
+        assertThrows(IllegalStateException.class, () -> new GameReplay(wrongPlayer).seek(1));
+    }
+}
@@ -0,0 +1,137 @@
+package hProjekt.model.cards;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+import hProjekt.Config;
+
+/**
+ * Compares the {@link TreasureOdds} with an enumeration of every possible
+ * treasure deck.
+ */
+public class TreasureOddsTest {
+    private static final double EPSILON = 1e-5;
+    private static final int LOWER_PILE = Config.LOWER_PILE_GOLD_CARDS + Config.TOTAL_CURSE_CARDS;
+
+    @Test
+    public void testCurseProbabilityMatchesEnumeration() {
+        for (int cursesLeft = 0; cursesLeft <= Config.TOTAL_CURSE_CARDS; cursesLeft++) {
+            for (int depth = 0; depth <= TreasureOdds.DECK_SIZE; depth += 7) {
+                for (int drawn = 0; depth + drawn <= TreasureOdds.DECK_SIZE; drawn += 3) {
+                    final double[] expected = enumerateCurses(depth, cursesLeft, drawn);
+                    if (expected == null) {
+                        continue;
+                    }
+                    for (int curses = 0; curses <= Config.TOTAL_CURSE_CARDS; curses++) {
+                        assertEquals(expected[curses],
+                                TreasureOdds.curseProbability(depth, cursesLeft, drawn, curses), EPSILON,
+                                String.format("%d of %d curses at depth %d with %d drawn", curses, cursesLeft, depth,
+                                        drawn));
+                    }
+                    assertEquals(1 - expected[0], TreasureOdds.curseRisk(depth, cursesLeft, drawn), EPSILON);
+                    assertEquals(TreasureOdds.curseRisk(depth, cursesLeft, drawn),
+                            TreasureOdds.remainingCurseRisk(depth, cursesLeft, drawn, 0), EPSILON);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testTopPileHasNoCurses() {
+        final int curses = Config.TOTAL_CURSE_CARDS;
+        assertEquals(0, TreasureOdds.curseRisk(0, curses, Config.TOP_PILE_GOLD_CARDS), EPSILON);
+        assertEquals(1, TreasureOdds.curseRisk(Config.TOP_PILE_GOLD_CARDS, curses, LOWER_PILE), EPSILON);
+        assertEquals(Config.TOP_PILE_GOLD_CARDS,
+                TreasureOdds.expectedGoldCards(0, curses, Config.TOP_PILE_GOLD_CARDS), EPSILON);
+    }
+
+    @Test
+    public void testDrawnCursesLowerTheRisk() {
+        final int depth = Config.TOP_PILE_GOLD_CARDS + 10;
+        final int drawn = 6;
+        assertTrue(TreasureOdds.curseRisk(depth, 1, drawn) < TreasureOdds.curseRisk(depth, 2, drawn));
+        assertEquals(0, TreasureOdds.curseRisk(depth, 0, drawn), EPSILON);
+        assertEquals(drawn, TreasureOdds.expectedGoldCards(depth, 0, drawn), EPSILON);
+        assertEquals(1, TreasureOdds.curseRisk(TreasureOdds.DECK_SIZE - drawn, 1, drawn), EPSILON);
+    }
+
+    @Test
+    public void testGoldCardsDistributionMatchesExpectation() {
+        for (int cursesLeft = 0; cursesLeft <= Config.TOTAL_CURSE_CARDS; cursesLeft++) {
+            for (int depth = 30; depth <= TreasureOdds.DECK_SIZE - cursesLeft; depth += 5) {
+                for (int drawn = 1; depth + drawn <= TreasureOdds.DECK_SIZE; drawn += 4) {
+                    double total = 0;
+                    double mean = 0;
+                    for (int cards = 0; cards <= drawn; cards++) {
+                        final double probability = TreasureOdds.goldCardsProbability(depth, cursesLeft, drawn,
+                                cards);
+                        total += probability;
+                        mean += probability * cards;
+                    }
+                    assertEquals(1, total, EPSILON,
+                            String.format("Depth %d with %d curses left and %d drawn", depth, cursesLeft, drawn));
+                    assertEquals(TreasureOdds.expectedGoldCards(depth, cursesLeft, drawn), mean, EPSILON);
+                    assertEquals(mean * TreasureOdds.MEAN_GOLD_VALUE,
+                            TreasureOdds.expectedGold(depth, cursesLeft, drawn), EPSILON);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testRemainingRiskDropsWithHandedOutGold() {
+        final int depth = Config.TOP_PILE_GOLD_CARDS;
+        final int drawn = 5;
+        double previous = 1;
+        for (int dealt = 0; dealt < drawn; dealt++) {
+            final double risk = TreasureOdds.remainingCurseRisk(depth, Config.TOTAL_CURSE_CARDS, drawn, dealt);
+            assertTrue(risk < previous, "Risk after " + dealt + " gold cards");
+            previous = risk;
+        }
+        assertEquals(0, TreasureOdds.remainingCurseRisk(depth, Config.TOTAL_CURSE_CARDS, drawn, drawn), EPSILON);
+    }
+
+    /**
+     * Counts the curses among the drawn cards for every placement of the curses
+     * in the lower pile that leaves the given number of curses in the deck.
+     * Expects two curses in the deck.
+     *
+     * @param depth      the number of cards already drawn from the deck
+     * @param cursesLeft the number of curses left in the deck
+     * @param drawn      the number of cards drawn
+     * @return the probability of every number of curses or {@code null} if no
+     *         placement leaves that many curses
+     */
+    private static double[] enumerateCurses(final int depth, final int cursesLeft, final int drawn) {
+        final double[] counts = new double[Config.TOTAL_CURSE_CARDS + 1];
+        int placements = 0;
+        for (int first = 0; first < LOWER_PILE; first++) {
+            for (int second = first + 1; second < LOWER_PILE; second++) {
+                int left = 0;
+                int curses = 0;
+                for (final int curse : new int[] { first, second }) {
+                    final int position = Config.TOP_PILE_GOLD_CARDS + curse;
+                    if (position >= depth) {
+                        left++;
+                    }
+                    if (position >= depth && position < depth + drawn) {
+                        curses++;
+                    }
+                }
+                if (left == cursesLeft) {
+                    counts[curses]++;
+                    placements++;
+                }
+            }
+        }
+        if (placements == 0) {
+            return null;
+        }
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] /= placements;
+        }
+        return counts;
+    }
+}
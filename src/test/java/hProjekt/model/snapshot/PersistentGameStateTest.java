@@ -0,0 +1,178 @@
+package hProjekt.model.snapshot;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import hProjekt.Config;
+import hProjekt.RandomBot;
+import hProjekt.TestGames;
+import hProjekt.controller.GameController;
+import hProjekt.controller.GameEventListener;
+import hProjekt.controller.MapSaveController;
+import hProjekt.controller.PlayerController;
+import hProjekt.controller.actions.AcceptCurse;
+import hProjekt.controller.actions.AcceptTreasure;
+import hProjekt.controller.actions.CollectAmulet;
+import hProjekt.controller.actions.ConfirmTreasureCards;
+import hProjekt.controller.actions.DriveAction;
+import hProjekt.controller.actions.EndTurn;
+import hProjekt.controller.actions.IllegalActionException;
+import hProjekt.controller.actions.PlayPathCard;
+import hProjekt.controller.actions.PlayerAction;
+import hProjekt.controller.actions.SelectPosition;
+import hProjekt.model.GameState;
+import hProjekt.model.cards.PathCardKey;
+import hProjekt.model.grid.Statue;
+import hProjekt.model.grid.TilePosition;
+
+/**
+ * Captures a game in progress into a {@link PersistentGameState} and restores
+ * it.
+ */
+public class PersistentGameStateTest {
+    private GameState live;
+    private List<Statue> statues;
+
+    @BeforeEach
+    public void playGame() {
+        final GameController gameController = TestGames.newGame(3, 3);
+        RandomBot.play(gameController, 5, 120);
+        live = gameController.getState();
+        statues = live.getGrid().getStructures().values().stream()
+                .filter(Statue.class::isInstance)
+                .map(Statue.class::cast)
+                .toList();
+        assertFalse(statues.isEmpty(), "The default map has no statues");
+    }
+
+    @Test
+    public void testMaterializeRestoresCapturedState() {
+        final PersistentGameState state = PersistentGameState.capture(live);
+        final GameState restored = state.materialize(MapSaveController.loadMap(TestGames.MAP_NAME));
+        assertEquals(GameSnapshot.capture(live), GameSnapshot.capture(restored));
+        assertEquals(state, PersistentGameState.capture(restored));
+        assertEquals(GameSnapshot.capture(live), state.toSnapshot());
+    }
+
+    @Test
+    public void testMaterializeRestoresEveryStatueDirection() {
+        // turn() doesn't reach every direction, so restoring must set it directly
+        for (final TilePosition.EdgeDirection direction : TilePosition.EdgeDirection.values()) {
+            statues.forEach(statue -> statue.setDirection(direction));
+            final GameState restored = PersistentGameState.capture(live)
+                    .materialize(MapSaveController.loadMap(TestGames.MAP_NAME));
+            for (final Statue statue : statues) {
+                assertEquals(direction,
+                        ((Statue) restored.getGrid().getStructures().get(statue.getPosition())).getDirection());
+            }
+        }
+    }
+
+    @Test
+    public void testWithMethodsKeepHashAndShareUnchangedParts() {
+        final PersistentGameState state = PersistentGameState.capture(live);
+        final TilePosition statue = statues.get(0).getPosition();
+        final TilePosition.EdgeDirection other = statues.get(0).getDirection() == TilePosition.EdgeDirection.WEST
+                ? TilePosition.EdgeDirection.EAST
+                : TilePosition.EdgeDirection.WEST;
+        final PathCardKey card = state.players().get(0).handList().isEmpty()
+                ? state.trail(Config.TREASURE_TRAIL_COLORS.get(0)).get(0)
+                : state.players().get(0).handList().get(0);
+
+        final PersistentGameState changed = state.withStatueDirection(statue, other)
+                .withTrailCard(Config.TREASURE_TRAIL_COLORS.get(1), card)
+                .withAmulet(statue, !state.hasAmulet(statue))
+                .withTreasureCardDrawn();
+        assertEquals(new PersistentGameState(changed.deck(), changed.deckDepth(), changed.players(),
+                changed.trails(), changed.amuletTiles(), changed.statueDirections()).zobristHash(),
+                changed.zobristHash());
+        assertNotEquals(state.zobristHash(), changed.zobristHash());
+        assertSame(state.players(), changed.players());
+        assertSame(state.deck(), changed.deck());
+        assertEquals(PersistentGameState.capture(live), state);
+        assertSame(state, state.withStatueDirection(statue, statues.get(0).getDirection()));
+    }
+
+    @Test
+    public void testApplyActionMatchesLiveGame() {
+        final GameController gameController = TestGames.newGame(7, 3);
+        final Deque<PersistentGameState> before = new ArrayDeque<>();
+        final Map<Class<?>, Integer> checked = new HashMap<>();
+        gameController.addGameEventListener(new GameEventListener() {
+            @Override
+            public void onActionStart(final PlayerController playerController, final PlayerAction action) {
+                before.push(PersistentGameState.capture(gameController.getState()));
+            }
+
+            @Override
+            public void onActionRejected(final PlayerController playerController, final PlayerAction action) {
+                before.pop();
+            }
+
+            @Override
+            public void afterAction(final PlayerController playerController, final PlayerAction action) {
+                final PersistentGameState earlier = before.pop();
+                final PersistentGameState later = PersistentGameState.capture(gameController.getState());
+                final int id = playerController.getPlayer().getID();
+                if (action instanceof SelectPosition || action instanceof DriveAction
+                        || action instanceof CollectAmulet || action instanceof AcceptCurse
+                        || action instanceof EndTurn || action instanceof ConfirmTreasureCards) {
+                    assertEquals(later, assertDoesNotThrow(() -> earlier.apply(id, action)), action.toString());
+                } else if (action instanceof PlayPathCard) {
+                    // the card drawn after playing one is random
+                    final int index = earlier.playerIndex(id);
+                    assertEquals(later, assertDoesNotThrow(() -> earlier.apply(id, action))
+                            .withPlayer(index, later.players().get(index)), action.toString());
+                } else {
+                    return;
+                }
+                checked.merge(action.getClass(), 1, Integer::sum);
+            }
+        });
+        RandomBot.play(gameController, 9, 200);
+        assertTrue(checked.containsKey(SelectPosition.class), checked.toString());
+        assertTrue(checked.containsKey(PlayPathCard.class), checked.toString());
+        assertTrue(checked.containsKey(DriveAction.class), checked.toString());
+    }
+
+    @Test
+    public void testApplyActionChecksOwnership() {
+        final PersistentGameState state = PersistentGameState.capture(live);
+        final PersistentPlayer player = state.players().get(0);
+        final PersistentGameState cursed = assertDoesNotThrow(() -> state.apply(player.id(), new AcceptCurse()));
+        if (player.amulets() > 0) {
+            assertEquals(player.amulets() - 1, cursed.players().get(0).amulets());
+        } else {
+            assertEquals(Math.max(0, player.goldCards().size() - 1), cursed.players().get(0).goldCards().size());
+        }
+        assertThrows(IllegalActionException.class, () -> state.apply(-1, new EndTurn()));
+        assertThrows(IllegalArgumentException.class, () -> state.apply(player.id(), new AcceptTreasure(true)));
+        assertSame(state, assertDoesNotThrow(() -> state.apply(player.id(), new AcceptTreasure(false))));
+    }
+
+    @Test
+    public void testApplyMatchesLaterCapture() {
+        final GameController gameController = TestGames.newGame(3, 3);
+        RandomBot.play(gameController, 5, 60);
+        final PersistentGameState earlier = PersistentGameState.capture(gameController.getState());
+        final PersistentGameState later = PersistentGameState.capture(live);
+        final PersistentGameState applied = earlier.apply(
+                GameSnapshotDelta.between(earlier.toSnapshot(), later.toSnapshot()));
+        assertEquals(later.toSnapshot(), applied.toSnapshot());
+        assertEquals(later.zobristHash(), applied.zobristHash());
+    }
+}
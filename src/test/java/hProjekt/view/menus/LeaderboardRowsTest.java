@@ -0,0 +1,59 @@
+package hProjekt.view.menus;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.Test;
+
+import hProjekt.controller.LeaderboardColumns;
+import hProjekt.controller.LeaderboardEntry;
+
+/**
+ * Pages through the rows of a leaderboard query.
+ */
+public class LeaderboardRowsTest {
+    private static final int RESULTS = 1000;
+
+    private static LeaderboardColumns columns() {
+        final int[] players = new int[RESULTS];
+        final boolean[] ais = new boolean[RESULTS];
+        final long[] times = new long[RESULTS];
+        final int[] scores = new int[RESULTS];
+        for (int row = 0; row < RESULTS; row++) {
+            players[row] = row % 2;
+            ais[row] = row % 2 == 1;
+            times[row] = row * 60L;
+            scores[row] = row;
+        }
+        return new LeaderboardColumns(RESULTS, new String[] {"Ada", "Bot"}, players, ais, times, scores);
+    }
+
+    @Test
+    public void testRowsFollowTheQuery() {
+        final LeaderboardRows rows = new LeaderboardRows(columns(), LeaderboardColumns.Filter.ALL,
+                LeaderboardColumns.SortKey.SCORE, true);
+        assertEquals(RESULTS, rows.size());
+        for (final int index : new int[] {0, 63, 64, RESULTS - 1, 500}) {
+            final LeaderboardEntry entry = rows.get(index);
+            assertEquals(RESULTS - 1 - index, entry.getScore());
+            assertEquals(entry.getScore() % 2 == 1, entry.isAi());
+        }
+        assertSame(rows.get(500), rows.get(500));
+        assertThrows(IndexOutOfBoundsException.class, () -> rows.get(RESULTS));
+    }
+
+    @Test
+    public void testDroppedEntriesKeepTheirRow() {
+        final LeaderboardRows rows = new LeaderboardRows(columns(), LeaderboardColumns.Filter.ALL,
+                LeaderboardColumns.SortKey.SCORE, false);
+        final LeaderboardEntry selected = rows.get(3);
+        // enough other pages to drop the page of the selected entry
+        for (int index = 100; index < RESULTS; index += 10) {
+            rows.get(index);
+        }
+        assertEquals(3, selected.getScore());
+        assertEquals("Bot", selected.getPlayerName());
+        assertEquals(3, rows.get(3).getScore());
+    }
+}